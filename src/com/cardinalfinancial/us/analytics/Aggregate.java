@@ -0,0 +1,80 @@
+package com.cardinalfinancial.us.analytics;
+
+import com.cardinalfinancial.us.model.Money;
+
+/**
+ * Immutable result of an aggregation query for one group of rental agreements
+ *
+ * @author Sylvia Barnai
+ */
+public final class Aggregate {
+
+    /**
+     * The group: a tool type name, tool code, MM/dd/yy checkout date or discount range such as "10-19%"
+     */
+    private final String key;
+
+    /**
+     * The number of agreements in the group
+     */
+    private final long count;
+
+    /**
+     * The sum of the measure over the group in cents
+     */
+    private final long sumCents;
+
+    /**
+     * Constructor for Aggregate
+     *
+     * @param key      the group
+     * @param count    the number of agreements in the group
+     * @param sumCents the sum of the measure over the group in cents
+     */
+    Aggregate(String key, long count, long sumCents) {
+        this.key = key;
+        this.count = count;
+        this.sumCents = sumCents;
+    }
+
+    /**
+     * Retrieves the group
+     *
+     * @return a tool type name, tool code, MM/dd/yy checkout date, discount range such as "10-19%" or "all"
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Retrieves the number of agreements in the group
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the sum of the measure over the group
+     *
+     * @return the sum
+     */
+    public Money getSum() {
+        return Money.ofCents(sumCents);
+    }
+
+    /**
+     * Retrieves the sum of the measure over the group in cents
+     *
+     * @return the sum in cents
+     */
+    public long getSumCents() {
+        return sumCents;
+    }
+
+    @Override
+    public String toString() {
+        return key + ": " + count + " agreements, " + getSum();
+    }
+}
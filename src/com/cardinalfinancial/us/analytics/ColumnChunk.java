@@ -0,0 +1,87 @@
+package com.cardinalfinancial.us.analytics;
+
+/**
+ * A fixed number of rows of a ColumnarAgreementStore, one primitive array per column. Rows are written once by the
+ * store under its lock and published by its size.
+ *
+ * @author Sylvia Barnai
+ */
+final class ColumnChunk {
+
+    /**
+     * Tool type ids, indexes into the store's tool type names
+     */
+    final int[] toolTypeIds;
+
+    /**
+     * Tool code ids, indexes into the store's tool codes
+     */
+    final int[] toolCodeIds;
+
+    /**
+     * Checkout dates as day counts since 1970-01-01
+     */
+    final int[] checkoutEpochDays;
+
+    /**
+     * Discount percentages divided by ten
+     */
+    final int[] discountBuckets;
+
+    /**
+     * Final charges in cents
+     */
+    final long[] finalChargeCents;
+
+    /**
+     * Pre-discount charges in cents
+     */
+    final long[] preDiscountChargeCents;
+
+    /**
+     * Discount amounts in cents
+     */
+    final long[] discountAmountCents;
+
+    /**
+     * Earliest checkout date of the chunk, so that queries can skip chunks outside their date range
+     */
+    int minEpochDay = Integer.MAX_VALUE;
+
+    /**
+     * Latest checkout date of the chunk
+     */
+    int maxEpochDay = Integer.MIN_VALUE;
+
+    /**
+     * Constructor for ColumnChunk
+     *
+     * @param capacity the number of rows
+     */
+    ColumnChunk(int capacity) {
+        this.toolTypeIds = new int[capacity];
+        this.toolCodeIds = new int[capacity];
+        this.checkoutEpochDays = new int[capacity];
+        this.discountBuckets = new int[capacity];
+        this.finalChargeCents = new long[capacity];
+        this.preDiscountChargeCents = new long[capacity];
+        this.discountAmountCents = new long[capacity];
+    }
+
+    /**
+     * Retrieves the column of a measure
+     *
+     * @param measure the measure
+     * @return the column in cents
+     */
+    long[] column(Measure measure) {
+        switch (measure) {
+            case PRE_DISCOUNT_CHARGE:
+                return preDiscountChargeCents;
+            case DISCOUNT_AMOUNT:
+                return discountAmountCents;
+            default:
+                return finalChargeCents;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.cardinalfinancial.us.analytics;
+
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only, in-memory store of rental agreements kept as columns of primitive arrays, for aggregation queries over
+ * millions of rentals. Rows are stored in fixed-size chunks that are never copied; tool types and codes are stored as
+ * ids into small dictionaries. Queries scan the chunks in parallel on the common fork-join pool with tight loops over
+ * the columns, skip chunks whose dates are outside the queried range, and see every row added before they started.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ColumnarAgreementStore {
+
+    /**
+     * Default number of rows per chunk
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 65536;
+
+    /**
+     * Key of the single group of GroupBy.NONE
+     */
+    public static final String ALL_KEY = "all";
+
+    /**
+     * Number of discount buckets: 0-9%, 10-19%, ..., 90-99% and 100%
+     */
+    private static final int DISCOUNT_BUCKET_COUNT = 11;
+
+    /**
+     * log2 of the number of rows per chunk
+     */
+    private final int chunkShift;
+
+    /**
+     * Number of rows per chunk - 1
+     */
+    private final int chunkMask;
+
+    /**
+     * Ids of the tool type names, guarded by this store's lock
+     */
+    private final Map<String, Integer> toolTypeIds = new HashMap<>();
+
+    /**
+     * Ids of the tool codes, guarded by this store's lock
+     */
+    private final Map<String, Integer> toolCodeIds = new HashMap<>();
+
+    /**
+     * Tool type names by id, replaced when a name is added
+     */
+    private volatile String[] toolTypeNames = new String[0];
+
+    /**
+     * Tool codes by id, replaced when a code is added
+     */
+    private volatile String[] toolCodes = new String[0];
+
+    /**
+     * The chunks, replaced by a longer array when a chunk is added
+     */
+    private volatile ColumnChunk[] chunks = new ColumnChunk[0];
+
+    /**
+     * Earliest checkout date of the store
+     */
+    private volatile int minEpochDay = Integer.MAX_VALUE;
+
+    /**
+     * Latest checkout date of the store
+     */
+    private volatile int maxEpochDay = Integer.MIN_VALUE;
+
+    /**
+     * Number of rows, written after the row itself so that readers only see complete rows
+     */
+    private volatile int size;
+
+    /**
+     * Constructor for ColumnarAgreementStore with the default chunk size
+     */
+    public ColumnarAgreementStore() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor for ColumnarAgreementStore
+     * If the chunk size is not a positive power of two, then throw exception
+     *
+     * @param chunkSize the number of rows per chunk
+     */
+    public ColumnarAgreementStore(int chunkSize) {
+        if (chunkSize < 1 || Integer.bitCount(chunkSize) != 1)
+            throw new IllegalArgumentException("Chunk size must be a positive power of two.");
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+    }
+
+    /**
+     * Adds a RentalAgreement as a new row
+     * If the agreement has no checkout date, then throw exception
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     */
+    public synchronized void add(RentalAgreement rentalAgreement) {
+        int checkoutEpochDay = rentalAgreement.getCheckoutEpochDay();
+        if (checkoutEpochDay == RentalAgreement.NO_DATE)
+            throw new IllegalArgumentException("RentalAgreement has no checkout date.");
+        int row = size;
+        if (row == Integer.MAX_VALUE)
+            throw new IllegalStateException("Columnar agreement store is full.");
+        int index = row & chunkMask;
+        ColumnChunk chunk = index == 0 ? addChunk() : chunks[row >>> chunkShift];
+        chunk.toolTypeIds[index] = toolTypeId(rentalAgreement.getToolType());
+        chunk.toolCodeIds[index] = toolCodeId(rentalAgreement.getToolCode());
+        chunk.checkoutEpochDays[index] = checkoutEpochDay;
+        chunk.discountBuckets[index] = Math.min(Math.max(rentalAgreement.getDiscountPercent(), 0), 100) / 10;
+        chunk.finalChargeCents[index] = cents(rentalAgreement.getFinalChargeCents());
+        chunk.preDiscountChargeCents[index] = cents(rentalAgreement.getPreDiscountChargeCents());
+        chunk.discountAmountCents[index] = cents(rentalAgreement.getDiscountAmountCents());
+        chunk.minEpochDay = Math.min(chunk.minEpochDay, checkoutEpochDay);
+        chunk.maxEpochDay = Math.max(chunk.maxEpochDay, checkoutEpochDay);
+        if (checkoutEpochDay < minEpochDay) {
+            minEpochDay = checkoutEpochDay;
+        }
+        if (checkoutEpochDay > maxEpochDay) {
+            maxEpochDay = checkoutEpochDay;
+        }
+        size = row + 1;
+    }
+
+    /**
+     * Retrieves the number of rows
+     *
+     * @return the number of agreements added
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts and sums a measure over every agreement, per group
+     *
+     * @param measure the summed amount
+     * @param groupBy how the agreements are grouped
+     * @return one Aggregate per non-empty group, in tool type, tool code, date or discount order
+     */
+    public List<Aggregate> aggregate(Measure measure, GroupBy groupBy) {
+        return aggregate(measure, groupBy, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Counts and sums a measure over the agreements checked out in a date range, per group
+     *
+     * @param measure      the summed amount
+     * @param groupBy      how the agreements are grouped
+     * @param fromEpochDay the first checkout date of the range as a day count since 1970-01-01
+     * @param toEpochDay   the last checkout date of the range, inclusive
+     * @return one Aggregate per non-empty group, in tool type, tool code, date or discount order
+     */
+    public List<Aggregate> aggregate(Measure measure, GroupBy groupBy, long fromEpochDay, long toEpochDay) {
+        // Read the size first: every row, name and chunk it covers was published before it
+        int rowCount = size;
+        ColumnChunk[] chunkArray = chunks;
+        String[] typeNames = toolTypeNames;
+        String[] codes = toolCodes;
+        int from = (int) Math.max(fromEpochDay, minEpochDay);
+        int to = (int) Math.min(toEpochDay, maxEpochDay);
+        if (rowCount == 0 || from > to) {
+            return new ArrayList<>();
+        }
+
+        int groupCount;
+        switch (groupBy) {
+            case TOOL_TYPE:
+                groupCount = typeNames.length;
+                break;
+            case TOOL_CODE:
+                groupCount = codes.length;
+                break;
+            case CHECKOUT_DAY:
+                groupCount = to - from + 1;
+                break;
+            case DISCOUNT_BUCKET:
+                groupCount = DISCOUNT_BUCKET_COUNT;
+                break;
+            default:
+                groupCount = 1;
+        }
+        int chunkCount = ((rowCount - 1) >>> chunkShift) + 1;
+        int lastChunkRows = rowCount - ((chunkCount - 1) << chunkShift);
+        long[] totals = IntStream.range(0, chunkCount).parallel()
+                .mapToObj(c -> aggregateChunk(chunkArray[c], c == chunkCount - 1 ? lastChunkRows : chunkMask + 1,
+                        measure, groupBy, groupCount, from, to))
+                .reduce(ColumnarAgreementStore::addTotals)
+                .orElseGet(() -> new long[2 * groupCount]);
+
+        List<Aggregate> aggregates = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            long count = totals[2 * group];
+            if (count > 0) {
+                aggregates.add(new Aggregate(key(groupBy, group, typeNames, codes, from), count, totals[2 * group + 1]));
+            }
+        }
+        return aggregates;
+    }
+
+    /**
+     * Counts and sums a measure over the rows of one chunk
+     *
+     * @return the count and sum of every group, interleaved
+     */
+    private static long[] aggregateChunk(ColumnChunk chunk, int rowCount, Measure measure, GroupBy groupBy,
+                                         int groupCount, int from, int to) {
+        long[] totals = new long[2 * groupCount];
+        if (chunk.maxEpochDay < from || chunk.minEpochDay > to) {
+            return totals;
+        }
+        boolean wholeChunk = chunk.minEpochDay >= from && chunk.maxEpochDay <= to;
+        long[] values = chunk.column(measure);
+        int[] days = chunk.checkoutEpochDays;
+
+        if (groupBy == GroupBy.NONE) {
+            long count = 0;
+            long sum = 0;
+            if (wholeChunk) {
+                for (int i = 0; i < rowCount; i++) {
+                    sum += values[i];
+                }
+                count = rowCount;
+            } else {
+                for (int i = 0; i < rowCount; i++) {
+                    // -1 if the day is outside the range, 0 if inside
+                    int outside = ((days[i] - from) | (to - days[i])) >> 31;
+                    count += 1 + outside;
+                    sum += values[i] & ~(long) outside;
+                }
+            }
+            totals[0] = count;
+            totals[1] = sum;
+            return totals;
+        }
+
+        int[] keys;
+        int base = 0;
+        switch (groupBy) {
+            case TOOL_TYPE:
+                keys = chunk.toolTypeIds;
+                break;
+            case TOOL_CODE:
+                keys = chunk.toolCodeIds;
+                break;
+            case CHECKOUT_DAY:
+                keys = days;
+                base = from;
+                break;
+            default:
+                keys = chunk.discountBuckets;
+        }
+        for (int i = 0; i < rowCount; i++) {
+            int day = days[i];
+            if (wholeChunk || (day >= from && day <= to)) {
+                int slot = (keys[i] - base) << 1;
+                totals[slot]++;
+                totals[slot + 1] += values[i];
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Adds the totals of one chunk to the totals of another
+     */
+    private static long[] addTotals(long[] totals, long[] chunkTotals) {
+        for (int i = 0; i < totals.length; i++) {
+            totals[i] += chunkTotals[i];
+        }
+        return totals;
+    }
+
+    /**
+     * Builds the key of a group
+     */
+    private static String key(GroupBy groupBy, int group, String[] typeNames, String[] codes, int from) {
+        switch (groupBy) {
+            case TOOL_TYPE:
+                return typeNames[group];
+            case TOOL_CODE:
+                return codes[group];
+            case CHECKOUT_DAY:
+                return DateUtils.formatEpochDay(from + group);
+            case DISCOUNT_BUCKET:
+                return group == DISCOUNT_BUCKET_COUNT - 1 ? "100%" : group * 10 + "-" + (group * 10 + 9) + "%";
+            default:
+                return ALL_KEY;
+        }
+    }
+
+    /**
+     * Adds a chunk for the next rows, called with this store's lock held
+     */
+    private ColumnChunk addChunk() {
+        ColumnChunk chunk = new ColumnChunk(chunkMask + 1);
+        ColumnChunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = chunk;
+        chunks = grown;
+        return chunk;
+    }
+
+    /**
+     * Retrieves the id of a tool type name, adding it to the dictionary if it is new
+     */
+    private int toolTypeId(String toolType) {
+        Integer id = toolTypeIds.get(toolType);
+        if (id == null) {
+            id = toolTypeNames.length;
+            toolTypeIds.put(toolType, id);
+            String[] grown = Arrays.copyOf(toolTypeNames, id + 1);
+            grown[id] = toolType;
+            toolTypeNames = grown;
+        }
+        return id;
+    }
+
+    /**
+     * Retrieves the id of a tool code, adding it to the dictionary if it is new
+     */
+    private int toolCodeId(String toolCode) {
+        Integer id = toolCodeIds.get(toolCode);
+        if (id == null) {
+            id = toolCodes.length;
+            toolCodeIds.put(toolCode, id);
+            String[] grown = Arrays.copyOf(toolCodes, id + 1);
+            grown[id] = toolCode;
+            toolCodes = grown;
+        }
+        return id;
+    }
+
+    /**
+     * Retrieves the cents of an amount that may not be set
+     */
+    private static long cents(long amountCents) {
+        return amountCents == RentalAgreement.NO_AMOUNT ? 0 : amountCents;
+    }
+}
@@ -0,0 +1,34 @@
+package com.cardinalfinancial.us.analytics;
+
+/**
+ * Enum of the ways an aggregation query can group rental agreements
+ *
+ * @author Sylvia Barnai
+ */
+public enum GroupBy {
+
+    /**
+     * A single group of every agreement
+     */
+    NONE,
+
+    /**
+     * One group per tool type name
+     */
+    TOOL_TYPE,
+
+    /**
+     * One group per tool code
+     */
+    TOOL_CODE,
+
+    /**
+     * One group per checkout date
+     */
+    CHECKOUT_DAY,
+
+    /**
+     * One group per ten discount percentage points: 0-9%, 10-19%, ..., 90-99% and 100%
+     */
+    DISCOUNT_BUCKET
+}
@@ -0,0 +1,12 @@
+package com.cardinalfinancial.us.analytics;
+
+/**
+ * Enum of the amounts of a rental agreement that can be summed by an aggregation query
+ *
+ * @author Sylvia Barnai
+ */
+public enum Measure {
+    FINAL_CHARGE,
+    PRE_DISCOUNT_CHARGE,
+    DISCOUNT_AMOUNT
+}
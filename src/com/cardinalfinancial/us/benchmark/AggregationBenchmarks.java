@@ -0,0 +1,87 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.analytics.ColumnarAgreementStore;
+import com.cardinalfinancial.us.analytics.GroupBy;
+import com.cardinalfinancial.us.analytics.Measure;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark for aggregation queries over millions of rentals. Every query of ColumnarAgreementStore is measured next
+ * to the same query as a stream over a list of RentalAgreement objects, one result per operation.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.AggregationBenchmarks [-n agreements] [-wi warmups] [-i iterations] [-t millis]}
+ *
+ * @author Sylvia Barnai
+ */
+public class AggregationBenchmarks {
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args options
+     */
+    public static void main(String[] args) {
+        int agreementCount = 2_000_000;
+        int warmupIterations = 3;
+        int measurementIterations = 5;
+        long iterationMillis = 1000;
+        for (int i = 0; i < args.length; i++) {
+            if ("-n".equals(args[i])) {
+                agreementCount = Integer.parseInt(args[++i]);
+            } else if ("-wi".equals(args[i])) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if ("-i".equals(args[i])) {
+                measurementIterations = Integer.parseInt(args[++i]);
+            } else if ("-t".equals(args[i])) {
+                iterationMillis = Long.parseLong(args[++i]);
+            }
+        }
+
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+        Checkout[] checkouts = CheckoutBenchmarks.checkouts(5);
+        ColumnarAgreementStore store = new ColumnarAgreementStore();
+        List<RentalAgreement> rentalAgreements = new ArrayList<>(agreementCount);
+        for (int i = 0; i < agreementCount; i++) {
+            // A new agreement per row, as the agreements of a real day are distinct objects
+            RentalAgreement rentalAgreement = checkoutService.processCheckout(checkouts[i & (checkouts.length - 1)]);
+            rentalAgreements.add(rentalAgreement);
+            store.add(rentalAgreement);
+        }
+        long from = DateUtils.toEpochDay(2018, 7, 1);
+        long to = DateUtils.toEpochDay(2018, 7, 31);
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations, iterationMillis);
+        PrintStream console = System.out;
+        console.println(BenchmarkResult.header());
+        console.println(runner.run("ColumnarAgreementStore.aggregate:NONE",
+                invocation -> store.aggregate(Measure.FINAL_CHARGE, GroupBy.NONE)));
+        console.println(runner.run("ColumnarAgreementStore.aggregate:NONE:July 2018",
+                invocation -> store.aggregate(Measure.FINAL_CHARGE, GroupBy.NONE, from, to)));
+        console.println(runner.run("ColumnarAgreementStore.aggregate:TOOL_TYPE",
+                invocation -> store.aggregate(Measure.FINAL_CHARGE, GroupBy.TOOL_TYPE)));
+        console.println(runner.run("ColumnarAgreementStore.aggregate:CHECKOUT_DAY",
+                invocation -> store.aggregate(Measure.FINAL_CHARGE, GroupBy.CHECKOUT_DAY)));
+        console.println(runner.run("ColumnarAgreementStore.aggregate:DISCOUNT_BUCKET",
+                invocation -> store.aggregate(Measure.DISCOUNT_AMOUNT, GroupBy.DISCOUNT_BUCKET)));
+        console.println(runner.run("List<RentalAgreement>.stream:NONE",
+                invocation -> rentalAgreements.parallelStream().mapToLong(RentalAgreement::getFinalChargeCents).sum()));
+        console.println(runner.run("List<RentalAgreement>.stream:TOOL_TYPE",
+                invocation -> rentalAgreements.parallelStream().collect(Collectors.groupingBy(RentalAgreement::getToolType,
+                        Collectors.summingLong(RentalAgreement::getFinalChargeCents)))));
+        console.println(runner.run("List<RentalAgreement>.stream:CHECKOUT_DAY",
+                invocation -> rentalAgreements.parallelStream().collect(Collectors.groupingBy(RentalAgreement::getCheckoutEpochDay,
+                        Collectors.summingLong(RentalAgreement::getFinalChargeCents)))));
+    }
+}
@@ -0,0 +1,152 @@
+package com.cardinalfinancial.us.benchmark;
+
+import java.util.Locale;
+
+/**
+ * BenchmarkResult class that holds the measurements of one benchmark run by BenchmarkRunner
+ *
+ * @author Sylvia Barnai
+ */
+public final class BenchmarkResult {
+
+    /**
+     * The name of the benchmark
+     */
+    private final String name;
+
+    /**
+     * Mean throughput over the measurement iterations, in operations per second
+     */
+    private final double opsPerSecond;
+
+    /**
+     * Standard deviation of the throughput over the measurement iterations, in operations per second
+     */
+    private final double opsPerSecondError;
+
+    /**
+     * Bytes allocated per operation, or -1 if the JVM cannot measure thread allocation
+     */
+    private final double bytesPerOp;
+
+    /**
+     * Allocation rate in megabytes per second, or -1 if the JVM cannot measure thread allocation
+     */
+    private final double allocationRateMbPerSecond;
+
+    /**
+     * Number of garbage collections during the measurement iterations
+     */
+    private final long gcCount;
+
+    /**
+     * Time spent in garbage collection during the measurement iterations, in milliseconds
+     */
+    private final long gcTimeMillis;
+
+    /**
+     * Constructor for BenchmarkResult
+     *
+     * @param name                      the name of the benchmark
+     * @param opsPerSecond              the mean throughput
+     * @param opsPerSecondError         the standard deviation of the throughput
+     * @param bytesPerOp                the bytes allocated per operation
+     * @param allocationRateMbPerSecond the allocation rate
+     * @param gcCount                   the number of garbage collections
+     * @param gcTimeMillis              the time spent in garbage collection
+     */
+    BenchmarkResult(String name, double opsPerSecond, double opsPerSecondError, double bytesPerOp,
+                    double allocationRateMbPerSecond, long gcCount, long gcTimeMillis) {
+        this.name = name;
+        this.opsPerSecond = opsPerSecond;
+        this.opsPerSecondError = opsPerSecondError;
+        this.bytesPerOp = bytesPerOp;
+        this.allocationRateMbPerSecond = allocationRateMbPerSecond;
+        this.gcCount = gcCount;
+        this.gcTimeMillis = gcTimeMillis;
+    }
+
+    /**
+     * Retrieves the name of the benchmark
+     *
+     * @return the name of the benchmark
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the mean throughput
+     *
+     * @return the mean throughput in operations per second
+     */
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    /**
+     * Retrieves the standard deviation of the throughput
+     *
+     * @return the standard deviation in operations per second
+     */
+    public double getOpsPerSecondError() {
+        return opsPerSecondError;
+    }
+
+    /**
+     * Retrieves the bytes allocated per operation
+     *
+     * @return the bytes allocated per operation, or -1 if not measurable
+     */
+    public double getBytesPerOp() {
+        return bytesPerOp;
+    }
+
+    /**
+     * Retrieves the allocation rate
+     *
+     * @return the allocation rate in megabytes per second, or -1 if not measurable
+     */
+    public double getAllocationRateMbPerSecond() {
+        return allocationRateMbPerSecond;
+    }
+
+    /**
+     * Retrieves the number of garbage collections
+     *
+     * @return the number of garbage collections
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Retrieves the time spent in garbage collection
+     *
+     * @return the garbage collection time in milliseconds
+     */
+    public long getGcTimeMillis() {
+        return gcTimeMillis;
+    }
+
+    /**
+     * Retrieves the header line matching the columns of toString()
+     *
+     * @return the header line
+     */
+    public static String header() {
+        return String.format(Locale.US, "%-52s %16s %12s %12s %12s %6s %8s",
+                "Benchmark", "ops/s", "error", "B/op", "MB/s alloc", "GCs", "GC ms");
+    }
+
+    /**
+     * Formats the result as one line of the report
+     *
+     * @return the result line
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%-52s %16.1f %12.1f %12.1f %12.1f %6d %8d",
+                name, opsPerSecond, opsPerSecondError, bytesPerOp, allocationRateMbPerSecond, gcCount, gcTimeMillis);
+    }
+}
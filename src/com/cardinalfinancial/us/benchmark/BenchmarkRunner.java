@@ -0,0 +1,180 @@
+package com.cardinalfinancial.us.benchmark;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Runs a benchmark operation for a number of timed warmup and measurement iterations, and measures its throughput,
+ * the bytes it allocates per operation and the garbage collections it causes.
+ *
+ * @author Sylvia Barnai
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * Number of operations run between two clock checks
+     */
+    private static final int BATCH_SIZE = 64;
+
+    /**
+     * Written after every batch so the JIT cannot remove the operation as dead code
+     */
+    private static volatile Object sink;
+
+    /**
+     * Operation measured by a benchmark. It returns its result so that the result is consumed.
+     */
+    public interface Operation {
+
+        /**
+         * Runs the operation once
+         *
+         * @param invocation the number of the invocation, which benchmarks can use to vary their input
+         * @return the result of the operation
+         */
+        Object run(long invocation);
+    }
+
+    /**
+     * Number of warmup iterations, which are not measured
+     */
+    private final int warmupIterations;
+
+    /**
+     * Number of measurement iterations
+     */
+    private final int measurementIterations;
+
+    /**
+     * Length of each iteration in milliseconds
+     */
+    private final long iterationMillis;
+
+    /**
+     * Constructor for BenchmarkRunner
+     *
+     * @param warmupIterations      the number of warmup iterations
+     * @param measurementIterations the number of measurement iterations
+     * @param iterationMillis       the length of each iteration in milliseconds
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        if (measurementIterations < 1 || iterationMillis < 1)
+            throw new IllegalArgumentException("At least one measurement iteration of at least one millisecond is required.");
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * Runs a benchmark on the current thread
+     *
+     * @param name      the name of the benchmark
+     * @param operation the operation to measure
+     * @return the measurements of the benchmark
+     */
+    public BenchmarkResult run(String name, Operation operation) {
+        long invocation = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            invocation = runIteration(operation, invocation, new long[1]);
+        }
+
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTimeMillis();
+        long allocatedBefore = allocatedBytes();
+        long nanos = 0;
+        long operations = 0;
+        double[] opsPerSecond = new double[measurementIterations];
+
+        for (int i = 0; i < measurementIterations; i++) {
+            long[] elapsed = new long[1];
+            long invocationBefore = invocation;
+            invocation = runIteration(operation, invocation, elapsed);
+            long iterationOperations = invocation - invocationBefore;
+            opsPerSecond[i] = iterationOperations * 1e9 / elapsed[0];
+            nanos += elapsed[0];
+            operations += iterationOperations;
+        }
+
+        long allocatedAfter = allocatedBytes();
+        double bytesPerOp = -1;
+        double allocationRate = -1;
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            bytesPerOp = (double) (allocatedAfter - allocatedBefore) / operations;
+            allocationRate = (allocatedAfter - allocatedBefore) / (1024.0 * 1024.0) / (nanos / 1e9);
+        }
+
+        double mean = 0;
+        for (double value : opsPerSecond) {
+            mean += value / opsPerSecond.length;
+        }
+        double variance = 0;
+        for (double value : opsPerSecond) {
+            variance += (value - mean) * (value - mean) / opsPerSecond.length;
+        }
+        return new BenchmarkResult(name, mean, Math.sqrt(variance), bytesPerOp, allocationRate,
+                gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore);
+    }
+
+    /**
+     * Runs the operation in batches until the iteration time has elapsed
+     *
+     * @param operation  the operation to run
+     * @param invocation the number of the next invocation
+     * @param elapsed    receives the elapsed nanoseconds of the iteration
+     * @return the number of the next invocation after the iteration
+     */
+    private long runIteration(Operation operation, long invocation, long[] elapsed) {
+        long start = System.nanoTime();
+        long deadline = start + iterationMillis * 1_000_000L;
+        long now;
+        do {
+            Object result = null;
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                result = operation.run(invocation++);
+            }
+            sink = result;
+            now = System.nanoTime();
+        } while (now < deadline);
+        elapsed[0] = now - start;
+        return invocation;
+    }
+
+    /**
+     * Retrieves the bytes allocated so far by the current thread
+     *
+     * @return the allocated bytes, or -1 if the JVM cannot measure thread allocation
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retrieves the total number of garbage collections so far
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, garbageCollector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the total time spent in garbage collection so far, in milliseconds
+     */
+    private static long gcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        return time;
+    }
+}
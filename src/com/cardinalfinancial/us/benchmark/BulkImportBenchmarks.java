@@ -0,0 +1,128 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.bulk.CheckoutCsvImporter;
+import com.cardinalfinancial.us.bulk.CsvWriter;
+import com.cardinalfinancial.us.bulk.ImportSummary;
+import com.cardinalfinancial.us.output.CsvAgreementSink;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Benchmark for the nightly CSV import. A file of checkout rows, one in a hundred of them invalid, is imported into an
+ * agreement CSV file and a reject file, and the rows per second and the heap still in use after garbage collections
+ * during the run are reported. The heap should stay the same whatever the number of rows.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.BulkImportBenchmarks [-n rows] [-dir directory]}
+ *
+ * @author Sylvia Barnai
+ */
+public class BulkImportBenchmarks {
+
+    /**
+     * Tool codes of the default catalog
+     */
+    private static final String[] TOOL_CODES = {"LADW", "CHNS", "JAKR", "JAKD"};
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args options
+     * @throws IOException if the files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int rowCount = 1_000_000;
+        Path parent = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i < args.length; i++) {
+            if ("-n".equals(args[i])) {
+                rowCount = Integer.parseInt(args[++i]);
+            } else if ("-dir".equals(args[i])) {
+                parent = Paths.get(args[++i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        Path input = Files.createTempFile(parent, "checkouts", ".csv");
+        Path output = Files.createTempFile(parent, "agreements", ".csv");
+        Path rejects = Files.createTempFile(parent, "rejects", ".csv");
+        try {
+            writeCheckouts(input, rowCount);
+            console.println(String.format("Wrote %d checkout rows, %d bytes", rowCount, Files.size(input)));
+
+            CheckoutCsvImporter importer = CheckoutCsvImporter.Builder.newInstance()
+                    .setCheckoutService(CheckoutServiceImpl.Builder.newInstance()
+                            .setAgreementSink(QuietAgreementSink.INSTANCE).build())
+                    .build();
+            for (int run = 1; run <= 3; run++) {
+                resetPeakUsage();
+                ImportSummary summary;
+                try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+                     CsvAgreementSink out = new CsvAgreementSink(FileChannel.open(output,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), true);
+                     CsvWriter rejectWriter = new CsvWriter(FileChannel.open(rejects,
+                             StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                    summary = importer.importCheckouts(in, out, rejectWriter);
+                }
+                console.println(String.format("Run %d: %s, %.0f rows/s, %d bytes written, heap after GC %.1f MB", run,
+                        summary, summary.getRowCount() / (summary.getElapsedNanos() / 1e9), Files.size(output),
+                        peakHeapAfterCollection() / (1024.0 * 1024.0)));
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    /**
+     * Writes a CSV file of checkout rows with a header, one in a hundred rows with an unknown tool code
+     */
+    private static void writeCheckouts(Path path, int rowCount) throws IOException {
+        try (CsvWriter writer = new CsvWriter(FileChannel.open(path, StandardOpenOption.WRITE))) {
+            writer.field("tool_code").field("checkout_date").field("rental_days").field("discount_percent").endRow();
+            StringBuilder date = new StringBuilder(8);
+            for (int i = 0; i < rowCount; i++) {
+                date.setLength(0);
+                date.append(1 + i % 12).append('/').append(1 + i % 28).append('/').append(15 + i % 10);
+                writer.field(i % 100 == 99 ? "XXXX" : TOOL_CODES[i & 3]).field(date)
+                        .field(1 + i % 14).field(i % 5 * 10).endRow();
+            }
+        }
+    }
+
+    /**
+     * Resets the peak usage of every heap memory pool
+     */
+    private static void resetPeakUsage() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sums the heap still in use after the last garbage collection of every heap memory pool
+     */
+    private static long peakHeapAfterCollection() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,256 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.cache.IdempotencyCache;
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.metrics.CheckoutMetrics;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.QuoteSearch;
+import com.cardinalfinancial.us.pricing.RatePlan;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+import com.cardinalfinancial.us.utils.NumberFormatUtils;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmark suite for the checkout hot path. Every benchmark cycles through a fixed set of inputs around
+ * Independence Day and Labor Day so that results are comparable between runs.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.CheckoutBenchmarks [-wi warmups] [-i iterations] [-t millis] [regex]}
+ *
+ * @author Sylvia Barnai
+ */
+public class CheckoutBenchmarks {
+
+    /**
+     * Number of distinct inputs per benchmark, a power of two so the input index is a mask
+     */
+    private static final int INPUT_COUNT = 1024;
+
+    /**
+     * Rental lengths measured by the chargeable days benchmark
+     */
+    private static final int[] RENTAL_DAY_COUNTS = {1, 10, 90, 365, 3650};
+
+    /**
+     * Number of tools of the catalog measured by the lookup benchmark
+     */
+    private static final int CATALOG_SIZE = 10000;
+
+    /**
+     * Runs the benchmarks whose names match the optional regular expression
+     *
+     * @param args options and filter
+     */
+    public static void main(String[] args) {
+        int warmupIterations = 5;
+        int measurementIterations = 5;
+        long iterationMillis = 1000;
+        Pattern filter = Pattern.compile(".*");
+        for (int i = 0; i < args.length; i++) {
+            if ("-wi".equals(args[i])) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if ("-i".equals(args[i])) {
+                measurementIterations = Integer.parseInt(args[++i]);
+            } else if ("-t".equals(args[i])) {
+                iterationMillis = Long.parseLong(args[++i]);
+            } else {
+                filter = Pattern.compile(args[i]);
+            }
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations, iterationMillis);
+        PrintStream console = System.out;
+        console.println(BenchmarkResult.header());
+
+        for (NamedOperation benchmark : benchmarks()) {
+            if (!filter.matcher(benchmark.name).find()) {
+                continue;
+            }
+            console.println(runner.run(benchmark.name, benchmark.operation));
+        }
+    }
+
+    /**
+     * Creates the benchmarks of the suite
+     *
+     * @return the named benchmark operations
+     */
+    static List<NamedOperation> benchmarks() {
+        List<NamedOperation> benchmarks = new ArrayList<>();
+        ToolCatalog catalog = ReloadableToolCatalog.getDefault().get();
+        Checkout[] checkouts = checkouts(5);
+        String[] dates = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            dates[i] = checkouts[i].getCheckoutDate();
+        }
+
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+        // The inputs repeat, so after the warmup every checkout of this service is a PriceCache hit
+        benchmarks.add(new NamedOperation("CheckoutServiceImpl.processCheckout",
+                invocation -> checkoutService.processCheckout(checkouts[(int) invocation & (INPUT_COUNT - 1)])));
+
+        CheckoutService uncachedCheckoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .setPriceCache(null)
+                .build();
+        benchmarks.add(new NamedOperation("CheckoutServiceImpl.processCheckout:noPriceCache",
+                invocation -> uncachedCheckoutService.processCheckout(checkouts[(int) invocation & (INPUT_COUNT - 1)])));
+
+        CheckoutService meteredCheckoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .setMetrics(new CheckoutMetrics())
+                .build();
+        benchmarks.add(new NamedOperation("CheckoutServiceImpl.processCheckout:metrics",
+                invocation -> meteredCheckoutService.processCheckout(checkouts[(int) invocation & (INPUT_COUNT - 1)])));
+
+        for (int rentalDayCount : RENTAL_DAY_COUNTS) {
+            Checkout[] rentals = checkouts(rentalDayCount);
+            benchmarks.add(new NamedOperation("CalculateChargesUtils.calculateChargeableDaysCount:" + rentalDayCount,
+                    invocation -> {
+                        Checkout checkout = rentals[(int) invocation & (INPUT_COUNT - 1)];
+                        return CalculateChargesUtils.calculateChargeableDaysCount(catalog.find(checkout.getToolCode()), checkout);
+                    }));
+        }
+
+        ToolTypeDefinition[] toolTypes = new ToolTypeDefinition[INPUT_COUNT];
+        long[] windowStarts = new long[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            toolTypes[i] = catalog.find(checkouts[i].getToolCode()).getToolType();
+            windowStarts[i] = DateUtils.parseInputEpochDay(dates[i]);
+        }
+        benchmarks.add(new NamedOperation("QuoteSearch.quote:31x10",
+                invocation -> {
+                    int index = (int) invocation & (INPUT_COUNT - 1);
+                    return QuoteSearch.quote("QUOT", toolTypes[index], windowStarts[index], windowStarts[index] + 30, 10, 0);
+                }));
+
+        ToolTypeDefinition ratePlanType = ToolCatalog.Builder.newInstance()
+                .addToolType("Ladder", Money.of("1.99"), ChargeTable.of(true, true, false), RatePlan.Builder.newInstance()
+                        .setWeeklyCharge(Money.of("9.99")).setMonthlyCharge(Money.of("29.99")).build())
+                .build().getToolTypes().get(0);
+        benchmarks.add(new NamedOperation("CalculateChargesUtils.calculatePricing:ratePlan:365",
+                invocation -> CalculateChargesUtils.calculatePricing(ratePlanType,
+                        windowStarts[(int) invocation & (INPUT_COUNT - 1)], 365, 0)));
+
+        // Replays find their agreement in the map; new keys also add an entry and expire the oldest ones
+        IdempotencyCache idempotencyCache = IdempotencyCache.Builder.newInstance().setMaximumSize(INPUT_COUNT * 4).build();
+        RentalAgreement rentalAgreement = RentalAgreement.Builder.newInstance().setToolCode("LADW").build();
+        Checkout[] keyedCheckouts = new Checkout[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            keyedCheckouts[i] = Checkout.Builder.newInstance().setToolCode("LADW").setRentalDayCount(3)
+                    .setDiscountPercent(10).setCheckoutDate("7/2/20").setIdempotencyKey("terminal:" + i).build();
+            idempotencyCache.getOrProcess(keyedCheckouts[i], checkout -> rentalAgreement);
+        }
+        benchmarks.add(new NamedOperation("IdempotencyCache.getOrProcess:replay",
+                invocation -> idempotencyCache.getOrProcess(keyedCheckouts[(int) invocation & (INPUT_COUNT - 1)],
+                        checkout -> rentalAgreement)));
+        IdempotencyCache newKeyCache = IdempotencyCache.Builder.newInstance().setMaximumSize(INPUT_COUNT).build();
+        benchmarks.add(new NamedOperation("IdempotencyCache.getOrProcess:newKey",
+                invocation -> newKeyCache.getOrProcess(Checkout.Builder.newInstance().setToolCode("LADW")
+                        .setRentalDayCount(3).setDiscountPercent(10).setCheckoutDate("7/2/20")
+                        .setIdempotencyKey(Long.toString(invocation)).build(), checkout -> rentalAgreement)));
+
+        ToolCatalog largeCatalog = largeCatalog(CATALOG_SIZE);
+        String[] toolCodes = new String[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            // Every eighth lookup is for a code that is not in the catalog
+            toolCodes[i] = i % 8 == 7 ? "ZZ" + (char) ('A' + i % 26) + (char) ('A' + i / 26 % 26)
+                    : largeCatalog.getTools().get(i * 7919 % CATALOG_SIZE).getToolCode();
+        }
+        benchmarks.add(new NamedOperation("ToolCatalog.find:" + CATALOG_SIZE,
+                invocation -> largeCatalog.find(toolCodes[(int) invocation & (INPUT_COUNT - 1)])));
+
+        benchmarks.add(new NamedOperation("DateUtils.parseInputDate",
+                invocation -> DateUtils.parseInputDate(dates[(int) invocation & (INPUT_COUNT - 1)])));
+        benchmarks.add(new NamedOperation("DateUtils.calculateDueDate",
+                invocation -> DateUtils.calculateDueDate(dates[(int) invocation & (INPUT_COUNT - 1)], 5)));
+        benchmarks.add(new NamedOperation("NumberFormatUtils.formatDoubleCurrency",
+                invocation -> NumberFormatUtils.formatDoubleCurrency((invocation & 0xFFFFF) / 100.0)));
+        return benchmarks;
+    }
+
+    /**
+     * Creates checkouts of every tool on dates between June and September, in both M/d/yy and MM/dd/yy format
+     *
+     * @param rentalDayCount the number of rental days of every checkout
+     * @return the checkouts
+     */
+    static Checkout[] checkouts(int rentalDayCount) {
+        DateTimeFormatter shortFormat = DateTimeFormatter.ofPattern("M/d/yy");
+        DateTimeFormatter longFormat = DateTimeFormatter.ofPattern("MM/dd/yy");
+        List<ToolDefinition> tools = ReloadableToolCatalog.getDefault().get().getTools();
+        Checkout[] checkouts = new Checkout[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            LocalDate date = LocalDate.of(2015 + i % 8, 6, 1).plusDays(i % 120);
+            checkouts[i] = Checkout.Builder.newInstance()
+                    .setToolCode(tools.get(i % tools.size()).getToolCode())
+                    .setRentalDayCount(rentalDayCount)
+                    .setDiscountPercent(i % 101)
+                    .setCheckoutDate(date.format(i % 2 == 0 ? shortFormat : longFormat))
+                    .build();
+        }
+        return checkouts;
+    }
+
+    /**
+     * Creates a catalog with one tool type per hundred tools and codes AA00 to ZZ99
+     *
+     * @param size the number of tools, at most 67600
+     * @return ToolCatalog instance
+     */
+    static ToolCatalog largeCatalog(int size) {
+        ToolCatalog.Builder builder = ToolCatalog.Builder.newInstance();
+        for (int type = 0; type * 100 < size; type++) {
+            builder.addToolType("Type" + type, Money.ofCents(100 + type), true, type % 2 == 0, type % 3 == 0);
+        }
+        for (int i = 0; i < size; i++) {
+            String toolCode = "" + (char) ('A' + i / 2600) + (char) ('A' + i / 100 % 26) + (char) ('0' + i / 10 % 10) + (char) ('0' + i % 10);
+            builder.addTool(toolCode, "Type" + i / 100, "Brand" + i % 17);
+        }
+        return builder.build();
+    }
+
+    /**
+     * A benchmark operation with its name
+     */
+    static final class NamedOperation {
+
+        /**
+         * The name of the benchmark
+         */
+        final String name;
+
+        /**
+         * The measured operation
+         */
+        final BenchmarkRunner.Operation operation;
+
+        /**
+         * Constructor for NamedOperation
+         *
+         * @param name      the name of the benchmark
+         * @param operation the measured operation
+         */
+        NamedOperation(String name, BenchmarkRunner.Operation operation) {
+            this.name = name;
+            this.operation = operation;
+        }
+    }
+}
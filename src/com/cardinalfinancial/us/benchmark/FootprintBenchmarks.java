@@ -0,0 +1,111 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.journal.AgreementRecordCodec;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * Benchmark for the heap retained by RentalAgreement instances. Every measurement keeps a number of agreements
+ * reachable and reports the growth of the used heap after garbage collection, divided by the number of agreements.
+ * Agreements are created from checkouts whose strings are not shared, like checkouts parsed from requests, and
+ * decoded from journal records, like agreements replayed after a restart.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.FootprintBenchmarks [-n agreements]}
+ *
+ * @author Sylvia Barnai
+ */
+public class FootprintBenchmarks {
+
+    /**
+     * Runs the measurements
+     *
+     * @param args options
+     */
+    public static void main(String[] args) {
+        int agreementCount = 1_000_000;
+        for (int i = 0; i < args.length; i++) {
+            if ("-n".equals(args[i])) {
+                agreementCount = Integer.parseInt(args[++i]);
+            }
+        }
+
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+        Checkout[] checkouts = CheckoutBenchmarks.checkouts(5);
+        int mask = checkouts.length - 1;
+        ByteBuffer[] records = new ByteBuffer[checkouts.length];
+        for (int i = 0; i < checkouts.length; i++) {
+            records[i] = ByteBuffer.allocate(256);
+            AgreementRecordCodec.encode(checkoutService.processCheckout(checkouts[i]), records[i]);
+            records[i].flip();
+        }
+
+        PrintStream console = System.out;
+        console.println(String.format("%-40s %16s", "Agreements", "bytes/agreement"));
+        console.println(String.format("%-40s %16.1f", "CheckoutServiceImpl.processCheckout",
+                measure(agreementCount, i -> checkoutService.processCheckout(copy(checkouts[i & mask])))));
+        console.println(String.format("%-40s %16.1f", "AgreementRecordCodec.decode",
+                measure(agreementCount, i -> AgreementRecordCodec.decode(records[i & mask].duplicate()))));
+    }
+
+    /**
+     * Measures the heap retained per object
+     *
+     * @param count   the number of objects kept reachable
+     * @param factory creates the object of an index
+     * @return retained bytes per object, excluding the array that holds them
+     */
+    static double measure(int count, IntFunction<Object> factory) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Object[] retained = new Object[count];
+        long before = usedHeapAfterGc(memory);
+        for (int i = 0; i < count; i++) {
+            retained[i] = factory.apply(i);
+        }
+        long after = usedHeapAfterGc(memory);
+        double bytesPerObject = (double) (after - before) / count;
+        // Keeps the objects reachable until after the measurement
+        if (retained[count - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return bytesPerObject;
+    }
+
+    /**
+     * Copies a checkout with new strings, as if it had been parsed from a request
+     */
+    private static Checkout copy(Checkout checkout) {
+        return Checkout.Builder.newInstance()
+                .setToolCode(new String(checkout.getToolCode()))
+                .setRentalDayCount(checkout.getRentalDayCount())
+                .setDiscountPercent(checkout.getDiscountPercent())
+                .setCheckoutDate(new String(checkout.getCheckoutDate()))
+                .build();
+    }
+
+    /**
+     * Retrieves the used heap after collecting garbage until it stops shrinking
+     */
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long current = memory.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                return current;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,128 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.inventory.ToolInventory;
+
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention benchmark for ToolInventory. Threads reserve and release units as fast as they can, and the throughput is
+ * measured for thread counts from 1 up to twice the number of cores. The hot scenarios have every thread renting the
+ * same tool, the spread scenarios pick one of many tools at random, and the locked scenarios put one global lock
+ * around the inventory as a baseline.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.InventoryBenchmarks [-t millis] [-threads max]}
+ *
+ * @author Sylvia Barnai
+ */
+public class InventoryBenchmarks {
+
+    /**
+     * Number of tool codes of the spread scenarios
+     */
+    private static final int SPREAD_TOOL_COUNT = 1024;
+
+    /**
+     * Number of units of every tool
+     */
+    private static final int UNITS_PER_TOOL = 64;
+
+    /**
+     * Runs every scenario for every thread count
+     *
+     * @param args options
+     * @throws InterruptedException if interrupted while waiting for the benchmark threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long iterationMillis = 1000;
+        int maxThreads = Runtime.getRuntime().availableProcessors() * 2;
+        for (int i = 0; i < args.length; i++) {
+            if ("-t".equals(args[i])) {
+                iterationMillis = Long.parseLong(args[++i]);
+            } else if ("-threads".equals(args[i])) {
+                maxThreads = Integer.parseInt(args[++i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        console.println(String.format("%-12s %8s %16s %16s %8s", "Scenario", "Threads", "ops/s", "ops/s/thread", "Scaling"));
+        for (String scenario : new String[]{"hot", "spread", "hot-locked", "spread-locked"}) {
+            double singleThreadThroughput = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                // The first run of each scenario warms up the JIT and is not reported
+                if (threads == 1) {
+                    measure(scenario, 1, iterationMillis);
+                }
+                double throughput = measure(scenario, threads, iterationMillis);
+                if (threads == 1) {
+                    singleThreadThroughput = throughput;
+                }
+                console.println(String.format("%-12s %8d %16.1f %16.1f %7.2fx", scenario, threads, throughput,
+                        throughput / threads, throughput / singleThreadThroughput));
+            }
+        }
+    }
+
+    /**
+     * Measures the throughput of reserve and release pairs of a scenario
+     *
+     * @param scenario        hot, spread, hot-locked or spread-locked
+     * @param threads         the number of threads
+     * @param iterationMillis how long to measure
+     * @return reserve and release pairs per second
+     * @throws InterruptedException if interrupted while waiting for the benchmark threads
+     */
+    static double measure(String scenario, int threads, long iterationMillis) throws InterruptedException {
+        boolean spread = scenario.startsWith("spread");
+        boolean locked = scenario.endsWith("locked");
+        String[] toolCodes = new String[spread ? SPREAD_TOOL_COUNT : 1];
+        ToolInventory toolInventory = new ToolInventory();
+        for (int i = 0; i < toolCodes.length; i++) {
+            toolCodes[i] = String.format("T%03X", i);
+            toolInventory.addTool(toolCodes[i], UNITS_PER_TOOL);
+        }
+
+        Object lock = new Object();
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    done.countDown();
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long count = 0;
+                long stopNanos = deadline[0];
+                while ((count & 1023) != 0 || System.nanoTime() < stopNanos) {
+                    String toolCode = toolCodes[toolCodes.length == 1 ? 0 : random.nextInt(toolCodes.length)];
+                    if (locked) {
+                        synchronized (lock) {
+                            toolInventory.release(toolCode, toolInventory.reserve(toolCode));
+                        }
+                    } else {
+                        toolInventory.release(toolCode, toolInventory.reserve(toolCode));
+                    }
+                    count++;
+                }
+                operations.add(count);
+                done.countDown();
+            }, "inventory-benchmark-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long startNanos = System.nanoTime();
+        deadline[0] = startNanos + iterationMillis * 1_000_000;
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return operations.sum() * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for the group commit of AgreementJournal. Threads append agreements with sync on append for thread counts
+ * from 1 up to a maximum, and the throughput is reported with the number of appends that shared each sync.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.JournalBenchmarks [-t millis] [-threads max] [-dir directory]}
+ *
+ * @author Sylvia Barnai
+ */
+public class JournalBenchmarks {
+
+    /**
+     * Runs the benchmark for every thread count
+     *
+     * @param args options
+     * @throws Exception if the journal directory cannot be used or the benchmark is interrupted
+     */
+    public static void main(String[] args) throws Exception {
+        long iterationMillis = 1000;
+        int maxThreads = 64;
+        Path parent = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i < args.length; i++) {
+            if ("-t".equals(args[i])) {
+                iterationMillis = Long.parseLong(args[++i]);
+            } else if ("-threads".equals(args[i])) {
+                maxThreads = Integer.parseInt(args[++i]);
+            } else if ("-dir".equals(args[i])) {
+                parent = Paths.get(args[++i]);
+            }
+        }
+
+        RentalAgreement rentalAgreement = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build()
+                .processCheckout(CheckoutBenchmarks.checkouts(5)[0]);
+        PrintStream console = System.out;
+        console.println(String.format("%8s %16s %16s", "Threads", "appends/s", "appends/sync"));
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Path directory = Files.createTempDirectory(parent, "journal-benchmark");
+            try (AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory).build()) {
+                double throughput = measure(journal, rentalAgreement, threads, iterationMillis);
+                console.println(String.format("%8d %16.1f %16.1f", threads, throughput,
+                        (double) journal.getLastSequence() / Math.max(1, journal.getSyncCount())));
+            } finally {
+                delete(directory);
+            }
+        }
+    }
+
+    /**
+     * Measures the throughput of durable appends
+     *
+     * @param journal         the journal
+     * @param rentalAgreement the agreement that is appended
+     * @param threads         the number of threads
+     * @param iterationMillis how long to measure
+     * @return appends per second
+     * @throws InterruptedException if interrupted while waiting for the benchmark threads
+     */
+    static double measure(AgreementJournal journal, RentalAgreement rentalAgreement, int threads, long iterationMillis)
+            throws InterruptedException {
+        LongAdder appends = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long stopNanos = System.nanoTime() + iterationMillis * 1_000_000;
+        long startNanos = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                long count = 0;
+                while (System.nanoTime() < stopNanos) {
+                    journal.append(rentalAgreement);
+                    count++;
+                }
+                appends.add(count);
+                done.countDown();
+            }, "journal-benchmark-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        return appends.sum() * 1e9 / (System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Deletes a directory and its files
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cardinalfinancial.us.benchmark;
+
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.journal.JournalReader;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.recovery.RentalState;
+import com.cardinalfinancial.us.recovery.RentalStateStore;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark for cold start. A journal of a year of agreements is written, then the state is rebuilt by replaying
+ * every record in order, by replaying every segment in parallel, and from a snapshot taken before the last agreements
+ * plus the journal tail after it.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.benchmark.RecoveryBenchmarks [-n agreements] [-tail agreements] [-dir directory]}
+ *
+ * @author Sylvia Barnai
+ */
+public class RecoveryBenchmarks {
+
+    /**
+     * Size of the journal segments, small enough that a year of agreements spans several segments
+     */
+    private static final int SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args options
+     * @throws IOException if the journal directory cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        int agreementCount = 365 * 3000;
+        int tailCount = 10000;
+        Path parent = Paths.get(System.getProperty("java.io.tmpdir"));
+        for (int i = 0; i < args.length; i++) {
+            if ("-n".equals(args[i])) {
+                agreementCount = Integer.parseInt(args[++i]);
+            } else if ("-tail".equals(args[i])) {
+                tailCount = Integer.parseInt(args[++i]);
+            } else if ("-dir".equals(args[i])) {
+                parent = Paths.get(args[++i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        Path directory = Files.createTempDirectory(parent, "recovery-benchmark");
+        try {
+            RentalAgreement[] rentalAgreements = rentalAgreements();
+            long startNanos = System.nanoTime();
+            try (AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSegmentSize(SEGMENT_SIZE).setSyncOnAppend(false).build()) {
+                for (int i = 0; i < agreementCount - tailCount; i++) {
+                    journal.append(rentalAgreements[i & (rentalAgreements.length - 1)]);
+                }
+                journal.sync();
+                console.println(String.format("Wrote %d agreements in %d segments: %d ms", agreementCount - tailCount,
+                        journal.getSegmentCount(), millisSince(startNanos)));
+
+                try (RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build()) {
+                    store.recover();
+                    startNanos = System.nanoTime();
+                    Path snapshot = store.snapshot();
+                    console.println(String.format("Snapshot of %d open rentals, %d bytes: %d ms",
+                            store.getState().getOpenRentalCount(), Files.size(snapshot), millisSince(startNanos)));
+                }
+                for (int i = agreementCount - tailCount; i < agreementCount; i++) {
+                    journal.append(rentalAgreements[i & (rentalAgreements.length - 1)]);
+                }
+            }
+
+            startNanos = System.nanoTime();
+            RentalState sequential = new RentalState();
+            JournalReader.replay(directory, 1, sequential);
+            console.println(String.format("Sequential replay of %d agreements: %d ms", sequential.getLastSequence(),
+                    millisSince(startNanos)));
+
+            startNanos = System.nanoTime();
+            RentalState parallel = new RentalState();
+            for (RentalState segmentState : JournalReader.replayParallel(directory, 1, RentalState::new)) {
+                parallel.merge(segmentState);
+            }
+            console.println(String.format("Parallel replay of %d agreements: %d ms", parallel.getLastSequence(),
+                    millisSince(startNanos)));
+
+            startNanos = System.nanoTime();
+            try (RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build()) {
+                RentalState recovered = store.recover();
+                console.println(String.format("Snapshot and %d agreement tail: %d ms", tailCount, millisSince(startNanos)));
+                if (recovered.getLastSequence() != agreementCount || recovered.getOpenRentalCount() != agreementCount) {
+                    throw new IllegalStateException("Recovered " + recovered.getOpenRentalCount() + " of " + agreementCount);
+                }
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Creates agreements checked out on every day of a year
+     *
+     * @return the agreements, a power of two of them
+     */
+    private static RentalAgreement[] rentalAgreements() {
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+        Checkout[] checkouts = CheckoutBenchmarks.checkouts(5);
+        RentalAgreement[] rentalAgreements = new RentalAgreement[checkouts.length];
+        for (int i = 0; i < checkouts.length; i++) {
+            rentalAgreements[i] = checkoutService.processCheckout(checkouts[i]);
+        }
+        return rentalAgreements;
+    }
+
+    /**
+     * Calculates the milliseconds elapsed since a System.nanoTime() value
+     */
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Deletes a directory and its files
+     */
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
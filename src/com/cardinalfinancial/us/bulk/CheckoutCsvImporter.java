@@ -0,0 +1,389 @@
+package com.cardinalfinancial.us.bulk;
+
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.CheckoutResult;
+import com.cardinalfinancial.us.output.AgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming bulk import of checkout rows from a CSV channel. Rows are parsed straight from the read buffer into Checkout
+ * instances, priced in bounded batches through CheckoutService.processCheckouts() and every RentalAgreement is passed
+ * to an output sink in row order, so the memory used does not depend on the size of the file. A row that cannot be
+ * parsed or priced is written to an optional reject CSV with its line number and reason, and the run goes on.
+ * <p>
+ * The columns are tool_code, checkout_date, rental_days and discount_percent. If the first row holds these names it is
+ * read as a header and the columns may come in any order, otherwise the columns are read in this order.
+ * The CheckoutService should be built with a QuietAgreementSink unless its agreements should also go elsewhere.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CheckoutCsvImporter {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(CheckoutCsvImporter.class.getName());
+
+    /**
+     * Default number of rows priced per batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * Column names of the reject rows
+     */
+    public static final String[] REJECT_COLUMNS = {"line", "reason", "row"};
+
+    /**
+     * Column index of the tool code
+     */
+    private static final int TOOL_CODE = 0;
+
+    /**
+     * Column index of the checkout date
+     */
+    private static final int CHECKOUT_DATE = 1;
+
+    /**
+     * Column index of the rental day count
+     */
+    private static final int RENTAL_DAYS = 2;
+
+    /**
+     * Column index of the discount percent
+     */
+    private static final int DISCOUNT_PERCENT = 3;
+
+    /**
+     * Header names of every column, lowercase and without separators, by column index
+     */
+    private static final String[][] HEADER_NAMES = {
+            {"toolcode", "tool"},
+            {"checkoutdate", "date"},
+            {"rentaldays", "rentaldaycount", "days"},
+            {"discountpercent", "discount"}};
+
+    /**
+     * The service that prices the checkouts
+     */
+    private final CheckoutService checkoutService;
+
+    /**
+     * Catalog the tool codes are checked against before pricing
+     */
+    private final ReloadableToolCatalog toolCatalog;
+
+    /**
+     * Number of rows priced per batch
+     */
+    private final int batchSize;
+
+    /**
+     * Size of the read buffer, which is also the longest row that can be read
+     */
+    private final int bufferSize;
+
+    /**
+     * Private constructor, creates a CheckoutCsvImporter instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private CheckoutCsvImporter(Builder builder) {
+        this.checkoutService = builder.checkoutService;
+        this.toolCatalog = builder.toolCatalog;
+        this.batchSize = builder.batchSize;
+        this.bufferSize = builder.bufferSize;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * The service that prices the checkouts
+         */
+        private CheckoutService checkoutService;
+
+        /**
+         * Catalog the tool codes are checked against, the default catalog by default
+         */
+        private ReloadableToolCatalog toolCatalog = ReloadableToolCatalog.getDefault();
+
+        /**
+         * Number of rows priced per batch, DEFAULT_BATCH_SIZE by default
+         */
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        /**
+         * Size of the read buffer, CsvRecordReader.DEFAULT_BUFFER_SIZE by default
+         */
+        private int bufferSize = CsvRecordReader.DEFAULT_BUFFER_SIZE;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the service that prices the checkouts
+         *
+         * @param checkoutService the CheckoutService instance
+         * @return Builder instance
+         */
+        public Builder setCheckoutService(CheckoutService checkoutService) {
+            this.checkoutService = checkoutService;
+            return this;
+        }
+
+        /**
+         * Sets the catalog the tool codes are checked against, which should be the catalog of the service
+         *
+         * @param toolCatalog the ReloadableToolCatalog instance
+         * @return Builder instance
+         */
+        public Builder setToolCatalog(ReloadableToolCatalog toolCatalog) {
+            this.toolCatalog = toolCatalog;
+            return this;
+        }
+
+        /**
+         * Sets the number of rows priced per batch
+         * If the batch size is not positive, then throw exception
+         *
+         * @param batchSize the batch size
+         * @return Builder instance
+         */
+        public Builder setBatchSize(int batchSize) {
+            if (batchSize < 1)
+                throw new IllegalArgumentException("Batch size must be positive.");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets the size of the read buffer, which is also the longest row that can be read
+         * If the buffer size is not positive, then throw exception
+         *
+         * @param bufferSize the buffer size in bytes
+         * @return Builder instance
+         */
+        public Builder setBufferSize(int bufferSize) {
+            if (bufferSize < 1)
+                throw new IllegalArgumentException("Buffer size must be positive.");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Creates a CheckoutCsvImporter instance
+         * If no CheckoutService or catalog is set, then throw exception
+         *
+         * @return CheckoutCsvImporter instance
+         */
+        public CheckoutCsvImporter build() {
+            if (checkoutService == null)
+                throw new IllegalArgumentException("CheckoutService must be set.");
+            if (toolCatalog == null)
+                throw new IllegalArgumentException("Tool catalog must be set.");
+            return new CheckoutCsvImporter(this);
+        }
+    }
+
+    /**
+     * Imports every checkout row of a CSV channel. The input channel is read to its end but not closed, and the sinks
+     * are flushed but not closed.
+     * If the input cannot be read or the header has no column for a field, then throw exception
+     *
+     * @param input   the channel to read checkout rows from
+     * @param output  the sink every RentalAgreement is passed to, in row order
+     * @param rejects the writer rejected rows are written to, or null to only count them
+     * @return ImportSummary instance
+     */
+    public ImportSummary importCheckouts(ReadableByteChannel input, AgreementSink output, CsvWriter rejects) {
+        long startNanos = System.nanoTime();
+        CsvRecordReader reader = new CsvRecordReader(input, bufferSize);
+        if (rejects != null) {
+            for (String column : REJECT_COLUMNS) {
+                rejects.field(column);
+            }
+            rejects.endRow();
+        }
+
+        int[] columns = {TOOL_CODE, CHECKOUT_DATE, RENTAL_DAYS, DISCOUNT_PERCENT};
+        boolean firstRecord = true;
+        long rowCount = 0;
+        long importedCount = 0;
+        long rejectedCount = 0;
+        List<Checkout> batch = new ArrayList<>(batchSize);
+        long[] batchLines = new long[batchSize];
+
+        while (reader.next()) {
+            if (reader.isBlank()) {
+                continue;
+            }
+            if (firstRecord) {
+                firstRecord = false;
+                if (readHeader(reader, columns)) {
+                    continue;
+                }
+            }
+            rowCount++;
+            String reason = null;
+            Checkout checkout = null;
+            try {
+                checkout = parseCheckout(reader, columns);
+            } catch (IllegalArgumentException | CheckoutException e) {
+                reason = e.getMessage();
+            }
+            if (checkout == null) {
+                rejectedCount++;
+                if (rejects != null) {
+                    rejects.field(reader.getLineNumber()).field(reason).field(reader.getRecordText()).endRow();
+                }
+                continue;
+            }
+            batchLines[batch.size()] = reader.getLineNumber();
+            batch.add(checkout);
+            if (batch.size() == batchSize) {
+                long batchImported = processBatch(batch, batchLines, output, rejects);
+                importedCount += batchImported;
+                rejectedCount += batch.size() - batchImported;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            long batchImported = processBatch(batch, batchLines, output, rejects);
+            importedCount += batchImported;
+            rejectedCount += batch.size() - batchImported;
+        }
+
+        output.flush();
+        if (rejects != null) {
+            rejects.flush();
+        }
+        ImportSummary summary = new ImportSummary(rowCount, importedCount, rejectedCount, System.nanoTime() - startNanos);
+        LOGGER.log(Level.INFO, "Imported checkouts: " + summary);
+        return summary;
+    }
+
+    /**
+     * Reads the column order from the first record if it is a header row
+     *
+     * @return true if the record is a header row
+     */
+    private static boolean readHeader(CsvRecordReader reader, int[] columns) {
+        int[] headerColumns = {-1, -1, -1, -1};
+        boolean header = false;
+        for (int index = 0; index < reader.getFieldCount(); index++) {
+            String name = normalize(reader.field(index));
+            for (int column = 0; column < HEADER_NAMES.length; column++) {
+                for (String headerName : HEADER_NAMES[column]) {
+                    if (headerName.equals(name) && headerColumns[column] < 0) {
+                        headerColumns[column] = index;
+                        header = true;
+                    }
+                }
+            }
+        }
+        if (!header) {
+            return false;
+        }
+        for (int column = 0; column < headerColumns.length; column++) {
+            if (headerColumns[column] < 0) {
+                String message = "CSV header has no " + HEADER_NAMES[column][0] + " column";
+                LOGGER.log(Level.WARNING, message);
+                throw new CheckoutException(message);
+            }
+        }
+        System.arraycopy(headerColumns, 0, columns, 0, columns.length);
+        return true;
+    }
+
+    /**
+     * Lowercases a header name and removes everything but its letters
+     */
+    private static String normalize(CharSequence name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetter(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds a Checkout from the current record, looking up the tool code and checking the date in the read buffer
+     * If the row is not a valid checkout, then throw exception
+     */
+    private Checkout parseCheckout(CsvRecordReader reader, int[] columns) {
+        if (reader.isOversized())
+            throw new IllegalArgumentException("Row is longer than " + bufferSize + " bytes.");
+        if (reader.isMalformed())
+            throw new IllegalArgumentException("Row has a malformed quoted field.");
+        int fieldCount = reader.getFieldCount();
+        for (int column : columns) {
+            if (column >= fieldCount)
+                throw new IllegalArgumentException("Row has " + fieldCount + " fields.");
+        }
+        ToolDefinition tool = toolCatalog.get().find(reader.field(columns[TOOL_CODE]));
+        if (tool == null)
+            throw new IllegalArgumentException("Unknown tool code.");
+        CharSequence checkoutDate = reader.field(columns[CHECKOUT_DATE]);
+        if (DateUtils.parseEpochDay(checkoutDate) < 0)
+            throw new IllegalArgumentException("Date is in invalid format.");
+        return Checkout.Builder.newInstance()
+                .setToolCode(tool.getToolCode())
+                .setCheckoutDate(checkoutDate.toString())
+                .setRentalDayCount(reader.intField(columns[RENTAL_DAYS]))
+                .setDiscountPercent(reader.intField(columns[DISCOUNT_PERCENT]))
+                .build();
+    }
+
+    /**
+     * Prices a batch and passes its agreements to the output in row order, writing the failed rows to the rejects
+     *
+     * @return the number of rows that produced a RentalAgreement
+     */
+    private long processBatch(List<Checkout> batch, long[] batchLines, AgreementSink output, CsvWriter rejects) {
+        List<CheckoutResult> results = checkoutService.processCheckouts(batch);
+        long importedCount = 0;
+        for (int i = 0; i < results.size(); i++) {
+            CheckoutResult result = results.get(i);
+            if (result.isSuccess()) {
+                output.accept(result.getRentalAgreement());
+                importedCount++;
+            } else if (rejects != null) {
+                Checkout checkout = result.getCheckout();
+                rejects.field(batchLines[i]).field(CheckoutException.getReason(result.getFailure()))
+                        .field(checkout.getToolCode() + "," + checkout.getCheckoutDate() + ","
+                                + checkout.getRentalDayCount() + "," + checkout.getDiscountPercent())
+                        .endRow();
+            }
+        }
+        return importedCount;
+    }
+}
@@ -0,0 +1,530 @@
+package com.cardinalfinancial.us.bulk;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming reader of comma separated records from a ReadableByteChannel. Bytes are read into one fixed-size buffer
+ * and fields are returned as views over that buffer rather than as Strings, so reading a file of any size uses the
+ * same memory and an unquoted field costs no allocation. A field view is only valid until the next call to next().
+ * Fields may be quoted with double quotes, a quoted field may contain commas, line breaks and doubled quotes, and
+ * records may end with LF or CRLF. A record longer than the buffer is skipped and reported as oversized.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CsvRecordReader implements Closeable {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(CsvRecordReader.class.getName());
+
+    /**
+     * Default size of the read buffer in bytes, which is also the longest record that can be read
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The channel records are read from
+     */
+    private final ReadableByteChannel channel;
+
+    /**
+     * The read buffer, wrapping bytes
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The bytes of the read buffer
+     */
+    private final byte[] bytes;
+
+    /**
+     * Number of bytes read into the buffer
+     */
+    private int limit;
+
+    /**
+     * Start of the next record in the buffer
+     */
+    private int position;
+
+    /**
+     * Whether the end of the channel has been reached
+     */
+    private boolean endOfInput;
+
+    /**
+     * Start of the current record in the buffer
+     */
+    private int recordStart;
+
+    /**
+     * End of the current record in the buffer, excluding its line break
+     */
+    private int recordEnd;
+
+    /**
+     * Line number of the first line of the current record
+     */
+    private long lineNumber;
+
+    /**
+     * Line number of the first line of the next record
+     */
+    private long nextLineNumber = 1;
+
+    /**
+     * Whether the current record was longer than the buffer and was skipped
+     */
+    private boolean oversized;
+
+    /**
+     * Whether the current record has a quoted field without a closing quote or with text after it
+     */
+    private boolean malformed;
+
+    /**
+     * Number of fields of the current record
+     */
+    private int fieldCount;
+
+    /**
+     * Start of every field of the current record in the buffer, after any opening quote
+     */
+    private int[] fieldStarts = new int[16];
+
+    /**
+     * End of every field of the current record in the buffer, before any closing quote
+     */
+    private int[] fieldEnds = new int[16];
+
+    /**
+     * Whether every field of the current record contains doubled quotes
+     */
+    private boolean[] fieldEscaped = new boolean[16];
+
+    /**
+     * Reusable field views, one per field index
+     */
+    private FieldSlice[] slices = new FieldSlice[0];
+
+    /**
+     * Constructor for CsvRecordReader with the default buffer size
+     *
+     * @param channel the channel to read from
+     */
+    public CsvRecordReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for CsvRecordReader
+     * If the buffer size is not positive, then throw exception
+     *
+     * @param channel    the channel to read from
+     * @param bufferSize the size of the read buffer in bytes
+     */
+    public CsvRecordReader(ReadableByteChannel channel, int bufferSize) {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be positive.");
+        this.channel = channel;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return true if there is a record, false at the end of the channel
+     * @throws CheckoutException if the channel cannot be read
+     */
+    public boolean next() {
+        oversized = false;
+        malformed = false;
+        fieldCount = 0;
+        lineNumber = nextLineNumber;
+
+        int end;
+        while ((end = findRecordEnd()) < 0) {
+            if (endOfInput) {
+                if (position == limit) {
+                    return false;
+                }
+                // The last record has no line break outside of quotes
+                end = bytes[limit - 1] == '\n' ? limit - 1 : limit;
+                break;
+            }
+            if (position == 0 && limit == bytes.length) {
+                skipOversizedRecord();
+                return true;
+            }
+            fill();
+        }
+
+        recordStart = position;
+        recordEnd = end > recordStart && bytes[end - 1] == '\r' ? end - 1 : end;
+        for (int i = recordStart; i < end; i++) {
+            if (bytes[i] == '\n') {
+                nextLineNumber++;
+            }
+        }
+        nextLineNumber++;
+        position = Math.min(end + 1, limit);
+        parseFields();
+        return true;
+    }
+
+    /**
+     * Retrieves the line number of the first line of the current record
+     *
+     * @return the line number, starting at 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Retrieves whether the current record was longer than the buffer, in which case it has no fields
+     *
+     * @return true if the record was skipped
+     */
+    public boolean isOversized() {
+        return oversized;
+    }
+
+    /**
+     * Retrieves whether the current record has a quoted field without a closing quote or with text after it
+     *
+     * @return true if the record is malformed
+     */
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Retrieves whether the current record is an empty line
+     *
+     * @return true if the record has a single empty field
+     */
+    public boolean isBlank() {
+        return !oversized && recordEnd == recordStart;
+    }
+
+    /**
+     * Retrieves the number of fields of the current record
+     *
+     * @return the field count
+     */
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Retrieves a field of the current record without copying it. Unquoted fields are trimmed of spaces and tabs,
+     * and bytes are mapped to chars one to one, which is exact for ASCII.
+     * If the index is outside the record, then throw exception
+     *
+     * @param index the field index, starting at 0
+     * @return a view of the field that is valid until the next call to next()
+     */
+    public CharSequence field(int index) {
+        checkIndex(index);
+        if (fieldEscaped[index]) {
+            return stringField(index);
+        }
+        return slices[index].reset(fieldStarts[index], fieldEnds[index]);
+    }
+
+    /**
+     * Retrieves a field of the current record as a String, decoding UTF-8 and replacing doubled quotes
+     * If the index is outside the record, then throw exception
+     *
+     * @param index the field index, starting at 0
+     * @return the field
+     */
+    public String stringField(int index) {
+        checkIndex(index);
+        String value = new String(bytes, fieldStarts[index], fieldEnds[index] - fieldStarts[index], StandardCharsets.UTF_8);
+        return fieldEscaped[index] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * Parses a field of the current record as a decimal int directly from the buffer
+     * If the index is outside the record or the field is not an int, then throw exception
+     *
+     * @param index the field index, starting at 0
+     * @return the int value
+     */
+    public int intField(int index) {
+        checkIndex(index);
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        boolean negative = start < end && bytes[start] == '-';
+        if (negative || (start < end && bytes[start] == '+')) {
+            start++;
+        }
+        if (start == end || end - start > 10)
+            throw new NumberFormatException("Field " + (index + 1) + " is not a number.");
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9)
+                throw new NumberFormatException("Field " + (index + 1) + " is not a number.");
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new NumberFormatException("Field " + (index + 1) + " is out of range.");
+        return (int) value;
+    }
+
+    /**
+     * Retrieves the current record as it was read, without its line break, for example to report a rejected row
+     *
+     * @return the record text, or an empty String if the record was oversized
+     */
+    public String getRecordText() {
+        return new String(bytes, recordStart, recordEnd - recordStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Closes the channel
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to close CSV input");
+            throw new CheckoutException("Unable to close CSV input", e);
+        }
+    }
+
+    /**
+     * Finds the line break that ends the record starting at the position, outside of quotes
+     *
+     * @return the index of the line break, or -1 if the buffer does not hold the whole record
+     */
+    private int findRecordEnd() {
+        boolean quoted = false;
+        for (int i = position; i < limit; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the unread bytes to the start of the buffer and reads more bytes after them
+     */
+    private void fill() {
+        if (position > 0) {
+            System.arraycopy(bytes, position, bytes, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        buffer.limit(bytes.length).position(limit);
+        try {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to read CSV input");
+            throw new CheckoutException("Unable to read CSV input", e);
+        }
+    }
+
+    /**
+     * Discards the bytes of a record that does not fit in the buffer, up to and including its line break
+     */
+    private void skipOversizedRecord() {
+        oversized = true;
+        recordStart = 0;
+        recordEnd = 0;
+        boolean quoted = false;
+        while (true) {
+            for (int i = position; i < limit; i++) {
+                byte b = bytes[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n') {
+                    nextLineNumber++;
+                    if (!quoted) {
+                        position = i + 1;
+                        return;
+                    }
+                }
+            }
+            position = 0;
+            limit = 0;
+            fill();
+            if (endOfInput) {
+                nextLineNumber++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Splits the current record into fields
+     */
+    private void parseFields() {
+        int i = recordStart;
+        int end = recordEnd;
+        while (true) {
+            ensureFieldCapacity(fieldCount + 1);
+            int start;
+            int fieldEnd;
+            boolean escaped = false;
+            while (i < end && isBlank(bytes[i])) {
+                i++;
+            }
+            if (i < end && bytes[i] == '"') {
+                start = ++i;
+                while (true) {
+                    if (i >= end) {
+                        malformed = true;
+                        break;
+                    }
+                    if (bytes[i] == '"') {
+                        if (i + 1 < end && bytes[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                fieldEnd = Math.min(i, end);
+                i = Math.min(i + 1, end);
+                while (i < end && isBlank(bytes[i])) {
+                    i++;
+                }
+                if (i < end && bytes[i] != ',') {
+                    malformed = true;
+                    while (i < end && bytes[i] != ',') {
+                        i++;
+                    }
+                }
+            } else {
+                start = i;
+                while (i < end && bytes[i] != ',') {
+                    i++;
+                }
+                fieldEnd = i;
+                while (fieldEnd > start && isBlank(bytes[fieldEnd - 1])) {
+                    fieldEnd--;
+                }
+            }
+            fieldStarts[fieldCount] = start;
+            fieldEnds[fieldCount] = fieldEnd;
+            fieldEscaped[fieldCount] = escaped;
+            fieldCount++;
+            if (i >= end) {
+                return;
+            }
+            // Skip the comma
+            i++;
+        }
+    }
+
+    /**
+     * Grows the field arrays to hold at least a number of fields
+     */
+    private void ensureFieldCapacity(int capacity) {
+        if (fieldStarts.length < capacity) {
+            int length = Math.max(capacity, fieldStarts.length * 2);
+            fieldStarts = Arrays.copyOf(fieldStarts, length);
+            fieldEnds = Arrays.copyOf(fieldEnds, length);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, length);
+        }
+        if (slices.length < capacity) {
+            int oldLength = slices.length;
+            slices = Arrays.copyOf(slices, Math.max(capacity, fieldStarts.length));
+            for (int i = oldLength; i < slices.length; i++) {
+                slices[i] = new FieldSlice();
+            }
+        }
+    }
+
+    /**
+     * Checks that a field index is inside the current record
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount)
+            throw new IndexOutOfBoundsException("Record has no field " + (index + 1) + ".");
+    }
+
+    /**
+     * Retrieves whether a byte is a space or a tab
+     */
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    /**
+     * CharSequence view of a range of the read buffer
+     */
+    private final class FieldSlice implements CharSequence {
+
+        /**
+         * Start of the range in the buffer
+         */
+        private int start;
+
+        /**
+         * End of the range in the buffer
+         */
+        private int end;
+
+        /**
+         * Points this view at a range of the buffer
+         */
+        private FieldSlice reset(int start, int end) {
+            this.start = start;
+            this.end = end;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("Index " + index + " is outside the field.");
+            return (char) (bytes[start + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > end - start || from > to)
+                throw new IndexOutOfBoundsException("Range " + from + "-" + to + " is outside the field.");
+            return new String(bytes, start + from, to - from, StandardCharsets.ISO_8859_1);
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+}
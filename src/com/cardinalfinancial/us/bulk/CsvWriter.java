@@ -0,0 +1,280 @@
+package com.cardinalfinancial.us.bulk;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writer of comma separated rows to a WritableByteChannel. Numbers, amounts and dates are formatted straight into one
+ * fixed-size byte buffer, which is written to the channel whenever it fills up, so writing a file of any size uses the
+ * same memory. Text fields are written as UTF-8 and quoted when they contain a comma, a quote or a line break. This
+ * class is not thread safe.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CsvWriter implements Flushable, Closeable {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(CsvWriter.class.getName());
+
+    /**
+     * Default size of the write buffer in bytes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Longest formatted number, date or amount in bytes
+     */
+    private static final int MAX_NUMBER_LENGTH = 24;
+
+    /**
+     * The channel rows are written to
+     */
+    private final WritableByteChannel channel;
+
+    /**
+     * The write buffer
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Builder dates are formatted into
+     */
+    private final StringBuilder dateBuilder = new StringBuilder(8);
+
+    /**
+     * Whether the next field is the first of its row
+     */
+    private boolean rowStart = true;
+
+    /**
+     * Constructor for CsvWriter with the default buffer size
+     *
+     * @param channel the channel to write to
+     */
+    public CsvWriter(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor for CsvWriter
+     * If the buffer is too small for a formatted number, then throw exception
+     *
+     * @param channel    the channel to write to
+     * @param bufferSize the size of the write buffer in bytes
+     */
+    public CsvWriter(WritableByteChannel channel, int bufferSize) {
+        if (bufferSize < MAX_NUMBER_LENGTH + 1)
+            throw new IllegalArgumentException("Buffer size must be at least " + (MAX_NUMBER_LENGTH + 1) + " bytes.");
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Writes a text field, or an empty field if the value is null
+     *
+     * @param value the field value
+     * @return this CsvWriter
+     */
+    public CsvWriter field(CharSequence value) {
+        separate();
+        if (value == null) {
+            return this;
+        }
+        int length = value.length();
+        boolean quote = false;
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            quote |= c == ',' || c == '"' || c == '\n' || c == '\r';
+            ascii &= c < 0x80;
+        }
+        if (!ascii) {
+            writeEncoded(value.toString(), quote);
+            return this;
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put((byte) '"');
+            }
+            put((byte) c);
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+        return this;
+    }
+
+    /**
+     * Writes a whole number field
+     *
+     * @param value the field value
+     * @return this CsvWriter
+     */
+    public CsvWriter field(long value) {
+        separate();
+        reserve(MAX_NUMBER_LENGTH);
+        putLong(value);
+        return this;
+    }
+
+    /**
+     * Writes an amount in cents as a plain decimal field such as 1234.50
+     *
+     * @param cents the amount in cents
+     * @return this CsvWriter
+     */
+    public CsvWriter amountField(long cents) {
+        separate();
+        reserve(MAX_NUMBER_LENGTH);
+        if (cents < 0) {
+            buffer.put((byte) '-');
+        }
+        // Negate the remainder rather than the amount, which may be Long.MIN_VALUE
+        long remainder = Math.abs(cents % 100);
+        putLong(Math.abs(cents / 100));
+        buffer.put((byte) '.').put((byte) ('0' + remainder / 10)).put((byte) ('0' + remainder % 10));
+        return this;
+    }
+
+    /**
+     * Writes an epoch day as a date field in MM/dd/yy format
+     *
+     * @param epochDay the date as a day count since 1970-01-01
+     * @return this CsvWriter
+     */
+    public CsvWriter dateField(long epochDay) {
+        separate();
+        reserve(MAX_NUMBER_LENGTH);
+        dateBuilder.setLength(0);
+        DateUtils.appendEpochDay(dateBuilder, epochDay);
+        for (int i = 0; i < dateBuilder.length(); i++) {
+            buffer.put((byte) dateBuilder.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Ends the current row
+     */
+    public void endRow() {
+        put((byte) '\n');
+        rowStart = true;
+    }
+
+    /**
+     * Writes the buffered bytes to the channel
+     *
+     * @throws CheckoutException if the channel cannot be written
+     */
+    @Override
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write CSV output");
+            throw new CheckoutException("Unable to write CSV output", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Flushes and closes the channel
+     */
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to close CSV output");
+                throw new CheckoutException("Unable to close CSV output", e);
+            }
+        }
+    }
+
+    /**
+     * Writes the comma before every field but the first of a row
+     */
+    private void separate() {
+        if (!rowStart) {
+            put((byte) ',');
+        }
+        rowStart = false;
+    }
+
+    /**
+     * Writes a non-ASCII text field as UTF-8
+     */
+    private void writeEncoded(String value, boolean quote) {
+        byte[] encoded = (quote ? "\"" + value.replace("\"", "\"\"") + "\"" : value).getBytes(StandardCharsets.UTF_8);
+        for (byte b : encoded) {
+            put(b);
+        }
+    }
+
+    /**
+     * Writes a non-negative whole number, or a negative one with its sign, into the buffer
+     */
+    private void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            for (byte b : Long.toString(value).getBytes(StandardCharsets.US_ASCII)) {
+                buffer.put(b);
+            }
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digitCount = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digitCount++;
+        }
+        int end = buffer.position() + digitCount;
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    /**
+     * Writes one byte, flushing first if the buffer is full
+     */
+    private void put(byte b) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    /**
+     * Flushes if the buffer has less room than a number of bytes
+     */
+    private void reserve(int length) {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cardinalfinancial.us.bulk;
+
+/**
+ * Immutable counts of one bulk import run
+ *
+ * @author Sylvia Barnai
+ */
+public final class ImportSummary {
+
+    /**
+     * Number of checkout rows read, excluding the header row and blank lines
+     */
+    private final long rowCount;
+
+    /**
+     * Number of rows that produced a RentalAgreement
+     */
+    private final long importedCount;
+
+    /**
+     * Number of rows that were rejected
+     */
+    private final long rejectedCount;
+
+    /**
+     * Time the run took in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Constructor for ImportSummary
+     *
+     * @param rowCount      the number of checkout rows read
+     * @param importedCount the number of rows that produced a RentalAgreement
+     * @param rejectedCount the number of rows that were rejected
+     * @param elapsedNanos  the time the run took in nanoseconds
+     */
+    public ImportSummary(long rowCount, long importedCount, long rejectedCount, long elapsedNanos) {
+        this.rowCount = rowCount;
+        this.importedCount = importedCount;
+        this.rejectedCount = rejectedCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Retrieves the number of checkout rows read
+     *
+     * @return the row count, excluding the header row and blank lines
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Retrieves the number of rows that produced a RentalAgreement
+     *
+     * @return the imported count
+     */
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * Retrieves the number of rows that were rejected
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Retrieves the time the run took
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows, %d imported, %d rejected in %.1f ms", rowCount, importedCount, rejectedCount,
+                elapsedNanos / 1e6);
+    }
+}
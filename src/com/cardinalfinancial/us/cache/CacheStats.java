@@ -0,0 +1,95 @@
+package com.cardinalfinancial.us.cache;
+
+/**
+ * CacheStats class that holds a point-in-time snapshot of the statistics of a cache
+ *
+ * @author Sylvia Barnai
+ */
+public final class CacheStats {
+
+    /**
+     * Number of lookups that found a cached value
+     */
+    private final long hitCount;
+
+    /**
+     * Number of lookups that had to compute the value
+     */
+    private final long missCount;
+
+    /**
+     * Number of entries removed to stay within the maximum size
+     */
+    private final long evictionCount;
+
+    /**
+     * Number of entries in the cache
+     */
+    private final long size;
+
+    /**
+     * Constructor for CacheStats
+     *
+     * @param hitCount      the number of hits
+     * @param missCount     the number of misses
+     * @param evictionCount the number of evictions
+     * @param size          the number of entries
+     */
+    public CacheStats(long hitCount, long missCount, long evictionCount, long size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Retrieves the number of lookups that found a cached value
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Retrieves the number of lookups that had to compute the value
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Retrieves the number of entries removed to stay within the maximum size
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Retrieves the number of entries in the cache
+     *
+     * @return the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Retrieves the fraction of lookups that found a cached value
+     *
+     * @return the hit rate between 0 and 1, or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount + ", size=" + size;
+    }
+}
@@ -0,0 +1,423 @@
+package com.cardinalfinancial.us.cache;
+
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread-safe cache of the RentalAgreement of every Checkout that carries an idempotency key, so a terminal that
+ * retries a checkout after a network error gets the original agreement back instead of a second one. Entries live in
+ * a ConcurrentHashMap, so a replay is found without taking a lock. A retry that arrives while the original checkout is
+ * still being processed waits for it instead of processing it again, and a checkout that fails is not remembered, so
+ * its retry is processed from scratch.
+ * Every entry expires a fixed time after it was added, so entries expire in the order they were added. A queue keeps
+ * that order, and every new entry removes at most a few entries from its head that are expired or beyond the maximum
+ * size. Expiry is spread over the checkouts that add entries and never walks the whole cache; expired entries that are
+ * not removed yet are treated as missing. Entries of failed checkouts and replaced expired entries leave the map at
+ * once but stay in the queue until they reach its head, so the maximum size bounds the queue, which holds every entry
+ * of the map.
+ *
+ * @author Sylvia Barnai
+ */
+public final class IdempotencyCache {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(IdempotencyCache.class.getName());
+
+    /**
+     * Default maximum number of remembered checkouts
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 65536;
+
+    /**
+     * Default time a checkout is remembered for, in minutes
+     */
+    public static final long DEFAULT_TIME_TO_LIVE_MINUTES = 10;
+
+    /**
+     * Largest number of entries one new entry removes from the head of the queue. More than one, so removal keeps
+     * ahead of insertion and the cache shrinks back to its maximum size after a burst.
+     */
+    private static final int EXPIRY_BATCH_SIZE = 4;
+
+    /**
+     * Entries by idempotency key
+     */
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries in the order they were added, which is also the order they expire in
+     */
+    private final ConcurrentLinkedQueue<Entry> expiryQueue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of entries in the map, which ConcurrentHashMap.size() would count by walking its cells
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Number of entries in the queue, including entries that already left the map
+     */
+    private final AtomicInteger queueLength = new AtomicInteger();
+
+    /**
+     * Maximum number of remembered checkouts
+     */
+    private final int maximumSize;
+
+    /**
+     * Time a checkout is remembered for, in nanoseconds
+     */
+    private final long timeToLiveNanos;
+
+    /**
+     * Source of the current time in nanoseconds
+     */
+    private final LongSupplier ticker;
+
+    /**
+     * Number of checkouts answered with a remembered RentalAgreement
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Number of checkouts that had to be processed
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Number of entries removed because they expired or the cache was full
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Private constructor, creates an IdempotencyCache instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private IdempotencyCache(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.timeToLiveNanos = builder.timeToLiveNanos;
+        this.ticker = builder.ticker;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Maximum number of remembered checkouts, DEFAULT_MAXIMUM_SIZE by default
+         */
+        private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+        /**
+         * Time a checkout is remembered for in nanoseconds, DEFAULT_TIME_TO_LIVE_MINUTES by default
+         */
+        private long timeToLiveNanos = TimeUnit.MINUTES.toNanos(DEFAULT_TIME_TO_LIVE_MINUTES);
+
+        /**
+         * Source of the current time in nanoseconds, System.nanoTime() by default
+         */
+        private LongSupplier ticker = System::nanoTime;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the maximum number of remembered checkouts
+         * If the maximum size is less than 1, then throw exception
+         *
+         * @param maximumSize the maximum number of remembered checkouts
+         * @return Builder instance
+         */
+        public Builder setMaximumSize(int maximumSize) {
+            if (maximumSize < 1)
+                throw new IllegalArgumentException("Maximum cache size must be at least 1.");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the time a checkout is remembered for, which should exceed the time terminals keep retrying
+         * If the time is not positive, then throw exception
+         *
+         * @param timeToLive the time a checkout is remembered for
+         * @param unit       the unit of the time
+         * @return Builder instance
+         */
+        public Builder setTimeToLive(long timeToLive, TimeUnit unit) {
+            if (timeToLive <= 0)
+                throw new IllegalArgumentException("Time to live must be positive.");
+            this.timeToLiveNanos = unit.toNanos(timeToLive);
+            return this;
+        }
+
+        /**
+         * Sets the source of the current time, for example a manually advanced clock in tests
+         *
+         * @param ticker the source of the current time in nanoseconds
+         * @return Builder instance
+         */
+        public Builder setTicker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Creates an IdempotencyCache instance
+         *
+         * @return IdempotencyCache instance
+         */
+        public IdempotencyCache build() {
+            return new IdempotencyCache(this);
+        }
+    }
+
+    /**
+     * Returns the RentalAgreement of an earlier Checkout with the same idempotency key, or processes the Checkout and
+     * remembers its RentalAgreement. A Checkout without an idempotency key is always processed, and so is one whose
+     * tool code or date cannot be valid, since it fails without an agreement to remember. Dates are compared as days,
+     * so a retry may write 07/02/20 for 7/2/20.
+     * If the idempotency key was used for a checkout with a different tool code, date, rental day count or discount,
+     * then throw CheckoutException
+     *
+     * @param checkout          the Checkout instance to be processed
+     * @param checkoutProcessor the function that creates the RentalAgreement of a new Checkout
+     * @return RentalAgreement instance
+     */
+    public RentalAgreement getOrProcess(Checkout checkout, Function<Checkout, RentalAgreement> checkoutProcessor) {
+        String key = checkout.getIdempotencyKey();
+        int packedToolCode = ToolCatalog.packCode(checkout.getToolCode());
+        long checkoutEpochDay = DateUtils.parseEpochDay(checkout.getCheckoutDate());
+        if (key == null || packedToolCode == 0 || checkoutEpochDay < 0) {
+            return checkoutProcessor.apply(checkout);
+        }
+        while (true) {
+            long now = ticker.getAsLong();
+            Entry entry = entries.get(key);
+            if (entry == null || entry.isExpired(now)) {
+                Entry created = new Entry(key, packedToolCode, checkoutEpochDay, checkout, now + timeToLiveNanos);
+                if (entry == null ? entries.putIfAbsent(key, created) != null : !entries.replace(key, entry, created)) {
+                    // Another thread added an entry for the key first, so use that one
+                    continue;
+                }
+                if (entry == null) {
+                    size.incrementAndGet();
+                } else {
+                    evictionCount.increment();
+                }
+                missCount.increment();
+                expiryQueue.add(created);
+                queueLength.incrementAndGet();
+                expire(now);
+                return process(created, checkout, checkoutProcessor);
+            }
+            if (!entry.matches(packedToolCode, checkoutEpochDay, checkout)) {
+                LOGGER.log(Level.WARNING, "Idempotency key [" + key + "] was used for a different checkout");
+                throw new CheckoutException("Idempotency key was used for a different checkout");
+            }
+            RentalAgreement rentalAgreement = entry.await();
+            if (rentalAgreement != null) {
+                hitCount.increment();
+                return rentalAgreement;
+            }
+            // The original checkout failed and its entry is gone, so this retry processes the checkout again
+        }
+    }
+
+    /**
+     * Processes a Checkout for a new entry and completes the entry with its RentalAgreement, or removes the entry
+     * if the checkout fails
+     */
+    private RentalAgreement process(Entry entry, Checkout checkout, Function<Checkout, RentalAgreement> checkoutProcessor) {
+        RentalAgreement rentalAgreement = null;
+        try {
+            rentalAgreement = checkoutProcessor.apply(checkout);
+            return rentalAgreement;
+        } finally {
+            if (rentalAgreement == null && entries.remove(entry.key, entry)) {
+                size.decrementAndGet();
+            }
+            entry.complete(rentalAgreement);
+        }
+    }
+
+    /**
+     * Removes up to EXPIRY_BATCH_SIZE entries from the head of the queue while they are expired or the queue holds
+     * more than the maximum size
+     */
+    private void expire(long now) {
+        for (int i = 0; i < EXPIRY_BATCH_SIZE; i++) {
+            Entry head = expiryQueue.peek();
+            if (head == null || (!head.isExpired(now) && queueLength.get() <= maximumSize)) {
+                return;
+            }
+            // Another thread may have taken the head since the peek, then it is not removed twice
+            if (expiryQueue.remove(head)) {
+                queueLength.decrementAndGet();
+                if (entries.remove(head.key, head)) {
+                    size.decrementAndGet();
+                    evictionCount.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes every remembered checkout. Statistics are kept.
+     */
+    public void clear() {
+        for (Entry entry; (entry = expiryQueue.poll()) != null; ) {
+            queueLength.decrementAndGet();
+            if (entries.remove(entry.key, entry)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Retrieves a snapshot of the cache statistics, where hits are replayed checkouts
+     *
+     * @return CacheStats instance
+     */
+    public CacheStats getStats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size.get());
+    }
+
+    /**
+     * Retrieves the number of entries in the expiry queue, which includes entries of failed or replaced checkouts that
+     * have left the cache but not reached the head of the queue yet. It exceeds the maximum size by at most the number
+     * of threads adding entries at the same time.
+     *
+     * @return the length of the expiry queue
+     */
+    public int getQueueLength() {
+        return queueLength.get();
+    }
+
+    /**
+     * Remembered checkout, its expiry time and its RentalAgreement once it is processed
+     */
+    private static final class Entry {
+
+        /**
+         * The idempotency key
+         */
+        private final String key;
+
+        /**
+         * The tool code packed as the catalog looks it up, checkout epoch day, rental day count and discount percent
+         * of the checkout
+         */
+        private final int packedToolCode;
+        private final long checkoutEpochDay;
+        private final int rentalDayCount;
+        private final int discountPercent;
+
+        /**
+         * Value of the ticker when the entry expires
+         */
+        private final long expiresAtNanos;
+
+        /**
+         * Released when the checkout has been processed
+         */
+        private final CountDownLatch processed = new CountDownLatch(1);
+
+        /**
+         * The RentalAgreement of the checkout, or null until it is processed or if it failed
+         */
+        private volatile RentalAgreement rentalAgreement;
+
+        /**
+         * Constructor for Entry
+         *
+         * @param key              the idempotency key
+         * @param packedToolCode   the tool code packed by ToolCatalog.packCode()
+         * @param checkoutEpochDay the checkout date as an epoch day
+         * @param checkout         the Checkout instance
+         * @param expiresAtNanos   the value of the ticker when the entry expires
+         */
+        private Entry(String key, int packedToolCode, long checkoutEpochDay, Checkout checkout, long expiresAtNanos) {
+            this.key = key;
+            this.packedToolCode = packedToolCode;
+            this.checkoutEpochDay = checkoutEpochDay;
+            this.rentalDayCount = checkout.getRentalDayCount();
+            this.discountPercent = checkout.getDiscountPercent();
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        /**
+         * Checks whether the entry has expired, comparing the difference so the ticker may wrap around
+         */
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        /**
+         * Checks whether a checkout asks for the same rental as the remembered one
+         */
+        private boolean matches(int packedToolCode, long checkoutEpochDay, Checkout checkout) {
+            return this.packedToolCode == packedToolCode && this.checkoutEpochDay == checkoutEpochDay
+                    && rentalDayCount == checkout.getRentalDayCount() && discountPercent == checkout.getDiscountPercent();
+        }
+
+        /**
+         * Stores the RentalAgreement and releases the threads waiting for it
+         */
+        private void complete(RentalAgreement rentalAgreement) {
+            this.rentalAgreement = rentalAgreement;
+            processed.countDown();
+        }
+
+        /**
+         * Waits until the checkout has been processed
+         * If the thread is interrupted while waiting, then throw CheckoutException
+         *
+         * @return the RentalAgreement, or null if the checkout failed
+         */
+        private RentalAgreement await() {
+            RentalAgreement processedAgreement = rentalAgreement;
+            if (processedAgreement != null) {
+                return processedAgreement;
+            }
+            try {
+                processed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.log(Level.WARNING, "Interrupted while waiting for the original checkout");
+                throw new CheckoutException("Interrupted while waiting for the original checkout", e);
+            }
+            return rentalAgreement;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.cardinalfinancial.us.cache;
+
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.model.PricingResult;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, thread-safe cache of PricingResult instances keyed on tool type, checkout date, rental day count and
+ * discount percent. The cache is split into segments, each an access-ordered LinkedHashMap guarded by its own lock,
+ * so threads pricing different inputs rarely wait on each other and each segment evicts its least recently used entry.
+ * Keys hold the id of the tool type, and every entry remembers its ToolTypeDefinition, so the results of a catalog that
+ * has since been reloaded are never returned for the new catalog's tool types; they are evicted over time.
+ *
+ * @author Sylvia Barnai
+ */
+public final class PriceCache {
+
+    /**
+     * Default maximum number of cached pricing results
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 65536;
+
+    /**
+     * Number of segments, a power of two so the segment index is a mask
+     */
+    private static final int SEGMENT_COUNT = 32;
+
+    /**
+     * Largest rental day count that fits in the packed key
+     */
+    private static final int MAX_KEY_RENTAL_DAY_COUNT = (1 << 17) - 1;
+
+    /**
+     * Largest tool type id that fits in the packed key
+     */
+    private static final int MAX_KEY_TOOL_TYPE_ID = (1 << 16) - 1;
+
+    /**
+     * Smallest and largest checkout epoch days that fit in the packed key, about 23000 years around 1970
+     */
+    private static final long MIN_KEY_EPOCH_DAY = -(1L << 23);
+    private static final long MAX_KEY_EPOCH_DAY = (1L << 23) - 1;
+
+    /**
+     * The segments of the cache
+     */
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    /**
+     * Number of lookups that found a cached value
+     */
+    private final LongAdder hitCount = new LongAdder();
+
+    /**
+     * Number of lookups that had to compute the value
+     */
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Number of entries evicted to stay within the maximum size
+     */
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Constructor for PriceCache with the default maximum size
+     */
+    public PriceCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * Constructor for PriceCache
+     * If the maximum size is less than 1, then throw exception
+     *
+     * @param maximumSize the maximum number of cached pricing results
+     */
+    public PriceCache(int maximumSize) {
+        if (maximumSize < 1)
+            throw new IllegalArgumentException("Maximum cache size must be at least 1.");
+        int segmentCapacity = Math.max(1, (maximumSize + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Retrieves the cached pricing result for a set of inputs of a legacy ToolType
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent
+     * @return PricingResult instance
+     */
+    public PricingResult getOrCompute(ToolType toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        return getOrCompute(ToolTypeDefinition.of(toolType), checkoutEpochDay, rentalDayCount, discountPercent);
+    }
+
+    /**
+     * Retrieves the cached pricing result for a set of inputs, calculating and caching it on a miss.
+     * The calculation runs outside of the segment lock, so two threads may both calculate the same missing result.
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent
+     * @return PricingResult instance
+     */
+    public PricingResult getOrCompute(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        PricingResult pricingResult = get(toolType, checkoutEpochDay, rentalDayCount, discountPercent);
+        if (pricingResult == null) {
+            pricingResult = CalculateChargesUtils.calculatePricing(toolType, checkoutEpochDay, rentalDayCount, discountPercent);
+            put(toolType, checkoutEpochDay, rentalDayCount, discountPercent, pricingResult);
+        }
+        return pricingResult;
+    }
+
+    /**
+     * Retrieves the cached pricing result for a set of inputs, counting a hit or a miss
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent
+     * @return PricingResult instance, or null if it is not cached
+     */
+    public PricingResult get(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        if (!fitsKey(toolType, checkoutEpochDay, rentalDayCount, discountPercent)) {
+            missCount.increment();
+            return null;
+        }
+        long key = key(toolType, checkoutEpochDay, rentalDayCount, discountPercent);
+        CachedPricing cachedPricing = segments[spread(key) & (SEGMENT_COUNT - 1)].get(key);
+        if (cachedPricing != null && cachedPricing.toolType == toolType) {
+            hitCount.increment();
+            return cachedPricing.pricingResult;
+        }
+        missCount.increment();
+        return null;
+    }
+
+    /**
+     * Caches the pricing result for a set of inputs. Inputs that do not fit the packed key are not cached.
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent
+     * @param pricingResult    the pricing result of the inputs
+     */
+    public void put(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent, PricingResult pricingResult) {
+        if (fitsKey(toolType, checkoutEpochDay, rentalDayCount, discountPercent)) {
+            long key = key(toolType, checkoutEpochDay, rentalDayCount, discountPercent);
+            segments[spread(key) & (SEGMENT_COUNT - 1)].put(key, new CachedPricing(toolType, pricingResult));
+        }
+    }
+
+    /**
+     * Removes every cached pricing result. Statistics are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Retrieves a snapshot of the cache statistics
+     *
+     * @return CacheStats instance
+     */
+    public CacheStats getStats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(), size);
+    }
+
+    /**
+     * Checks whether a set of inputs fits the packed key
+     */
+    private static boolean fitsKey(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        return toolType.getId() >= 0 && toolType.getId() <= MAX_KEY_TOOL_TYPE_ID
+                && rentalDayCount >= 0 && rentalDayCount <= MAX_KEY_RENTAL_DAY_COUNT
+                && checkoutEpochDay >= MIN_KEY_EPOCH_DAY && checkoutEpochDay <= MAX_KEY_EPOCH_DAY
+                && discountPercent >= 0 && discountPercent <= 127;
+    }
+
+    /**
+     * Packs a set of inputs into a key: tool type id in the top 16 bits, then discount percent, rental day count and
+     * checkout epoch day
+     */
+    private static long key(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        return ((long) toolType.getId() << 48) | ((long) discountPercent << 41) | ((long) rentalDayCount << 24)
+                | (checkoutEpochDay & 0xFFFFFFL);
+    }
+
+    /**
+     * Mixes the bits of a key so consecutive dates spread over the segments
+     */
+    private static int spread(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 40);
+    }
+
+    /**
+     * One segment of the cache: an access-ordered LinkedHashMap that evicts its eldest entry when full
+     */
+    private final class Segment {
+
+        /**
+         * The cached pricing results of this segment, guarded by this segment's lock
+         */
+        private final LinkedHashMap<Long, CachedPricing> entries;
+
+        /**
+         * Constructor for Segment
+         *
+         * @param capacity the maximum number of entries in this segment
+         */
+        private Segment(int capacity) {
+            this.entries = new LinkedHashMap<Long, CachedPricing>(Math.min(capacity, 1024) * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedPricing> eldest) {
+                    if (size() > capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private synchronized CachedPricing get(long key) {
+            return entries.get(key);
+        }
+
+        private synchronized void put(long key, CachedPricing cachedPricing) {
+            entries.put(key, cachedPricing);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * A cached pricing result with the tool type it was calculated for
+     */
+    private static final class CachedPricing {
+
+        /**
+         * The tool type the result was calculated for
+         */
+        private final ToolTypeDefinition toolType;
+
+        /**
+         * The cached pricing result
+         */
+        private final PricingResult pricingResult;
+
+        /**
+         * Constructor for CachedPricing
+         *
+         * @param toolType      the tool type the result was calculated for
+         * @param pricingResult the pricing result
+         */
+        private CachedPricing(ToolTypeDefinition toolType, PricingResult pricingResult) {
+            this.toolType = toolType;
+            this.pricingResult = pricingResult;
+        }
+    }
+}
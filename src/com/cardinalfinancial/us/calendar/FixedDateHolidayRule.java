@@ -0,0 +1,59 @@
+package com.cardinalfinancial.us.calendar;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Holiday rule for a holiday that falls on the same month and day every year, such as Independence Day (July 4th)
+ *
+ * @author Sylvia Barnai
+ */
+public final class FixedDateHolidayRule implements HolidayRule {
+
+    /**
+     * The name of the holiday
+     */
+    private final String name;
+
+    /**
+     * The month of the holiday
+     */
+    private final Month month;
+
+    /**
+     * The day of the month of the holiday
+     */
+    private final int dayOfMonth;
+
+    /**
+     * Constructor for FixedDateHolidayRule
+     *
+     * @param name       the name of the holiday
+     * @param month      the month of the holiday
+     * @param dayOfMonth the day of the month of the holiday
+     */
+    public FixedDateHolidayRule(String name, Month month, int dayOfMonth) {
+        if (dayOfMonth < 1 || dayOfMonth > month.maxLength())
+            throw new IllegalArgumentException("Day of month " + dayOfMonth + " is not valid for " + month);
+        this.name = name;
+        this.month = month;
+        this.dayOfMonth = dayOfMonth;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Calculates the holiday date of a year. February 29th falls back to February 28th in common years.
+     *
+     * @param year the year
+     * @return the holiday as an epoch day
+     */
+    @Override
+    public long observedEpochDay(int year) {
+        return LocalDate.of(year, month, Math.min(dayOfMonth, month.length(Year.isLeap(year)))).toEpochDay();
+    }
+}
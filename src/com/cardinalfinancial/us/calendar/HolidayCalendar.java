@@ -0,0 +1,191 @@
+package com.cardinalfinancial.us.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Calendar of holidays built from a list of HolidayRule instances. The rules are evaluated once per year into a
+ * bitset table, so checking a day is a single bit test. Year tables are built lazily on first use and published
+ * without locks, which makes a calendar safe to share between threads.
+ *
+ * @author Sylvia Barnai
+ */
+public final class HolidayCalendar {
+
+    /**
+     * The first year whose table is cached
+     */
+    public static final int MIN_CACHED_YEAR = 1900;
+
+    /**
+     * The last year whose table is cached
+     */
+    public static final int MAX_CACHED_YEAR = 2299;
+
+    /**
+     * The holidays observed by the rental store: Independence Day (observed on the closest weekday) and Labor Day
+     */
+    public static final HolidayCalendar US_DEFAULT = new HolidayCalendar(Arrays.<HolidayRule>asList(
+            new ObservedHolidayRule(new FixedDateHolidayRule("Independence Day", Month.JULY, 4)),
+            new NthWeekdayHolidayRule("Labor Day", Month.SEPTEMBER, DayOfWeek.MONDAY, 1)));
+
+    /**
+     * Number of days from 0001-01-01 to 1970-01-01 in the proleptic Gregorian calendar
+     */
+    private static final long DAYS_0001_TO_1970 = 719162L;
+
+    /**
+     * Offset that shifts epoch day 0 (Thursday) so that a shifted value divisible by 7 is a Monday
+     */
+    private static final int MONDAY_OFFSET = 3;
+
+    /**
+     * The holiday rules of this calendar
+     */
+    private final List<HolidayRule> rules;
+
+    /**
+     * Year tables built so far, indexed by year minus MIN_CACHED_YEAR
+     */
+    private final AtomicReferenceArray<YearHolidays> years = new AtomicReferenceArray<>(MAX_CACHED_YEAR - MIN_CACHED_YEAR + 1);
+
+    /**
+     * Constructor for HolidayCalendar
+     *
+     * @param rules the holiday rules of this calendar
+     */
+    public HolidayCalendar(List<HolidayRule> rules) {
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    /**
+     * Retrieves the holiday rules of this calendar
+     *
+     * @return the holiday rules
+     */
+    public List<HolidayRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Determine whether a day is a holiday
+     *
+     * @param epochDay the day as an epoch day
+     * @return true if a holiday is observed on that day
+     */
+    public boolean isHoliday(long epochDay) {
+        return forYear(yearOf(epochDay)).isHoliday(epochDay);
+    }
+
+    /**
+     * Counts the holidays between two epoch days, inclusive
+     *
+     * @param fromEpochDay the first day of the range
+     * @param toEpochDay   the last day of the range
+     * @return the number of holidays in the range, or 0 if the range is empty
+     */
+    public int countHolidays(long fromEpochDay, long toEpochDay) {
+        int count = 0;
+        if (toEpochDay >= fromEpochDay) {
+            for (int year = yearOf(fromEpochDay), lastYear = yearOf(toEpochDay); year <= lastYear; year++) {
+                count += forYear(year).countHolidays(fromEpochDay, toEpochDay);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the holidays that fall on a Saturday or Sunday between two epoch days, inclusive
+     *
+     * @param fromEpochDay the first day of the range
+     * @param toEpochDay   the last day of the range
+     * @return the number of weekend holidays in the range, or 0 if the range is empty
+     */
+    public int countWeekendHolidays(long fromEpochDay, long toEpochDay) {
+        int count = 0;
+        if (toEpochDay >= fromEpochDay) {
+            for (int year = yearOf(fromEpochDay), lastYear = yearOf(toEpochDay); year <= lastYear; year++) {
+                count += forYear(year).countWeekendHolidays(fromEpochDay, toEpochDay);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the table of a year, building it on first use. Two threads may build the same year at the same time;
+     * only the first table is published and both are identical.
+     *
+     * @param year the year
+     * @return the holiday table of the year
+     */
+    YearHolidays forYear(int year) {
+        if (year < MIN_CACHED_YEAR || year > MAX_CACHED_YEAR) {
+            return buildYear(year);
+        }
+        int index = year - MIN_CACHED_YEAR;
+        YearHolidays yearHolidays = years.get(index);
+        if (yearHolidays == null) {
+            years.compareAndSet(index, null, buildYear(year));
+            yearHolidays = years.get(index);
+        }
+        return yearHolidays;
+    }
+
+    /**
+     * Evaluates every rule for a year. The neighbouring years are evaluated too, because an observed holiday can move
+     * across a year boundary (for example January 1st on a Saturday is observed on December 31st).
+     */
+    private YearHolidays buildYear(int year) {
+        long firstEpochDay = yearStartEpochDay(year);
+        long lastEpochDay = yearStartEpochDay(year + 1) - 1;
+        long[] holidayBits = new long[6];
+        long[] weekendHolidayBits = new long[6];
+        for (HolidayRule rule : rules) {
+            for (int ruleYear = year - 1; ruleYear <= year + 1; ruleYear++) {
+                long epochDay = rule.observedEpochDay(ruleYear);
+                if (epochDay >= firstEpochDay && epochDay <= lastEpochDay) {
+                    int index = (int) (epochDay - firstEpochDay);
+                    holidayBits[index >>> 6] |= 1L << index;
+                    if (Math.floorMod(epochDay + MONDAY_OFFSET, 7) >= 5) {
+                        weekendHolidayBits[index >>> 6] |= 1L << index;
+                    }
+                }
+            }
+        }
+        return new YearHolidays(firstEpochDay, lastEpochDay, holidayBits, weekendHolidayBits);
+    }
+
+    /**
+     * Calculates January 1st of a year as an epoch day without creating a LocalDate
+     *
+     * @param year the year
+     * @return the first day of the year as an epoch day
+     */
+    public static long yearStartEpochDay(int year) {
+        long previousYear = year - 1L;
+        return 365L * previousYear + Math.floorDiv(previousYear, 4) - Math.floorDiv(previousYear, 100)
+                + Math.floorDiv(previousYear, 400) - DAYS_0001_TO_1970;
+    }
+
+    /**
+     * Calculates the year that contains an epoch day without creating a LocalDate
+     *
+     * @param epochDay the day as an epoch day
+     * @return the year of the day
+     */
+    public static int yearOf(long epochDay) {
+        int year = (int) (1970 + Math.floorDiv(epochDay * 400, 146097));
+        while (yearStartEpochDay(year) > epochDay) {
+            year--;
+        }
+        while (yearStartEpochDay(year + 1) <= epochDay) {
+            year++;
+        }
+        return year;
+    }
+}
@@ -0,0 +1,25 @@
+package com.cardinalfinancial.us.calendar;
+
+/**
+ * Interface that defines a holiday rule. A rule determines on which day a holiday is observed in a given year,
+ * and is evaluated once per year when the HolidayCalendar builds its table for that year.
+ *
+ * @author Sylvia Barnai
+ */
+public interface HolidayRule {
+
+    /**
+     * Retrieves the name of the holiday
+     *
+     * @return the name of the holiday
+     */
+    String getName();
+
+    /**
+     * Calculates the day the holiday is observed in a year
+     *
+     * @param year the year
+     * @return the observed holiday as an epoch day
+     */
+    long observedEpochDay(int year);
+}
@@ -0,0 +1,74 @@
+package com.cardinalfinancial.us.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Holiday rule for a holiday that falls on the nth day of the week of a month, such as Labor Day
+ * (first Monday in September). An ordinal of -1 selects the last such day of the month.
+ *
+ * @author Sylvia Barnai
+ */
+public final class NthWeekdayHolidayRule implements HolidayRule {
+
+    /**
+     * The name of the holiday
+     */
+    private final String name;
+
+    /**
+     * The month of the holiday
+     */
+    private final Month month;
+
+    /**
+     * The day of the week of the holiday
+     */
+    private final DayOfWeek dayOfWeek;
+
+    /**
+     * Which occurrence of the day of the week in the month, 1 to 5, or -1 for the last one
+     */
+    private final int ordinal;
+
+    /**
+     * Constructor for NthWeekdayHolidayRule
+     *
+     * @param name      the name of the holiday
+     * @param month     the month of the holiday
+     * @param dayOfWeek the day of the week of the holiday
+     * @param ordinal   which occurrence of the day of the week, 1 to 5, or -1 for the last one in the month
+     */
+    public NthWeekdayHolidayRule(String name, Month month, DayOfWeek dayOfWeek, int ordinal) {
+        if (ordinal != -1 && (ordinal < 1 || ordinal > 5))
+            throw new IllegalArgumentException("Ordinal must be between 1 and 5, or -1 for the last occurrence in the month");
+        this.name = name;
+        this.month = month;
+        this.dayOfWeek = dayOfWeek;
+        this.ordinal = ordinal;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Calculates the holiday date of a year. A fifth occurrence that does not exist falls back to the last one.
+     *
+     * @param year the year
+     * @return the holiday as an epoch day
+     */
+    @Override
+    public long observedEpochDay(int year) {
+        LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+        LocalDate last = firstOfMonth.with(TemporalAdjusters.lastInMonth(dayOfWeek));
+        if (ordinal == -1) {
+            return last.toEpochDay();
+        }
+        LocalDate nth = firstOfMonth.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+        return nth.getMonth() == month ? nth.toEpochDay() : last.toEpochDay();
+    }
+}
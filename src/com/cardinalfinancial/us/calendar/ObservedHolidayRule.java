@@ -0,0 +1,44 @@
+package com.cardinalfinancial.us.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Holiday rule that shifts another rule's holiday off the weekend to the closest weekday:
+ * a Saturday holiday is observed on the Friday before and a Sunday holiday on the Monday after.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ObservedHolidayRule implements HolidayRule {
+
+    /**
+     * The rule whose holiday is shifted
+     */
+    private final HolidayRule rule;
+
+    /**
+     * Constructor for ObservedHolidayRule
+     *
+     * @param rule the rule whose holiday is shifted to the closest weekday
+     */
+    public ObservedHolidayRule(HolidayRule rule) {
+        this.rule = rule;
+    }
+
+    @Override
+    public String getName() {
+        return rule.getName();
+    }
+
+    @Override
+    public long observedEpochDay(int year) {
+        long epochDay = rule.observedEpochDay(year);
+        DayOfWeek dayOfWeek = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+        if (dayOfWeek == DayOfWeek.SATURDAY) {
+            return epochDay - 1;
+        } else if (dayOfWeek == DayOfWeek.SUNDAY) {
+            return epochDay + 1;
+        }
+        return epochDay;
+    }
+}
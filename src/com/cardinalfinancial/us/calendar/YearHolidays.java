@@ -0,0 +1,103 @@
+package com.cardinalfinancial.us.calendar;
+
+/**
+ * Immutable table of the holidays observed in one calendar year, stored as bitsets indexed by day of the year.
+ * Instances are built once by HolidayCalendar and are safe to share between threads.
+ *
+ * @author Sylvia Barnai
+ */
+final class YearHolidays {
+
+    /**
+     * The first day of the year as an epoch day
+     */
+    private final long firstEpochDay;
+
+    /**
+     * The last day of the year as an epoch day
+     */
+    private final long lastEpochDay;
+
+    /**
+     * One bit per day of the year, set when the day is a holiday
+     */
+    private final long[] holidayBits;
+
+    /**
+     * One bit per day of the year, set when the day is a holiday that falls on a weekend
+     */
+    private final long[] weekendHolidayBits;
+
+    /**
+     * Constructor for YearHolidays
+     *
+     * @param firstEpochDay      the first day of the year as an epoch day
+     * @param lastEpochDay       the last day of the year as an epoch day
+     * @param holidayBits        the holiday bitset, indexed by day of the year starting at 0
+     * @param weekendHolidayBits the bitset of holidays that fall on a weekend, indexed by day of the year starting at 0
+     */
+    YearHolidays(long firstEpochDay, long lastEpochDay, long[] holidayBits, long[] weekendHolidayBits) {
+        this.firstEpochDay = firstEpochDay;
+        this.lastEpochDay = lastEpochDay;
+        this.holidayBits = holidayBits;
+        this.weekendHolidayBits = weekendHolidayBits;
+    }
+
+    /**
+     * Determine whether a day of this year is a holiday
+     *
+     * @param epochDay the day as an epoch day, which must be in this year
+     * @return true if the day is a holiday
+     */
+    boolean isHoliday(long epochDay) {
+        int index = (int) (epochDay - firstEpochDay);
+        return (holidayBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Counts the holidays between two epoch days, inclusive. Days outside of this year are ignored.
+     *
+     * @param fromEpochDay the first day of the range
+     * @param toEpochDay   the last day of the range
+     * @return the number of holidays in the range
+     */
+    int countHolidays(long fromEpochDay, long toEpochDay) {
+        return countBits(holidayBits, fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Counts the holidays that fall on a weekend between two epoch days, inclusive. Days outside of this year are ignored.
+     *
+     * @param fromEpochDay the first day of the range
+     * @param toEpochDay   the last day of the range
+     * @return the number of weekend holidays in the range
+     */
+    int countWeekendHolidays(long fromEpochDay, long toEpochDay) {
+        return countBits(weekendHolidayBits, fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Counts the bits set in a bitset for the part of a range that falls in this year
+     */
+    private int countBits(long[] bits, long fromEpochDay, long toEpochDay) {
+        long from = Math.max(fromEpochDay, firstEpochDay);
+        long to = Math.min(toEpochDay, lastEpochDay);
+        if (to < from) {
+            return 0;
+        }
+        int low = (int) (from - firstEpochDay);
+        int high = (int) (to - firstEpochDay);
+        int count = 0;
+        for (int word = low >>> 6; word <= high >>> 6; word++) {
+            long mask = -1L;
+            if (word == low >>> 6) {
+                mask &= -1L << low;
+            }
+            if (word == high >>> 6) {
+                mask &= -1L >>> (63 - (high & 63));
+            }
+            count += Long.bitCount(bits[word] & mask);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+package com.cardinalfinancial.us.catalog;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Holder of the current ToolCatalog. A reload reads the whole catalog into a new immutable snapshot and then swaps it
+ * in with one atomic write, so readers never take a lock and always see either the old or the new catalog.
+ * A failed reload keeps the current catalog.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ReloadableToolCatalog {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ReloadableToolCatalog.class.getName());
+
+    /**
+     * The current catalog
+     */
+    private final AtomicReference<ToolCatalog> current;
+
+    /**
+     * The catalog file, or null if the catalog is not read from a file
+     */
+    private final Path source;
+
+    /**
+     * Last modified time of the catalog file when it was last read, in milliseconds
+     */
+    private volatile long sourceLastModified;
+
+    /**
+     * Constructor for ReloadableToolCatalog that holds a catalog which is only changed by replace()
+     *
+     * @param toolCatalog the initial catalog
+     */
+    public ReloadableToolCatalog(ToolCatalog toolCatalog) {
+        this.current = new AtomicReference<>(toolCatalog);
+        this.source = null;
+    }
+
+    /**
+     * Constructor for ReloadableToolCatalog that reads a catalog file now and on every reload()
+     *
+     * @param source the catalog file
+     */
+    public ReloadableToolCatalog(Path source) {
+        this.source = source;
+        this.sourceLastModified = lastModified(source);
+        this.current = new AtomicReference<>(ToolCatalogLoader.load(source));
+    }
+
+    /**
+     * Retrieves the catalog that ships with the application, read once on first use
+     *
+     * @return the shared ReloadableToolCatalog instance
+     */
+    public static ReloadableToolCatalog getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Retrieves the current catalog. Callers that look up several tools together should call this once and use the
+     * snapshot, so that a reload in between cannot mix two catalogs.
+     *
+     * @return the current ToolCatalog snapshot
+     */
+    public ToolCatalog get() {
+        return current.get();
+    }
+
+    /**
+     * Replaces the current catalog
+     *
+     * @param toolCatalog the new catalog
+     * @return the catalog that was replaced
+     */
+    public ToolCatalog replace(ToolCatalog toolCatalog) {
+        return current.getAndSet(toolCatalog);
+    }
+
+    /**
+     * Reads the catalog file again and swaps in the new catalog
+     * If the catalog has no file, or the file is not a valid catalog, then throw exception and keep the current catalog
+     *
+     * @return the new catalog
+     */
+    public ToolCatalog reload() {
+        if (source == null) {
+            LOGGER.log(Level.WARNING, "Tool catalog has no file to reload from");
+            throw new CheckoutException("Tool catalog has no file to reload from");
+        }
+        long lastModified = lastModified(source);
+        ToolCatalog toolCatalog = ToolCatalogLoader.load(source);
+        current.set(toolCatalog);
+        sourceLastModified = lastModified;
+        return toolCatalog;
+    }
+
+    /**
+     * Reloads the catalog file if it changed since it was last read
+     *
+     * @return true if the catalog was reloaded
+     */
+    public boolean reloadIfModified() {
+        if (source == null || lastModified(source) == sourceLastModified) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    /**
+     * Retrieves the last modified time of a file, or 0 if it cannot be read
+     */
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Lazily initialized holder of the default catalog
+     */
+    private static final class DefaultHolder {
+
+        /**
+         * The catalog that ships with the application
+         */
+        private static final ReloadableToolCatalog INSTANCE = new ReloadableToolCatalog(ToolCatalogLoader.loadDefault());
+    }
+}
@@ -0,0 +1,354 @@
+package com.cardinalfinancial.us.catalog;
+
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.RatePlan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable catalog of tool types and tools. Tools are found by code in constant time: every code is four printable
+ * ASCII characters, which pack into one int, and the ints are kept in an open-addressing table that is at most half
+ * full. A lookup reads the code once and compares ints, without hashing or comparing strings.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ToolCatalog {
+
+    /**
+     * Number of characters of a tool code
+     */
+    public static final int TOOL_CODE_LENGTH = 4;
+
+    /**
+     * The tool types in the order they were added
+     */
+    private final List<ToolTypeDefinition> toolTypes;
+
+    /**
+     * The tool types by name
+     */
+    private final Map<String, ToolTypeDefinition> toolTypesByName;
+
+    /**
+     * The tools in the order they were added
+     */
+    private final List<ToolDefinition> tools;
+
+    /**
+     * Packed tool codes of the lookup table, 0 for an empty slot
+     */
+    private final int[] packedCodes;
+
+    /**
+     * Tools of the lookup table, in the slots of their packed codes
+     */
+    private final ToolDefinition[] slots;
+
+    /**
+     * Number of bits the hash is shifted right by to get a slot index
+     */
+    private final int shift;
+
+    /**
+     * Private constructor for ToolCatalog instance
+     *
+     * @param builder ToolCatalog.Builder class used to construct the ToolCatalog instance
+     */
+    private ToolCatalog(Builder builder) {
+        this.toolTypes = Collections.unmodifiableList(new ArrayList<>(builder.toolTypes));
+        this.toolTypesByName = new HashMap<>(builder.toolTypesByName);
+        List<ToolDefinition> tools = new ArrayList<>(builder.tools.size());
+        for (PendingTool pendingTool : builder.tools) {
+            ToolTypeDefinition toolType = toolTypesByName.get(pendingTool.toolTypeName);
+            if (toolType == null)
+                throw new IllegalArgumentException("Tool " + pendingTool.toolCode + " has unknown tool type " + pendingTool.toolTypeName + ".");
+            tools.add(new ToolDefinition(pendingTool.toolCode, toolType, pendingTool.toolBrand, pendingTool.unitCount));
+        }
+        this.tools = Collections.unmodifiableList(tools);
+
+        int capacity = Integer.highestOneBit(Math.max(2, tools.size()) * 2 - 1) * 2;
+        this.packedCodes = new int[capacity];
+        this.slots = new ToolDefinition[capacity];
+        this.shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        for (ToolDefinition tool : tools) {
+            int packedCode = packCode(tool.getToolCode());
+            int slot = slot(packedCode);
+            while (packedCodes[slot] != 0) {
+                if (packedCodes[slot] == packedCode)
+                    throw new IllegalArgumentException("Duplicate tool code " + tool.getToolCode() + ".");
+                slot = (slot + 1) & (capacity - 1);
+            }
+            packedCodes[slot] = packedCode;
+            slots[slot] = tool;
+        }
+    }
+
+    /**
+     * Static Builder class for constructing ToolCatalog instance
+     */
+    public static class Builder {
+
+        /**
+         * The tool types in the order they were added
+         */
+        private final List<ToolTypeDefinition> toolTypes = new ArrayList<>();
+
+        /**
+         * The tool types by name
+         */
+        private final Map<String, ToolTypeDefinition> toolTypesByName = new HashMap<>();
+
+        /**
+         * The tools in the order they were added, with their tool type names
+         */
+        private final List<PendingTool> tools = new ArrayList<>();
+
+        /**
+         * Creates a new instance of ToolCatalog
+         *
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Adds a tool type
+         * If the name is empty or already added, or the daily charge is negative, then throw exception
+         *
+         * @param name          the name of the tool type, for example Ladder
+         * @param dailyCharge   the daily charge
+         * @param weekdayCharge whether weekdays are charged
+         * @param weekendCharge whether weekend days are charged
+         * @param holidayCharge whether holidays are charged
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public Builder addToolType(String name, Money dailyCharge, boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+            return addToolType(name, dailyCharge, ChargeTable.of(weekdayCharge, weekendCharge, holidayCharge));
+        }
+
+        /**
+         * Adds a tool type whose days are charged by a compiled ChargeTable, for example with half-day weekends or
+         * peak-season rates
+         * If the name is empty or already added, or the daily charge is negative, then throw exception
+         *
+         * @param name        the name of the tool type, for example Ladder
+         * @param dailyCharge the daily charge
+         * @param chargeTable the charge of each class of day
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public Builder addToolType(String name, Money dailyCharge, ChargeTable chargeTable) {
+            return addToolType(name, dailyCharge, chargeTable, RatePlan.DAILY);
+        }
+
+        /**
+         * Adds a tool type with a compiled ChargeTable and weekly or monthly charges that cap the daily charges
+         * If the name is empty or already added, or the daily charge is negative, then throw exception
+         *
+         * @param name        the name of the tool type, for example Ladder
+         * @param dailyCharge the daily charge
+         * @param chargeTable the charge of each class of day
+         * @param ratePlan    the weekly and monthly charges
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public Builder addToolType(String name, Money dailyCharge, ChargeTable chargeTable, RatePlan ratePlan) {
+            if (name == null || name.isEmpty())
+                throw new IllegalArgumentException("Tool type name must not be empty.");
+            if (dailyCharge.getCents() < 0)
+                throw new IllegalArgumentException("Daily charge of tool type " + name + " must not be negative.");
+            if (toolTypesByName.containsKey(name))
+                throw new IllegalArgumentException("Duplicate tool type " + name + ".");
+            if (chargeTable == null)
+                throw new IllegalArgumentException("Charge table of tool type " + name + " must be set.");
+            if (ratePlan == null)
+                throw new IllegalArgumentException("Rate plan of tool type " + name + " must be set.");
+            ToolTypeDefinition toolType = new ToolTypeDefinition(toolTypes.size(), name, dailyCharge, chargeTable, ratePlan);
+            toolTypes.add(toolType);
+            toolTypesByName.put(name, toolType);
+            return this;
+        }
+
+        /**
+         * Adds a tool with one physical unit. The tool type may be added before or after the tool.
+         * If the code is not four printable ASCII characters, then throw exception
+         *
+         * @param toolCode     the tool code, for example LADW
+         * @param toolTypeName the name of the tool type
+         * @param toolBrand    the tool brand
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public Builder addTool(String toolCode, String toolTypeName, String toolBrand) {
+            return addTool(toolCode, toolTypeName, toolBrand, 1);
+        }
+
+        /**
+         * Adds a tool. The tool type may be added before or after the tool.
+         * If the code is not four printable ASCII characters or the unit count is negative, then throw exception
+         *
+         * @param toolCode     the tool code, for example LADW
+         * @param toolTypeName the name of the tool type
+         * @param toolBrand    the tool brand
+         * @param unitCount    the number of physical units of the tool
+         * @return ToolCatalog.Builder class used to construct the ToolCatalog instance
+         */
+        public Builder addTool(String toolCode, String toolTypeName, String toolBrand, int unitCount) {
+            if (packCode(toolCode) == 0)
+                throw new IllegalArgumentException("Tool code [" + toolCode + "] must be four printable ASCII characters.");
+            if (unitCount < 0)
+                throw new IllegalArgumentException("Unit count of tool " + toolCode + " must not be negative.");
+            tools.add(new PendingTool(toolCode, toolTypeName, toolBrand, unitCount));
+            return this;
+        }
+
+        /**
+         * Build method to deal with outer class to return outer instance
+         * If a tool code is duplicated or a tool has an unknown tool type, then throw exception
+         *
+         * @return ToolCatalog instance
+         */
+        public ToolCatalog build() {
+            return new ToolCatalog(this);
+        }
+    }
+
+    /**
+     * Finds a tool by code
+     *
+     * @param toolCode the tool code
+     * @return ToolDefinition instance, or null if the catalog has no tool with the code
+     */
+    public ToolDefinition find(CharSequence toolCode) {
+        int packedCode = packCode(toolCode);
+        if (packedCode == 0) {
+            return null;
+        }
+        int mask = packedCodes.length - 1;
+        for (int slot = slot(packedCode); ; slot = (slot + 1) & mask) {
+            int candidate = packedCodes[slot];
+            if (candidate == packedCode) {
+                return slots[slot];
+            }
+            if (candidate == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Finds a tool type by name
+     *
+     * @param name the name of the tool type
+     * @return ToolTypeDefinition instance, or null if the catalog has no tool type with the name
+     */
+    public ToolTypeDefinition findToolType(String name) {
+        return toolTypesByName.get(name);
+    }
+
+    /**
+     * Retrieves the tool types in the order they were added
+     *
+     * @return unmodifiable list of tool types
+     */
+    public List<ToolTypeDefinition> getToolTypes() {
+        return toolTypes;
+    }
+
+    /**
+     * Retrieves the tools in the order they were added
+     *
+     * @return unmodifiable list of tools
+     */
+    public List<ToolDefinition> getTools() {
+        return tools;
+    }
+
+    /**
+     * Retrieves the number of tools
+     *
+     * @return the number of tools
+     */
+    public int size() {
+        return tools.size();
+    }
+
+    /**
+     * Packs a tool code into an int, one byte per character. Two codes are the same tool code of a catalog exactly
+     * when their packed codes are equal and not 0.
+     *
+     * @param toolCode the tool code
+     * @return the packed code, or 0 if the code is not four printable ASCII characters
+     */
+    public static int packCode(CharSequence toolCode) {
+        if (toolCode == null || toolCode.length() != TOOL_CODE_LENGTH) {
+            return 0;
+        }
+        int packedCode = 0;
+        for (int i = 0; i < TOOL_CODE_LENGTH; i++) {
+            char c = toolCode.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return 0;
+            }
+            packedCode = (packedCode << 8) | c;
+        }
+        return packedCode;
+    }
+
+    /**
+     * Calculates the home slot of a packed code with Fibonacci hashing
+     */
+    private int slot(int packedCode) {
+        return (packedCode * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * A tool added to the builder, whose tool type is resolved when the catalog is built
+     */
+    private static final class PendingTool {
+
+        /**
+         * The tool code
+         */
+        private final String toolCode;
+
+        /**
+         * The name of the tool type
+         */
+        private final String toolTypeName;
+
+        /**
+         * The tool brand
+         */
+        private final String toolBrand;
+
+        /**
+         * The number of physical units
+         */
+        private final int unitCount;
+
+        /**
+         * Constructor for PendingTool
+         *
+         * @param toolCode     the tool code
+         * @param toolTypeName the name of the tool type
+         * @param toolBrand    the tool brand
+         * @param unitCount    the number of physical units
+         */
+        private PendingTool(String toolCode, String toolTypeName, String toolBrand, int unitCount) {
+            this.toolCode = toolCode;
+            this.toolTypeName = toolTypeName;
+            this.toolBrand = toolBrand;
+            this.unitCount = unitCount;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cardinalfinancial.us.catalog;
+
+import com.cardinalfinancial.us.common.ToolConstants;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.RatePlan;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class that reads a ToolCatalog from a text file. Each line is a comma-separated record, and lines that are
+ * blank or start with # are ignored:
+ * <pre>
+ * type,&lt;name&gt;,&lt;daily charge&gt;,&lt;weekday charge&gt;,&lt;weekend charge&gt;,&lt;holiday charge&gt;[,&lt;weekly charge&gt;[,&lt;monthly charge&gt;]]
+ * tool,&lt;code&gt;,&lt;type name&gt;,&lt;brand&gt;[,&lt;unit count&gt;]
+ * </pre>
+ * for example {@code type,Ladder,1.99,Yes,Yes,No} and {@code tool,LADW,Ladder,Werner,8}. A tool without a unit count
+ * has one unit. The optional weekly and monthly charges make the RatePlan of the tool type, and {@code -} stands for
+ * no weekly charge, as in {@code type,Ladder,1.99,Yes,Yes,No,-,39.99}.
+ *
+ * @author Sylvia Barnai
+ */
+public class ToolCatalogLoader {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ToolCatalogLoader.class.getName());
+
+    /**
+     * Name of the catalog resource that ships with the application
+     */
+    public static final String DEFAULT_RESOURCE = "tools.catalog";
+
+    /**
+     * Separator of the fields of a record
+     */
+    private static final Pattern FIELD_SEPARATOR = Pattern.compile("\\s*,\\s*");
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private ToolCatalogLoader() {
+    }
+
+    /**
+     * Reads the catalog resource that ships with the application
+     *
+     * @return ToolCatalog instance
+     */
+    public static ToolCatalog loadDefault() {
+        InputStream inputStream = ToolCatalogLoader.class.getResourceAsStream(DEFAULT_RESOURCE);
+        if (inputStream == null) {
+            LOGGER.log(Level.WARNING, "Tool catalog resource " + DEFAULT_RESOURCE + " not found");
+            throw new CheckoutException("Tool catalog resource " + DEFAULT_RESOURCE + " not found");
+        }
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to read tool catalog resource");
+            throw new CheckoutException("Unable to read tool catalog resource", e);
+        }
+    }
+
+    /**
+     * Reads a catalog file
+     *
+     * @param path the catalog file
+     * @return ToolCatalog instance
+     */
+    public static ToolCatalog load(Path path) {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return load(reader);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to read tool catalog " + path);
+            throw new CheckoutException("Unable to read tool catalog " + path, e);
+        }
+    }
+
+    /**
+     * Reads a catalog from a Reader, which is not closed
+     * If a line is not a valid record, or the records do not make a valid catalog, then throw exception
+     *
+     * @param reader the Reader to read from
+     * @return ToolCatalog instance
+     * @throws IOException if the Reader fails
+     */
+    public static ToolCatalog load(Reader reader) throws IOException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        ToolCatalog.Builder builder = ToolCatalog.Builder.newInstance();
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            try {
+                addRecord(builder, FIELD_SEPARATOR.split(line));
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.WARNING, "Invalid tool catalog line " + lineNumber + ": " + e.getMessage());
+                throw new CheckoutException("Invalid tool catalog line " + lineNumber + ": " + e.getMessage());
+            }
+        }
+        try {
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Invalid tool catalog: " + e.getMessage());
+            throw new CheckoutException("Invalid tool catalog: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds one record to the catalog builder
+     */
+    private static void addRecord(ToolCatalog.Builder builder, String[] fields) {
+        if ("type".equals(fields[0]) && fields.length >= 6 && fields.length <= 8) {
+            ChargeTable chargeTable = ChargeTable.of(parseCharge(fields[3]), parseCharge(fields[4]), parseCharge(fields[5]));
+            RatePlan ratePlan = fields.length == 6 ? RatePlan.DAILY : RatePlan.Builder.newInstance()
+                    .setWeeklyCharge(parseRate(fields[6]))
+                    .setMonthlyCharge(fields.length == 8 ? parseRate(fields[7]) : null)
+                    .build();
+            builder.addToolType(fields[1], Money.of(fields[2]), chargeTable, ratePlan);
+        } else if ("tool".equals(fields[0]) && fields.length == 4) {
+            builder.addTool(fields[1], fields[2], fields[3]);
+        } else if ("tool".equals(fields[0]) && fields.length == 5) {
+            builder.addTool(fields[1], fields[2], fields[3], Integer.parseInt(fields[4]));
+        } else {
+            throw new IllegalArgumentException("Expected a type record with 6 to 8 fields or a tool record with 4 or 5 fields.");
+        }
+    }
+
+    /**
+     * Parses an optional weekly or monthly charge, where - stands for none
+     */
+    private static Money parseRate(String field) {
+        return "-".equals(field) ? null : Money.of(field);
+    }
+
+    /**
+     * Parses a Yes/No charge flag
+     */
+    private static boolean parseCharge(String field) {
+        if (ToolConstants.YES_CHARGE.equalsIgnoreCase(field)) {
+            return true;
+        }
+        if (ToolConstants.NO_CHARGE.equalsIgnoreCase(field)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Charge flag [" + field + "] must be Yes or No.");
+    }
+}
@@ -0,0 +1,86 @@
+package com.cardinalfinancial.us.catalog;
+
+/**
+ * ToolDefinition class that holds one tool of a ToolCatalog: its code, tool type, brand and number of physical units.
+ * Instances are immutable and are only created by ToolCatalog.Builder.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ToolDefinition {
+
+    /**
+     * The unique code of the tool, for example LADW
+     */
+    private final String toolCode;
+
+    /**
+     * The tool type
+     */
+    private final ToolTypeDefinition toolType;
+
+    /**
+     * The brand name of the tool
+     */
+    private final String toolBrand;
+
+    /**
+     * Number of physical units of the tool that can be rented out
+     */
+    private final int unitCount;
+
+    /**
+     * Constructor for ToolDefinition
+     *
+     * @param toolCode  the tool code
+     * @param toolType  the tool type
+     * @param toolBrand the tool brand
+     * @param unitCount the number of physical units
+     */
+    ToolDefinition(String toolCode, ToolTypeDefinition toolType, String toolBrand, int unitCount) {
+        this.toolCode = toolCode;
+        this.toolType = toolType;
+        this.toolBrand = toolBrand;
+        this.unitCount = unitCount;
+    }
+
+    /**
+     * Retrieves the tool code
+     *
+     * @return the tool code
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * Retrieves the tool type
+     *
+     * @return the tool type
+     */
+    public ToolTypeDefinition getToolType() {
+        return toolType;
+    }
+
+    /**
+     * Retrieves the tool brand
+     *
+     * @return the tool brand
+     */
+    public String getToolBrand() {
+        return toolBrand;
+    }
+
+    /**
+     * Retrieves the number of physical units of the tool
+     *
+     * @return the unit count
+     */
+    public int getUnitCount() {
+        return unitCount;
+    }
+
+    @Override
+    public String toString() {
+        return toolCode;
+    }
+}
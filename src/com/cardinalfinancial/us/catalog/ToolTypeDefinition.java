@@ -0,0 +1,178 @@
+package com.cardinalfinancial.us.catalog;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.common.ToolConstants;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.pricing.ChargeCalendar;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.RatePlan;
+import com.cardinalfinancial.us.pricing.DayClass;
+
+/**
+ * ToolTypeDefinition class that holds the daily charge and the charged days of one tool type of a ToolCatalog.
+ * The charged days are compiled into a ChargeTable when the catalog is loaded, so pricing a rental never reads the
+ * Yes/No flags again. Instances are immutable and are only created by ToolCatalog.Builder.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ToolTypeDefinition {
+
+    /**
+     * Definitions equivalent to the legacy ToolType enum values, indexed by ordinal
+     */
+    private static final ToolTypeDefinition[] LEGACY_DEFINITIONS = new ToolTypeDefinition[ToolType.values().length];
+
+    static {
+        for (ToolType toolType : ToolType.values()) {
+            LEGACY_DEFINITIONS[toolType.ordinal()] = new ToolTypeDefinition(toolType.ordinal(), toolType.getValue(),
+                    toolType.getDailyCharge(), ChargeTable.of(ToolConstants.YES_CHARGE.equals(toolType.isWeekdayCharge()),
+                    ToolConstants.YES_CHARGE.equals(toolType.isWeekendCharge()),
+                    ToolConstants.YES_CHARGE.equals(toolType.isHolidayCharge())), RatePlan.DAILY);
+        }
+    }
+
+    /**
+     * Index of the tool type within its catalog, from 0 to the number of tool types - 1
+     */
+    private final int id;
+
+    /**
+     * Name of the tool type, for example Ladder
+     */
+    private final String name;
+
+    /**
+     * The daily charge for the tool type
+     */
+    private final Money dailyCharge;
+
+    /**
+     * The charge of each class of day
+     */
+    private final ChargeTable chargeTable;
+
+    /**
+     * Prefix sums of the charges over the days of the default holiday calendar, built per year on first use
+     */
+    private final ChargeCalendar chargeCalendar;
+
+    /**
+     * The weekly and monthly charges that cap the daily charges
+     */
+    private final RatePlan ratePlan;
+
+    /**
+     * Constructor for ToolTypeDefinition
+     *
+     * @param id          the index of the tool type within its catalog
+     * @param name        the name of the tool type
+     * @param dailyCharge the daily charge
+     * @param chargeTable the charge of each class of day
+     * @param ratePlan    the weekly and monthly charges that cap the daily charges
+     */
+    ToolTypeDefinition(int id, String name, Money dailyCharge, ChargeTable chargeTable, RatePlan ratePlan) {
+        this.id = id;
+        this.name = name;
+        this.dailyCharge = dailyCharge;
+        this.chargeTable = chargeTable;
+        this.chargeCalendar = new ChargeCalendar(chargeTable, HolidayCalendar.US_DEFAULT);
+        this.ratePlan = ratePlan;
+    }
+
+    /**
+     * Retrieves the definition equivalent to a legacy ToolType enum value
+     *
+     * @param toolType the ToolType enum value
+     * @return ToolTypeDefinition instance, whose id is the ordinal of the enum value
+     */
+    public static ToolTypeDefinition of(ToolType toolType) {
+        return LEGACY_DEFINITIONS[toolType.ordinal()];
+    }
+
+    /**
+     * Retrieves the index of the tool type within its catalog
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the name of the tool type
+     *
+     * @return the name, for example Ladder
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Retrieves the daily rental charge
+     *
+     * @return the daily charge
+     */
+    public Money getDailyCharge() {
+        return dailyCharge;
+    }
+
+    /**
+     * Retrieves the charge of each class of day
+     *
+     * @return the ChargeTable instance
+     */
+    public ChargeTable getChargeTable() {
+        return chargeTable;
+    }
+
+    /**
+     * Retrieves the prefix sums of the charges over the days of the default holiday calendar
+     *
+     * @return the ChargeCalendar instance
+     */
+    public ChargeCalendar getChargeCalendar() {
+        return chargeCalendar;
+    }
+
+    /**
+     * Retrieves the weekly and monthly charges that cap the daily charges
+     *
+     * @return the RatePlan instance, RatePlan.DAILY if the tool type has none
+     */
+    public RatePlan getRatePlan() {
+        return ratePlan;
+    }
+
+    /**
+     * Determine whether there should be a weekday charge
+     *
+     * @return true if weekdays are charged
+     */
+    public boolean isWeekdayCharge() {
+        return chargeTable.isCharged(0);
+    }
+
+    /**
+     * Determine whether there should be a weekend charge
+     *
+     * @return true if weekend days are charged
+     */
+    public boolean isWeekendCharge() {
+        return chargeTable.isCharged(DayClass.WEEKEND);
+    }
+
+    /**
+     * Determine whether there should be a holiday charge
+     *
+     * @return true if holidays are charged
+     */
+    public boolean isHolidayCharge() {
+        return chargeTable.isCharged(DayClass.HOLIDAY);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -24,10 +24,10 @@ public class ToolConstants {
     public static final String RIDGID = "Ridgid";
     public static final String DEWALT = "DeWalt";
 
-    /* Constants for daily charges */
-    public static final double RENTAL_CHARGE_LADDER = 1.99;
-    public static final double RENTAL_CHARGE_CHAINSAW = 1.49;
-    public static final double RENTAL_CHARGE_JACKHAMMER = 2.99;
+    /* Constants for daily charges, in cents */
+    public static final long RENTAL_CHARGE_LADDER = 199;
+    public static final long RENTAL_CHARGE_CHAINSAW = 149;
+    public static final long RENTAL_CHARGE_JACKHAMMER = 299;
 
     /* Constant strings that determine whether there should be a specific type of charge (weekday, weekend, or holiday */
     public static final String YES_CHARGE = "Yes";
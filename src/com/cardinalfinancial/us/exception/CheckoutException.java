@@ -30,4 +30,22 @@ public class CheckoutException extends RuntimeException {
     public CheckoutException(String message, Exception e) {
         super(message, e);
     }
+
+    /**
+     * Retrieves the reason a checkout was refused, to be shown to terminals or written to reject files: the message of
+     * the innermost CheckoutException in the cause chain of the failure. Causes that are not CheckoutExceptions, such
+     * as arithmetic overflows or parser errors, are internal and their messages are never returned.
+     *
+     * @param failure the failure of a checkout
+     * @return the reason, or the message of the failure if no CheckoutException caused it
+     */
+    public static String getReason(Throwable failure) {
+        Throwable reason = failure;
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof CheckoutException) {
+                reason = cause;
+            }
+        }
+        return reason.getMessage() != null ? reason.getMessage() : reason.getClass().getSimpleName();
+    }
 }
@@ -0,0 +1,409 @@
+package com.cardinalfinancial.us.http;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.ExecutorUtils;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded HTTP server that exposes a CheckoutService to the terminals, built on the JDK's com.sun.net.httpserver.
+ * Every request runs on its own thread from ExecutorUtils.newThreadPerTaskExecutor(), which are virtual threads on a
+ * JDK that has them, so a request that waits on a journal sync does not hold a platform thread.
+ * <p>
+ * {@code POST /checkout} takes a Checkout JSON object and answers 200 with the RentalAgreement JSON object, 400 if
+ * the request is not a valid Checkout, or 422 with an error object if the checkout is refused, for example for an
+ * unknown tool code. A terminal that retries a checkout sends the same idempotencyKey field, and gets the original
+ * RentalAgreement back if the CheckoutService recognizes retries. {@code GET /health} answers 200 while the server runs.
+ * <p>
+ * Without TCP_NODELAY the response body waits for the ACK of the headers, which adds the 40 ms delayed ACK of the
+ * client to every request. The JDK server takes it from the JVM-wide system property sun.net.httpserver.nodelay, read
+ * once when the first HttpServer is created, so applications that embed the server should start the JVM with
+ * {@code -Dsun.net.httpserver.nodelay=true}. main() sets it when it is not given, since it owns the JVM.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CheckoutHttpServer implements AutoCloseable {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(CheckoutHttpServer.class.getName());
+
+    /**
+     * Default port
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Default maximum number of connections waiting to be accepted
+     */
+    public static final int DEFAULT_BACKLOG = 1024;
+
+    /**
+     * Largest accepted request body in bytes
+     */
+    public static final int MAX_REQUEST_SIZE = 64 * 1024;
+
+    /**
+     * Path of the checkout endpoint
+     */
+    public static final String CHECKOUT_PATH = "/checkout";
+
+    /**
+     * Path of the health endpoint
+     */
+    public static final String HEALTH_PATH = "/health";
+
+    /**
+     * System property that turns on TCP_NODELAY for every HttpServer of the JVM
+     */
+    public static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    /**
+     * Body of the health endpoint
+     */
+    private static final byte[] HEALTH_BODY = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The service that prices the checkouts
+     */
+    private final CheckoutService checkoutService;
+
+    /**
+     * The address the server listens on
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * Maximum number of connections waiting to be accepted
+     */
+    private final int backlog;
+
+    /**
+     * The executor that runs the requests
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Whether the executor was created by this server and is shut down with it
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * The running server, or null before start()
+     */
+    private HttpServer httpServer;
+
+    /**
+     * Private constructor, creates a CheckoutHttpServer instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private CheckoutHttpServer(Builder builder) {
+        this.checkoutService = builder.checkoutService;
+        this.address = builder.host == null ? new InetSocketAddress(builder.port)
+                : new InetSocketAddress(builder.host, builder.port);
+        this.backlog = builder.backlog;
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? ExecutorUtils.newThreadPerTaskExecutor("checkout-http") : builder.executor;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * The service that prices the checkouts
+         */
+        private CheckoutService checkoutService;
+
+        /**
+         * Host name or address to listen on, every address by default
+         */
+        private String host;
+
+        /**
+         * Port to listen on, DEFAULT_PORT by default
+         */
+        private int port = DEFAULT_PORT;
+
+        /**
+         * Maximum number of connections waiting to be accepted, DEFAULT_BACKLOG by default
+         */
+        private int backlog = DEFAULT_BACKLOG;
+
+        /**
+         * The executor that runs the requests, a thread per request by default
+         */
+        private ExecutorService executor;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the service that prices the checkouts
+         *
+         * @param checkoutService the CheckoutService instance
+         * @return Builder instance
+         */
+        public Builder setCheckoutService(CheckoutService checkoutService) {
+            this.checkoutService = checkoutService;
+            return this;
+        }
+
+        /**
+         * Sets the host name or address to listen on, for example localhost to refuse other machines
+         *
+         * @param host the host name or address
+         * @return Builder instance
+         */
+        public Builder setHost(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Sets the port to listen on
+         * If the port is not between 0 and 65535, then throw exception
+         *
+         * @param port the port, or 0 for any free port
+         * @return Builder instance
+         */
+        public Builder setPort(int port) {
+            if (port < 0 || port > 65535)
+                throw new IllegalArgumentException("Port must be between 0 and 65535.");
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of connections waiting to be accepted
+         * If the backlog is not positive, then throw exception
+         *
+         * @param backlog the backlog
+         * @return Builder instance
+         */
+        public Builder setBacklog(int backlog) {
+            if (backlog < 1)
+                throw new IllegalArgumentException("Backlog must be positive.");
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the requests, which the server does not shut down
+         *
+         * @param executor the ExecutorService instance
+         * @return Builder instance
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Creates a CheckoutHttpServer instance
+         * If no CheckoutService is set, then throw exception
+         *
+         * @return CheckoutHttpServer instance
+         */
+        public CheckoutHttpServer build() {
+            if (checkoutService == null)
+                throw new IllegalArgumentException("CheckoutService must be set.");
+            return new CheckoutHttpServer(this);
+        }
+    }
+
+    /**
+     * Starts a server that does not print agreements, with the default catalog, on a port given with -port, 8080 by default
+     * TCP_NODELAY is turned on unless sun.net.httpserver.nodelay is given on the command line
+     *
+     * @param args options
+     */
+    public static void main(String[] args) {
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if ("-port".equals(args[i])) {
+                port = Integer.parseInt(args[++i]);
+            }
+        }
+        CheckoutHttpServer server = Builder.newInstance()
+                .setCheckoutService(CheckoutServiceImpl.Builder.newInstance()
+                        .setAgreementSink(QuietAgreementSink.INSTANCE).build())
+                .setPort(port)
+                .build();
+        server.start();
+        System.out.println("Listening on port " + server.getPort());
+    }
+
+    /**
+     * Starts listening for requests
+     * If the server is already started or cannot listen on its address, then throw exception
+     */
+    public synchronized void start() {
+        if (httpServer != null)
+            throw new IllegalStateException("Server is already started.");
+        try {
+            httpServer = HttpServer.create(address, backlog);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to listen on " + address);
+            throw new CheckoutException("Unable to listen on " + address, e);
+        }
+        httpServer.setExecutor(executor);
+        httpServer.createContext(CHECKOUT_PATH, this::handleCheckout);
+        httpServer.createContext(HEALTH_PATH, this::handleHealth);
+        httpServer.start();
+    }
+
+    /**
+     * Retrieves the port the server listens on, which is chosen by the system if the port was set to 0
+     * If the server is not started, then throw exception
+     *
+     * @return the port
+     */
+    public synchronized int getPort() {
+        if (httpServer == null)
+            throw new IllegalStateException("Server is not started.");
+        return httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Stops listening, without waiting for requests in progress, and shuts down the executor if the server created it
+     */
+    @Override
+    public synchronized void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Prices a Checkout JSON object and answers with the RentalAgreement JSON object
+     */
+    private void handleCheckout(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            String body = readBody(exchange);
+            if (body == null) {
+                sendError(exchange, 413, "Request is larger than " + MAX_REQUEST_SIZE + " bytes");
+                return;
+            }
+            Checkout checkout;
+            try {
+                checkout = JsonCodec.decodeCheckout(body);
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            RentalAgreement rentalAgreement;
+            try {
+                rentalAgreement = checkoutService.processCheckout(checkout);
+            } catch (CheckoutException e) {
+                sendError(exchange, 422, CheckoutException.getReason(e));
+                return;
+            }
+            send(exchange, 200, JsonCodec.appendRentalAgreement(new StringBuilder(384), rentalAgreement));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to process checkout request", e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answers that the server is up
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, HEALTH_BODY.length);
+            exchange.getResponseBody().write(HEALTH_BODY);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads the request body as UTF-8 text
+     *
+     * @return the body, or null if it is larger than MAX_REQUEST_SIZE
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes = new byte[1024];
+        int length = 0;
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(bytes, length, bytes.length - length)) >= 0) {
+                length += read;
+                if (length == bytes.length) {
+                    if (length == MAX_REQUEST_SIZE) {
+                        return in.read() < 0 ? new String(bytes, 0, length, StandardCharsets.UTF_8) : null;
+                    }
+                    bytes = Arrays.copyOf(bytes, Math.min(length * 2, MAX_REQUEST_SIZE));
+                }
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Answers with an error JSON object
+     */
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, JsonCodec.appendError(new StringBuilder(64), message));
+    }
+
+    /**
+     * Answers with a JSON body
+     */
+    private static void send(HttpExchange exchange, int status, CharSequence json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.cardinalfinancial.us.http;
+
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+/**
+ * Utility class that converts Checkout and RentalAgreement instances to and from JSON objects. Field names are the
+ * property names of the getters, dates are MM/dd/yy strings and amounts are numbers with two decimals that are read
+ * and written as cents, so no amount goes through a double. Unknown fields are ignored when decoding.
+ *
+ * @author Sylvia Barnai
+ */
+public final class JsonCodec {
+
+    /**
+     * Hexadecimal digits used for unicode escapes
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private JsonCodec() {
+    }
+
+    /**
+     * Decodes a Checkout from a JSON object
+     * If the text is not a JSON object or a field is invalid, then throw exception
+     *
+     * @param json the JSON text
+     * @return Checkout instance
+     */
+    public static Checkout decodeCheckout(CharSequence json) {
+        JsonCursor cursor = new JsonCursor(json);
+        Checkout.Builder builder = Checkout.Builder.newInstance();
+        cursor.beginObject();
+        for (String name = cursor.nextName(); name != null; name = cursor.nextName()) {
+            switch (name) {
+                case "toolCode":
+                    builder.setToolCode(cursor.readString());
+                    break;
+                case "checkoutDate":
+                    builder.setCheckoutDate(cursor.readString());
+                    break;
+                case "rentalDayCount":
+                    builder.setRentalDayCount(toInt(cursor.readLong()));
+                    break;
+                case "discountPercent":
+                    builder.setDiscountPercent(toInt(cursor.readLong()));
+                    break;
+                case "idempotencyKey":
+                    builder.setIdempotencyKey(cursor.readString());
+                    break;
+                default:
+                    cursor.skipValue();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Appends a Checkout as a JSON object, with an idempotencyKey field only if the Checkout has a key
+     *
+     * @param builder  the StringBuilder to append to
+     * @param checkout the Checkout instance
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendCheckout(StringBuilder builder, Checkout checkout) {
+        builder.append("{\"toolCode\":");
+        appendString(builder, checkout.getToolCode());
+        builder.append(",\"checkoutDate\":");
+        appendString(builder, checkout.getCheckoutDate());
+        builder.append(",\"rentalDayCount\":").append(checkout.getRentalDayCount())
+                .append(",\"discountPercent\":").append(checkout.getDiscountPercent());
+        if (checkout.getIdempotencyKey() != null) {
+            builder.append(",\"idempotencyKey\":");
+            appendString(builder, checkout.getIdempotencyKey());
+        }
+        return builder.append('}');
+    }
+
+    /**
+     * Decodes a RentalAgreement from a JSON object written by appendRentalAgreement()
+     * If the text is not a JSON object or a field is invalid, then throw exception
+     *
+     * @param json the JSON text
+     * @return RentalAgreement instance
+     */
+    public static RentalAgreement decodeRentalAgreement(CharSequence json) {
+        JsonCursor cursor = new JsonCursor(json);
+        RentalAgreement.Builder builder = RentalAgreement.Builder.newInstance();
+        cursor.beginObject();
+        for (String name = cursor.nextName(); name != null; name = cursor.nextName()) {
+            switch (name) {
+                case "toolCode":
+                    builder.setToolCode(cursor.readString());
+                    break;
+                case "toolType":
+                    builder.setToolType(cursor.readString());
+                    break;
+                case "toolBrand":
+                    builder.setToolBrand(cursor.readString());
+                    break;
+                case "unitNumber":
+                    builder.setUnitNumber(toInt(cursor.readLong()));
+                    break;
+                case "numberOfDaysRented":
+                    builder.setNumberOfDaysRented(toInt(cursor.readLong()));
+                    break;
+                case "checkoutDate":
+                    builder.setCheckoutDate(cursor.readString());
+                    break;
+                case "dueDate":
+                    builder.setDueDate(cursor.readString());
+                    break;
+                case "dailyRentalCharge":
+                    builder.setDailyRentalChargeCents(cursor.readCents());
+                    break;
+                case "chargeableDaysCount":
+                    builder.setChargeableDaysCount(toInt(cursor.readLong()));
+                    break;
+                case "preDiscountCharge":
+                    builder.setPreDiscountChargeCents(cursor.readCents());
+                    break;
+                case "discountPercent":
+                    builder.setDiscountPercent(toInt(cursor.readLong()));
+                    break;
+                case "discountAmount":
+                    builder.setDiscountAmountCents(cursor.readCents());
+                    break;
+                case "finalCharge":
+                    builder.setFinalChargeCents(cursor.readCents());
+                    break;
+                default:
+                    cursor.skipValue();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Appends a RentalAgreement as a JSON object, leaving out the unit number, dates and amounts that are not set
+     *
+     * @param builder         the StringBuilder to append to
+     * @param rentalAgreement the RentalAgreement instance
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendRentalAgreement(StringBuilder builder, RentalAgreement rentalAgreement) {
+        builder.append("{\"toolCode\":");
+        appendString(builder, rentalAgreement.getToolCode());
+        builder.append(",\"toolType\":");
+        appendString(builder, rentalAgreement.getToolType());
+        builder.append(",\"toolBrand\":");
+        appendString(builder, rentalAgreement.getToolBrand());
+        if (rentalAgreement.getUnitNumber() != RentalAgreement.NO_UNIT) {
+            builder.append(",\"unitNumber\":").append(rentalAgreement.getUnitNumber());
+        }
+        builder.append(",\"numberOfDaysRented\":").append(rentalAgreement.getNumberOfDaysRented());
+        appendDate(builder, "checkoutDate", rentalAgreement.getCheckoutEpochDay());
+        appendDate(builder, "dueDate", rentalAgreement.getDueEpochDay());
+        appendAmount(builder, "dailyRentalCharge", rentalAgreement.getDailyRentalChargeCents());
+        builder.append(",\"chargeableDaysCount\":").append(rentalAgreement.getChargeableDaysCount());
+        appendAmount(builder, "preDiscountCharge", rentalAgreement.getPreDiscountChargeCents());
+        builder.append(",\"discountPercent\":").append(rentalAgreement.getDiscountPercent());
+        appendAmount(builder, "discountAmount", rentalAgreement.getDiscountAmountCents());
+        appendAmount(builder, "finalCharge", rentalAgreement.getFinalChargeCents());
+        return builder.append('}');
+    }
+
+    /**
+     * Appends an error message as a JSON object
+     *
+     * @param builder the StringBuilder to append to
+     * @param message the error message
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendError(StringBuilder builder, String message) {
+        builder.append("{\"error\":");
+        appendString(builder, message);
+        return builder.append('}');
+    }
+
+    /**
+     * Appends a string as a quoted JSON string, or null
+     *
+     * @param builder the StringBuilder to append to
+     * @param value   the string
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendString(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder.append("null");
+        }
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c == '\n') {
+                builder.append("\\n");
+            } else if (c == '\r') {
+                builder.append("\\r");
+            } else if (c == '\t') {
+                builder.append("\\t");
+            } else if (c < 0x20) {
+                builder.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"');
+    }
+
+    /**
+     * Appends a date field, unless the date is not set
+     */
+    private static void appendDate(StringBuilder builder, String name, int epochDay) {
+        if (epochDay != RentalAgreement.NO_DATE) {
+            builder.append(",\"").append(name).append("\":\"");
+            DateUtils.appendEpochDay(builder, epochDay).append('"');
+        }
+    }
+
+    /**
+     * Appends an amount field with two decimals, unless the amount is not set
+     */
+    private static void appendAmount(StringBuilder builder, String name, long cents) {
+        if (cents == RentalAgreement.NO_AMOUNT) {
+            return;
+        }
+        builder.append(",\"").append(name).append("\":");
+        if (cents < 0) {
+            builder.append('-');
+        }
+        long remainder = Math.abs(cents % 100);
+        builder.append(Math.abs(cents / 100)).append('.').append((char) ('0' + remainder / 10))
+                .append((char) ('0' + remainder % 10));
+    }
+
+    /**
+     * Narrows a decoded whole number to an int
+     * If the number does not fit, then throw exception
+     */
+    private static int toInt(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Number " + value + " is out of range.");
+        return (int) value;
+    }
+}
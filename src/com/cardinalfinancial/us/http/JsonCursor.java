@@ -0,0 +1,308 @@
+package com.cardinalfinancial.us.http;
+
+/**
+ * Pull parser over the text of one flat JSON object, used by JsonCodec to read fields without building a tree. Nested
+ * objects and arrays are skipped when a field is not read. Every method throws IllegalArgumentException at the first
+ * character that is not valid JSON.
+ *
+ * @author Sylvia Barnai
+ */
+final class JsonCursor {
+
+    /**
+     * The JSON text
+     */
+    private final CharSequence json;
+
+    /**
+     * Index of the next character to read
+     */
+    private int position;
+
+    /**
+     * Whether the next name is the first of the object
+     */
+    private boolean firstName = true;
+
+    /**
+     * Builder strings are unescaped into
+     */
+    private final StringBuilder builder = new StringBuilder(16);
+
+    /**
+     * Constructor for JsonCursor
+     *
+     * @param json the JSON text
+     */
+    JsonCursor(CharSequence json) {
+        this.json = json;
+    }
+
+    /**
+     * Reads the opening brace of the object
+     */
+    void beginObject() {
+        expect('{');
+    }
+
+    /**
+     * Reads the name of the next field of the object and its colon
+     *
+     * @return the field name, or null after the closing brace
+     */
+    String nextName() {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            skipWhitespace();
+            if (position != json.length())
+                throw error("Unexpected text after the JSON object");
+            return null;
+        }
+        if (!firstName) {
+            expect(',');
+            skipWhitespace();
+        }
+        firstName = false;
+        String name = readString();
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads a string value
+     *
+     * @return the string, or null for a JSON null
+     */
+    String readString() {
+        skipWhitespace();
+        if (peek() == 'n') {
+            readLiteral("null");
+            return null;
+        }
+        expect('"');
+        builder.setLength(0);
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return builder.toString();
+            }
+            if (c < 0x20)
+                throw error("Control character in string");
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    builder.append(escaped);
+                    break;
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(next(), 16);
+                        if (digit < 0)
+                            throw error("Invalid unicode escape");
+                        code = code * 16 + digit;
+                    }
+                    builder.append((char) code);
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    /**
+     * Reads a whole number value
+     *
+     * @return the number
+     */
+    long readLong() {
+        skipWhitespace();
+        boolean negative = readSign();
+        long value = readDigits();
+        if (position < json.length() && isNumberPart(json.charAt(position)))
+            throw error("Expected a whole number");
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a decimal number value with at most two decimals as cents, without going through a double
+     *
+     * @return the amount in cents
+     */
+    long readCents() {
+        skipWhitespace();
+        boolean negative = readSign();
+        long cents = readDigits() * 100;
+        if (position < json.length() && json.charAt(position) == '.') {
+            position++;
+            int start = position;
+            long fraction = readDigits();
+            if (position - start > 2)
+                throw error("Amount has more than two decimals");
+            cents += position - start == 1 ? fraction * 10 : fraction;
+        }
+        if (position < json.length() && isNumberPart(json.charAt(position)))
+            throw error("Expected an amount");
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Reads a value of any type and discards it
+     */
+    void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            position++;
+            skipWhitespace();
+            if (peek() == close) {
+                position++;
+                return;
+            }
+            while (true) {
+                if (close == '}') {
+                    readString();
+                    expect(':');
+                }
+                skipValue();
+                skipWhitespace();
+                char separator = next();
+                if (separator == close) {
+                    return;
+                }
+                if (separator != ',')
+                    throw error("Expected ',' or '" + close + "'");
+            }
+        } else if (c == 't') {
+            readLiteral("true");
+        } else if (c == 'f') {
+            readLiteral("false");
+        } else if (c == 'n') {
+            readLiteral("null");
+        } else {
+            int start = position;
+            while (position < json.length() && isNumberPart(json.charAt(position))) {
+                position++;
+            }
+            if (position == start)
+                throw error("Unexpected character");
+        }
+    }
+
+    /**
+     * Reads the minus sign of a number if there is one
+     */
+    private boolean readSign() {
+        if (peek() == '-') {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads at least one and at most 18 decimal digits
+     */
+    private long readDigits() {
+        long value = 0;
+        int start = position;
+        while (position < json.length() && json.charAt(position) >= '0' && json.charAt(position) <= '9') {
+            if (position - start == 18)
+                throw error("Number is too large");
+            value = value * 10 + (json.charAt(position++) - '0');
+        }
+        if (position == start)
+            throw error("Expected a digit");
+        return value;
+    }
+
+    /**
+     * Reads one expected character after any whitespace
+     */
+    private void expect(char expected) {
+        skipWhitespace();
+        if (next() != expected) {
+            position--;
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    /**
+     * Reads an expected literal such as true or null
+     */
+    private void readLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i))
+                throw error("Expected " + literal);
+        }
+    }
+
+    /**
+     * Skips spaces, tabs and line breaks
+     */
+    private void skipWhitespace() {
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Retrieves the next character without reading it
+     */
+    private char peek() {
+        if (position >= json.length())
+            throw error("Unexpected end of JSON");
+        return json.charAt(position);
+    }
+
+    /**
+     * Reads the next character
+     */
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    /**
+     * Retrieves whether a character can be part of a JSON number
+     */
+    private static boolean isNumberPart(char c) {
+        return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    /**
+     * Creates the exception for invalid JSON at the current position
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " of the JSON.");
+    }
+}
@@ -0,0 +1,159 @@
+package com.cardinalfinancial.us.inventory;
+
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Inventory of the physical units of every tool code. Reserving and releasing a unit is lock-free: each tool code has
+ * a UnitPool of reservation bits, and the pools are found through a ConcurrentHashMap whose reads do not lock.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ToolInventory {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ToolInventory.class.getName());
+
+    /**
+     * Unit number returned when every unit of a tool is reserved
+     */
+    public static final int NO_UNIT_AVAILABLE = -1;
+
+    /**
+     * The unit pool of every tool code
+     */
+    private final ConcurrentHashMap<String, UnitPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for an empty ToolInventory
+     */
+    public ToolInventory() {
+    }
+
+    /**
+     * Creates an inventory with the unit counts of every tool of a catalog
+     *
+     * @param toolCatalog the catalog
+     * @return ToolInventory instance
+     */
+    public static ToolInventory fromCatalog(ToolCatalog toolCatalog) {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.addTools(toolCatalog);
+        return toolInventory;
+    }
+
+    /**
+     * Adds the tools of a catalog that are not in the inventory yet, for example after the catalog was reloaded.
+     * Tools that are already in the inventory keep their units and reservations.
+     *
+     * @param toolCatalog the catalog
+     */
+    public void addTools(ToolCatalog toolCatalog) {
+        for (ToolDefinition tool : toolCatalog.getTools()) {
+            addTool(tool.getToolCode(), tool.getUnitCount());
+        }
+    }
+
+    /**
+     * Adds a tool code with a number of units, if the inventory does not have the tool code yet
+     * If the unit count is negative, then throw exception
+     *
+     * @param toolCode  the tool code
+     * @param unitCount the number of units
+     * @return true if the tool code was added
+     */
+    public boolean addTool(String toolCode, int unitCount) {
+        if (unitCount < 0)
+            throw new IllegalArgumentException("Unit count must not be negative.");
+        return pools.putIfAbsent(toolCode, new UnitPool(unitCount)) == null;
+    }
+
+    /**
+     * Reserves a free unit of a tool
+     * If the tool code is not in the inventory, then throw exception
+     *
+     * @param toolCode the tool code
+     * @return the reserved unit number, or NO_UNIT_AVAILABLE if every unit is reserved
+     */
+    public int reserve(String toolCode) {
+        return pool(toolCode).reserve(ThreadLocalRandom.current().nextInt());
+    }
+
+    /**
+     * Reserves a specific unit of a tool, for example one that was reserved before a restart
+     *
+     * @param toolCode   the tool code
+     * @param unitNumber the unit number
+     * @return true if the unit was free, false if it was already reserved or does not exist
+     */
+    public boolean reserveUnit(String toolCode, int unitNumber) {
+        UnitPool pool = pools.get(toolCode);
+        return pool != null && pool.reserveUnit(unitNumber);
+    }
+
+    /**
+     * Releases a reserved unit of a tool
+     *
+     * @param toolCode   the tool code
+     * @param unitNumber the unit number returned by reserve()
+     * @return true if the unit was reserved, false if it was already free or does not exist
+     */
+    public boolean release(String toolCode, int unitNumber) {
+        UnitPool pool = pools.get(toolCode);
+        return pool != null && pool.release(unitNumber);
+    }
+
+    /**
+     * Checks whether a unit of a tool is reserved
+     *
+     * @param toolCode   the tool code
+     * @param unitNumber the unit number
+     * @return true if the unit is reserved
+     */
+    public boolean isReserved(String toolCode, int unitNumber) {
+        UnitPool pool = pools.get(toolCode);
+        return pool != null && pool.isReserved(unitNumber);
+    }
+
+    /**
+     * Retrieves the number of units of a tool
+     *
+     * @param toolCode the tool code
+     * @return the unit count, or 0 if the tool code is not in the inventory
+     */
+    public int getUnitCount(String toolCode) {
+        UnitPool pool = pools.get(toolCode);
+        return pool == null ? 0 : pool.getUnitCount();
+    }
+
+    /**
+     * Counts the free units of a tool. The count may be stale by the time it is returned.
+     *
+     * @param toolCode the tool code
+     * @return the number of free units, or 0 if the tool code is not in the inventory
+     */
+    public int getAvailableCount(String toolCode) {
+        UnitPool pool = pools.get(toolCode);
+        return pool == null ? 0 : pool.getAvailableCount();
+    }
+
+    /**
+     * Retrieves the unit pool of a tool code and throws exception if the tool code is not in the inventory
+     */
+    private UnitPool pool(String toolCode) {
+        UnitPool pool = pools.get(toolCode);
+        if (pool == null) {
+            LOGGER.log(Level.WARNING, "Tool code " + toolCode + " is not in the inventory");
+            throw new CheckoutException("Tool code " + toolCode + " is not in the inventory");
+        }
+        return pool;
+    }
+}
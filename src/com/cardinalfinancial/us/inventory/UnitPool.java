@@ -0,0 +1,151 @@
+package com.cardinalfinancial.us.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free pool of the physical units of one tool. Each unit is one bit of an AtomicLongArray, set while the unit is
+ * reserved. A reservation claims a clear bit with compareAndSet, and a release clears it again, so registers renting
+ * the same tool never block each other and a failed compareAndSet only means another register won that unit.
+ *
+ * @author Sylvia Barnai
+ */
+final class UnitPool {
+
+    /**
+     * Number of units in the pool
+     */
+    private final int unitCount;
+
+    /**
+     * Reservation bits, one per unit
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * Constructor for UnitPool
+     *
+     * @param unitCount the number of units
+     */
+    UnitPool(int unitCount) {
+        this.unitCount = unitCount;
+        this.words = new AtomicLongArray((unitCount + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    /**
+     * Reserves a free unit. Threads start looking at different words and bits depending on the probe, so concurrent
+     * reservations rarely try to claim the same bit.
+     *
+     * @param probe a random number that spreads concurrent reservations over the pool
+     * @return the reserved unit number, or -1 if every unit is reserved
+     */
+    int reserve(int probe) {
+        int wordCount = words.length();
+        if (wordCount == 0) {
+            return -1;
+        }
+        int startWord = wordCount == 1 ? 0 : Math.floorMod(probe, wordCount);
+        int rotation = probe & (Long.SIZE - 1);
+        for (int i = 0; i < wordCount; i++) {
+            int word = startWord + i < wordCount ? startWord + i : startWord + i - wordCount;
+            long validBits = validBits(word);
+            long bits = words.get(word);
+            long free = ~bits & validBits;
+            while (free != 0) {
+                // Pick the first free bit at or after the rotation, wrapping around the word
+                long bit = Long.rotateLeft(Long.lowestOneBit(Long.rotateRight(free, rotation)), rotation);
+                if (words.compareAndSet(word, bits, bits | bit)) {
+                    return word * Long.SIZE + Long.numberOfTrailingZeros(bit);
+                }
+                bits = words.get(word);
+                free = ~bits & validBits;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reserves a specific unit, for example one that was reserved before a restart
+     *
+     * @param unitNumber the unit number
+     * @return true if the unit was free, false if it was already reserved or does not exist
+     */
+    boolean reserveUnit(int unitNumber) {
+        if (unitNumber < 0 || unitNumber >= unitCount) {
+            return false;
+        }
+        int word = unitNumber / Long.SIZE;
+        long bit = 1L << unitNumber;
+        while (true) {
+            long bits = words.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, bits, bits | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reserved unit
+     *
+     * @param unitNumber the unit number
+     * @return true if the unit was reserved, false if it was already free or does not exist
+     */
+    boolean release(int unitNumber) {
+        if (unitNumber < 0 || unitNumber >= unitCount) {
+            return false;
+        }
+        int word = unitNumber / Long.SIZE;
+        long bit = 1L << unitNumber;
+        while (true) {
+            long bits = words.get(word);
+            if ((bits & bit) == 0) {
+                return false;
+            }
+            if (words.compareAndSet(word, bits, bits & ~bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Checks whether a unit is reserved
+     *
+     * @param unitNumber the unit number
+     * @return true if the unit is reserved
+     */
+    boolean isReserved(int unitNumber) {
+        return unitNumber >= 0 && unitNumber < unitCount && (words.get(unitNumber / Long.SIZE) & (1L << unitNumber)) != 0;
+    }
+
+    /**
+     * Retrieves the number of units in the pool
+     *
+     * @return the unit count
+     */
+    int getUnitCount() {
+        return unitCount;
+    }
+
+    /**
+     * Counts the free units. The count may be stale by the time it is returned.
+     *
+     * @return the number of free units
+     */
+    int getAvailableCount() {
+        int reserved = 0;
+        for (int word = 0; word < words.length(); word++) {
+            reserved += Long.bitCount(words.get(word));
+        }
+        return unitCount - reserved;
+    }
+
+    /**
+     * Retrieves the bits of a word that belong to units, which is every bit except in the last word
+     */
+    private long validBits(int word) {
+        int unitsInWord = Math.min(Long.SIZE, unitCount - word * Long.SIZE);
+        return unitsInWord == Long.SIZE ? -1L : (1L << unitsInWord) - 1;
+    }
+}
@@ -0,0 +1,564 @@
+package com.cardinalfinancial.us.journal;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, append-only journal of RentalAgreements and of the returns of their rentals. Every agreement or return is
+ * encoded into a compact binary record with a sequence number and a checksum, and copied into a memory-mapped segment file. When a segment is full the journal
+ * rolls over to a new one and deletes old segments according to its RetentionPolicy.
+ * <p>
+ * With sync on append, append() returns once the record is on the storage device. Syncs use group commit: the first
+ * thread that needs a sync forces the segment for every record written so far, and threads that appended meanwhile
+ * wait for that sync or the next one instead of forcing their own. Concurrent checkouts therefore share syncs, and
+ * throughput grows with the number of checkouts in flight instead of being capped by the sync latency.
+ *
+ * @author Sylvia Barnai
+ */
+public final class AgreementJournal implements AutoCloseable {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(AgreementJournal.class.getName());
+
+    /**
+     * Default size of a segment file, 64 MiB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Smallest allowed segment size
+     */
+    private static final int MIN_SEGMENT_SIZE = 4096;
+
+    /**
+     * Per-thread buffers that records are encoded into before they are copied into the segment
+     */
+    private static final ThreadLocal<ByteBuffer> ENCODE_BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+    /**
+     * The journal directory
+     */
+    private final Path directory;
+
+    /**
+     * Size of every segment file
+     */
+    private final int segmentSize;
+
+    /**
+     * Policy that decides when old segments are deleted
+     */
+    private final RetentionPolicy retentionPolicy;
+
+    /**
+     * Whether append() waits until the record is on the storage device
+     */
+    private final boolean syncOnAppend;
+
+    /**
+     * Lock held while a record is copied into the segment, which guards the fields below it
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * Files of the segments before the active one, oldest first
+     */
+    private final Deque<Path> closedSegments = new ArrayDeque<>();
+
+    /**
+     * The segment being written
+     */
+    private volatile JournalSegment activeSegment;
+
+    /**
+     * Whether close() has been called
+     */
+    private boolean closed;
+
+    /**
+     * Sequence number of the last record copied into a segment
+     */
+    private volatile long writtenSequence;
+
+    /**
+     * Lock of the group commit, which guards the fields below it
+     */
+    private final Object syncLock = new Object();
+
+    /**
+     * Sequence number of the last record known to be on the storage device
+     */
+    private volatile long durableSequence;
+
+    /**
+     * Whether a thread is forcing the active segment
+     */
+    private boolean syncing;
+
+    /**
+     * Number of times a segment was forced
+     */
+    private final AtomicLong syncCount = new AtomicLong();
+
+    /**
+     * Private constructor for AgreementJournal instance, which opens or creates the journal
+     *
+     * @param builder AgreementJournal.Builder class used to construct the AgreementJournal instance
+     * @throws IOException if the journal cannot be opened
+     */
+    private AgreementJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentSize = builder.segmentSize;
+        this.retentionPolicy = builder.retentionPolicy;
+        this.syncOnAppend = builder.syncOnAppend;
+
+        Files.createDirectories(directory);
+        List<Path> segmentFiles = listSegmentFiles(directory);
+        if (segmentFiles.isEmpty()) {
+            activeSegment = JournalSegment.create(directory, 1, segmentSize);
+        } else {
+            closedSegments.addAll(segmentFiles.subList(0, segmentFiles.size() - 1));
+            Path lastSegmentFile = segmentFiles.get(segmentFiles.size() - 1);
+            if (JournalSegment.hasBlankHeader(lastSegmentFile)) {
+                // Created by a roll over just before a crash, so it holds no record
+                LOGGER.log(Level.WARNING, "Recreating journal segment " + lastSegmentFile + " without a header");
+                Files.delete(lastSegmentFile);
+                activeSegment = JournalSegment.create(directory, JournalSegment.baseSequenceOf(lastSegmentFile),
+                        segmentSize);
+            } else {
+                activeSegment = JournalSegment.open(lastSegmentFile);
+            }
+        }
+        writtenSequence = activeSegment.getNextSequence() - 1;
+        durableSequence = writtenSequence;
+        applyRetentionPolicy();
+    }
+
+    /**
+     * Static Builder class for constructing AgreementJournal instance
+     */
+    public static class Builder {
+
+        /**
+         * The journal directory
+         */
+        private Path directory;
+
+        /**
+         * Size of every segment file, DEFAULT_SEGMENT_SIZE by default
+         */
+        private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+        /**
+         * Policy that decides when old segments are deleted, keep all by default
+         */
+        private RetentionPolicy retentionPolicy = RetentionPolicy.KEEP_ALL;
+
+        /**
+         * Whether append() waits until the record is on the storage device, true by default
+         */
+        private boolean syncOnAppend = true;
+
+        /**
+         * Creates a new instance of AgreementJournal
+         *
+         * @return AgreementJournal.Builder class used to construct the AgreementJournal instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the journal directory, which is created if it does not exist
+         *
+         * @param directory the directory
+         * @return AgreementJournal.Builder class used to construct the AgreementJournal instance
+         */
+        public Builder setDirectory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the size of every segment file. Larger segments roll over less often but take longer to replay.
+         * If the size is less than 4096 bytes, then throw exception
+         *
+         * @param segmentSize the size in bytes
+         * @return AgreementJournal.Builder class used to construct the AgreementJournal instance
+         */
+        public Builder setSegmentSize(int segmentSize) {
+            if (segmentSize < MIN_SEGMENT_SIZE)
+                throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + " bytes.");
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Sets the policy that decides when old segments are deleted
+         *
+         * @param retentionPolicy the RetentionPolicy instance
+         * @return AgreementJournal.Builder class used to construct the AgreementJournal instance
+         */
+        public Builder setRetentionPolicy(RetentionPolicy retentionPolicy) {
+            this.retentionPolicy = retentionPolicy;
+            return this;
+        }
+
+        /**
+         * Sets whether append() waits until the record is on the storage device. Without it, records reach the device
+         * when the operating system writes them back, or on sync(), roll over and close().
+         *
+         * @param syncOnAppend whether to sync on append
+         * @return AgreementJournal.Builder class used to construct the AgreementJournal instance
+         */
+        public Builder setSyncOnAppend(boolean syncOnAppend) {
+            this.syncOnAppend = syncOnAppend;
+            return this;
+        }
+
+        /**
+         * Build method to deal with outer class to return outer instance, which opens or creates the journal
+         * If the directory is not set or the journal cannot be opened, then throw exception
+         *
+         * @return AgreementJournal instance
+         */
+        public AgreementJournal build() {
+            if (directory == null)
+                throw new IllegalArgumentException("Journal directory must be set.");
+            try {
+                return new AgreementJournal(this);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to open journal in " + directory);
+                throw new CheckoutException("Unable to open journal in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Appends a RentalAgreement to the journal
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     * @return the sequence number of the record
+     */
+    public long append(RentalAgreement rentalAgreement) {
+        return appendFrame(encode(rentalAgreement));
+    }
+
+    /**
+     * Appends the return of a rental to the journal, so that a recovered RentalState no longer holds it as open
+     *
+     * @param rentalSequence the sequence number of the returned rental's agreement
+     * @param returnEpochDay the return date as a day count since 1970-01-01
+     * @return the sequence number of the record
+     */
+    public long appendReturn(long rentalSequence, long returnEpochDay) {
+        ByteBuffer buffer = ENCODE_BUFFERS.get();
+        buffer.clear();
+        buffer.position(JournalSegment.FRAME_SIZE);
+        AgreementRecordCodec.encodeReturn(rentalSequence, returnEpochDay, buffer);
+        return appendFrame(frame(buffer));
+    }
+
+    /**
+     * Waits until every record appended so far is on the storage device
+     */
+    public void sync() {
+        awaitDurable(writtenSequence);
+    }
+
+    /**
+     * Syncs and closes the journal
+     */
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        sync();
+        try {
+            activeSegment.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to close journal segment", e);
+        }
+    }
+
+    /**
+     * Retrieves the sequence number of the last appended record
+     *
+     * @return the sequence number, or 0 if the journal is empty
+     */
+    public long getLastSequence() {
+        return writtenSequence;
+    }
+
+    /**
+     * Retrieves the sequence number of the last record known to be on the storage device
+     *
+     * @return the sequence number
+     */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Retrieves the number of times a segment was forced to the storage device, which is lower than the number of
+     * appends when group commit shares syncs
+     *
+     * @return the sync count
+     */
+    public long getSyncCount() {
+        return syncCount.get();
+    }
+
+    /**
+     * Retrieves the number of segment files
+     *
+     * @return the segment count, including the one being written
+     */
+    public int getSegmentCount() {
+        synchronized (appendLock) {
+            return closedSegments.size() + 1;
+        }
+    }
+
+    /**
+     * Retrieves the journal directory
+     *
+     * @return the directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Copies a framed record into the active segment under the next sequence number, rolling over if it does not fit
+     *
+     * @param frame the framed record, whose sequence number is filled in
+     * @return the sequence number of the record
+     */
+    private long appendFrame(ByteBuffer frame) {
+        long sequence;
+        synchronized (appendLock) {
+            if (closed) {
+                throw new CheckoutException("Journal has been closed");
+            }
+            sequence = writtenSequence + 1;
+            frame.putLong(8, sequence);
+            if (!activeSegment.hasRoom(frame.remaining())) {
+                rollOver(sequence);
+            }
+            activeSegment.write(frame);
+            writtenSequence = sequence;
+        }
+        if (syncOnAppend) {
+            awaitDurable(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Waits until a record is on the storage device, forcing the active segment if no other thread is doing so
+     *
+     * @param sequence the sequence number of the record
+     */
+    private void awaitDurable(long sequence) {
+        while (true) {
+            long target;
+            JournalSegment segment;
+            synchronized (syncLock) {
+                while (durableSequence < sequence && syncing) {
+                    try {
+                        syncLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CheckoutException("Interrupted while waiting for the journal sync", e);
+                    }
+                }
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                // This thread leads the next sync, which covers every record written so far
+                syncing = true;
+                target = writtenSequence;
+                segment = activeSegment;
+            }
+            boolean forced = false;
+            try {
+                segment.force();
+                syncCount.incrementAndGet();
+                forced = true;
+            } finally {
+                synchronized (syncLock) {
+                    syncing = false;
+                    if (forced && target > durableSequence) {
+                        durableSequence = target;
+                    }
+                    syncLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes a record into the calling thread's buffer with a frame whose sequence number is filled in later
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     * @return the buffer, from the start of the frame to the end of the payload
+     */
+    private ByteBuffer encode(RentalAgreement rentalAgreement) {
+        ByteBuffer buffer = ENCODE_BUFFERS.get();
+        while (true) {
+            buffer.clear();
+            buffer.position(JournalSegment.FRAME_SIZE);
+            try {
+                AgreementRecordCodec.encode(rentalAgreement, buffer);
+                break;
+            } catch (BufferOverflowException e) {
+                if (buffer.capacity() >= segmentSize) {
+                    throw new IllegalArgumentException("RentalAgreement is too large for a journal segment.");
+                }
+                buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, segmentSize));
+                ENCODE_BUFFERS.set(buffer);
+            }
+        }
+        if (!fitsEmptySegment(buffer.position()))
+            throw new IllegalArgumentException("RentalAgreement is too large for a journal segment.");
+        return frame(buffer);
+    }
+
+    /**
+     * Fills in the length and checksum of the frame in front of a payload encoded after FRAME_SIZE bytes
+     *
+     * @param buffer the buffer, positioned at the end of the payload
+     * @return the buffer, from the start of the frame to the end of the payload
+     */
+    private static ByteBuffer frame(ByteBuffer buffer) {
+        buffer.flip();
+        int payloadLength = buffer.limit() - JournalSegment.FRAME_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(JournalSegment.FRAME_SIZE);
+        crc.update(payload);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(4, (int) crc.getValue());
+        return buffer;
+    }
+
+    /**
+     * Checks whether a record fits in an empty segment
+     */
+    private boolean fitsEmptySegment(int frameLength) {
+        return JournalSegment.HEADER_SIZE + frameLength <= segmentSize;
+    }
+
+    /**
+     * Forces and closes the active segment, starts a new one and applies the retention policy. Called with the
+     * append lock held.
+     *
+     * @param baseSequence the sequence number of the first record of the new segment
+     */
+    private void rollOver(long baseSequence) {
+        JournalSegment previous = activeSegment;
+        try {
+            // Records of the previous segment must be durable before syncs only force the new one
+            previous.force();
+            JournalSegment next = JournalSegment.create(directory, baseSequence, segmentSize);
+            previous.close();
+            closedSegments.addLast(previous.getPath());
+            activeSegment = next;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to roll over journal segment");
+            throw new CheckoutException("Unable to roll over journal segment", e);
+        }
+        applyRetentionPolicy();
+    }
+
+    /**
+     * Deletes the oldest closed segments while the retention policy says so. Called with the append lock held or
+     * while the journal is opened.
+     */
+    private void applyRetentionPolicy() {
+        long nowMillis = System.currentTimeMillis();
+        long totalBytes = segmentSize;
+        for (Path path : closedSegments) {
+            totalBytes += fileSize(path);
+        }
+        while (!closedSegments.isEmpty()) {
+            Path oldest = closedSegments.peekFirst();
+            long lastModified;
+            try {
+                lastModified = Files.getLastModifiedTime(oldest).toMillis();
+            } catch (IOException e) {
+                lastModified = nowMillis;
+            }
+            if (!retentionPolicy.shouldDeleteOldest(closedSegments.size() + 1, totalBytes, lastModified, nowMillis)) {
+                return;
+            }
+            long size = fileSize(oldest);
+            try {
+                Files.deleteIfExists(oldest);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to delete journal segment " + oldest, e);
+                return;
+            }
+            closedSegments.removeFirst();
+            totalBytes -= size;
+        }
+    }
+
+    /**
+     * Retrieves the size of a file, or 0 if it cannot be read
+     */
+    private static long fileSize(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * Lists the segment files of a directory in sequence order
+     *
+     * @param directory the journal directory
+     * @return the segment files, oldest first
+     * @throws IOException if the directory cannot be read
+     */
+    static List<Path> listSegmentFiles(Path directory) throws IOException {
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + JournalSegment.SUFFIX)) {
+            for (Path path : stream) {
+                segmentFiles.add(path);
+            }
+        }
+        Collections.sort(segmentFiles);
+        return segmentFiles;
+    }
+}
@@ -0,0 +1,191 @@
+package com.cardinalfinancial.us.journal;
+
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Utility class that encodes a RentalAgreement into a compact binary record and decodes it again. Strings are stored
+ * as a length and UTF-8 bytes, dates as epoch days and amounts as cents (Long.MIN_VALUE if not set), so a record of the
+ * default catalog is about 80 bytes.
+ * <p>
+ * A return record starts with a length no string can have, followed by the sequence number of the returned rental's
+ * agreement and the return date as an epoch day.
+ *
+ * @author Sylvia Barnai
+ */
+public final class AgreementRecordCodec {
+
+    /**
+     * Length that marks a null string
+     */
+    private static final int NULL_STRING = 0xFFFF;
+
+    /**
+     * Length that marks a return record
+     */
+    private static final int RETURN_RECORD = 0xFFFE;
+
+    /**
+     * Maximum number of distinct decoded strings that are shared, far more than the tool codes, types and brands of
+     * a catalog
+     */
+    private static final int MAX_SHARED_STRINGS = 65536;
+
+    /**
+     * Decoded tool codes, types and brands, shared between decoded agreements
+     */
+    private static final ConcurrentMap<String, String> SHARED_STRINGS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private AgreementRecordCodec() {
+    }
+
+    /**
+     * Encodes a RentalAgreement at the position of a buffer
+     * If a string is longer than 65533 bytes, then throw exception
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     * @param buffer          the buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public static void encode(RentalAgreement rentalAgreement, ByteBuffer buffer) {
+        putString(buffer, rentalAgreement.getToolCode());
+        putString(buffer, rentalAgreement.getToolType());
+        putString(buffer, rentalAgreement.getToolBrand());
+        buffer.putInt(rentalAgreement.getUnitNumber());
+        buffer.putInt(rentalAgreement.getNumberOfDaysRented());
+        buffer.putInt(rentalAgreement.getCheckoutEpochDay());
+        buffer.putInt(rentalAgreement.getDueEpochDay());
+        buffer.putLong(rentalAgreement.getDailyRentalChargeCents());
+        buffer.putInt(rentalAgreement.getChargeableDaysCount());
+        buffer.putLong(rentalAgreement.getPreDiscountChargeCents());
+        buffer.putInt(rentalAgreement.getDiscountPercent());
+        buffer.putLong(rentalAgreement.getDiscountAmountCents());
+        buffer.putLong(rentalAgreement.getFinalChargeCents());
+    }
+
+    /**
+     * Encodes the return of a rental at the position of a buffer
+     *
+     * @param rentalSequence the journal sequence number of the returned rental's agreement
+     * @param returnEpochDay the return date as a day count since 1970-01-01
+     * @param buffer         the buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public static void encodeReturn(long rentalSequence, long returnEpochDay, ByteBuffer buffer) {
+        buffer.putShort((short) RETURN_RECORD);
+        buffer.putLong(rentalSequence);
+        buffer.putInt((int) returnEpochDay);
+    }
+
+    /**
+     * Checks whether the record at the position of a buffer is a return record, without moving the position
+     *
+     * @param buffer the buffer to read from
+     * @return true if the record was written by encodeReturn()
+     */
+    public static boolean isReturn(ByteBuffer buffer) {
+        return buffer.remaining() >= 2 && (buffer.getShort(buffer.position()) & 0xFFFF) == RETURN_RECORD;
+    }
+
+    /**
+     * Retrieves the sequence number of the returned rental's agreement from the return record at the position of a
+     * buffer, without moving the position
+     *
+     * @param buffer the buffer to read from
+     * @return the journal sequence number of the rental agreement
+     */
+    public static long getReturnedSequence(ByteBuffer buffer) {
+        return buffer.getLong(buffer.position() + 2);
+    }
+
+    /**
+     * Retrieves the return date from the return record at the position of a buffer, without moving the position
+     *
+     * @param buffer the buffer to read from
+     * @return the return date as a day count since 1970-01-01
+     */
+    public static long getReturnEpochDay(ByteBuffer buffer) {
+        return buffer.getInt(buffer.position() + 10);
+    }
+
+    /**
+     * Decodes a RentalAgreement from the position of a buffer
+     *
+     * @param buffer the buffer to read from
+     * @return RentalAgreement instance
+     * @throws java.nio.BufferUnderflowException if the record is truncated
+     */
+    public static RentalAgreement decode(ByteBuffer buffer) {
+        return RentalAgreement.Builder.newInstance()
+                .setToolCode(getSharedString(buffer))
+                .setToolType(getSharedString(buffer))
+                .setToolBrand(getSharedString(buffer))
+                .setUnitNumber(buffer.getInt())
+                .setNumberOfDaysRented(buffer.getInt())
+                .setCheckoutEpochDay(buffer.getInt())
+                .setDueEpochDay(buffer.getInt())
+                .setDailyRentalChargeCents(buffer.getLong())
+                .setChargeableDaysCount(buffer.getInt())
+                .setPreDiscountChargeCents(buffer.getLong())
+                .setDiscountPercent(buffer.getInt())
+                .setDiscountAmountCents(buffer.getLong())
+                .setFinalChargeCents(buffer.getLong())
+                .build();
+    }
+
+    /**
+     * Writes a string as an unsigned short length and UTF-8 bytes, copying ASCII strings without an intermediate array
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_STRING);
+            return;
+        }
+        int length = value.length();
+        boolean ascii = length < RETURN_RECORD;
+        for (int i = 0; ascii && i < length; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            buffer.putShort((short) length);
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= RETURN_RECORD)
+            throw new IllegalArgumentException("String is too long for an agreement record.");
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string written by putString(), returning the same instance for every record with the same tool code,
+     * type or brand so that decoded agreements do not each hold a copy
+     */
+    private static String getSharedString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        String shared = SHARED_STRINGS.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (SHARED_STRINGS.size() < MAX_SHARED_STRINGS) {
+            shared = SHARED_STRINGS.putIfAbsent(value, value);
+        }
+        return shared == null ? value : shared;
+    }
+}
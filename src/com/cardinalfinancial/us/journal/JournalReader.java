@@ -0,0 +1,161 @@
+package com.cardinalfinancial.us.journal;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Utility class that reads the records of an AgreementJournal directory, sequentially or in parallel across segments.
+ * Segments are mapped read-only, so a journal can be read while it is being appended to; records appended during the
+ * read may or may not be included.
+ *
+ * @author Sylvia Barnai
+ */
+public final class JournalReader {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(JournalReader.class.getName());
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private JournalReader() {
+    }
+
+    /**
+     * Handler of the records of a journal
+     */
+    public interface RecordHandler {
+
+        /**
+         * Handles one record
+         *
+         * @param sequence        the sequence number of the record
+         * @param rentalAgreement the decoded RentalAgreement
+         */
+        void handle(long sequence, RentalAgreement rentalAgreement);
+
+        /**
+         * Handles one return record, which is ignored unless this method is overridden
+         *
+         * @param sequence       the sequence number of the record
+         * @param rentalSequence the sequence number of the returned rental's agreement
+         * @param returnEpochDay the return date as a day count since 1970-01-01
+         */
+        default void handleReturn(long sequence, long rentalSequence, long returnEpochDay) {
+        }
+    }
+
+    /**
+     * Reads the records from a sequence number onwards, in order
+     *
+     * @param directory    the journal directory
+     * @param fromSequence the sequence number of the first record to read
+     * @param handler      the handler of every record
+     * @return the sequence number of the last record read, or fromSequence - 1 if there was none
+     */
+    public static long replay(Path directory, long fromSequence, RecordHandler handler) {
+        long lastSequence = fromSequence - 1;
+        List<Path> paths = segmentsFrom(directory, fromSequence);
+        for (int i = 0; i < paths.size(); i++) {
+            boolean last = i == paths.size() - 1;
+            lastSequence = Math.max(lastSequence, replaySegment(paths.get(i), last, fromSequence, handler));
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Reads the records from a sequence number onwards with one handler per segment, replaying the segments in
+     * parallel on the common fork-join pool. The caller merges the handlers in order.
+     *
+     * @param directory    the journal directory
+     * @param fromSequence the sequence number of the first record to read
+     * @param handlers     creates the handler of one segment
+     * @param <H>          the handler type
+     * @return the handlers, one per segment that holds records from fromSequence onwards, oldest segment first
+     */
+    public static <H extends RecordHandler> List<H> replayParallel(Path directory, long fromSequence, Supplier<H> handlers) {
+        List<Path> paths = segmentsFrom(directory, fromSequence);
+        List<H> segmentHandlers = new ArrayList<>(paths.size());
+        for (int i = 0; i < paths.size(); i++) {
+            segmentHandlers.add(handlers.get());
+        }
+        IntStream.range(0, paths.size()).parallel()
+                .forEach(i -> replaySegment(paths.get(i), i == paths.size() - 1, fromSequence, segmentHandlers.get(i)));
+        return segmentHandlers;
+    }
+
+    /**
+     * Lists the segment files that may hold records from a sequence number onwards
+     *
+     * @param directory    the journal directory
+     * @param fromSequence the sequence number of the first record to read
+     * @return the segment files, oldest first
+     */
+    static List<Path> segmentsFrom(Path directory, long fromSequence) {
+        List<Path> paths;
+        try {
+            paths = AgreementJournal.listSegmentFiles(directory);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to list journal segments in " + directory);
+            throw new CheckoutException("Unable to list journal segments in " + directory, e);
+        }
+        // A segment holds the records up to the base sequence of the next one
+        int first = 0;
+        for (int i = 1; i < paths.size(); i++) {
+            if (JournalSegment.baseSequenceOf(paths.get(i)) <= fromSequence) {
+                first = i;
+            }
+        }
+        return paths.stream().skip(first).collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the records of one segment from a sequence number onwards. The last segment is empty if its header was
+     * never written, as left by a crash right after a roll over.
+     *
+     * @return the sequence number of the last record read, or fromSequence - 1 if there was none
+     */
+    private static long replaySegment(Path path, boolean last, long fromSequence, RecordHandler handler) {
+        JournalSegment segment;
+        try {
+            if (last && JournalSegment.hasBlankHeader(path)) {
+                LOGGER.log(Level.WARNING, "Skipping journal segment " + path + " without a header");
+                return fromSequence - 1;
+            }
+            segment = JournalSegment.openForReading(path);
+        } catch (NoSuchFileException e) {
+            // Deleted by the retention policy since it was listed
+            LOGGER.log(Level.WARNING, "Journal segment " + path + " was deleted while it was read");
+            return fromSequence - 1;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to read journal segment " + path);
+            throw new CheckoutException("Unable to read journal segment " + path, e);
+        }
+        long[] lastSequence = {fromSequence - 1};
+        segment.forEachRecord((sequence, payload) -> {
+            if (sequence >= fromSequence) {
+                if (AgreementRecordCodec.isReturn(payload)) {
+                    handler.handleReturn(sequence, AgreementRecordCodec.getReturnedSequence(payload),
+                            AgreementRecordCodec.getReturnEpochDay(payload));
+                } else {
+                    handler.handle(sequence, AgreementRecordCodec.decode(payload));
+                }
+                lastSequence[0] = sequence;
+            }
+        });
+        return lastSequence[0];
+    }
+}
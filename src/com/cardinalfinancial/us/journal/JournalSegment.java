@@ -0,0 +1,373 @@
+package com.cardinalfinancial.us.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of an AgreementJournal. The file starts with a header holding the sequence number of its first
+ * record, followed by records framed as
+ * <pre>
+ * int payload length | int CRC32 of the payload | long sequence number | payload
+ * </pre>
+ * A zero length marks the end of the written records. Records are consecutive, so a record whose sequence number does
+ * not follow the previous one, or whose checksum does not match, also marks the end, as left by a torn write.
+ *
+ * @author Sylvia Barnai
+ */
+final class JournalSegment {
+
+    /**
+     * Magic number at the start of every segment, "CFJ1"
+     */
+    static final int MAGIC = 0x43464A31;
+
+    /**
+     * Size of the segment header: magic number, format version and sequence number of the first record
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * Size of the frame in front of every record payload
+     */
+    static final int FRAME_SIZE = 16;
+
+    /**
+     * Format version of the segment
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * File name suffix of segments
+     */
+    static final String SUFFIX = ".journal";
+
+    /**
+     * The segment file
+     */
+    private final Path path;
+
+    /**
+     * Channel of the segment file
+     */
+    private final FileChannel channel;
+
+    /**
+     * The mapped segment file
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Sequence number of the first record
+     */
+    private final long baseSequence;
+
+    /**
+     * Offset where the next record is written
+     */
+    private int position;
+
+    /**
+     * Sequence number of the next record
+     */
+    private long nextSequence;
+
+    /**
+     * Private constructor for JournalSegment
+     */
+    private JournalSegment(Path path, FileChannel channel, MappedByteBuffer buffer, long baseSequence) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.baseSequence = baseSequence;
+        this.position = HEADER_SIZE;
+        this.nextSequence = baseSequence;
+    }
+
+    /**
+     * Creates a new segment file, sized up front so writes never grow the file, and forces its header and directory
+     * entry to the storage device so that a crash never leaves a segment that cannot be opened
+     *
+     * @param directory    the journal directory
+     * @param baseSequence the sequence number of the first record
+     * @param size         the size of the file in bytes
+     * @return JournalSegment instance
+     * @throws IOException if the file cannot be created
+     */
+    static JournalSegment create(Path directory, long baseSequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(8, baseSequence);
+            buffer.force();
+            channel.force(true);
+            forceDirectory(directory);
+            return new JournalSegment(path, channel, buffer, baseSequence);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens an existing segment file for reading and appending, and finds the end of its valid records
+     *
+     * @param path the segment file
+     * @return JournalSegment instance
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    static JournalSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+            JournalSegment segment = new JournalSegment(path, channel, buffer, buffer.getLong(8));
+            segment.recover();
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps an existing segment file read-only, for example while another journal instance is appending to it.
+     * The end of its valid records is found when they are read.
+     *
+     * @param path the segment file
+     * @return JournalSegment instance, which must not be written to
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    static JournalSegment openForReading(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a journal segment: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            return new JournalSegment(path, channel, buffer, buffer.getLong(8));
+        }
+    }
+
+    /**
+     * Checks whether a segment file is shorter than a header or its header is all zeros, as left by a crash right
+     * after the file was created. Such a segment never holds a record.
+     *
+     * @param path the segment file
+     * @return true if the header was never written
+     * @throws IOException if the file cannot be read
+     */
+    static boolean hasBlankHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                return true;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            for (int i = 0; i < HEADER_SIZE; i++) {
+                if (header.get(i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Parses the sequence number of the first record from a segment file name
+     *
+     * @param path the segment file
+     * @return the base sequence number, or -1 if the name is not a segment file name
+     */
+    static long baseSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Builds the file name of a segment, which sorts in sequence order
+     *
+     * @param baseSequence the sequence number of the first record
+     * @return the file name
+     */
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+
+    /**
+     * Checks whether a record fits in the rest of the segment
+     *
+     * @param frameLength the length of the framed record
+     * @return true if the record fits
+     */
+    boolean hasRoom(int frameLength) {
+        return position + frameLength <= buffer.capacity();
+    }
+
+    /**
+     * Writes a framed record, whose sequence number must be the next one, and marks the end after it
+     *
+     * @param frame the framed record, from its position to its limit
+     */
+    void write(ByteBuffer frame) {
+        int length = frame.remaining();
+        ByteBuffer target = buffer.duplicate();
+        target.position(position);
+        target.put(frame);
+        position += length;
+        nextSequence++;
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    /**
+     * Writes the records of the segment from the page cache to the storage device
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Calls a visitor for every valid record, in order
+     *
+     * @param visitor the visitor, which receives a read-only buffer positioned at the payload and limited to it
+     */
+    void forEachRecord(RecordVisitor visitor) {
+        scan(visitor);
+    }
+
+    /**
+     * Closes the channel. The mapping stays valid until it is garbage collected.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Retrieves the segment file
+     *
+     * @return the path
+     */
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Retrieves the sequence number of the first record
+     *
+     * @return the base sequence number
+     */
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * Retrieves the sequence number of the next record
+     *
+     * @return the next sequence number
+     */
+    long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Retrieves the number of bytes in use, header included
+     *
+     * @return the used size
+     */
+    int getUsedSize() {
+        return position;
+    }
+
+    /**
+     * Finds the end of the valid records and marks it, so stale bytes after a torn write are never read as records
+     */
+    private void recover() {
+        scan(null);
+        if (position + 4 <= buffer.capacity()) {
+            buffer.putInt(position, 0);
+        }
+    }
+
+    /**
+     * Walks the valid records from the start of the segment, setting position and nextSequence to the end
+     */
+    private void scan(RecordVisitor visitor) {
+        ByteBuffer records = buffer.asReadOnlyBuffer();
+        CRC32 crc = new CRC32();
+        int offset = HEADER_SIZE;
+        long sequence = baseSequence;
+        while (offset + FRAME_SIZE <= records.capacity()) {
+            int length = records.getInt(offset);
+            if (length <= 0 || length > records.capacity() - offset - FRAME_SIZE || records.getLong(offset + 8) != sequence) {
+                break;
+            }
+            ByteBuffer payload = records.duplicate();
+            payload.limit(offset + FRAME_SIZE + length).position(offset + FRAME_SIZE);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != records.getInt(offset + 4)) {
+                break;
+            }
+            if (visitor != null) {
+                visitor.visit(sequence, payload);
+            }
+            offset += FRAME_SIZE + length;
+            sequence++;
+        }
+        if (visitor == null) {
+            position = offset;
+            nextSequence = sequence;
+        }
+    }
+
+    /**
+     * Forces the entries of a directory to the storage device, where the platform allows a directory to be opened
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Directories cannot be opened on Windows, which keeps the entry durable with the file
+            return;
+        }
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Visitor of the records of a segment
+     */
+    interface RecordVisitor {
+
+        /**
+         * Visits one record
+         *
+         * @param sequence the sequence number of the record
+         * @param payload  read-only buffer positioned at the payload and limited to it
+         */
+        void visit(long sequence, ByteBuffer payload);
+    }
+}
@@ -0,0 +1,173 @@
+package com.cardinalfinancial.us.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RetentionPolicy class that decides when an AgreementJournal deletes its oldest segments. A segment is deleted once
+ * any limit is exceeded; the segment being written is never deleted. Limits of 0 are not checked.
+ *
+ * @author Sylvia Barnai
+ */
+public final class RetentionPolicy {
+
+    /**
+     * Policy that keeps every segment
+     */
+    public static final RetentionPolicy KEEP_ALL = Builder.newInstance().build();
+
+    /**
+     * Maximum number of segments, 0 for no limit
+     */
+    private final int maxSegments;
+
+    /**
+     * Maximum total size of the segment files in bytes, 0 for no limit
+     */
+    private final long maxTotalBytes;
+
+    /**
+     * Maximum age of a segment in milliseconds since it was last written, 0 for no limit
+     */
+    private final long maxAgeMillis;
+
+    /**
+     * Private constructor for RetentionPolicy instance
+     *
+     * @param builder RetentionPolicy.Builder class used to construct the RetentionPolicy instance
+     */
+    private RetentionPolicy(Builder builder) {
+        this.maxSegments = builder.maxSegments;
+        this.maxTotalBytes = builder.maxTotalBytes;
+        this.maxAgeMillis = builder.maxAgeMillis;
+    }
+
+    /**
+     * Static Builder class for constructing RetentionPolicy instance
+     */
+    public static class Builder {
+
+        /**
+         * Maximum number of segments, 0 for no limit
+         */
+        private int maxSegments;
+
+        /**
+         * Maximum total size of the segment files in bytes, 0 for no limit
+         */
+        private long maxTotalBytes;
+
+        /**
+         * Maximum age of a segment in milliseconds, 0 for no limit
+         */
+        private long maxAgeMillis;
+
+        /**
+         * Creates a new instance of RetentionPolicy
+         *
+         * @return RetentionPolicy.Builder class used to construct the RetentionPolicy instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the maximum number of segments, including the one being written
+         * If the maximum is negative, then throw exception
+         *
+         * @param maxSegments the maximum, or 0 for no limit
+         * @return RetentionPolicy.Builder class used to construct the RetentionPolicy instance
+         */
+        public Builder setMaxSegments(int maxSegments) {
+            if (maxSegments < 0)
+                throw new IllegalArgumentException("Maximum segment count must not be negative.");
+            this.maxSegments = maxSegments;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total size of the segment files, including the one being written
+         * If the maximum is negative, then throw exception
+         *
+         * @param maxTotalBytes the maximum in bytes, or 0 for no limit
+         * @return RetentionPolicy.Builder class used to construct the RetentionPolicy instance
+         */
+        public Builder setMaxTotalBytes(long maxTotalBytes) {
+            if (maxTotalBytes < 0)
+                throw new IllegalArgumentException("Maximum total size must not be negative.");
+            this.maxTotalBytes = maxTotalBytes;
+            return this;
+        }
+
+        /**
+         * Sets the maximum age of a segment since it was last written
+         * If the maximum is negative, then throw exception
+         *
+         * @param maxAge the maximum, or 0 for no limit
+         * @param unit   the unit of the maximum
+         * @return RetentionPolicy.Builder class used to construct the RetentionPolicy instance
+         */
+        public Builder setMaxAge(long maxAge, TimeUnit unit) {
+            if (maxAge < 0)
+                throw new IllegalArgumentException("Maximum age must not be negative.");
+            this.maxAgeMillis = unit.toMillis(maxAge);
+            return this;
+        }
+
+        /**
+         * Build method to deal with outer class to return outer instance
+         *
+         * @return RetentionPolicy instance
+         */
+        public RetentionPolicy build() {
+            return new RetentionPolicy(this);
+        }
+    }
+
+    /**
+     * Decides whether the oldest segment is deleted
+     *
+     * @param segmentCount       the number of segments, including the one being written
+     * @param totalBytes         the total size of the segment files
+     * @param oldestLastModified when the oldest segment was last written, in epoch milliseconds
+     * @param nowMillis          the current time in epoch milliseconds
+     * @return true if the oldest segment exceeds a limit
+     */
+    boolean shouldDeleteOldest(int segmentCount, long totalBytes, long oldestLastModified, long nowMillis) {
+        return (maxSegments > 0 && segmentCount > maxSegments)
+                || (maxTotalBytes > 0 && totalBytes > maxTotalBytes)
+                || (maxAgeMillis > 0 && nowMillis - oldestLastModified > maxAgeMillis);
+    }
+
+    /**
+     * Retrieves the maximum number of segments
+     *
+     * @return the maximum, or 0 for no limit
+     */
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Retrieves the maximum total size of the segment files
+     *
+     * @return the maximum in bytes, or 0 for no limit
+     */
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    /**
+     * Retrieves the maximum age of a segment
+     *
+     * @return the maximum in milliseconds, or 0 for no limit
+     */
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+}
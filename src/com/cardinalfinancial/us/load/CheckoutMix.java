@@ -0,0 +1,346 @@
+package com.cardinalfinancial.us.load;
+
+import com.cardinalfinancial.us.calendar.NthWeekdayHolidayRule;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of the checkouts a POS terminal sends: tool codes and discounts are drawn by weight, rental day counts
+ * uniformly from a range, and checkout dates either from the days around July 4 and Labor Day, where the holiday and
+ * weekend rules of the pricing matter most, or from any day of the configured years. Date strings are formatted once
+ * when the mix is built, so drawing a Checkout costs a few random numbers.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CheckoutMix {
+
+    /**
+     * Labor Day, the first Monday of September
+     */
+    private static final NthWeekdayHolidayRule LABOR_DAY = new NthWeekdayHolidayRule("Labor Day", Month.SEPTEMBER,
+            DayOfWeek.MONDAY, 1);
+
+    /**
+     * The mix of the default catalog, built on first use
+     */
+    private static volatile CheckoutMix defaultMix;
+
+    /**
+     * Tool codes, drawn by weight
+     */
+    private final String[] toolCodes;
+
+    /**
+     * Running totals of the tool code weights
+     */
+    private final int[] toolCodeWeights;
+
+    /**
+     * Discount percents, drawn by weight
+     */
+    private final int[] discountPercents;
+
+    /**
+     * Running totals of the discount weights
+     */
+    private final int[] discountWeights;
+
+    /**
+     * Smallest rental day count
+     */
+    private final int minRentalDays;
+
+    /**
+     * Largest rental day count
+     */
+    private final int maxRentalDays;
+
+    /**
+     * Dates around July 4 and Labor Day of every year
+     */
+    private final String[] holidayDates;
+
+    /**
+     * Every date of every year
+     */
+    private final String[] allDates;
+
+    /**
+     * Share of the checkouts dated around a holiday
+     */
+    private final double holidayShare;
+
+    /**
+     * Private constructor, creates a CheckoutMix instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private CheckoutMix(Builder builder) {
+        this.toolCodes = builder.toolCodes.toArray(new String[0]);
+        this.toolCodeWeights = runningTotals(builder.toolCodeWeights);
+        this.discountPercents = builder.discountPercents.stream().mapToInt(Integer::intValue).toArray();
+        this.discountWeights = runningTotals(builder.discountWeights);
+        this.minRentalDays = builder.minRentalDays;
+        this.maxRentalDays = builder.maxRentalDays;
+        this.holidayShare = builder.holidayShare;
+
+        List<String> holidays = new ArrayList<>();
+        List<String> all = new ArrayList<>();
+        for (int year = builder.fromYear; year <= builder.toYear; year++) {
+            long[] centers = {DateUtils.toEpochDay(year, 7, 4), LABOR_DAY.observedEpochDay(year)};
+            for (long center : centers) {
+                for (long day = center - builder.holidayWindowDays; day <= center + builder.holidayWindowDays; day++) {
+                    holidays.add(DateUtils.formatEpochDay(day));
+                }
+            }
+            for (long day = DateUtils.toEpochDay(year, 1, 1); day < DateUtils.toEpochDay(year + 1, 1, 1); day++) {
+                all.add(DateUtils.formatEpochDay(day));
+            }
+        }
+        this.holidayDates = holidays.toArray(new String[0]);
+        this.allDates = all.toArray(new String[0]);
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Tool codes
+         */
+        private final List<String> toolCodes = new ArrayList<>();
+
+        /**
+         * Weights of the tool codes
+         */
+        private final List<Integer> toolCodeWeights = new ArrayList<>();
+
+        /**
+         * Discount percents
+         */
+        private final List<Integer> discountPercents = new ArrayList<>();
+
+        /**
+         * Weights of the discount percents
+         */
+        private final List<Integer> discountWeights = new ArrayList<>();
+
+        /**
+         * Smallest rental day count, 1 by default
+         */
+        private int minRentalDays = 1;
+
+        /**
+         * Largest rental day count, 14 by default
+         */
+        private int maxRentalDays = 14;
+
+        /**
+         * First year of the checkout dates, 2015 by default
+         */
+        private int fromYear = 2015;
+
+        /**
+         * Last year of the checkout dates, 2020 by default
+         */
+        private int toYear = 2020;
+
+        /**
+         * Days before and after each holiday that count as around it, 5 by default
+         */
+        private int holidayWindowDays = 5;
+
+        /**
+         * Share of the checkouts dated around a holiday, 0.5 by default
+         */
+        private double holidayShare = 0.5;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Adds a tool code to the mix
+         * If the weight is not positive, then throw exception
+         *
+         * @param toolCode the tool code
+         * @param weight   the relative number of checkouts of the tool
+         * @return Builder instance
+         */
+        public Builder addToolCode(String toolCode, int weight) {
+            if (weight < 1)
+                throw new IllegalArgumentException("Weight must be positive.");
+            toolCodes.add(toolCode);
+            toolCodeWeights.add(weight);
+            return this;
+        }
+
+        /**
+         * Adds a discount percent to the mix
+         * If the discount is not between 0 and 100 or the weight is not positive, then throw exception
+         *
+         * @param discountPercent the discount percent
+         * @param weight          the relative number of checkouts with the discount
+         * @return Builder instance
+         */
+        public Builder addDiscountPercent(int discountPercent, int weight) {
+            if (discountPercent < 0 || discountPercent > 100)
+                throw new IllegalArgumentException("Discount percent must be between 0 and 100.");
+            if (weight < 1)
+                throw new IllegalArgumentException("Weight must be positive.");
+            discountPercents.add(discountPercent);
+            discountWeights.add(weight);
+            return this;
+        }
+
+        /**
+         * Sets the range of the rental day counts
+         * If the range is empty or starts below 1, then throw exception
+         *
+         * @param minRentalDays the smallest rental day count
+         * @param maxRentalDays the largest rental day count
+         * @return Builder instance
+         */
+        public Builder setRentalDays(int minRentalDays, int maxRentalDays) {
+            if (minRentalDays < 1 || maxRentalDays < minRentalDays)
+                throw new IllegalArgumentException("Rental days must be a range starting at 1 or more.");
+            this.minRentalDays = minRentalDays;
+            this.maxRentalDays = maxRentalDays;
+            return this;
+        }
+
+        /**
+         * Sets the years of the checkout dates
+         * If the range is empty or outside of 2000 to 2099, then throw exception
+         *
+         * @param fromYear the first year
+         * @param toYear   the last year
+         * @return Builder instance
+         */
+        public Builder setYears(int fromYear, int toYear) {
+            if (fromYear < 2000 || toYear > 2099 || toYear < fromYear)
+                throw new IllegalArgumentException("Years must be a range between 2000 and 2099.");
+            this.fromYear = fromYear;
+            this.toYear = toYear;
+            return this;
+        }
+
+        /**
+         * Sets the number of days before and after July 4 and Labor Day that count as around the holiday
+         * If the number of days is negative, then throw exception
+         *
+         * @param holidayWindowDays the number of days
+         * @return Builder instance
+         */
+        public Builder setHolidayWindowDays(int holidayWindowDays) {
+            if (holidayWindowDays < 0)
+                throw new IllegalArgumentException("Holiday window must not be negative.");
+            this.holidayWindowDays = holidayWindowDays;
+            return this;
+        }
+
+        /**
+         * Sets the share of the checkouts dated around July 4 or Labor Day, the others are dated on any day
+         * If the share is not between 0 and 1, then throw exception
+         *
+         * @param holidayShare the share
+         * @return Builder instance
+         */
+        public Builder setHolidayShare(double holidayShare) {
+            if (!(holidayShare >= 0 && holidayShare <= 1))
+                throw new IllegalArgumentException("Holiday share must be between 0 and 1.");
+            this.holidayShare = holidayShare;
+            return this;
+        }
+
+        /**
+         * Creates a CheckoutMix instance
+         * If no tool code is added, then throw exception
+         *
+         * @return CheckoutMix instance
+         */
+        public CheckoutMix build() {
+            if (toolCodes.isEmpty())
+                throw new IllegalArgumentException("At least one tool code must be added.");
+            if (discountPercents.isEmpty()) {
+                addDiscountPercent(0, 1);
+            }
+            return new CheckoutMix(this);
+        }
+    }
+
+    /**
+     * Retrieves the mix of the default catalog: mostly ladders and jackhammers, rentals of 1 to 14 days, mostly
+     * without discount, half of them around the holidays of 2015 to 2020
+     *
+     * @return CheckoutMix instance
+     */
+    public static CheckoutMix getDefault() {
+        CheckoutMix mix = defaultMix;
+        if (mix == null) {
+            mix = Builder.newInstance()
+                    .addToolCode("LADW", 3).addToolCode("CHNS", 2).addToolCode("JAKR", 2).addToolCode("JAKD", 3)
+                    .addDiscountPercent(0, 70).addDiscountPercent(10, 15).addDiscountPercent(20, 10)
+                    .addDiscountPercent(50, 5)
+                    .build();
+            defaultMix = mix;
+        }
+        return mix;
+    }
+
+    /**
+     * Draws the next Checkout
+     *
+     * @param random the random number generator of the calling terminal
+     * @return Checkout instance
+     */
+    public Checkout next(SplittableRandom random) {
+        String[] dates = random.nextDouble() < holidayShare ? holidayDates : allDates;
+        return Checkout.Builder.newInstance()
+                .setToolCode(toolCodes[pick(toolCodeWeights, random)])
+                .setCheckoutDate(dates[random.nextInt(dates.length)])
+                .setRentalDayCount(minRentalDays + random.nextInt(maxRentalDays - minRentalDays + 1))
+                .setDiscountPercent(discountPercents[pick(discountWeights, random)])
+                .build();
+    }
+
+    /**
+     * Draws an index by weight
+     */
+    private static int pick(int[] runningTotals, SplittableRandom random) {
+        int index = Arrays.binarySearch(runningTotals, random.nextInt(runningTotals[runningTotals.length - 1]) + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Converts weights to running totals
+     */
+    private static int[] runningTotals(List<Integer> weights) {
+        int[] totals = new int[weights.size()];
+        int total = 0;
+        for (int i = 0; i < totals.length; i++) {
+            total = Math.addExact(total, weights.get(i));
+            totals[i] = total;
+        }
+        return totals;
+    }
+}
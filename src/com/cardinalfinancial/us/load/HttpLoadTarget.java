@@ -0,0 +1,92 @@
+package com.cardinalfinancial.us.load;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.http.CheckoutHttpServer;
+import com.cardinalfinancial.us.http.JsonCodec;
+import com.cardinalfinancial.us.model.Checkout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LoadTarget that posts every Checkout as JSON to the checkout endpoint of a CheckoutHttpServer. Responses are read
+ * to the end so that each terminal thread keeps reusing its keep-alive connection. Any status but 200 counts as an
+ * error.
+ *
+ * @author Sylvia Barnai
+ */
+public final class HttpLoadTarget implements LoadTarget {
+
+    /**
+     * Connect and read timeout in milliseconds
+     */
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Per-thread builders the request bodies are formatted into
+     */
+    private static final ThreadLocal<StringBuilder> REQUEST_BUILDERS = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    /**
+     * Per-thread buffers used to drain the response
+     */
+    private static final ThreadLocal<byte[]> RESPONSE_BUFFERS = ThreadLocal.withInitial(() -> new byte[1024]);
+
+    /**
+     * URL of the checkout endpoint
+     */
+    private final URL checkoutUrl;
+
+    /**
+     * Constructor for HttpLoadTarget
+     * If the URL is malformed, then throw exception
+     *
+     * @param baseUrl the URL of the server, such as http://localhost:8080
+     */
+    public HttpLoadTarget(String baseUrl) {
+        try {
+            this.checkoutUrl = new URL(baseUrl.replaceAll("/+$", "") + CheckoutHttpServer.CHECKOUT_PATH);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Invalid server URL " + baseUrl, e);
+        }
+    }
+
+    @Override
+    public void send(Checkout checkout) {
+        StringBuilder builder = REQUEST_BUILDERS.get();
+        builder.setLength(0);
+        byte[] body = JsonCodec.appendCheckout(builder, checkout).toString().getBytes(StandardCharsets.UTF_8);
+        try {
+            HttpURLConnection connection = (HttpURLConnection) checkoutUrl.openConnection();
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                byte[] buffer = RESPONSE_BUFFERS.get();
+                while (in != null && in.read(buffer) >= 0) {
+                    // Drain the response so the connection can be reused
+                }
+            }
+            if (status != 200) {
+                throw new CheckoutException("Checkout failed with HTTP status " + status);
+            }
+        } catch (IOException e) {
+            throw new CheckoutException("Unable to send checkout to " + checkoutUrl, e);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
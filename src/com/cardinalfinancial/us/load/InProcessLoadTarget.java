@@ -0,0 +1,35 @@
+package com.cardinalfinancial.us.load;
+
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.service.CheckoutService;
+
+/**
+ * LoadTarget that calls a CheckoutService in the same JVM, to measure the service without the network
+ *
+ * @author Sylvia Barnai
+ */
+public final class InProcessLoadTarget implements LoadTarget {
+
+    /**
+     * The service that prices the checkouts
+     */
+    private final CheckoutService checkoutService;
+
+    /**
+     * Constructor for InProcessLoadTarget
+     *
+     * @param checkoutService the CheckoutService instance
+     */
+    public InProcessLoadTarget(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    @Override
+    public void send(Checkout checkout) {
+        checkoutService.processCheckout(checkout);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,383 @@
+package com.cardinalfinancial.us.load;
+
+import com.cardinalfinancial.us.metrics.LatencyHistogram;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.ExecutorUtils;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator that simulates POS terminals. Each terminal is a thread that draws a Checkout from a CheckoutMix,
+ * sends it to a LoadTarget, waits for the answer and an optional think time, and starts over. Latencies of the
+ * checkouts sent after the warmup are recorded in a LatencyHistogram. Running increasing terminal counts one after
+ * the other, as main() does, shows the saturation point: the count after which throughput stops growing and latency
+ * only gets longer.
+ * <p>
+ * Usage: {@code java com.cardinalfinancial.us.load.LoadGenerator [-url http://host:port] [-terminals 1,2,4,8]
+ * [-t seconds] [-warmup seconds] [-think milliseconds] [-seed seed]}. Without -url the checkouts are priced in
+ * process by a CheckoutServiceImpl that does not print agreements.
+ *
+ * @author Sylvia Barnai
+ */
+public final class LoadGenerator {
+
+    /**
+     * Throughput gain below which one more step of terminals counts as saturated
+     */
+    private static final double SATURATION_GAIN = 1.05;
+
+    /**
+     * Where the checkouts are sent
+     */
+    private final LoadTarget target;
+
+    /**
+     * The checkouts the terminals send
+     */
+    private final CheckoutMix mix;
+
+    /**
+     * Number of simulated terminals
+     */
+    private final int terminalCount;
+
+    /**
+     * Length of the warmup in nanoseconds, whose checkouts are not measured
+     */
+    private final long warmupNanos;
+
+    /**
+     * Length of the measured period in nanoseconds
+     */
+    private final long durationNanos;
+
+    /**
+     * Time every terminal waits after an answer in nanoseconds
+     */
+    private final long thinkNanos;
+
+    /**
+     * Seed of the random number generators of the terminals
+     */
+    private final long seed;
+
+    /**
+     * Private constructor, creates a LoadGenerator instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private LoadGenerator(Builder builder) {
+        this.target = builder.target;
+        this.mix = builder.mix;
+        this.terminalCount = builder.terminalCount;
+        this.warmupNanos = builder.warmupNanos;
+        this.durationNanos = builder.durationNanos;
+        this.thinkNanos = builder.thinkNanos;
+        this.seed = builder.seed;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Where the checkouts are sent
+         */
+        private LoadTarget target;
+
+        /**
+         * The checkouts the terminals send, CheckoutMix.getDefault() by default
+         */
+        private CheckoutMix mix;
+
+        /**
+         * Number of simulated terminals, 8 by default
+         */
+        private int terminalCount = 8;
+
+        /**
+         * Length of the warmup in nanoseconds, 2 seconds by default
+         */
+        private long warmupNanos = TimeUnit.SECONDS.toNanos(2);
+
+        /**
+         * Length of the measured period in nanoseconds, 10 seconds by default
+         */
+        private long durationNanos = TimeUnit.SECONDS.toNanos(10);
+
+        /**
+         * Time every terminal waits after an answer in nanoseconds, none by default
+         */
+        private long thinkNanos;
+
+        /**
+         * Seed of the random number generators of the terminals
+         */
+        private long seed = 42;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets where the checkouts are sent
+         *
+         * @param target the LoadTarget instance
+         * @return Builder instance
+         */
+        public Builder setTarget(LoadTarget target) {
+            this.target = target;
+            return this;
+        }
+
+        /**
+         * Sets the checkouts the terminals send
+         *
+         * @param mix the CheckoutMix instance
+         * @return Builder instance
+         */
+        public Builder setMix(CheckoutMix mix) {
+            this.mix = mix;
+            return this;
+        }
+
+        /**
+         * Sets the number of simulated terminals
+         * If the count is not positive, then throw exception
+         *
+         * @param terminalCount the terminal count
+         * @return Builder instance
+         */
+        public Builder setTerminalCount(int terminalCount) {
+            if (terminalCount < 1)
+                throw new IllegalArgumentException("Terminal count must be positive.");
+            this.terminalCount = terminalCount;
+            return this;
+        }
+
+        /**
+         * Sets the length of the warmup, whose checkouts are not measured
+         * If the length is negative, then throw exception
+         *
+         * @param warmup the length
+         * @param unit   the unit of the length
+         * @return Builder instance
+         */
+        public Builder setWarmup(long warmup, TimeUnit unit) {
+            if (warmup < 0)
+                throw new IllegalArgumentException("Warmup must not be negative.");
+            this.warmupNanos = unit.toNanos(warmup);
+            return this;
+        }
+
+        /**
+         * Sets the length of the measured period
+         * If the length is not positive, then throw exception
+         *
+         * @param duration the length
+         * @param unit     the unit of the length
+         * @return Builder instance
+         */
+        public Builder setDuration(long duration, TimeUnit unit) {
+            if (duration < 1)
+                throw new IllegalArgumentException("Duration must be positive.");
+            this.durationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Sets the time every terminal waits after an answer, like a cashier between two customers
+         * If the time is negative, then throw exception
+         *
+         * @param thinkTime the time
+         * @param unit      the unit of the time
+         * @return Builder instance
+         */
+        public Builder setThinkTime(long thinkTime, TimeUnit unit) {
+            if (thinkTime < 0)
+                throw new IllegalArgumentException("Think time must not be negative.");
+            this.thinkNanos = unit.toNanos(thinkTime);
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random number generators of the terminals, so runs send the same checkouts
+         *
+         * @param seed the seed
+         * @return Builder instance
+         */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Creates a LoadGenerator instance
+         * If no target is set, then throw exception
+         *
+         * @return LoadGenerator instance
+         */
+        public LoadGenerator build() {
+            if (target == null)
+                throw new IllegalArgumentException("Load target must be set.");
+            if (mix == null) {
+                mix = CheckoutMix.getDefault();
+            }
+            return new LoadGenerator(this);
+        }
+    }
+
+    /**
+     * Runs every terminal for the warmup and the measured period, then waits for their last checkouts
+     *
+     * @return LoadReport instance for the measured period
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the terminals
+     */
+    public LoadReport run() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram(Integer.highestOneBit(Math.min(terminalCount, 64) * 2 - 1));
+        LongAdder requestCount = new LongAdder();
+        LongAdder errorCount = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(terminalCount);
+        ThreadFactory threadFactory = ExecutorUtils.newDaemonThreadFactory("load-terminal");
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        long measureStart = System.nanoTime() + warmupNanos;
+        long measureEnd = measureStart + durationNanos;
+        for (int terminal = 0; terminal < terminalCount; terminal++) {
+            SplittableRandom random = seeds.split();
+            threadFactory.newThread(() -> {
+                try {
+                    runTerminal(random, histogram, requestCount, errorCount, measureStart, measureEnd);
+                } finally {
+                    finished.countDown();
+                }
+            }).start();
+        }
+        finished.await();
+        return new LoadReport(terminalCount, requestCount.sum(), errorCount.sum(), durationNanos,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxNanos());
+    }
+
+    /**
+     * Sends checkouts from one terminal until the end of the measured period
+     */
+    private void runTerminal(SplittableRandom random, LatencyHistogram histogram, LongAdder requestCount,
+                             LongAdder errorCount, long measureStart, long measureEnd) {
+        long now = System.nanoTime();
+        while (now < measureEnd) {
+            Checkout checkout = mix.next(random);
+            long startNanos = System.nanoTime();
+            boolean success = true;
+            try {
+                target.send(checkout);
+            } catch (RuntimeException e) {
+                success = false;
+            }
+            now = System.nanoTime();
+            // Only checkouts that started and ended inside the measured period count
+            if (startNanos >= measureStart && now <= measureEnd) {
+                histogram.record(now - startNanos);
+                requestCount.increment();
+                if (!success) {
+                    errorCount.increment();
+                }
+            }
+            if (thinkNanos > 0) {
+                LockSupport.parkNanos(thinkNanos);
+                now = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Finds the saturation point of reports for increasing terminal counts
+     *
+     * @param reports the reports, in increasing terminal count order
+     * @return the last report whose throughput is more than 5% above the best one before it, or null if there are no
+     * reports
+     */
+    public static LoadReport findSaturationPoint(List<LoadReport> reports) {
+        LoadReport best = null;
+        for (LoadReport report : reports) {
+            if (best == null || report.getThroughput() > best.getThroughput() * SATURATION_GAIN) {
+                best = report;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs the load for each terminal count and prints one line per run and the saturation point
+     *
+     * @param args options
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String url = null;
+        String terminals = "1,2,4,8,16,32,64";
+        long seconds = 10;
+        long warmupSeconds = 2;
+        long thinkMillis = 0;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            if ("-url".equals(args[i])) {
+                url = args[++i];
+            } else if ("-terminals".equals(args[i])) {
+                terminals = args[++i];
+            } else if ("-t".equals(args[i])) {
+                seconds = Long.parseLong(args[++i]);
+            } else if ("-warmup".equals(args[i])) {
+                warmupSeconds = Long.parseLong(args[++i]);
+            } else if ("-think".equals(args[i])) {
+                thinkMillis = Long.parseLong(args[++i]);
+            } else if ("-seed".equals(args[i])) {
+                seed = Long.parseLong(args[++i]);
+            }
+        }
+
+        PrintStream console = System.out;
+        List<LoadReport> reports = new ArrayList<>();
+        try (LoadTarget target = url != null ? new HttpLoadTarget(url) : new InProcessLoadTarget(
+                CheckoutServiceImpl.Builder.newInstance().setAgreementSink(QuietAgreementSink.INSTANCE).build())) {
+            console.println("Target: " + (url != null ? url : "in process"));
+            console.println(LoadReport.header());
+            for (String count : terminals.split(",")) {
+                LoadReport report = Builder.newInstance().setTarget(target)
+                        .setTerminalCount(Integer.parseInt(count.trim()))
+                        .setWarmup(warmupSeconds, TimeUnit.SECONDS).setDuration(seconds, TimeUnit.SECONDS)
+                        .setThinkTime(thinkMillis, TimeUnit.MILLISECONDS).setSeed(seed)
+                        .build().run();
+                reports.add(report);
+                console.println(report);
+            }
+        }
+        LoadReport saturation = findSaturationPoint(reports);
+        if (saturation != null) {
+            console.println(String.format("Saturation point: %d terminals, %.1f req/s, p99 %.1f us",
+                    saturation.getTerminalCount(), saturation.getThroughput(), saturation.getP99Nanos() / 1e3));
+        }
+    }
+}
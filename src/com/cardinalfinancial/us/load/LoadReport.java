@@ -0,0 +1,189 @@
+package com.cardinalfinancial.us.load;
+
+import java.util.Locale;
+
+/**
+ * Immutable result of one LoadGenerator run: throughput, error rate and latency percentiles over the measured period
+ *
+ * @author Sylvia Barnai
+ */
+public final class LoadReport {
+
+    /**
+     * Number of simulated terminals
+     */
+    private final int terminalCount;
+
+    /**
+     * Number of checkouts sent during the measured period
+     */
+    private final long requestCount;
+
+    /**
+     * Number of checkouts that failed during the measured period
+     */
+    private final long errorCount;
+
+    /**
+     * Length of the measured period in nanoseconds
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Median latency in nanoseconds
+     */
+    private final long p50Nanos;
+
+    /**
+     * 90th percentile latency in nanoseconds
+     */
+    private final long p90Nanos;
+
+    /**
+     * 99th percentile latency in nanoseconds
+     */
+    private final long p99Nanos;
+
+    /**
+     * 99.9th percentile latency in nanoseconds
+     */
+    private final long p999Nanos;
+
+    /**
+     * Maximum latency in nanoseconds
+     */
+    private final long maxNanos;
+
+    /**
+     * Constructor for LoadReport
+     *
+     * @param terminalCount the number of simulated terminals
+     * @param requestCount  the number of checkouts sent
+     * @param errorCount    the number of checkouts that failed
+     * @param elapsedNanos  the length of the measured period in nanoseconds
+     * @param p50Nanos      the median latency in nanoseconds
+     * @param p90Nanos      the 90th percentile latency in nanoseconds
+     * @param p99Nanos      the 99th percentile latency in nanoseconds
+     * @param p999Nanos     the 99.9th percentile latency in nanoseconds
+     * @param maxNanos      the maximum latency in nanoseconds
+     */
+    public LoadReport(int terminalCount, long requestCount, long errorCount, long elapsedNanos, long p50Nanos,
+                      long p90Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.terminalCount = terminalCount;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Retrieves the number of simulated terminals
+     *
+     * @return the terminal count
+     */
+    public int getTerminalCount() {
+        return terminalCount;
+    }
+
+    /**
+     * Retrieves the number of checkouts sent during the measured period
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Retrieves the number of checkouts that failed during the measured period
+     *
+     * @return the error count
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Retrieves the share of the checkouts that failed
+     *
+     * @return the error rate between 0 and 1, 0 if nothing was sent
+     */
+    public double getErrorRate() {
+        return requestCount == 0 ? 0 : (double) errorCount / requestCount;
+    }
+
+    /**
+     * Retrieves the number of checkouts sent per second
+     *
+     * @return the throughput
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : requestCount / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Retrieves the median latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * Retrieves the 90th percentile latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    /**
+     * Retrieves the 99th percentile latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * Retrieves the 99.9th percentile latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    /**
+     * Retrieves the maximum latency
+     *
+     * @return the latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Retrieves the header line matching the columns of toString()
+     *
+     * @return the header line
+     */
+    public static String header() {
+        return String.format(Locale.US, "%9s %12s %8s %10s %10s %10s %10s %10s",
+                "terminals", "req/s", "errors", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%9d %12.1f %7.2f%% %10.1f %10.1f %10.1f %10.1f %10.1f",
+                terminalCount, getThroughput(), getErrorRate() * 100, p50Nanos / 1e3, p90Nanos / 1e3, p99Nanos / 1e3,
+                p999Nanos / 1e3, maxNanos / 1e3);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cardinalfinancial.us.load;
+
+import com.cardinalfinancial.us.model.Checkout;
+
+import java.io.Closeable;
+
+/**
+ * Interface that defines where LoadGenerator sends the checkouts of its simulated terminals, so the same load can be
+ * run against a CheckoutService in the same JVM or against a running CheckoutHttpServer
+ *
+ * @author Sylvia Barnai
+ */
+public interface LoadTarget extends Closeable {
+
+    /**
+     * Sends a Checkout and waits for it to be priced. Called by every terminal thread at the same time.
+     *
+     * @param checkout the Checkout instance
+     * @throws RuntimeException if the checkout fails, which counts as an error
+     */
+    void send(Checkout checkout);
+
+    /**
+     * Releases the resources of the target
+     */
+    @Override
+    void close();
+}
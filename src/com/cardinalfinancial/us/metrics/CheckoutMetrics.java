@@ -0,0 +1,335 @@
+package com.cardinalfinancial.us.metrics;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Metrics of CheckoutServiceImpl: a latency histogram per CheckoutStage, and checkout counts, error counts and a
+ * latency histogram per tool code. Recording only touches LongAdders and striped counters. Reading the clock costs
+ * more than recording, so by default only one checkout in DEFAULT_STAGE_SAMPLING_INTERVAL has its stages timed; whole
+ * checkouts are always timed. The metrics can be read through JMX or as a text dump.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CheckoutMetrics implements CheckoutMetricsMBean {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(CheckoutMetrics.class.getName());
+
+    /**
+     * Default JMX name of the metrics
+     */
+    public static final String DEFAULT_OBJECT_NAME = "com.cardinalfinancial.us:type=CheckoutMetrics";
+
+    /**
+     * Default number of checkouts per checkout whose stages are timed
+     */
+    public static final int DEFAULT_STAGE_SAMPLING_INTERVAL = 8;
+
+    /**
+     * Key of the checkouts whose tool code is not known, so bad input cannot grow the per tool code metrics
+     */
+    public static final String UNKNOWN_TOOL_CODE = "(unknown)";
+
+    /**
+     * Number of stripes of the per-stage histograms, which every checkout thread records into
+     */
+    private static final int STAGE_STRIPE_COUNT = Math.min(8, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    /**
+     * Latency histogram of every stage
+     */
+    private final Map<CheckoutStage, LatencyHistogram> stageLatencies = new EnumMap<>(CheckoutStage.class);
+
+    /**
+     * Latency histogram of whole checkouts
+     */
+    private final LatencyHistogram checkoutLatency = new LatencyHistogram(STAGE_STRIPE_COUNT);
+
+    /**
+     * Number of failed checkouts
+     */
+    private final LongAdder errorCount = new LongAdder();
+
+    /**
+     * Number of checkouts per checkout whose stages are timed
+     */
+    private final int stageSamplingInterval;
+
+    /**
+     * Metrics of every tool code that has been checked out
+     */
+    private final ConcurrentHashMap<String, ToolCodeMetrics> toolCodeMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * System.nanoTime() when the metrics were created or last reset
+     */
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Constructor for CheckoutMetrics that times the stages of one checkout in DEFAULT_STAGE_SAMPLING_INTERVAL
+     */
+    public CheckoutMetrics() {
+        this(DEFAULT_STAGE_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * Constructor for CheckoutMetrics
+     * If the sampling interval is less than 1, then throw exception
+     *
+     * @param stageSamplingInterval number of checkouts per checkout whose stages are timed, 1 to time every checkout
+     */
+    public CheckoutMetrics(int stageSamplingInterval) {
+        if (stageSamplingInterval < 1)
+            throw new IllegalArgumentException("Stage sampling interval must be at least 1.");
+        this.stageSamplingInterval = stageSamplingInterval;
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            stageLatencies.put(stage, new LatencyHistogram(STAGE_STRIPE_COUNT));
+        }
+    }
+
+    /**
+     * Decides whether the stages of the next checkout are timed
+     *
+     * @return true for one checkout in stageSamplingInterval, picked at random
+     */
+    public boolean sampleStages() {
+        return stageSamplingInterval == 1 || ThreadLocalRandom.current().nextInt(stageSamplingInterval) == 0;
+    }
+
+    /**
+     * Records the latency of one stage of a checkout
+     *
+     * @param stage the stage
+     * @param nanos the latency in nanoseconds
+     */
+    public void recordStage(CheckoutStage stage, long nanos) {
+        stageLatencies.get(stage).record(nanos);
+    }
+
+    /**
+     * Records a whole checkout
+     *
+     * @param toolCode the tool code of the checkout, or null if it is not a known tool code
+     * @param nanos    the latency in nanoseconds
+     * @param success  whether a RentalAgreement was generated
+     */
+    public void recordCheckout(String toolCode, long nanos, boolean success) {
+        checkoutLatency.record(nanos);
+        if (!success) {
+            errorCount.increment();
+        }
+        String key = toolCode != null ? toolCode : UNKNOWN_TOOL_CODE;
+        // get() first, as computeIfAbsent() locks the bin even when the tool code is already present
+        ToolCodeMetrics metrics = toolCodeMetrics.get(key);
+        if (metrics == null) {
+            metrics = toolCodeMetrics.computeIfAbsent(key, code -> new ToolCodeMetrics());
+        }
+        metrics.latency.record(nanos);
+        if (!success) {
+            metrics.errorCount.increment();
+        }
+    }
+
+    /**
+     * Retrieves the latency histogram of one stage
+     *
+     * @param stage the stage
+     * @return LatencyHistogram instance
+     */
+    public LatencyHistogram getStageLatency(CheckoutStage stage) {
+        return stageLatencies.get(stage);
+    }
+
+    /**
+     * Retrieves the latency histogram of whole checkouts
+     *
+     * @return LatencyHistogram instance
+     */
+    public LatencyHistogram getCheckoutLatency() {
+        return checkoutLatency;
+    }
+
+    @Override
+    public long getCheckoutCount() {
+        return checkoutLatency.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    @Override
+    public double getThroughputPerSecond() {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return elapsedNanos <= 0 ? 0 : getCheckoutCount() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return toMicros(checkoutLatency.getValueAtPercentile(50));
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return toMicros(checkoutLatency.getValueAtPercentile(99));
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return toMicros(checkoutLatency.getValueAtPercentile(99.9));
+    }
+
+    @Override
+    public String[] getToolCodes() {
+        String[] toolCodes = toolCodeMetrics.keySet().toArray(new String[0]);
+        Arrays.sort(toolCodes);
+        return toolCodes;
+    }
+
+    @Override
+    public double getStageLatencyMicros(String stage, double percentile) {
+        return toMicros(stageLatencies.get(CheckoutStage.valueOf(stage)).getValueAtPercentile(percentile));
+    }
+
+    @Override
+    public double getToolCodeLatencyMicros(String toolCode, double percentile) {
+        ToolCodeMetrics metrics = toolCodeMetrics.get(toolCode);
+        return metrics == null ? 0 : toMicros(metrics.latency.getValueAtPercentile(percentile));
+    }
+
+    @Override
+    public long getToolCodeCheckoutCount(String toolCode) {
+        ToolCodeMetrics metrics = toolCodeMetrics.get(toolCode);
+        return metrics == null ? 0 : metrics.latency.getCount();
+    }
+
+    @Override
+    public long getToolCodeErrorCount(String toolCode) {
+        ToolCodeMetrics metrics = toolCodeMetrics.get(toolCode);
+        return metrics == null ? 0 : metrics.errorCount.sum();
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder builder = new StringBuilder(1024);
+        builder.append(String.format("Checkouts: %d  Errors: %d  Throughput: %.1f/s%n",
+                getCheckoutCount(), getErrorCount(), getThroughputPerSecond()));
+        builder.append(String.format("%-20s %10s %10s %10s %10s %10s%n", "Stage", "Count", "p50 us", "p99 us", "p999 us", "Max us"));
+        for (CheckoutStage stage : CheckoutStage.values()) {
+            appendRow(builder, stage.name(), stageLatencies.get(stage), -1);
+        }
+        appendRow(builder, "TOTAL", checkoutLatency, -1);
+        builder.append(String.format("%n%-20s %10s %10s %10s %10s %10s %10s%n", "Tool code", "Count", "p50 us", "p99 us", "p999 us", "Max us", "Errors"));
+        for (String toolCode : getToolCodes()) {
+            ToolCodeMetrics metrics = toolCodeMetrics.get(toolCode);
+            appendRow(builder, toolCode, metrics.latency, metrics.errorCount.sum());
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : stageLatencies.values()) {
+            histogram.reset();
+        }
+        checkoutLatency.reset();
+        errorCount.reset();
+        toolCodeMetrics.clear();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server under DEFAULT_OBJECT_NAME
+     *
+     * @return the ObjectName the metrics were registered under
+     */
+    public ObjectName registerMBean() {
+        return registerMBean(DEFAULT_OBJECT_NAME);
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server
+     * If the name is invalid or already registered, then throw exception
+     *
+     * @param objectName the JMX name, for example com.cardinalfinancial.us:type=CheckoutMetrics
+     * @return the ObjectName the metrics were registered under
+     */
+    public ObjectName registerMBean(String objectName) {
+        try {
+            ObjectName name = new ObjectName(objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            return name;
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Unable to register CheckoutMetrics MBean");
+            throw new CheckoutException("Unable to register CheckoutMetrics MBean", e);
+        }
+    }
+
+    /**
+     * Removes the metrics registered under a name from the platform MBean server, if any
+     *
+     * @param objectName the ObjectName returned by registerMBean()
+     */
+    public static void unregisterMBean(ObjectName objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Unable to unregister CheckoutMetrics MBean");
+        }
+    }
+
+    /**
+     * Appends one row of the text dump
+     */
+    private static void appendRow(StringBuilder builder, String name, LatencyHistogram histogram, long errors) {
+        builder.append(String.format("%-20s %10d %10.1f %10.1f %10.1f %10.1f", name, histogram.getCount(),
+                toMicros(histogram.getValueAtPercentile(50)), toMicros(histogram.getValueAtPercentile(99)),
+                toMicros(histogram.getValueAtPercentile(99.9)), toMicros(histogram.getMaxNanos())));
+        if (errors >= 0) {
+            builder.append(String.format(" %10d", errors));
+        }
+        builder.append(System.lineSeparator());
+    }
+
+    /**
+     * Converts nanoseconds to microseconds
+     */
+    private static double toMicros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    /**
+     * Metrics of one tool code. The histogram has a single stripe, as each tool code only sees part of the traffic.
+     */
+    private static final class ToolCodeMetrics {
+
+        /**
+         * Checkout latency of the tool code, which also counts its checkouts
+         */
+        private final LatencyHistogram latency = new LatencyHistogram(1);
+
+        /**
+         * Number of failed checkouts of the tool code
+         */
+        private final LongAdder errorCount = new LongAdder();
+    }
+}
@@ -0,0 +1,104 @@
+package com.cardinalfinancial.us.metrics;
+
+/**
+ * JMX management interface of CheckoutMetrics. Latencies are reported in microseconds.
+ *
+ * @author Sylvia Barnai
+ */
+public interface CheckoutMetricsMBean {
+
+    /**
+     * Retrieves the number of processed checkouts, successful or not
+     *
+     * @return the checkout count
+     */
+    long getCheckoutCount();
+
+    /**
+     * Retrieves the number of checkouts that failed
+     *
+     * @return the error count
+     */
+    long getErrorCount();
+
+    /**
+     * Retrieves the average number of checkouts per second since the metrics were created or reset
+     *
+     * @return the throughput
+     */
+    double getThroughputPerSecond();
+
+    /**
+     * Retrieves the median checkout latency
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP50Micros();
+
+    /**
+     * Retrieves the 99th percentile checkout latency
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP99Micros();
+
+    /**
+     * Retrieves the 99.9th percentile checkout latency
+     *
+     * @return the latency in microseconds
+     */
+    double getLatencyP999Micros();
+
+    /**
+     * Retrieves the tool codes that have been checked out, in alphabetical order
+     *
+     * @return the tool codes
+     */
+    String[] getToolCodes();
+
+    /**
+     * Retrieves a percentile of the latency of one checkout stage
+     *
+     * @param stage      the name of the CheckoutStage
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in microseconds
+     */
+    double getStageLatencyMicros(String stage, double percentile);
+
+    /**
+     * Retrieves a percentile of the checkout latency of one tool code
+     *
+     * @param toolCode   the tool code
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in microseconds, or 0 if the tool code has not been checked out
+     */
+    double getToolCodeLatencyMicros(String toolCode, double percentile);
+
+    /**
+     * Retrieves the number of checkouts of one tool code
+     *
+     * @param toolCode the tool code
+     * @return the checkout count
+     */
+    long getToolCodeCheckoutCount(String toolCode);
+
+    /**
+     * Retrieves the number of failed checkouts of one tool code
+     *
+     * @param toolCode the tool code
+     * @return the error count
+     */
+    long getToolCodeErrorCount(String toolCode);
+
+    /**
+     * Formats every metric as a text table
+     *
+     * @return the text dump
+     */
+    String dump();
+
+    /**
+     * Clears every metric and restarts the throughput clock
+     */
+    void reset();
+}
@@ -0,0 +1,49 @@
+package com.cardinalfinancial.us.metrics;
+
+/**
+ * CheckoutStage enum with the stages of CheckoutServiceImpl.processCheckout() that are timed by CheckoutMetrics
+ *
+ * @author Sylvia Barnai
+ */
+public enum CheckoutStage {
+
+    /**
+     * Looking up the Tool for the tool code
+     */
+    TOOL_LOOKUP,
+
+    /**
+     * Parsing the checkout date
+     */
+    DATE_PARSING,
+
+    /**
+     * Looking up the pricing result in the PriceCache
+     */
+    PRICE_CACHE_LOOKUP,
+
+    /**
+     * Counting the chargeable days, on a cache miss
+     */
+    CHARGEABLE_DAYS,
+
+    /**
+     * Calculating the pre-discount charge, discount amount and final charge, on a cache miss
+     */
+    MONEY_MATH,
+
+    /**
+     * Reserving a unit of the tool in the ToolInventory
+     */
+    INVENTORY,
+
+    /**
+     * Building the RentalAgreement instance
+     */
+    AGREEMENT_BUILD,
+
+    /**
+     * Handing the RentalAgreement to the AgreementSink
+     */
+    OUTPUT
+}
@@ -0,0 +1,201 @@
+package com.cardinalfinancial.us.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent latency histogram with log-linear buckets in the style of HdrHistogram. Every power of two range is split
+ * into 32 linear sub-buckets, so a reported percentile is within about 3% of the recorded value. Bucket counts are
+ * striped over several arrays by thread, so recording threads rarely touch the same cache line, and recording a value
+ * costs a single atomic increment. Counts and percentiles are calculated from the buckets when they are read.
+ *
+ * @author Sylvia Barnai
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Number of bits used for the linear sub-buckets of each power of two range
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * Number of linear sub-buckets of each power of two range
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest recorded value in nanoseconds, about 18 minutes. Larger values are recorded as this value.
+     */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 40) - 1;
+
+    /**
+     * Number of buckets needed to cover values up to MAX_TRACKABLE_NANOS
+     */
+    private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_NANOS) + 1;
+
+    /**
+     * Number of stripes of bucket counts
+     */
+    private final int stripeCount;
+
+    /**
+     * Bucket counts of every stripe, stripe after stripe
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * Largest recorded value in nanoseconds
+     */
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Constructor for LatencyHistogram
+     * If the stripe count is not a positive power of two, then throw exception
+     *
+     * @param stripeCount number of stripes of bucket counts, 1 for histograms that are rarely contended
+     */
+    public LatencyHistogram(int stripeCount) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1)
+            throw new IllegalArgumentException("Stripe count must be a positive power of two.");
+        this.stripeCount = stripeCount;
+        this.counts = new AtomicLongArray(stripeCount * BUCKET_COUNT);
+    }
+
+    /**
+     * Records a latency
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_TRACKABLE_NANOS);
+        int stripe = stripeCount == 1 ? 0 : (int) (Thread.currentThread().getId() & (stripeCount - 1));
+        counts.getAndIncrement(stripe * BUCKET_COUNT + bucketIndex(value));
+        // The maximum is only written while it grows, which soon becomes rare
+        for (long max = maxNanos.get(); value > max; max = maxNanos.get()) {
+            if (maxNanos.compareAndSet(max, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of recorded values
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the mean of the recorded values, with each value counted as the middle of its bucket
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long count = 0;
+        double total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount != 0) {
+                int bucket = i % BUCKET_COUNT;
+                count += bucketCount;
+                total += bucketCount * ((bucketLowestValue(bucket) + bucketHighestValue(bucket)) / 2.0);
+            }
+        }
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * Retrieves the largest recorded value
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Retrieves the value at a percentile of the recorded values. Values recorded while this method runs may or may
+     * not be included.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the middle of the bucket that holds the percentile in nanoseconds, the maximum for the 100th percentile,
+     * or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] bucketCounts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                long bucketCount = counts.get(stripe * BUCKET_COUNT + bucket);
+                bucketCounts[bucket] += bucketCount;
+                count += bucketCount;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+        if (rank >= count) {
+            return getMaxNanos();
+        }
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank) {
+                return Math.min((bucketLowestValue(bucket) + bucketHighestValue(bucket)) / 2, getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Clears every recorded value
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        maxNanos.set(0);
+    }
+
+    /**
+     * Calculates the bucket of a value: values below 64 have a bucket each, larger values share a bucket with the
+     * values that have the same five bits after the highest set bit
+     */
+    private static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Retrieves the smallest value of a bucket
+     */
+    private static long bucketLowestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (bucket & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    /**
+     * Retrieves the largest value of a bucket
+     */
+    private static long bucketHighestValue(int bucket) {
+        if (bucket < 2 * SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        return bucketLowestValue(bucket) + (1L << shift) - 1;
+    }
+}
@@ -37,6 +37,11 @@ public final class Checkout {
 
     private String checkoutDate;
 
+    /**
+     * Key the terminal sends again when it retries the checkout, or null
+     */
+    private String idempotencyKey;
+
 
     /**
      * Private constructor for Checkout instance
@@ -48,6 +53,7 @@ public final class Checkout {
         this.rentalDayCount = builder.rentalDayCount;
         this.checkoutDate = builder.checkoutDate;
         this.discountPercent = builder.discountPercent;
+        this.idempotencyKey = builder.idempotencyKey;
     }
 
     /**
@@ -79,6 +85,11 @@ public final class Checkout {
 
         private String checkoutDate;
 
+        /**
+         * Key the terminal sends again when it retries the checkout, none by default
+         */
+        private String idempotencyKey;
+
         /**
          * Creates a new instance of Checkout
          *
@@ -148,6 +159,21 @@ public final class Checkout {
             return this;
         }
 
+        /**
+         * Sets the idempotency key, which the terminal generates once per checkout and sends again with every retry,
+         * so a retried checkout returns the original RentalAgreement instead of creating a second one
+         * If the key is empty or longer than 255 characters, then throw exception
+         *
+         * @param idempotencyKey the idempotency key, or null for none
+         * @return Checkout.Builder class used to construct the Checkout instance
+         */
+        public Builder setIdempotencyKey(String idempotencyKey) {
+            if (idempotencyKey != null && (idempotencyKey.isEmpty() || idempotencyKey.length() > 255))
+                throw new IllegalArgumentException("Idempotency key must be 1 to 255 characters.");
+            this.idempotencyKey = idempotencyKey;
+            return this;
+        }
+
         /**
          * Build method to deal with outer class to return outer instance
          *
@@ -199,4 +225,13 @@ public final class Checkout {
         return checkoutDate;
     }
 
+    /**
+     * Retrieves the idempotency key
+     *
+     * @return the idempotency key, or null if the checkout has none
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.cardinalfinancial.us.model;
+
+/**
+ * CheckoutResult class that holds the outcome of processing one Checkout in a batch: either the generated
+ * RentalAgreement or the exception that prevented it from being generated
+ *
+ * @author Sylvia Barnai
+ */
+
+public final class CheckoutResult {
+
+    /**
+     * The Checkout instance that was processed
+     */
+    private final Checkout checkout;
+
+    /**
+     * The generated RentalAgreement, or null if processing failed
+     */
+    private final RentalAgreement rentalAgreement;
+
+    /**
+     * The exception thrown while processing, or null if processing succeeded
+     */
+    private final RuntimeException failure;
+
+    /**
+     * Private constructor for CheckoutResult instance
+     *
+     * @param checkout        the Checkout instance that was processed
+     * @param rentalAgreement the generated RentalAgreement
+     * @param failure         the exception thrown while processing
+     */
+    private CheckoutResult(Checkout checkout, RentalAgreement rentalAgreement, RuntimeException failure) {
+        this.checkout = checkout;
+        this.rentalAgreement = rentalAgreement;
+        this.failure = failure;
+    }
+
+    /**
+     * Creates a result for a Checkout that was processed successfully
+     *
+     * @param checkout        the Checkout instance that was processed
+     * @param rentalAgreement the generated RentalAgreement
+     * @return CheckoutResult instance
+     */
+    public static CheckoutResult success(Checkout checkout, RentalAgreement rentalAgreement) {
+        return new CheckoutResult(checkout, rentalAgreement, null);
+    }
+
+    /**
+     * Creates a result for a Checkout that could not be processed
+     *
+     * @param checkout the Checkout instance that was processed
+     * @param failure  the exception thrown while processing
+     * @return CheckoutResult instance
+     */
+    public static CheckoutResult failure(Checkout checkout, RuntimeException failure) {
+        return new CheckoutResult(checkout, null, failure);
+    }
+
+    /**
+     * Determine whether the Checkout was processed successfully
+     *
+     * @return true if a RentalAgreement was generated
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Retrieves the Checkout instance that was processed
+     *
+     * @return the Checkout instance
+     */
+    public Checkout getCheckout() {
+        return checkout;
+    }
+
+    /**
+     * Retrieves the generated RentalAgreement
+     *
+     * @return the RentalAgreement instance, or null if processing failed
+     */
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    /**
+     * Retrieves the exception thrown while processing
+     *
+     * @return the exception, or null if processing succeeded
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+}
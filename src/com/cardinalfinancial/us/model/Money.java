@@ -0,0 +1,192 @@
+package com.cardinalfinancial.us.model;
+
+import com.cardinalfinancial.us.utils.NumberFormatUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money value type for US dollar amounts, stored as a whole number of cents in a long.
+ * All arithmetic is exact integer arithmetic; the only rounding happens in percentage() with an explicit RoundingMode.
+ *
+ * @author Sylvia Barnai
+ */
+public final class Money implements Comparable<Money> {
+
+    /**
+     * Zero dollars
+     */
+    public static final Money ZERO = new Money(0);
+
+    /**
+     * The amount in cents
+     */
+    private final long cents;
+
+    /**
+     * Private constructor for Money instance
+     *
+     * @param cents the amount in cents
+     */
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Creates a Money instance from an amount in cents
+     *
+     * @param cents the amount in cents
+     * @return Money instance
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Creates a Money instance from a decimal dollar amount such as "1.99"
+     * If the amount has more than two decimal places, then throw exception
+     *
+     * @param dollarAmount the dollar amount
+     * @return Money instance
+     */
+    public static Money of(String dollarAmount) {
+        try {
+            return ofCents(new BigDecimal(dollarAmount.trim()).movePointRight(2).longValueExact());
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid dollar amount [" + dollarAmount + "]", e);
+        }
+    }
+
+    /**
+     * Retrieves the amount in cents
+     *
+     * @return the amount in cents
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Adds another amount to this amount
+     *
+     * @param other the amount to add
+     * @return the sum
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Subtracts another amount from this amount
+     *
+     * @param other the amount to subtract
+     * @return the difference
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplies this amount by a whole number
+     *
+     * @param multiplier the multiplier
+     * @return the product
+     */
+    public Money times(long multiplier) {
+        return ofCents(Math.multiplyExact(cents, multiplier));
+    }
+
+    /**
+     * Calculates a percentage of this amount, rounded to cents
+     *
+     * @param percent      the percentage
+     * @param roundingMode how to round to cents, for example RoundingMode.HALF_UP
+     * @return the percentage of this amount
+     */
+    public Money percentage(int percent, RoundingMode roundingMode) {
+        return ofCents(percentageCents(cents, percent, roundingMode));
+    }
+
+    /**
+     * Calculates a percentage of an amount in cents, rounded to cents, without creating Money instances
+     *
+     * @param cents        the amount in cents
+     * @param percent      the percentage
+     * @param roundingMode how to round to cents
+     * @return the percentage of the amount in cents
+     */
+    public static long percentageCents(long cents, int percent, RoundingMode roundingMode) {
+        return divide(Math.multiplyExact(cents, percent), 100, roundingMode);
+    }
+
+    /**
+     * Divides two whole numbers and rounds the quotient with a RoundingMode, like BigDecimal.divide() does
+     *
+     * @param dividend     the dividend
+     * @param divisor      the divisor, which must be positive
+     * @param roundingMode how to round the quotient
+     * @return the rounded quotient
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        long quotient = Math.floorDiv(dividend, divisor);
+        long remainder = Math.floorMod(dividend, divisor);
+        if (remainder == 0) {
+            return quotient;
+        }
+        // The exact result lies between quotient and quotient + 1
+        long twiceRemainder = remainder * 2;
+        boolean negative = dividend < 0;
+        switch (roundingMode) {
+            case FLOOR:
+                return quotient;
+            case CEILING:
+                return quotient + 1;
+            case DOWN:
+                return negative ? quotient + 1 : quotient;
+            case UP:
+                return negative ? quotient : quotient + 1;
+            case HALF_UP:
+                if (twiceRemainder == divisor) {
+                    return negative ? quotient : quotient + 1;
+                }
+                return twiceRemainder > divisor ? quotient + 1 : quotient;
+            case HALF_DOWN:
+                if (twiceRemainder == divisor) {
+                    return negative ? quotient + 1 : quotient;
+                }
+                return twiceRemainder > divisor ? quotient + 1 : quotient;
+            case HALF_EVEN:
+                if (twiceRemainder == divisor) {
+                    return (quotient & 1) == 0 ? quotient : quotient + 1;
+                }
+                return twiceRemainder > divisor ? quotient + 1 : quotient;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Formats the amount in US dollars, for example $1,234.56
+     *
+     * @return the formatted amount
+     */
+    @Override
+    public String toString() {
+        return NumberFormatUtils.formatCurrency(cents);
+    }
+}
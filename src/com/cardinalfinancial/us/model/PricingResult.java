@@ -0,0 +1,98 @@
+package com.cardinalfinancial.us.model;
+
+/**
+ * PricingResult class that holds the charges calculated for one set of pricing inputs: tool type, checkout date,
+ * rental day count and discount percent. Instances are immutable so they can be cached and shared between checkouts.
+ *
+ * @author Sylvia Barnai
+ */
+
+public final class PricingResult {
+
+    /**
+     * Count of chargeable days, from day after checkout through and including due date
+     */
+    private final int chargeableDaysCount;
+
+    /**
+     * Amount charged per day, specified by the tool type
+     */
+    private final Money dailyRentalCharge;
+
+    /**
+     * Charge before discount, calculated as charge days * daily charge
+     */
+    private final Money preDiscountCharge;
+
+    /**
+     * Discount amount, calculated from discount % and pre-discount charge
+     */
+    private final Money discountAmount;
+
+    /**
+     * The final amount that is charged, pre-discount charge minus discount amount
+     */
+    private final Money finalCharge;
+
+    /**
+     * Constructor for PricingResult
+     *
+     * @param chargeableDaysCount the count of chargeable days
+     * @param dailyRentalCharge   the daily rental charge
+     * @param preDiscountCharge   the pre-discount charge
+     * @param discountAmount      the discount amount
+     * @param finalCharge         the final charge
+     */
+    public PricingResult(int chargeableDaysCount, Money dailyRentalCharge, Money preDiscountCharge, Money discountAmount, Money finalCharge) {
+        this.chargeableDaysCount = chargeableDaysCount;
+        this.dailyRentalCharge = dailyRentalCharge;
+        this.preDiscountCharge = preDiscountCharge;
+        this.discountAmount = discountAmount;
+        this.finalCharge = finalCharge;
+    }
+
+    /**
+     * Retrieves the number of days to be charged
+     *
+     * @return the number of chargeable days
+     */
+    public int getChargeableDaysCount() {
+        return chargeableDaysCount;
+    }
+
+    /**
+     * Retrieves the amount charged per day
+     *
+     * @return the daily rental charge
+     */
+    public Money getDailyRentalCharge() {
+        return dailyRentalCharge;
+    }
+
+    /**
+     * Retrieves the pre-discount charge
+     *
+     * @return the pre-discount charge
+     */
+    public Money getPreDiscountCharge() {
+        return preDiscountCharge;
+    }
+
+    /**
+     * Retrieves the discount amount
+     *
+     * @return the discount amount
+     */
+    public Money getDiscountAmount() {
+        return discountAmount;
+    }
+
+    /**
+     * Retrieves the final charge
+     *
+     * @return the final charge
+     */
+    public Money getFinalCharge() {
+        return finalCharge;
+    }
+}
@@ -5,85 +5,96 @@ import com.cardinalfinancial.us.utils.NumberFormatUtils;
 
 /**
  * RentalAgreement class that is generated when a tool is checked out using Builder pattern
+ * <p>
+ * Millions of agreements may be kept in memory, so dates are kept as epoch days and amounts as cents. The date and
+ * currency strings are only formatted when they are retrieved or printed. Tool code, type and brand strings are shared
+ * with the tool catalog rather than copied per agreement.
  *
  * @author Sylvia Barnai
  */
 
 public final class RentalAgreement {
 
+    /**
+     * Unit number of an agreement whose tool units are not tracked
+     */
+    public static final int NO_UNIT = -1;
+
+    /**
+     * Epoch day of a date that was not set
+     */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    /**
+     * Cents of an amount that was not set
+     */
+    public static final long NO_AMOUNT = Long.MIN_VALUE;
+
     /**
      * Tool code for rental agreement, specified at checkout
      */
+    private final String toolCode;
 
-    private String toolCode;
     /**
      * Tool type for rental agreement, retrieved from tool info
      */
-
-    private String toolType;
+    private final String toolType;
 
     /**
      * Tool brand for rental agreement, retrieved from tool info
      */
-
     private final String toolBrand;
 
     /**
-     * Number of days for rental, specified at checkout
+     * Number of the physical unit of the tool that was reserved, or NO_UNIT if units are not tracked
      */
-    private int numberOfDaysRented;
-
+    private final int unitNumber;
 
     /**
-     * The date that the tool was checked out (in String format), specified at checkout
+     * Number of days for rental, specified at checkout
      */
-
-    private String checkoutDate;
+    private final int numberOfDaysRented;
 
     /**
-     * Date the tool needs to be returned (in String format), calculated from checkout date and rental days
+     * The date that the tool was checked out as a day count since 1970-01-01, or NO_DATE
      */
-
-    private String dueDate;
+    private final int checkoutEpochDay;
 
     /**
-     * Amount charged per day, specified by the tool type
+     * Date the tool needs to be returned as a day count since 1970-01-01, or NO_DATE
      */
-
-    private double dailyRentalCharge;
+    private final int dueEpochDay;
 
     /**
      * Count of chargeable days, from day after checkout through and including due date, excluding "no charge" days as specified by the tool type.
      */
-
-    private int chargeableDaysCount;
+    private final int chargeableDaysCount;
 
     /**
-     * Charge before discount.
-     * Calculated as charge days * daily charge. Resulting total rounded half up to cents.
+     * Percent discount for the rental, specified at checkout
      */
-
-    private double preDiscountCharge;
+    private final int discountPercent;
 
     /**
-     * Percent discount for the rental, specified at checkout
+     * Amount charged per day in cents, specified by the tool type, or NO_AMOUNT
      */
-
-    private int discountPercent;
-
+    private final long dailyRentalChargeCents;
 
     /**
-     * Discount amount, calculated from discount % and pre-discount charge. Resulting amount rounded half up to cents.
+     * Charge before discount in cents, or NO_AMOUNT.
+     * Calculated as charge days * daily charge. Resulting total rounded half up to cents.
      */
-
-    private double discountAmount;
-
+    private final long preDiscountChargeCents;
 
     /**
-     * The final amount that is charged and is calculated by subtracting discount amount from pre-discount charge
+     * Discount amount in cents, or NO_AMOUNT. Calculated from discount % and pre-discount charge, rounded half up to cents.
      */
+    private final long discountAmountCents;
 
-    private double finalCharge;
+    /**
+     * The final amount in cents that is charged, or NO_AMOUNT. Calculated by subtracting discount amount from pre-discount charge
+     */
+    private final long finalChargeCents;
 
 
     /**
@@ -96,15 +107,16 @@ public final class RentalAgreement {
         this.toolCode = builder.toolCode;
         this.toolType = builder.toolType;
         this.toolBrand = builder.toolBrand;
+        this.unitNumber = builder.unitNumber;
         this.numberOfDaysRented = builder.numberOfDaysRented;
-        this.checkoutDate = builder.checkoutDate;
-        this.dueDate = builder.dueDate;
-        this.dailyRentalCharge = builder.dailyRentalCharge;
+        this.checkoutEpochDay = builder.checkoutEpochDay;
+        this.dueEpochDay = builder.dueEpochDay;
         this.chargeableDaysCount = builder.chargeableDaysCount;
-        this.preDiscountCharge = builder.preDiscountCharge;
         this.discountPercent = builder.discountPercent;
-        this.discountAmount = builder.discountAmount;
-        this.finalCharge = builder.finalCharge;
+        this.dailyRentalChargeCents = builder.dailyRentalChargeCents;
+        this.preDiscountChargeCents = builder.preDiscountChargeCents;
+        this.discountAmountCents = builder.discountAmountCents;
+        this.finalChargeCents = builder.finalChargeCents;
     }
 
     /**
@@ -131,6 +143,11 @@ public final class RentalAgreement {
 
         private String toolBrand;
 
+        /**
+         * Number of the physical unit of the tool that was reserved, NO_UNIT by default
+         */
+        private int unitNumber = NO_UNIT;
+
         /**
          * Number of days for rental, specified at checkout
          */
@@ -138,54 +155,44 @@ public final class RentalAgreement {
 
 
         /**
-         * The date that the tool was checked out (in String format), specified at checkout
+         * The date that the tool was checked out as a day count since 1970-01-01, NO_DATE by default
          */
-
-        private String checkoutDate;
+        private int checkoutEpochDay = NO_DATE;
 
         /**
-         * Date the tool needs to be returned (in String format), calculated from checkout date and rental days
+         * Date the tool needs to be returned as a day count since 1970-01-01, NO_DATE by default
          */
-
-        private String dueDate;
+        private int dueEpochDay = NO_DATE;
 
         /**
-         * Amount charged per day, specified by the tool type
+         * Amount charged per day in cents, NO_AMOUNT by default
          */
-
-        private double dailyRentalCharge;
+        private long dailyRentalChargeCents = NO_AMOUNT;
 
         /**
          * Count of chargeable days, from day after checkout through and including due date, excluding "no charge" days as specified by the tool type.
          */
-
         private int chargeableDaysCount;
 
         /**
-         * Charge before discount.
-         * Calculated as charge days X daily charge. Resulting total rounded half up to cents.
+         * Charge before discount in cents, NO_AMOUNT by default
          */
-
-        private double preDiscountCharge;
+        private long preDiscountChargeCents = NO_AMOUNT;
 
         /**
          * Percent discount for the rental, specified at checkout
          */
-
         private int discountPercent;
 
-
         /**
-         * Discount amount, calculated from discount % and pre-discount charge. Resulting amount rounded half up to cents.
+         * Discount amount in cents, NO_AMOUNT by default
          */
-
-        private double discountAmount;
+        private long discountAmountCents = NO_AMOUNT;
 
         /**
-         * The final amount that is charged and is calculated by subtracting discount amount from pre-discount charge
+         * The final amount that is charged in cents, NO_AMOUNT by default
          */
-
-        private double finalCharge;
+        private long finalChargeCents = NO_AMOUNT;
 
 
         /**
@@ -242,6 +249,17 @@ public final class RentalAgreement {
         }
 
 
+        /**
+         * Sets the number of the physical unit of the tool that was reserved
+         *
+         * @param unitNumber the unit number, from 0 to the number of units of the tool - 1
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setUnitNumber(int unitNumber) {
+            this.unitNumber = unitNumber;
+            return this;
+        }
+
         /**
          * Sets the number of days the tool was rented for
          *
@@ -261,7 +279,18 @@ public final class RentalAgreement {
          */
 
         public Builder setCheckoutDate(String checkoutDate) {
-            this.checkoutDate = checkoutDate;
+            this.checkoutEpochDay = parseDate(checkoutDate);
+            return this;
+        }
+
+        /**
+         * Sets the checkout date
+         *
+         * @param checkoutEpochDay the checkout date as a day count since 1970-01-01
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setCheckoutEpochDay(long checkoutEpochDay) {
+            this.checkoutEpochDay = Math.toIntExact(checkoutEpochDay);
             return this;
         }
 
@@ -273,7 +302,18 @@ public final class RentalAgreement {
          */
 
         public Builder setDueDate(String dueDate) {
-            this.dueDate = dueDate;
+            this.dueEpochDay = parseDate(dueDate);
+            return this;
+        }
+
+        /**
+         * Sets the due date
+         *
+         * @param dueEpochDay the due date as a day count since 1970-01-01
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setDueEpochDay(long dueEpochDay) {
+            this.dueEpochDay = Math.toIntExact(dueEpochDay);
             return this;
         }
 
@@ -283,8 +323,19 @@ public final class RentalAgreement {
          * @param dailyRentalCharge the daily rental charge to set, specified by the tool type
          * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
          */
-        public Builder setDailyRentalCharge(double dailyRentalCharge) {
-            this.dailyRentalCharge = dailyRentalCharge;
+        public Builder setDailyRentalCharge(Money dailyRentalCharge) {
+            this.dailyRentalChargeCents = cents(dailyRentalCharge);
+            return this;
+        }
+
+        /**
+         * Sets the daily rental charge
+         *
+         * @param dailyRentalChargeCents the daily rental charge in cents, or NO_AMOUNT
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setDailyRentalChargeCents(long dailyRentalChargeCents) {
+            this.dailyRentalChargeCents = dailyRentalChargeCents;
             return this;
         }
 
@@ -305,8 +356,19 @@ public final class RentalAgreement {
          * @param preDiscountCharge the pre-discount charge
          * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
          */
-        public Builder setPreDiscountCharge(double preDiscountCharge) {
-            this.preDiscountCharge = preDiscountCharge;
+        public Builder setPreDiscountCharge(Money preDiscountCharge) {
+            this.preDiscountChargeCents = cents(preDiscountCharge);
+            return this;
+        }
+
+        /**
+         * Sets the pre-discount charge
+         *
+         * @param preDiscountChargeCents the pre-discount charge in cents, or NO_AMOUNT
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setPreDiscountChargeCents(long preDiscountChargeCents) {
+            this.preDiscountChargeCents = preDiscountChargeCents;
             return this;
         }
 
@@ -327,8 +389,19 @@ public final class RentalAgreement {
          * @param discountAmount the discount amount
          * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
          */
-        public Builder setDiscountAmount(double discountAmount) {
-            this.discountAmount = discountAmount;
+        public Builder setDiscountAmount(Money discountAmount) {
+            this.discountAmountCents = cents(discountAmount);
+            return this;
+        }
+
+        /**
+         * Sets the discount amount
+         *
+         * @param discountAmountCents the discount amount in cents, or NO_AMOUNT
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setDiscountAmountCents(long discountAmountCents) {
+            this.discountAmountCents = discountAmountCents;
             return this;
         }
 
@@ -338,8 +411,19 @@ public final class RentalAgreement {
          * @param finalCharge the final charge
          * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
          */
-        public Builder setFinalCharge(double finalCharge) {
-            this.finalCharge = finalCharge;
+        public Builder setFinalCharge(Money finalCharge) {
+            this.finalChargeCents = cents(finalCharge);
+            return this;
+        }
+
+        /**
+         * Sets the final charge
+         *
+         * @param finalChargeCents the final charge in cents, or NO_AMOUNT
+         * @return RentalAgreement.Builder class used to construct the RentalAgreement instance
+         */
+        public Builder setFinalChargeCents(long finalChargeCents) {
+            this.finalChargeCents = finalChargeCents;
             return this;
         }
 
@@ -351,6 +435,26 @@ public final class RentalAgreement {
         public RentalAgreement build() {
             return new RentalAgreement(this);
         }
+
+        /**
+         * Parses a date in M/d/yy or MM/dd/yy format and throws exception if it is not a valid date
+         */
+        private static int parseDate(String date) {
+            if (date == null) {
+                return NO_DATE;
+            }
+            long epochDay = DateUtils.parseInputEpochDay(date);
+            if (epochDay < 0)
+                throw new IllegalArgumentException("Invalid date: " + date);
+            return (int) epochDay;
+        }
+
+        /**
+         * Retrieves the cents of an amount that may be null
+         */
+        private static long cents(Money amount) {
+            return amount == null ? NO_AMOUNT : amount.getCents();
+        }
     }
 
 
@@ -386,6 +490,15 @@ public final class RentalAgreement {
         return toolBrand;
     }
 
+    /**
+     * Retrieves the number of the physical unit of the tool that was reserved
+     *
+     * @return the unit number, or NO_UNIT if units are not tracked
+     */
+    public int getUnitNumber() {
+        return unitNumber;
+    }
+
     /**
      * Retrieves the number of rental days
      *
@@ -405,7 +518,16 @@ public final class RentalAgreement {
 
 
     public String getCheckoutDate() {
-        return checkoutDate;
+        return checkoutEpochDay == NO_DATE ? null : DateUtils.formatEpochDay(checkoutEpochDay);
+    }
+
+    /**
+     * Retrieves the checkout date
+     *
+     * @return the day count since 1970-01-01, or NO_DATE
+     */
+    public int getCheckoutEpochDay() {
+        return checkoutEpochDay;
     }
 
 
@@ -417,7 +539,16 @@ public final class RentalAgreement {
 
 
     public String getDueDate() {
-        return dueDate;
+        return dueEpochDay == NO_DATE ? null : DateUtils.formatEpochDay(dueEpochDay);
+    }
+
+    /**
+     * Retrieves the due date
+     *
+     * @return the day count since 1970-01-01, or NO_DATE
+     */
+    public int getDueEpochDay() {
+        return dueEpochDay;
     }
 
 
@@ -427,8 +558,17 @@ public final class RentalAgreement {
      * @return the daily rental charge
      */
 
-    public double getDailyRentalCharge() {
-        return dailyRentalCharge;
+    public Money getDailyRentalCharge() {
+        return money(dailyRentalChargeCents);
+    }
+
+    /**
+     * Retrieves the amount charged per day in cents
+     *
+     * @return the cents, or NO_AMOUNT
+     */
+    public long getDailyRentalChargeCents() {
+        return dailyRentalChargeCents;
     }
 
     /**
@@ -447,8 +587,17 @@ public final class RentalAgreement {
      * @return the pre-discount charge
      */
 
-    public double getPreDiscountCharge() {
-        return preDiscountCharge;
+    public Money getPreDiscountCharge() {
+        return money(preDiscountChargeCents);
+    }
+
+    /**
+     * Retrieves the pre-discount charge in cents
+     *
+     * @return the cents, or NO_AMOUNT
+     */
+    public long getPreDiscountChargeCents() {
+        return preDiscountChargeCents;
     }
 
 
@@ -469,8 +618,17 @@ public final class RentalAgreement {
      * @return the discount amount
      */
 
-    public double getDiscountAmount() {
-        return discountAmount;
+    public Money getDiscountAmount() {
+        return money(discountAmountCents);
+    }
+
+    /**
+     * Retrieves the discount amount in cents
+     *
+     * @return the cents, or NO_AMOUNT
+     */
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
     }
 
     /**
@@ -479,27 +637,57 @@ public final class RentalAgreement {
      * @return the final charge
      */
 
-    public double getFinalCharge() {
-        return finalCharge;
+    public Money getFinalCharge() {
+        return money(finalChargeCents);
+    }
+
+    /**
+     * Retrieves the final charge in cents
+     *
+     * @return the cents, or NO_AMOUNT
+     */
+    public long getFinalChargeCents() {
+        return finalChargeCents;
     }
 
     /**
      * Prints out the RentalAgreement values as text to the console, following the formatting that is stated in the specification
      */
     public void printRentalAgreementDetails() {
+        System.out.println(appendRentalAgreementDetails(new StringBuilder(320)));
+    }
+
+    /**
+     * Appends the RentalAgreement values as text to a StringBuilder, following the formatting that is stated in the specification
+     *
+     * @param builder the StringBuilder to append to
+     * @return the StringBuilder
+     */
+    public StringBuilder appendRentalAgreementDetails(StringBuilder builder) {
         // RentalAgreement details
-        System.out.println("Tool code: " + getToolCode() + "\n" +
-                "Tool type: " + getToolType() + "\n" +
-                "Tool brand: " + getToolBrand() + "\n" +
-                "Rental days: " + getNumberOfDaysRented() + "\n" +
-                "Checkout date: " + DateUtils.convertDateToUSStandardFormat(getCheckoutDate()) + "\n" +
-                "Due date: " + DateUtils.convertDateToUSStandardFormat(getDueDate()) + "\n" +
-                "Daily charge: " + NumberFormatUtils.formatDoubleCurrency(getDailyRentalCharge()) + "\n" +
-                "Charge days: " + getChargeableDaysCount() + "\n" +
-                "Pre-discount charge: " + NumberFormatUtils.formatDoubleCurrency(getPreDiscountCharge()) + "\n" +
-                "Discount %: " + NumberFormatUtils.formatPercentage(getDiscountPercent()) + "\n" +
-                "Discount amount: " + NumberFormatUtils.formatDoubleCurrency(getDiscountAmount()) + "\n" +
-                "Final charge: " + NumberFormatUtils.formatDoubleCurrency(getFinalCharge()) + "\n");
+        builder.append("Tool code: ").append(getToolCode()).append('\n')
+                .append("Tool type: ").append(getToolType()).append('\n')
+                .append("Tool brand: ").append(getToolBrand()).append('\n');
+        if (getUnitNumber() != NO_UNIT) {
+            builder.append("Tool unit: ").append(getUnitNumber()).append('\n');
+        }
+        builder.append("Rental days: ").append(getNumberOfDaysRented()).append('\n');
+        DateUtils.appendEpochDay(builder.append("Checkout date: "), checkoutEpochDay).append('\n');
+        DateUtils.appendEpochDay(builder.append("Due date: "), dueEpochDay).append('\n');
+        NumberFormatUtils.appendCurrency(builder.append("Daily charge: "), dailyRentalChargeCents).append('\n');
+        builder.append("Charge days: ").append(getChargeableDaysCount()).append('\n');
+        NumberFormatUtils.appendCurrency(builder.append("Pre-discount charge: "), preDiscountChargeCents).append('\n');
+        NumberFormatUtils.appendPercentage(builder.append("Discount %: "), getDiscountPercent()).append('\n');
+        NumberFormatUtils.appendCurrency(builder.append("Discount amount: "), discountAmountCents).append('\n');
+        NumberFormatUtils.appendCurrency(builder.append("Final charge: "), finalChargeCents).append('\n');
+        return builder;
+    }
+
+    /**
+     * Creates a Money instance from cents that may be NO_AMOUNT
+     */
+    private static Money money(long cents) {
+        return cents == NO_AMOUNT ? null : Money.ofCents(cents);
     }
 
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.cardinalfinancial.us.model;
 /**
  * Tool enum. This enum includes tools listed with various attributes.
  * There are three possible tools: ladders, chainsaws, and jackhammers.
+ * Checkouts look tools up in the ToolCatalog, which is read from tools.catalog; this enum is kept for existing callers.
  *
  * @author Sylvia Barnai
  */
@@ -26,7 +26,7 @@ public enum ToolType {
      * The daily charge for the tool
      */
 
-    private double dailyCharge;
+    private Money dailyCharge;
 
     /**
      * Flag for determining whether there is a weekday charge for the tool
@@ -59,7 +59,7 @@ public enum ToolType {
      * @return dailyCharge The daily rental charge
      */
 
-    public double getDailyCharge() {
+    public Money getDailyCharge() {
         return dailyCharge;
     }
 
@@ -96,15 +96,15 @@ public enum ToolType {
      * Constructor for ToolType instance
      *
      * @param value         The value for the tool type
-     * @param dailyCharge   The daily charge
+     * @param dailyCharge   The daily charge in cents
      * @param weekdayCharge The weekday charge
      * @param weekendCharge The weekend charge
      * @param holidayCharge The holiday charge
      */
 
-    ToolType(String value, double dailyCharge, String weekdayCharge, String weekendCharge, String holidayCharge) {
+    ToolType(String value, long dailyCharge, String weekdayCharge, String weekendCharge, String holidayCharge) {
         this.value = value;
-        this.dailyCharge = dailyCharge;
+        this.dailyCharge = Money.ofCents(dailyCharge);
         this.weekdayCharge = weekdayCharge;
         this.weekendCharge = weekendCharge;
         this.holidayCharge = holidayCharge;
@@ -0,0 +1,32 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.io.Closeable;
+
+/**
+ * Interface that defines where CheckoutServiceImpl sends each RentalAgreement it generates,
+ * so that printing can be silenced, buffered or moved off the request path
+ *
+ * @author Sylvia Barnai
+ */
+public interface AgreementSink extends Closeable {
+
+    /**
+     * Accepts a generated RentalAgreement
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     */
+    void accept(RentalAgreement rentalAgreement);
+
+    /**
+     * Writes out any buffered agreements
+     */
+    void flush();
+
+    /**
+     * Flushes and releases the resources of the sink
+     */
+    @Override
+    void close();
+}
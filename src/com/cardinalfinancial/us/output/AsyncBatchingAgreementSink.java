@@ -0,0 +1,229 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.utils.ExecutorUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * AgreementSink that hands every RentalAgreement to a background thread, which passes them to another sink in batches
+ * and flushes that sink once per batch. The caller only waits when the bounded queue is full. An agreement is
+ * queued under the read lock of closeLock and close() takes its write lock, so every accepted agreement is queued
+ * before the sink stops, and accept() never waits on a queue that is no longer drained.
+ *
+ * @author Sylvia Barnai
+ */
+public final class AsyncBatchingAgreementSink implements AgreementSink {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(AsyncBatchingAgreementSink.class.getName());
+
+    /**
+     * Default capacity of the queue of agreements waiting to be written
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 65536;
+
+    /**
+     * Default maximum number of agreements written per batch
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    /**
+     * How long the background thread waits for an agreement before checking whether the sink was closed
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * The sink that the background thread writes to
+     */
+    private final AgreementSink delegate;
+
+    /**
+     * Agreements waiting to be written
+     */
+    private final BlockingQueue<RentalAgreement> queue;
+
+    /**
+     * Maximum number of agreements written per batch
+     */
+    private final int batchSize;
+
+    /**
+     * The background thread
+     */
+    private final Thread writerThread;
+
+    /**
+     * Number of agreements accepted so far
+     */
+    private final AtomicLong acceptedCount = new AtomicLong();
+
+    /**
+     * Number of agreements passed to the delegate so far, guarded by this sink's lock
+     */
+    private long writtenCount;
+
+    /**
+     * Held for reading while an agreement is queued and for writing while the sink is closed
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /**
+     * Set once close() has been called, under the write lock of closeLock
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructor for AsyncBatchingAgreementSink with the default queue capacity and batch size
+     *
+     * @param delegate the sink that the background thread writes to
+     */
+    public AsyncBatchingAgreementSink(AgreementSink delegate) {
+        this(delegate, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor for AsyncBatchingAgreementSink
+     * If the queue capacity or batch size is less than 1, then throw exception
+     *
+     * @param delegate      the sink that the background thread writes to
+     * @param queueCapacity the capacity of the queue of agreements waiting to be written
+     * @param batchSize     the maximum number of agreements written per batch
+     */
+    public AsyncBatchingAgreementSink(AgreementSink delegate, int queueCapacity, int batchSize) {
+        if (queueCapacity < 1 || batchSize < 1)
+            throw new IllegalArgumentException("Queue capacity and batch size must be at least 1.");
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writerThread = ExecutorUtils.newDaemonThreadFactory("agreement-sink").newThread(this::writeBatches);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a RentalAgreement for the background thread, waiting only if the queue is full
+     *
+     * @param rentalAgreement the RentalAgreement instance
+     */
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                throw new CheckoutException("Agreement sink has been closed");
+            }
+            acceptedCount.incrementAndGet();
+            queue.put(rentalAgreement);
+        } catch (InterruptedException e) {
+            acceptedCount.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new CheckoutException("Interrupted while queueing RentalAgreement", e);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until every agreement accepted so far has been written, then flushes the delegate
+     */
+    @Override
+    public void flush() {
+        long target = acceptedCount.get();
+        synchronized (this) {
+            while (writtenCount < target && writerThread.isAlive()) {
+                try {
+                    wait(POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        delegate.flush();
+    }
+
+    /**
+     * Stops accepting agreements, writes the queued ones and closes the delegate
+     */
+    @Override
+    public void close() {
+        // Waits for the agreements being queued, which the background thread is still draining
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Nothing is queued once closed is set, so this only finds agreements if the join was interrupted
+        for (RentalAgreement rentalAgreement = queue.poll(); rentalAgreement != null; rentalAgreement = queue.poll()) {
+            delegate.accept(rentalAgreement);
+        }
+        delegate.close();
+    }
+
+    /**
+     * Retrieves the number of agreements waiting to be written
+     *
+     * @return the queue length
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Loop of the background thread: takes up to batchSize agreements at a time, writes them and flushes the delegate
+     */
+    private void writeBatches() {
+        List<RentalAgreement> batch = new ArrayList<>(batchSize);
+        while (true) {
+            RentalAgreement first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = queue.poll();
+            }
+            if (first == null) {
+                if (closed && queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            for (RentalAgreement rentalAgreement : batch) {
+                try {
+                    delegate.accept(rentalAgreement);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Unable to write RentalAgreement", e);
+                }
+            }
+            try {
+                delegate.flush();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Unable to flush RentalAgreement output", e);
+            }
+            synchronized (this) {
+                writtenCount += batch.size();
+                notifyAll();
+            }
+            batch.clear();
+        }
+    }
+}
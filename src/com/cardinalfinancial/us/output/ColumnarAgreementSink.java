@@ -0,0 +1,68 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.analytics.ColumnarAgreementStore;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+/**
+ * AgreementSink that adds every RentalAgreement to a ColumnarAgreementStore for aggregation queries, and then
+ * optionally passes it on to another sink
+ *
+ * @author Sylvia Barnai
+ */
+public final class ColumnarAgreementSink implements AgreementSink {
+
+    /**
+     * The store agreements are added to
+     */
+    private final ColumnarAgreementStore store;
+
+    /**
+     * Sink that receives every agreement after it was stored
+     */
+    private final AgreementSink next;
+
+    /**
+     * Constructor for ColumnarAgreementSink that only stores agreements
+     *
+     * @param store the store agreements are added to
+     */
+    public ColumnarAgreementSink(ColumnarAgreementStore store) {
+        this(store, QuietAgreementSink.INSTANCE);
+    }
+
+    /**
+     * Constructor for ColumnarAgreementSink
+     *
+     * @param store the store agreements are added to
+     * @param next  the sink that receives every agreement after it was stored
+     */
+    public ColumnarAgreementSink(ColumnarAgreementStore store, AgreementSink next) {
+        this.store = store;
+        this.next = next;
+    }
+
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+        store.add(rentalAgreement);
+        next.accept(rentalAgreement);
+    }
+
+    @Override
+    public void flush() {
+        next.flush();
+    }
+
+    @Override
+    public void close() {
+        next.close();
+    }
+
+    /**
+     * Retrieves the store agreements are added to
+     *
+     * @return ColumnarAgreementStore instance
+     */
+    public ColumnarAgreementStore getStore() {
+        return store;
+    }
+}
@@ -0,0 +1,38 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+/**
+ * AgreementSink that prints every RentalAgreement to the console with printRentalAgreementDetails().
+ * This is the default sink of CheckoutServiceImpl.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ConsoleAgreementSink implements AgreementSink {
+
+    /**
+     * The shared instance, since the sink has no state
+     */
+    public static final ConsoleAgreementSink INSTANCE = new ConsoleAgreementSink();
+
+    /**
+     * Private constructor, use INSTANCE
+     */
+    private ConsoleAgreementSink() {
+    }
+
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+        rentalAgreement.printRentalAgreementDetails();
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -0,0 +1,98 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.bulk.CsvWriter;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * AgreementSink that writes every RentalAgreement as one comma separated row to a channel, with dates in MM/dd/yy
+ * format and amounts as plain decimals, for example to export the agreements of a bulk import or of a journal replay.
+ * Rows are formatted straight into the write buffer while holding this sink's lock.
+ *
+ * @author Sylvia Barnai
+ */
+public final class CsvAgreementSink implements AgreementSink {
+
+    /**
+     * Column names of the header row
+     */
+    public static final String[] COLUMNS = {"tool_code", "tool_type", "tool_brand", "unit", "rental_days",
+            "checkout_date", "due_date", "daily_charge", "charge_days", "pre_discount_charge", "discount_percent",
+            "discount_amount", "final_charge"};
+
+    /**
+     * The writer, guarded by this sink's lock
+     */
+    private final CsvWriter writer;
+
+    /**
+     * Constructor for CsvAgreementSink
+     *
+     * @param channel     the channel to write to
+     * @param writeHeader whether to start with a row of column names
+     */
+    public CsvAgreementSink(WritableByteChannel channel, boolean writeHeader) {
+        this.writer = new CsvWriter(channel);
+        if (writeHeader) {
+            for (String column : COLUMNS) {
+                writer.field(column);
+            }
+            writer.endRow();
+        }
+    }
+
+    @Override
+    public synchronized void accept(RentalAgreement rentalAgreement) {
+        writer.field(rentalAgreement.getToolCode())
+                .field(rentalAgreement.getToolType())
+                .field(rentalAgreement.getToolBrand());
+        if (rentalAgreement.getUnitNumber() == RentalAgreement.NO_UNIT) {
+            writer.field(null);
+        } else {
+            writer.field(rentalAgreement.getUnitNumber());
+        }
+        writer.field(rentalAgreement.getNumberOfDaysRented());
+        date(rentalAgreement.getCheckoutEpochDay());
+        date(rentalAgreement.getDueEpochDay());
+        amount(rentalAgreement.getDailyRentalChargeCents());
+        writer.field(rentalAgreement.getChargeableDaysCount());
+        amount(rentalAgreement.getPreDiscountChargeCents());
+        writer.field(rentalAgreement.getDiscountPercent());
+        amount(rentalAgreement.getDiscountAmountCents());
+        amount(rentalAgreement.getFinalChargeCents());
+        writer.endRow();
+    }
+
+    @Override
+    public synchronized void flush() {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() {
+        writer.close();
+    }
+
+    /**
+     * Writes a date field, or an empty field if the date is not set
+     */
+    private void date(int epochDay) {
+        if (epochDay == RentalAgreement.NO_DATE) {
+            writer.field(null);
+        } else {
+            writer.dateField(epochDay);
+        }
+    }
+
+    /**
+     * Writes an amount field, or an empty field if the amount is not set
+     */
+    private void amount(long cents) {
+        if (cents == RentalAgreement.NO_AMOUNT) {
+            writer.field(null);
+        } else {
+            writer.amountField(cents);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+/**
+ * AgreementSink that appends every RentalAgreement to an AgreementJournal, and then optionally passes it on to another
+ * sink, for example to print it once it is durable
+ *
+ * @author Sylvia Barnai
+ */
+public final class JournalAgreementSink implements AgreementSink {
+
+    /**
+     * The journal agreements are appended to
+     */
+    private final AgreementJournal journal;
+
+    /**
+     * Sink that receives every agreement after it was journaled
+     */
+    private final AgreementSink next;
+
+    /**
+     * Constructor for JournalAgreementSink that only journals agreements
+     *
+     * @param journal the journal agreements are appended to
+     */
+    public JournalAgreementSink(AgreementJournal journal) {
+        this(journal, QuietAgreementSink.INSTANCE);
+    }
+
+    /**
+     * Constructor for JournalAgreementSink
+     *
+     * @param journal the journal agreements are appended to
+     * @param next    the sink that receives every agreement after it was journaled
+     */
+    public JournalAgreementSink(AgreementJournal journal, AgreementSink next) {
+        this.journal = journal;
+        this.next = next;
+    }
+
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+        journal.append(rentalAgreement);
+        next.accept(rentalAgreement);
+    }
+
+    @Override
+    public void flush() {
+        journal.sync();
+        next.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            journal.close();
+        } finally {
+            next.close();
+        }
+    }
+
+    /**
+     * Retrieves the journal agreements are appended to
+     *
+     * @return the AgreementJournal instance
+     */
+    public AgreementJournal getJournal() {
+        return journal;
+    }
+}
@@ -0,0 +1,34 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+/**
+ * AgreementSink that discards every RentalAgreement, for callers that only need the returned agreements
+ *
+ * @author Sylvia Barnai
+ */
+public final class QuietAgreementSink implements AgreementSink {
+
+    /**
+     * The shared instance, since the sink has no state
+     */
+    public static final QuietAgreementSink INSTANCE = new QuietAgreementSink();
+
+    /**
+     * Private constructor, use INSTANCE
+     */
+    private QuietAgreementSink() {
+    }
+
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,138 @@
+package com.cardinalfinancial.us.output;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * AgreementSink that writes the details of every RentalAgreement to a buffered Writer, in the same format as
+ * printRentalAgreementDetails(). Agreements are formatted outside of the lock, so threads only wait for each other
+ * while copying characters into the buffer.
+ *
+ * @author Sylvia Barnai
+ */
+public final class WriterAgreementSink implements AgreementSink {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(WriterAgreementSink.class.getName());
+
+    /**
+     * Default size of the write buffer in characters
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Per-thread buffers used to format an agreement before it is written
+     */
+    private static final ThreadLocal<FormatBuffer> FORMAT_BUFFERS = ThreadLocal.withInitial(FormatBuffer::new);
+
+    /**
+     * The buffered writer, guarded by this sink's lock
+     */
+    private final Writer writer;
+
+    /**
+     * Whether to flush the writer after every agreement
+     */
+    private final boolean autoFlush;
+
+    /**
+     * Constructor for WriterAgreementSink
+     *
+     * @param writer    the Writer to write to, which is wrapped in a BufferedWriter
+     * @param autoFlush whether to flush after every agreement
+     */
+    public WriterAgreementSink(Writer writer, boolean autoFlush) {
+        this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, DEFAULT_BUFFER_SIZE);
+        this.autoFlush = autoFlush;
+    }
+
+    /**
+     * Constructor for WriterAgreementSink that writes UTF-8 text to an OutputStream
+     *
+     * @param outputStream the OutputStream to write to
+     * @param autoFlush    whether to flush after every agreement
+     */
+    public WriterAgreementSink(OutputStream outputStream, boolean autoFlush) {
+        this(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), autoFlush);
+    }
+
+    @Override
+    public void accept(RentalAgreement rentalAgreement) {
+        FormatBuffer formatBuffer = FORMAT_BUFFERS.get();
+        StringBuilder builder = formatBuffer.builder;
+        builder.setLength(0);
+        rentalAgreement.appendRentalAgreementDetails(builder).append(System.lineSeparator());
+        int length = builder.length();
+        char[] chars = formatBuffer.chars(length);
+        builder.getChars(0, length, chars, 0);
+
+        synchronized (this) {
+            try {
+                writer.write(chars, 0, length);
+                if (autoFlush) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to write RentalAgreement");
+                throw new CheckoutException("Unable to write RentalAgreement", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to flush RentalAgreement output");
+            throw new CheckoutException("Unable to flush RentalAgreement output", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to close RentalAgreement output");
+            throw new CheckoutException("Unable to close RentalAgreement output", e);
+        }
+    }
+
+    /**
+     * Reusable StringBuilder and char array of one thread
+     */
+    private static final class FormatBuffer {
+
+        /**
+         * Builder the agreement details are formatted into
+         */
+        private final StringBuilder builder = new StringBuilder(512);
+
+        /**
+         * Characters copied out of the builder for the writer
+         */
+        private char[] chars = new char[512];
+
+        /**
+         * Retrieves the char array, growing it to at least a length
+         */
+        private char[] chars(int length) {
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            return chars;
+        }
+    }
+}
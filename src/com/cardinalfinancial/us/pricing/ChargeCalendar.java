@@ -0,0 +1,173 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Prefix sums of the charges of one ChargeTable over the days of each year. The table of a year holds, for every day
+ * of the year, the number of chargeable days and the sum of the charge percentages from January 1st up to that day,
+ * so the charge of any range of days is a difference of two entries. Year tables are built lazily on first use and
+ * published without locks, like the years of a HolidayCalendar.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ChargeCalendar {
+
+    /**
+     * The table that decides the charge of each class of day
+     */
+    private final ChargeTable chargeTable;
+
+    /**
+     * The calendar of observed holidays
+     */
+    private final HolidayCalendar holidayCalendar;
+
+    /**
+     * Year tables built so far, indexed by year minus HolidayCalendar.MIN_CACHED_YEAR
+     */
+    private final AtomicReferenceArray<YearCharges> years = new AtomicReferenceArray<>(
+            HolidayCalendar.MAX_CACHED_YEAR - HolidayCalendar.MIN_CACHED_YEAR + 1);
+
+    /**
+     * Constructor for ChargeCalendar
+     *
+     * @param chargeTable     the table that decides the charge of each class of day
+     * @param holidayCalendar the calendar of observed holidays
+     */
+    public ChargeCalendar(ChargeTable chargeTable, HolidayCalendar holidayCalendar) {
+        this.chargeTable = chargeTable;
+        this.holidayCalendar = holidayCalendar;
+    }
+
+    /**
+     * Retrieves the table that decides the charge of each class of day
+     *
+     * @return the ChargeTable instance
+     */
+    public ChargeTable getChargeTable() {
+        return chargeTable;
+    }
+
+    /**
+     * Counts the chargeable days between two epoch days, inclusive
+     *
+     * @param fromEpochDay the first day of the range
+     * @param toEpochDay   the last day of the range
+     * @return the number of chargeable days, or 0 if the range is empty
+     */
+    public int countChargeableDays(long fromEpochDay, long toEpochDay) {
+        int count = 0;
+        for (long day = fromEpochDay; day <= toEpochDay; ) {
+            YearCharges yearCharges = forYear(HolidayCalendar.yearOf(day));
+            int first = (int) (day - yearCharges.firstEpochDay);
+            int last = (int) (Math.min(toEpochDay, yearCharges.firstEpochDay + yearCharges.dayCount - 1) - yearCharges.firstEpochDay);
+            count += yearCharges.chargeableDays[last + 1] - yearCharges.chargeableDays[first];
+            day = yearCharges.firstEpochDay + yearCharges.dayCount;
+        }
+        return count;
+    }
+
+    /**
+     * Fills prefix sums for a range of days: entry i of each array is the sum over the first i days of the range,
+     * so entry 0 is 0 and the days from index a to index b - 1 sum to entry b minus entry a
+     *
+     * @param fromEpochDay        the first day of the range
+     * @param dayCount            the number of days of the range
+     * @param chargeableDayPrefix filled with the number of chargeable days, at least dayCount + 1 long
+     * @param chargePercentPrefix filled with the sum of the charge percentages, at least dayCount + 1 long
+     */
+    public void fillPrefixSums(long fromEpochDay, int dayCount, int[] chargeableDayPrefix, long[] chargePercentPrefix) {
+        chargeableDayPrefix[0] = 0;
+        chargePercentPrefix[0] = 0;
+        int filled = 0;
+        long day = fromEpochDay;
+        while (filled < dayCount) {
+            YearCharges yearCharges = forYear(HolidayCalendar.yearOf(day));
+            int first = (int) (day - yearCharges.firstEpochDay);
+            int count = Math.min(dayCount - filled, yearCharges.dayCount - first);
+            // Rebase the year's sums from January 1st onto the sums filled so far
+            int dayBase = chargeableDayPrefix[filled] - yearCharges.chargeableDays[first];
+            long percentBase = chargePercentPrefix[filled] - yearCharges.chargePercents[first];
+            for (int i = 1; i <= count; i++) {
+                chargeableDayPrefix[filled + i] = yearCharges.chargeableDays[first + i] + dayBase;
+                chargePercentPrefix[filled + i] = yearCharges.chargePercents[first + i] + percentBase;
+            }
+            filled += count;
+            day += count;
+        }
+    }
+
+    /**
+     * Retrieves the table of a year, building it on first use. Two threads may build the same year at the same time;
+     * only the first table is published and both are identical.
+     *
+     * @param year the year
+     * @return the YearCharges of the year
+     */
+    YearCharges forYear(int year) {
+        if (year < HolidayCalendar.MIN_CACHED_YEAR || year > HolidayCalendar.MAX_CACHED_YEAR) {
+            return buildYear(year);
+        }
+        int index = year - HolidayCalendar.MIN_CACHED_YEAR;
+        YearCharges yearCharges = years.get(index);
+        if (yearCharges == null) {
+            years.compareAndSet(index, null, buildYear(year));
+            yearCharges = years.get(index);
+        }
+        return yearCharges;
+    }
+
+    /**
+     * Classifies every day of a year and sums the charges of its classes
+     */
+    private YearCharges buildYear(int year) {
+        long firstEpochDay = HolidayCalendar.yearStartEpochDay(year);
+        int dayCount = (int) (HolidayCalendar.yearStartEpochDay(year + 1) - firstEpochDay);
+        int[] chargeableDays = new int[dayCount + 1];
+        int[] chargePercents = new int[dayCount + 1];
+        for (int i = 0; i < dayCount; i++) {
+            int chargePercent = chargeTable.getChargePercent(chargeTable.classify(firstEpochDay + i, holidayCalendar));
+            chargeableDays[i + 1] = chargeableDays[i] + (chargePercent != 0 ? 1 : 0);
+            chargePercents[i + 1] = Math.addExact(chargePercents[i], chargePercent);
+        }
+        return new YearCharges(firstEpochDay, dayCount, chargeableDays, chargePercents);
+    }
+
+    /**
+     * Immutable prefix sums of the charges of one year, read in place by RatePlan
+     */
+    static final class YearCharges {
+
+        /**
+         * January 1st of the year as an epoch day
+         */
+        final long firstEpochDay;
+
+        /**
+         * Number of days of the year
+         */
+        final int dayCount;
+
+        /**
+         * Number of chargeable days before each day of the year, and of the whole year at the end
+         */
+        final int[] chargeableDays;
+
+        /**
+         * Sum of the charge percentages before each day of the year, and of the whole year at the end
+         */
+        final int[] chargePercents;
+
+        /**
+         * Constructor for YearCharges
+         */
+        private YearCharges(long firstEpochDay, int dayCount, int[] chargeableDays, int[] chargePercents) {
+            this.firstEpochDay = firstEpochDay;
+            this.dayCount = dayCount;
+            this.chargeableDays = chargeableDays;
+            this.chargePercents = chargePercents;
+        }
+    }
+}
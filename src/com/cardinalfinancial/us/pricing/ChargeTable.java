@@ -0,0 +1,324 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decision table that tells how much of the daily charge a tool type charges for each DayClass. The table is compiled
+ * once from an ordered list of rules: a rule applies to the day classes whose bits under its mask equal its match, and
+ * the first rule that applies to a class gives the charge of the class as a percentage of the daily charge. Classes
+ * without a rule are not charged. After compiling, deciding the charge of a day is one array lookup, whatever the
+ * rules were, so new kinds of rules such as half-day weekends or peak-season rates only add rows to the table.
+ * <p>
+ * For example the Ladder rules charge holidays nothing, then weekends and weekdays in full:
+ * <pre>
+ * addRule(DayClass.HOLIDAY, DayClass.HOLIDAY, 0)
+ * addRule(DayClass.WEEKEND, DayClass.WEEKEND, 100)
+ * addRule(0, 0, 100)
+ * </pre>
+ *
+ * @author Sylvia Barnai
+ */
+public final class ChargeTable {
+
+    /**
+     * Charge percentage of a full day
+     */
+    public static final int FULL_DAY = 100;
+
+    /**
+     * Charge percentage of a half day
+     */
+    public static final int HALF_DAY = 50;
+
+    /**
+     * Tables of the Yes/No charge flags, indexed by weekday, weekend and holiday flag bits
+     */
+    private static final ChargeTable[] FLAG_TABLES = new ChargeTable[8];
+
+    static {
+        for (int flags = 0; flags < FLAG_TABLES.length; flags++) {
+            FLAG_TABLES[flags] = Builder.newInstance()
+                    .addRule(DayClass.HOLIDAY, DayClass.HOLIDAY, (flags & 4) != 0 ? FULL_DAY : 0)
+                    .addRule(DayClass.WEEKEND, DayClass.WEEKEND, (flags & 2) != 0 ? FULL_DAY : 0)
+                    .addRule(0, 0, (flags & 1) != 0 ? FULL_DAY : 0)
+                    .build();
+        }
+    }
+
+    /**
+     * Charge percentage of each day class
+     */
+    private final int[] chargePercents;
+
+    /**
+     * The peak season, or null if no day is in the peak season
+     */
+    private final PeakSeason peakSeason;
+
+    /**
+     * Whether every class is charged either nothing or a full day
+     */
+    private final boolean fullDaysOnly;
+
+    /**
+     * Private constructor, compiles a ChargeTable instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private ChargeTable(Builder builder) {
+        this.chargePercents = new int[DayClass.COUNT];
+        boolean fullDays = true;
+        for (int dayClass = 0; dayClass < DayClass.COUNT; dayClass++) {
+            for (int[] rule : builder.rules) {
+                if ((dayClass & rule[0]) == rule[1]) {
+                    chargePercents[dayClass] = rule[2];
+                    break;
+                }
+            }
+            fullDays &= chargePercents[dayClass] == 0 || chargePercents[dayClass] == FULL_DAY;
+        }
+        this.peakSeason = builder.peakSeason;
+        this.fullDaysOnly = fullDays;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Rules in the order they were added, as mask, match and charge percentage
+         */
+        private final List<int[]> rules = new ArrayList<>();
+
+        /**
+         * The peak season, none by default
+         */
+        private PeakSeason peakSeason;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Adds a rule after the rules added so far
+         * If the mask or the match are not DayClass bits, the match has bits outside of the mask, or the percentage
+         * is negative, then throw exception
+         *
+         * @param mask          the DayClass bits the rule looks at
+         * @param match         the value of those bits of the day classes the rule applies to
+         * @param chargePercent the charge of those day classes as a percentage of the daily charge
+         * @return Builder instance
+         */
+        public Builder addRule(int mask, int match, int chargePercent) {
+            if ((mask & ~DayClass.ALL) != 0)
+                throw new IllegalArgumentException("Rule mask must only have DayClass bits.");
+            if ((match & ~mask) != 0)
+                throw new IllegalArgumentException("Rule match must only have bits of the mask.");
+            if (chargePercent < 0)
+                throw new IllegalArgumentException("Charge percent must not be negative.");
+            rules.add(new int[]{mask, match, chargePercent});
+            return this;
+        }
+
+        /**
+         * Sets the peak season whose days have the DayClass.PEAK bit
+         *
+         * @param peakSeason the PeakSeason instance
+         * @return Builder instance
+         */
+        public Builder setPeakSeason(PeakSeason peakSeason) {
+            this.peakSeason = peakSeason;
+            return this;
+        }
+
+        /**
+         * Compiles a ChargeTable instance
+         * If a rule looks at the DayClass.PEAK bit and no peak season is set, then throw exception
+         *
+         * @return ChargeTable instance
+         */
+        public ChargeTable build() {
+            for (int[] rule : rules) {
+                if ((rule[0] & DayClass.PEAK) != 0 && peakSeason == null)
+                    throw new IllegalArgumentException("A peak season must be set for peak rules.");
+            }
+            return new ChargeTable(this);
+        }
+    }
+
+    /**
+     * Retrieves the table of the Yes/No charge flags of a tool type, where a holiday is charged by the holiday flag
+     * only. The eight tables are compiled once and shared.
+     *
+     * @param weekdayCharge whether weekdays are charged
+     * @param weekendCharge whether weekend days are charged
+     * @param holidayCharge whether holidays are charged
+     * @return ChargeTable instance
+     */
+    public static ChargeTable of(boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge) {
+        return FLAG_TABLES[(weekdayCharge ? 1 : 0) | (weekendCharge ? 2 : 0) | (holidayCharge ? 4 : 0)];
+    }
+
+    /**
+     * Retrieves the charge of a day class
+     *
+     * @param dayClass the DayClass bits
+     * @return the charge as a percentage of the daily charge
+     */
+    public int getChargePercent(int dayClass) {
+        return chargePercents[dayClass];
+    }
+
+    /**
+     * Determine whether a day class is charged
+     *
+     * @param dayClass the DayClass bits
+     * @return true if the charge of the class is more than nothing
+     */
+    public boolean isCharged(int dayClass) {
+        return chargePercents[dayClass] != 0;
+    }
+
+    /**
+     * Determine whether every day class is charged either nothing or a full day, so the charge of a rental is the
+     * chargeable day count times the daily charge
+     *
+     * @return true if no class is charged a part or a multiple of a day
+     */
+    public boolean isFullDaysOnly() {
+        return fullDaysOnly;
+    }
+
+    /**
+     * Retrieves the peak season
+     *
+     * @return the PeakSeason instance, or null if no day is in the peak season
+     */
+    public PeakSeason getPeakSeason() {
+        return peakSeason;
+    }
+
+    /**
+     * Classifies a day, including the peak season of this table
+     *
+     * @param epochDay        the day as an epoch day
+     * @param holidayCalendar the calendar of observed holidays
+     * @return the day class
+     */
+    public int classify(long epochDay, HolidayCalendar holidayCalendar) {
+        int dayClass = DayClass.classify(epochDay, holidayCalendar);
+        return peakSeason != null && peakSeason.contains(epochDay) ? dayClass | DayClass.PEAK : dayClass;
+    }
+
+    /**
+     * Counts the days of each class between two epoch days, inclusive, including the peak season of this table.
+     * The counts are computed in closed form, once for the whole range and once for each part of it in the peak
+     * season, and added to the counts array.
+     *
+     * @param fromEpochDay    the first day of the range
+     * @param toEpochDay      the last day of the range
+     * @param holidayCalendar the calendar of observed holidays
+     * @param counts          the day counts indexed by day class, at least DayClass.COUNT long
+     */
+    public void countDays(long fromEpochDay, long toEpochDay, HolidayCalendar holidayCalendar, long[] counts) {
+        DayClass.count(fromEpochDay, toEpochDay, holidayCalendar, counts);
+        if (peakSeason == null || toEpochDay < fromEpochDay) {
+            return;
+        }
+        long[] peakCounts = new long[DayClass.COUNT];
+        int lastYear = LocalDate.ofEpochDay(toEpochDay).getYear();
+        // The season that starts the year before may run into the first year of the range
+        for (int year = LocalDate.ofEpochDay(fromEpochDay).getYear() - 1; year <= lastYear; year++) {
+            long from = Math.max(fromEpochDay, peakSeason.startEpochDay(year));
+            long to = Math.min(toEpochDay, peakSeason.endEpochDay(year));
+            DayClass.count(from, to, holidayCalendar, peakCounts);
+        }
+        for (int dayClass = 0; dayClass < DayClass.PEAK; dayClass++) {
+            counts[dayClass] -= peakCounts[dayClass];
+            counts[dayClass | DayClass.PEAK] += peakCounts[dayClass];
+        }
+    }
+
+    /**
+     * Counts the days that are charged between two epoch days, inclusive. Without a peak season the four day counts
+     * are weighed as they are computed, without filling a counts array.
+     *
+     * @param fromEpochDay    the first day of the range
+     * @param toEpochDay      the last day of the range
+     * @param holidayCalendar the calendar of observed holidays
+     * @return the number of days whose class is charged
+     */
+    public int countChargeableDays(long fromEpochDay, long toEpochDay, HolidayCalendar holidayCalendar) {
+        if (peakSeason != null) {
+            long[] counts = new long[DayClass.COUNT];
+            countDays(fromEpochDay, toEpochDay, holidayCalendar, counts);
+            return countChargeableDays(counts);
+        }
+        if (toEpochDay < fromEpochDay) {
+            return 0;
+        }
+        long weekdays = ChargeableDaysUtils.countWeekdays(fromEpochDay, toEpochDay);
+        long weekendDays = toEpochDay - fromEpochDay + 1 - weekdays;
+        int holidays = holidayCalendar.countHolidays(fromEpochDay, toEpochDay);
+        int weekendHolidays = holidayCalendar.countWeekendHolidays(fromEpochDay, toEpochDay);
+        long chargeableDays = charged(0) * (weekdays - (holidays - weekendHolidays))
+                + charged(DayClass.WEEKEND) * (weekendDays - weekendHolidays)
+                + charged(DayClass.HOLIDAY) * (holidays - weekendHolidays)
+                + charged(DayClass.WEEKEND | DayClass.HOLIDAY) * weekendHolidays;
+        return Math.toIntExact(chargeableDays);
+    }
+
+    /**
+     * Retrieves 1 if a day class is charged and 0 if not
+     */
+    private long charged(int dayClass) {
+        return chargePercents[dayClass] != 0 ? 1 : 0;
+    }
+
+    /**
+     * Counts the days that are charged
+     *
+     * @param counts the day counts indexed by day class
+     * @return the number of days whose class is charged
+     */
+    public int countChargeableDays(long[] counts) {
+        long chargeableDays = 0;
+        for (int dayClass = 0; dayClass < DayClass.COUNT; dayClass++) {
+            if (chargePercents[dayClass] != 0) {
+                chargeableDays += counts[dayClass];
+            }
+        }
+        return Math.toIntExact(chargeableDays);
+    }
+
+    /**
+     * Sums the charges of the days as percentages of the daily charge, so a full day adds 100 and a half day adds 50
+     *
+     * @param counts the day counts indexed by day class
+     * @return the sum of the charge percentages of the days
+     */
+    public long sumChargePercents(long[] counts) {
+        long percents = 0;
+        for (int dayClass = 0; dayClass < DayClass.COUNT; dayClass++) {
+            percents = Math.addExact(percents, Math.multiplyExact(counts[dayClass], (long) chargePercents[dayClass]));
+        }
+        return percents;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+
+/**
+ * Utility class for the class of a rental day, a bitmask of the facts the charge rules decide on. A plain weekday is
+ * class 0, and each fact sets one bit, so a holiday that falls on a Saturday during the peak season is
+ * WEEKEND | HOLIDAY | PEAK. A ChargeTable holds one charge per class, so a new fact is a new bit and not a new branch.
+ *
+ * @author Sylvia Barnai
+ */
+public final class DayClass {
+
+    /**
+     * Bit of a Saturday or a Sunday
+     */
+    public static final int WEEKEND = 1;
+
+    /**
+     * Bit of an observed holiday
+     */
+    public static final int HOLIDAY = 2;
+
+    /**
+     * Bit of a day of the peak season of the tool type
+     */
+    public static final int PEAK = 4;
+
+    /**
+     * Every bit of a day class
+     */
+    public static final int ALL = WEEKEND | HOLIDAY | PEAK;
+
+    /**
+     * Number of day classes, the size of the tables indexed by day class
+     */
+    public static final int COUNT = ALL + 1;
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private DayClass() {
+    }
+
+    /**
+     * Classifies a day by its weekday and holiday facts, without the peak season
+     *
+     * @param epochDay        the day as an epoch day
+     * @param holidayCalendar the calendar of observed holidays
+     * @return the day class
+     */
+    public static int classify(long epochDay, HolidayCalendar holidayCalendar) {
+        int dayClass = ChargeableDaysUtils.countWeekdays(epochDay, epochDay) == 0 ? WEEKEND : 0;
+        return holidayCalendar.isHoliday(epochDay) ? dayClass | HOLIDAY : dayClass;
+    }
+
+    /**
+     * Counts the days of each class between two epoch days, inclusive, without the peak season. The counts are
+     * computed in closed form and added to the counts array.
+     *
+     * @param fromEpochDay    the first day of the range
+     * @param toEpochDay      the last day of the range
+     * @param holidayCalendar the calendar of observed holidays
+     * @param counts          the day counts indexed by day class, at least COUNT long
+     */
+    public static void count(long fromEpochDay, long toEpochDay, HolidayCalendar holidayCalendar, long[] counts) {
+        if (toEpochDay < fromEpochDay) {
+            return;
+        }
+        long weekdays = ChargeableDaysUtils.countWeekdays(fromEpochDay, toEpochDay);
+        long weekendDays = toEpochDay - fromEpochDay + 1 - weekdays;
+        int holidays = holidayCalendar.countHolidays(fromEpochDay, toEpochDay);
+        int weekendHolidays = holidayCalendar.countWeekendHolidays(fromEpochDay, toEpochDay);
+        counts[0] += weekdays - (holidays - weekendHolidays);
+        counts[WEEKEND] += weekendDays - weekendHolidays;
+        counts[HOLIDAY] += holidays - weekendHolidays;
+        counts[WEEKEND | HOLIDAY] += weekendHolidays;
+    }
+}
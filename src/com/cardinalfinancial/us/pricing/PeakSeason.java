@@ -0,0 +1,92 @@
+package com.cardinalfinancial.us.pricing;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+/**
+ * Yearly season between two days of the year, inclusive, for example from June 1 to August 31. A season whose last
+ * day comes before its first day runs over the end of the year, so December 15 to January 15 is one season.
+ *
+ * @author Sylvia Barnai
+ */
+public final class PeakSeason {
+
+    /**
+     * First day of the season
+     */
+    private final MonthDay from;
+
+    /**
+     * Last day of the season
+     */
+    private final MonthDay to;
+
+    /**
+     * Constructor for PeakSeason
+     *
+     * @param from the first day of the season
+     * @param to   the last day of the season
+     */
+    public PeakSeason(MonthDay from, MonthDay to) {
+        if (from == null || to == null)
+            throw new IllegalArgumentException("Peak season days must be set.");
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Retrieves the first day of the season
+     *
+     * @return the first day
+     */
+    public MonthDay getFrom() {
+        return from;
+    }
+
+    /**
+     * Retrieves the last day of the season
+     *
+     * @return the last day
+     */
+    public MonthDay getTo() {
+        return to;
+    }
+
+    /**
+     * Retrieves the first day of the season that starts in a year
+     *
+     * @param year the year
+     * @return the first day as an epoch day
+     */
+    public long startEpochDay(int year) {
+        return from.atYear(year).toEpochDay();
+    }
+
+    /**
+     * Retrieves the last day of the season that starts in a year, which is in the next year if the season runs over
+     * the end of the year
+     *
+     * @param year the year the season starts in
+     * @return the last day as an epoch day
+     */
+    public long endEpochDay(int year) {
+        return to.atYear(to.isBefore(from) ? year + 1 : year).toEpochDay();
+    }
+
+    /**
+     * Determine whether a day is in the season
+     *
+     * @param epochDay the day as an epoch day
+     * @return true if the day is in the season
+     */
+    public boolean contains(long epochDay) {
+        int year = LocalDate.ofEpochDay(epochDay).getYear();
+        return (epochDay >= startEpochDay(year) && epochDay <= endEpochDay(year))
+                || (epochDay >= startEpochDay(year - 1) && epochDay <= endEpochDay(year - 1));
+    }
+
+    @Override
+    public String toString() {
+        return from + " to " + to;
+    }
+}
@@ -0,0 +1,199 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Tool;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Quotes a rental for every checkout date of a window, to answer questions such as "when is it cheapest to rent a
+ * CHNS for 10 days this month?". The ChargeCalendar of the tool type gives prefix sums of the chargeable days over
+ * the window and the rental after its last date, filled once per search, so the charge of each checkout date is the
+ * difference of two prefix sums. Tool types with weekly or monthly charges are priced by their RatePlan over the
+ * same prefix sums, in time proportional to the rental days. The charges match the ones CheckoutServiceImpl prices
+ * for the same checkout.
+ *
+ * @author Sylvia Barnai
+ */
+public final class QuoteSearch {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(QuoteSearch.class.getName());
+
+    /**
+     * Largest number of checkout dates of one search
+     */
+    public static final int MAX_WINDOW_DAYS = 366;
+
+    /**
+     * Largest number of rental days of one search
+     */
+    public static final int MAX_RENTAL_DAYS = 3660;
+
+    /**
+     * Catalog the quoted tools are found in
+     */
+    private final ReloadableToolCatalog toolCatalog;
+
+    /**
+     * Private constructor, creates a QuoteSearch instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private QuoteSearch(Builder builder) {
+        this.toolCatalog = builder.toolCatalog;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Catalog the quoted tools are found in, the default catalog by default
+         */
+        private ReloadableToolCatalog toolCatalog = ReloadableToolCatalog.getDefault();
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the catalog the quoted tools are found in
+         *
+         * @param toolCatalog the ReloadableToolCatalog instance
+         * @return Builder instance
+         */
+        public Builder setToolCatalog(ReloadableToolCatalog toolCatalog) {
+            this.toolCatalog = toolCatalog;
+            return this;
+        }
+
+        /**
+         * Creates a QuoteSearch instance
+         * If no catalog is set, then throw exception
+         *
+         * @return QuoteSearch instance
+         */
+        public QuoteSearch build() {
+            if (toolCatalog == null)
+                throw new IllegalArgumentException("Tool catalog must be set.");
+            return new QuoteSearch(this);
+        }
+    }
+
+    /**
+     * Quotes a rental of a catalog tool for every checkout date between two dates
+     * If a date is invalid or the tool code is unknown, then throw CheckoutException, and if the window or rental
+     * day count is out of range, then throw IllegalArgumentException
+     *
+     * @param toolCode          the tool code
+     * @param firstCheckoutDate the first checkout date in M/d/yy or MM/dd/yy format
+     * @param lastCheckoutDate  the last checkout date in M/d/yy or MM/dd/yy format
+     * @param rentalDayCount    the number of days of the rental
+     * @param discountPercent   the discount percent
+     * @return RentalQuotes instance
+     */
+    public RentalQuotes quote(String toolCode, String firstCheckoutDate, String lastCheckoutDate, int rentalDayCount,
+                              int discountPercent) {
+        long firstCheckoutEpochDay = DateUtils.parseInputEpochDay(firstCheckoutDate);
+        long lastCheckoutEpochDay = DateUtils.parseInputEpochDay(lastCheckoutDate);
+        ToolDefinition tool = toolCatalog.get().find(toolCode);
+        if (tool == null) {
+            LOGGER.log(Level.WARNING, "Unknown tool code [" + toolCode + "]");
+            throw new CheckoutException("Unknown tool code");
+        }
+        return quote(tool.getToolCode(), tool.getToolType(), firstCheckoutEpochDay, lastCheckoutEpochDay,
+                rentalDayCount, discountPercent);
+    }
+
+    /**
+     * Quotes a rental of a tool for every checkout date between two epoch days, inclusive
+     * If the window or rental day count is out of range, then throw exception
+     *
+     * @param tool                  the Tool to quote
+     * @param firstCheckoutEpochDay the first checkout date as an epoch day
+     * @param lastCheckoutEpochDay  the last checkout date as an epoch day
+     * @param rentalDayCount        the number of days of the rental
+     * @param discountPercent       the discount percent
+     * @return RentalQuotes instance
+     */
+    public static RentalQuotes quote(Tool tool, long firstCheckoutEpochDay, long lastCheckoutEpochDay,
+                                     int rentalDayCount, int discountPercent) {
+        return quote(tool.getToolCode().getValue(), ToolTypeDefinition.of(tool.getToolType()), firstCheckoutEpochDay,
+                lastCheckoutEpochDay, rentalDayCount, discountPercent);
+    }
+
+    /**
+     * Quotes a rental of a tool type for every checkout date between two epoch days, inclusive
+     * If the window or rental day count is out of range, then throw exception
+     *
+     * @param toolCode              the tool code the quotes are for
+     * @param toolType              the tool type of the tool
+     * @param firstCheckoutEpochDay the first checkout date as an epoch day
+     * @param lastCheckoutEpochDay  the last checkout date as an epoch day
+     * @param rentalDayCount        the number of days of the rental
+     * @param discountPercent       the discount percent
+     * @return RentalQuotes instance
+     */
+    public static RentalQuotes quote(String toolCode, ToolTypeDefinition toolType, long firstCheckoutEpochDay,
+                                     long lastCheckoutEpochDay, int rentalDayCount, int discountPercent) {
+        if (lastCheckoutEpochDay < firstCheckoutEpochDay || lastCheckoutEpochDay - firstCheckoutEpochDay >= MAX_WINDOW_DAYS)
+            throw new IllegalArgumentException("Quote window must be 1 to " + MAX_WINDOW_DAYS + " days.");
+        if (rentalDayCount < 1 || rentalDayCount > MAX_RENTAL_DAYS)
+            throw new IllegalArgumentException("Rental day count must be 1 to " + MAX_RENTAL_DAYS + " days.");
+        if (discountPercent < 0 || discountPercent > 100)
+            throw new IllegalArgumentException("Discount percent must be between 0 and 100.");
+
+        int windowDays = (int) (lastCheckoutEpochDay - firstCheckoutEpochDay) + 1;
+        // The days charged for any checkout date of the window, from the day after the first checkout date
+        int dayCount = windowDays - 1 + rentalDayCount;
+        int[] chargeableDayPrefix = new int[dayCount + 1];
+        long[] chargePercentPrefix = new long[dayCount + 1];
+        toolType.getChargeCalendar().fillPrefixSums(firstCheckoutEpochDay + 1, dayCount, chargeableDayPrefix, chargePercentPrefix);
+
+        long dailyRentalCents = toolType.getDailyCharge().getCents();
+        RatePlan ratePlan = toolType.getRatePlan();
+        boolean dailyOnly = ratePlan.isDailyOnly();
+        boolean fullDaysOnly = toolType.getChargeTable().isFullDaysOnly();
+        int[] chargeableDaysCounts = new int[windowDays];
+        long[] finalChargeCents = new long[windowDays];
+        for (int i = 0; i < windowDays; i++) {
+            int chargeableDaysCount = chargeableDayPrefix[i + rentalDayCount] - chargeableDayPrefix[i];
+            long preDiscountCents;
+            if (!dailyOnly) {
+                // Weekly and monthly caps depend on the order of the days, not only on the sums
+                preDiscountCents = ratePlan.calculateChargeCents(dailyRentalCents, chargePercentPrefix, i, rentalDayCount);
+            } else if (fullDaysOnly) {
+                preDiscountCents = CalculateChargesUtils.calculatePreDiscountChargeCents(chargeableDaysCount, dailyRentalCents);
+            } else {
+                preDiscountCents = CalculateChargesUtils.calculateWeightedChargeCents(dailyRentalCents,
+                        chargePercentPrefix[i + rentalDayCount] - chargePercentPrefix[i]);
+            }
+            long discountCents = CalculateChargesUtils.calculateDiscountAmountCents(discountPercent, preDiscountCents);
+            chargeableDaysCounts[i] = chargeableDaysCount;
+            finalChargeCents[i] = CalculateChargesUtils.calculateFinalChargeCents(preDiscountCents, discountCents);
+        }
+        return new RentalQuotes(toolCode, firstCheckoutEpochDay, rentalDayCount, discountPercent,
+                toolType.getDailyCharge(), chargeableDaysCounts, finalChargeCents);
+    }
+}
@@ -0,0 +1,245 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.model.Money;
+
+import java.math.RoundingMode;
+
+/**
+ * Rate plan of a tool type: besides the daily charge, a weekly charge that caps any 7 consecutive days and a monthly
+ * charge that caps any 30 consecutive days. The customer pays the lowest combination of days, weeks and months that
+ * covers the rental, found by dynamic programming over the days: the best price of the first i days is the best of
+ * the first i - 1 days plus day i, of the first i - 7 days plus a week, or of the first i - 30 days plus a month.
+ * Prices never go down as days are added, so a week or month at the start of the rental that is cut short by the
+ * checkout date costs as much as a full one. A 365-day rental is priced in 365 steps, without enumerating combinations.
+ * A step only looks back one month, so the best prices are kept in a ring of the last DAYS_PER_MONTH + 1 days and the
+ * memory used does not depend on the length of the rental.
+ *
+ * @author Sylvia Barnai
+ */
+public final class RatePlan {
+
+    /**
+     * Number of days a weekly charge covers
+     */
+    public static final int DAYS_PER_WEEK = 7;
+
+    /**
+     * Number of days a monthly charge covers
+     */
+    public static final int DAYS_PER_MONTH = 30;
+
+    /**
+     * Number of best prices kept by the dynamic program, a power of two above DAYS_PER_MONTH so the slot is a mask
+     */
+    private static final int RING_SIZE = 32;
+
+    /**
+     * Value of a charge the plan does not have
+     */
+    private static final long NO_CHARGE = -1;
+
+    /**
+     * The plan without weekly or monthly charges, where every day is paid at the daily charge
+     */
+    public static final RatePlan DAILY = Builder.newInstance().build();
+
+    /**
+     * Weekly charge in cents, or NO_CHARGE
+     */
+    private final long weeklyCents;
+
+    /**
+     * Monthly charge in cents, or NO_CHARGE
+     */
+    private final long monthlyCents;
+
+    /**
+     * Private constructor, creates a RatePlan instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private RatePlan(Builder builder) {
+        this.weeklyCents = builder.weeklyCents;
+        this.monthlyCents = builder.monthlyCents;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Weekly charge in cents, none by default
+         */
+        private long weeklyCents = NO_CHARGE;
+
+        /**
+         * Monthly charge in cents, none by default
+         */
+        private long monthlyCents = NO_CHARGE;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the charge that caps any 7 consecutive days
+         * If the charge is negative, then throw exception
+         *
+         * @param weeklyCharge the weekly charge, or null for none
+         * @return Builder instance
+         */
+        public Builder setWeeklyCharge(Money weeklyCharge) {
+            this.weeklyCents = toCents(weeklyCharge);
+            return this;
+        }
+
+        /**
+         * Sets the charge that caps any 30 consecutive days
+         * If the charge is negative, then throw exception
+         *
+         * @param monthlyCharge the monthly charge, or null for none
+         * @return Builder instance
+         */
+        public Builder setMonthlyCharge(Money monthlyCharge) {
+            this.monthlyCents = toCents(monthlyCharge);
+            return this;
+        }
+
+        /**
+         * Creates a RatePlan instance
+         *
+         * @return RatePlan instance
+         */
+        public RatePlan build() {
+            return new RatePlan(this);
+        }
+
+        /**
+         * Converts an optional charge to cents
+         */
+        private static long toCents(Money charge) {
+            if (charge == null) {
+                return NO_CHARGE;
+            }
+            if (charge.getCents() < 0)
+                throw new IllegalArgumentException("Rate plan charges must not be negative.");
+            return charge.getCents();
+        }
+    }
+
+    /**
+     * Determine whether every day is paid at the daily charge
+     *
+     * @return true if the plan has no weekly or monthly charge
+     */
+    public boolean isDailyOnly() {
+        return weeklyCents == NO_CHARGE && monthlyCents == NO_CHARGE;
+    }
+
+    /**
+     * Retrieves the weekly charge
+     *
+     * @return the weekly charge, or null if the plan has none
+     */
+    public Money getWeeklyCharge() {
+        return weeklyCents == NO_CHARGE ? null : Money.ofCents(weeklyCents);
+    }
+
+    /**
+     * Retrieves the monthly charge
+     *
+     * @return the monthly charge, or null if the plan has none
+     */
+    public Money getMonthlyCharge() {
+        return monthlyCents == NO_CHARGE ? null : Money.ofCents(monthlyCents);
+    }
+
+    /**
+     * Calculates the lowest charge of a range of rental days, rounded half up to cents once for the whole rental.
+     * Days are charged by their ChargeTable percentage of the daily charge, given as prefix sums.
+     *
+     * @param dailyRentalCents    the daily charge in cents
+     * @param chargePercentPrefix prefix sums of the charge percentages of the days, as filled by ChargeCalendar
+     * @param firstDay            the index of the first rental day in the prefix sums
+     * @param dayCount            the number of rental days
+     * @return the lowest charge in cents
+     */
+    public long calculateChargeCents(long dailyRentalCents, long[] chargePercentPrefix, int firstDay, int dayCount) {
+        long[] best = new long[RING_SIZE];
+        for (int day = 1; day <= dayCount; day++) {
+            long dayPercents = chargePercentPrefix[firstDay + day] - chargePercentPrefix[firstDay + day - 1];
+            addDay(best, day, dailyRentalCents, dayPercents);
+        }
+        return Money.divide(best[dayCount & (RING_SIZE - 1)], 100, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates the lowest charge of the rental days from a day on, rounded half up to cents once for the whole
+     * rental. Days are charged by their percentage of the daily charge in a ChargeCalendar, read from its year tables
+     * as the days are priced, so the memory used does not depend on the number of days.
+     *
+     * @param dailyRentalCents the daily charge in cents
+     * @param chargeCalendar   the ChargeCalendar of the tool type
+     * @param fromEpochDay     the first rental day as an epoch day
+     * @param dayCount         the number of rental days
+     * @return the lowest charge in cents
+     */
+    public long calculateChargeCents(long dailyRentalCents, ChargeCalendar chargeCalendar, long fromEpochDay, int dayCount) {
+        long[] best = new long[RING_SIZE];
+        int day = 0;
+        long epochDay = fromEpochDay;
+        while (day < dayCount) {
+            ChargeCalendar.YearCharges yearCharges = chargeCalendar.forYear(HolidayCalendar.yearOf(epochDay));
+            int first = (int) (epochDay - yearCharges.firstEpochDay);
+            int count = Math.min(dayCount - day, yearCharges.dayCount - first);
+            int[] chargePercents = yearCharges.chargePercents;
+            for (int i = first; i < first + count; i++) {
+                addDay(best, ++day, dailyRentalCents, chargePercents[i + 1] - chargePercents[i]);
+            }
+            epochDay += count;
+        }
+        return Money.divide(best[dayCount & (RING_SIZE - 1)], 100, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Stores the best price of the first days of a rental in the ring, from the best prices of the days before it.
+     * Prices are in hundredths of cents so half days and caps compare exactly, and the slot of day 0 holds 0 until it
+     * is reused after RING_SIZE days.
+     *
+     * @param best             the ring of best prices, RING_SIZE long
+     * @param day              the number of rental days priced, from 1
+     * @param dailyRentalCents the daily charge in cents
+     * @param dayPercents      the charge percentage of the last day
+     */
+    private void addDay(long[] best, int day, long dailyRentalCents, long dayPercents) {
+        long price = Math.addExact(best[(day - 1) & (RING_SIZE - 1)], Math.multiplyExact(dailyRentalCents, dayPercents));
+        if (weeklyCents != NO_CHARGE) {
+            long previous = day > DAYS_PER_WEEK ? best[(day - DAYS_PER_WEEK) & (RING_SIZE - 1)] : 0;
+            price = Math.min(price, Math.addExact(previous, Math.multiplyExact(weeklyCents, 100L)));
+        }
+        if (monthlyCents != NO_CHARGE) {
+            long previous = day > DAYS_PER_MONTH ? best[(day - DAYS_PER_MONTH) & (RING_SIZE - 1)] : 0;
+            price = Math.min(price, Math.addExact(previous, Math.multiplyExact(monthlyCents, 100L)));
+        }
+        best[day & (RING_SIZE - 1)] = price;
+    }
+
+    @Override
+    public String toString() {
+        return "daily" + (weeklyCents == NO_CHARGE ? "" : ", weekly " + getWeeklyCharge())
+                + (monthlyCents == NO_CHARGE ? "" : ", monthly " + getMonthlyCharge());
+    }
+}
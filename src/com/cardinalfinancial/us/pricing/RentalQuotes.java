@@ -0,0 +1,186 @@
+package com.cardinalfinancial.us.pricing;
+
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+/**
+ * Prices of one rental of a tool for every checkout date of a window, created by QuoteSearch. Quotes are indexed by
+ * the checkout date minus the first checkout date of the window. Instances are immutable.
+ *
+ * @author Sylvia Barnai
+ */
+public final class RentalQuotes {
+
+    /**
+     * The quoted tool code
+     */
+    private final String toolCode;
+
+    /**
+     * The first checkout date of the window as an epoch day
+     */
+    private final long firstCheckoutEpochDay;
+
+    /**
+     * The number of days of every quoted rental
+     */
+    private final int rentalDayCount;
+
+    /**
+     * The discount percent of every quoted rental
+     */
+    private final int discountPercent;
+
+    /**
+     * The daily charge of the tool type
+     */
+    private final Money dailyRentalCharge;
+
+    /**
+     * Chargeable days of each checkout date
+     */
+    private final int[] chargeableDaysCounts;
+
+    /**
+     * Final charge in cents of each checkout date
+     */
+    private final long[] finalChargeCents;
+
+    /**
+     * Constructor for RentalQuotes
+     *
+     * @param toolCode              the quoted tool code
+     * @param firstCheckoutEpochDay the first checkout date of the window as an epoch day
+     * @param rentalDayCount        the number of days of every quoted rental
+     * @param discountPercent       the discount percent of every quoted rental
+     * @param dailyRentalCharge     the daily charge of the tool type
+     * @param chargeableDaysCounts  the chargeable days of each checkout date
+     * @param finalChargeCents      the final charge in cents of each checkout date
+     */
+    RentalQuotes(String toolCode, long firstCheckoutEpochDay, int rentalDayCount, int discountPercent,
+                 Money dailyRentalCharge, int[] chargeableDaysCounts, long[] finalChargeCents) {
+        this.toolCode = toolCode;
+        this.firstCheckoutEpochDay = firstCheckoutEpochDay;
+        this.rentalDayCount = rentalDayCount;
+        this.discountPercent = discountPercent;
+        this.dailyRentalCharge = dailyRentalCharge;
+        this.chargeableDaysCounts = chargeableDaysCounts;
+        this.finalChargeCents = finalChargeCents;
+    }
+
+    /**
+     * Retrieves the quoted tool code
+     *
+     * @return the tool code
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * Retrieves the number of days of every quoted rental
+     *
+     * @return the rental day count
+     */
+    public int getRentalDayCount() {
+        return rentalDayCount;
+    }
+
+    /**
+     * Retrieves the discount percent of every quoted rental
+     *
+     * @return the discount percent
+     */
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    /**
+     * Retrieves the daily charge of the tool type
+     *
+     * @return the daily charge
+     */
+    public Money getDailyRentalCharge() {
+        return dailyRentalCharge;
+    }
+
+    /**
+     * Retrieves the number of quoted checkout dates
+     *
+     * @return the number of days of the window
+     */
+    public int size() {
+        return finalChargeCents.length;
+    }
+
+    /**
+     * Retrieves a quoted checkout date
+     *
+     * @param index the index of the quote
+     * @return the checkout date as an epoch day
+     */
+    public long getCheckoutEpochDay(int index) {
+        return firstCheckoutEpochDay + index;
+    }
+
+    /**
+     * Retrieves the chargeable days of a quote
+     *
+     * @param index the index of the quote
+     * @return the number of chargeable days
+     */
+    public int getChargeableDaysCount(int index) {
+        return chargeableDaysCounts[index];
+    }
+
+    /**
+     * Retrieves the final charge of a quote in cents
+     *
+     * @param index the index of the quote
+     * @return the final charge in cents
+     */
+    public long getFinalChargeCents(int index) {
+        return finalChargeCents[index];
+    }
+
+    /**
+     * Retrieves the final charge of a quote
+     *
+     * @param index the index of the quote
+     * @return the final charge
+     */
+    public Money getFinalCharge(int index) {
+        return Money.ofCents(finalChargeCents[index]);
+    }
+
+    /**
+     * Finds the cheapest quote
+     *
+     * @return the index of the quote with the lowest final charge, the earliest one if several are the lowest
+     */
+    public int getCheapestIndex() {
+        int cheapest = 0;
+        for (int i = 1; i < finalChargeCents.length; i++) {
+            if (finalChargeCents[i] < finalChargeCents[cheapest]) {
+                cheapest = i;
+            }
+        }
+        return cheapest;
+    }
+
+    /**
+     * Formats one line per quote with the checkout date, chargeable days and final charge
+     *
+     * @return the quotes as text
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(32 * (size() + 1));
+        text.append(toolCode).append(" for ").append(rentalDayCount).append(" days:\n");
+        for (int i = 0; i < size(); i++) {
+            DateUtils.appendEpochDay(text, getCheckoutEpochDay(i));
+            text.append("  ").append(chargeableDaysCounts[i]).append("  ").append(getFinalCharge(i)).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.cardinalfinancial.us.recovery;
+
+import com.cardinalfinancial.us.model.Money;
+
+/**
+ * Immutable totals of the rental agreements checked out on one day
+ *
+ * @author Sylvia Barnai
+ */
+public final class DailyTotal {
+
+    /**
+     * The day as a day count since 1970-01-01
+     */
+    private final long epochDay;
+
+    /**
+     * The number of agreements
+     */
+    private final long agreementCount;
+
+    /**
+     * The sum of the final charges
+     */
+    private final Money revenue;
+
+    /**
+     * The sum of the discount amounts
+     */
+    private final Money discounts;
+
+    /**
+     * Constructor for DailyTotal
+     *
+     * @param epochDay       the day as a day count since 1970-01-01
+     * @param agreementCount the number of agreements
+     * @param revenueCents   the sum of the final charges in cents
+     * @param discountCents  the sum of the discount amounts in cents
+     */
+    DailyTotal(long epochDay, long agreementCount, long revenueCents, long discountCents) {
+        this.epochDay = epochDay;
+        this.agreementCount = agreementCount;
+        this.revenue = Money.ofCents(revenueCents);
+        this.discounts = Money.ofCents(discountCents);
+    }
+
+    /**
+     * Retrieves the day
+     *
+     * @return the day count since 1970-01-01
+     */
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    /**
+     * Retrieves the number of agreements checked out on the day
+     *
+     * @return the agreement count
+     */
+    public long getAgreementCount() {
+        return agreementCount;
+    }
+
+    /**
+     * Retrieves the sum of the final charges of the day
+     *
+     * @return the revenue
+     */
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Retrieves the sum of the discount amounts of the day
+     *
+     * @return the discounts
+     */
+    public Money getDiscounts() {
+        return discounts;
+    }
+}
@@ -0,0 +1,121 @@
+package com.cardinalfinancial.us.recovery;
+
+import com.cardinalfinancial.us.model.Money;
+
+/**
+ * Immutable summary of a rental that has been checked out and not yet returned
+ *
+ * @author Sylvia Barnai
+ */
+public final class OpenRental {
+
+    /**
+     * The journal sequence number of the rental agreement
+     */
+    private final long sequence;
+
+    /**
+     * The rented tool code
+     */
+    private final String toolCode;
+
+    /**
+     * The rented unit, or RentalAgreement.NO_UNIT
+     */
+    private final int unitNumber;
+
+    /**
+     * The checkout date as a day count since 1970-01-01
+     */
+    private final long checkoutEpochDay;
+
+    /**
+     * The due date as a day count since 1970-01-01
+     */
+    private final long dueEpochDay;
+
+    /**
+     * The final charge in cents
+     */
+    private final long finalChargeCents;
+
+    /**
+     * Constructor for OpenRental
+     *
+     * @param sequence         the journal sequence number of the rental agreement
+     * @param toolCode         the rented tool code
+     * @param unitNumber       the rented unit, or RentalAgreement.NO_UNIT
+     * @param checkoutEpochDay the checkout date as a day count since 1970-01-01
+     * @param dueEpochDay      the due date as a day count since 1970-01-01
+     * @param finalChargeCents the final charge in cents
+     */
+    public OpenRental(long sequence, String toolCode, int unitNumber, long checkoutEpochDay, long dueEpochDay, long finalChargeCents) {
+        this.sequence = sequence;
+        this.toolCode = toolCode;
+        this.unitNumber = unitNumber;
+        this.checkoutEpochDay = checkoutEpochDay;
+        this.dueEpochDay = dueEpochDay;
+        this.finalChargeCents = finalChargeCents;
+    }
+
+    /**
+     * Retrieves the journal sequence number of the rental agreement
+     *
+     * @return the sequence number
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Retrieves the rented tool code
+     *
+     * @return the tool code
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * Retrieves the rented unit
+     *
+     * @return the unit number, or RentalAgreement.NO_UNIT
+     */
+    public int getUnitNumber() {
+        return unitNumber;
+    }
+
+    /**
+     * Retrieves the checkout date
+     *
+     * @return the day count since 1970-01-01
+     */
+    public long getCheckoutEpochDay() {
+        return checkoutEpochDay;
+    }
+
+    /**
+     * Retrieves the due date
+     *
+     * @return the day count since 1970-01-01
+     */
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    /**
+     * Retrieves the final charge
+     *
+     * @return the final charge
+     */
+    public Money getFinalCharge() {
+        return Money.ofCents(finalChargeCents);
+    }
+
+    /**
+     * Retrieves the final charge in cents
+     */
+    long getFinalChargeCents() {
+        return finalChargeCents;
+    }
+}
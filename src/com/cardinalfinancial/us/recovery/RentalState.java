@@ -0,0 +1,265 @@
+package com.cardinalfinancial.us.recovery;
+
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.journal.JournalReader;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * State derived from the journaled rental agreements and returns: the open rentals, the totals per checkout day and,
+ * through the open rentals, the reserved inventory units. Records are applied in sequence order and records at or
+ * below the last applied sequence number are ignored, so replaying a journal over a snapshot is idempotent. A return
+ * closes its rental; a return whose rental is not in this state, such as one replayed from a later journal segment,
+ * is kept until merge() applies it to the earlier state. Every method holds this state's lock.
+ *
+ * @author Sylvia Barnai
+ */
+public final class RentalState implements JournalReader.RecordHandler {
+
+    /**
+     * Index of the agreement count in a daily totals array
+     */
+    static final int COUNT = 0;
+
+    /**
+     * Index of the revenue in cents in a daily totals array
+     */
+    static final int REVENUE = 1;
+
+    /**
+     * Index of the discounts in cents in a daily totals array
+     */
+    static final int DISCOUNTS = 2;
+
+    /**
+     * Open rentals by journal sequence number
+     */
+    private final Map<Long, OpenRental> openRentals;
+
+    /**
+     * Agreement count, revenue and discounts by checkout epoch day
+     */
+    private final TreeMap<Long, long[]> dailyTotals = new TreeMap<>();
+
+    /**
+     * Sequence numbers of returned rentals that were not open in this state when their return was applied
+     */
+    private final Set<Long> unmatchedReturns = new HashSet<>();
+
+    /**
+     * Sequence number of the last applied record
+     */
+    private long lastSequence;
+
+    /**
+     * Constructor for an empty RentalState
+     */
+    public RentalState() {
+        this(0, 16);
+    }
+
+    /**
+     * Constructor for RentalState, used when loading a snapshot
+     *
+     * @param lastSequence        the sequence number of the last applied record
+     * @param openRentalsCapacity the expected number of open rentals
+     */
+    RentalState(long lastSequence, int openRentalsCapacity) {
+        this.lastSequence = lastSequence;
+        this.openRentals = new HashMap<>(Math.max(16, (int) (openRentalsCapacity / 0.75f) + 1));
+    }
+
+    /**
+     * Applies a journaled RentalAgreement, unless its sequence number is not after the last applied one
+     *
+     * @param sequence        the journal sequence number
+     * @param rentalAgreement the RentalAgreement instance
+     */
+    @Override
+    public synchronized void handle(long sequence, RentalAgreement rentalAgreement) {
+        if (sequence <= lastSequence) {
+            return;
+        }
+        long checkoutEpochDay = rentalAgreement.getCheckoutEpochDay();
+        long dueEpochDay = rentalAgreement.getDueEpochDay();
+        long finalChargeCents = cents(rentalAgreement.getFinalChargeCents());
+        openRentals.put(sequence, new OpenRental(sequence, rentalAgreement.getToolCode(), rentalAgreement.getUnitNumber(),
+                checkoutEpochDay, dueEpochDay, finalChargeCents));
+        addDailyTotals(checkoutEpochDay, 1, finalChargeCents, cents(rentalAgreement.getDiscountAmountCents()));
+        lastSequence = sequence;
+    }
+
+    /**
+     * Applies a journaled return by closing its rental, unless its sequence number is not after the last applied one
+     *
+     * @param sequence       the journal sequence number of the return
+     * @param rentalSequence the journal sequence number of the returned rental's agreement
+     * @param returnEpochDay the return date as a day count since 1970-01-01
+     */
+    @Override
+    public synchronized void handleReturn(long sequence, long rentalSequence, long returnEpochDay) {
+        if (sequence <= lastSequence) {
+            return;
+        }
+        if (openRentals.remove(rentalSequence) == null) {
+            unmatchedReturns.add(rentalSequence);
+        }
+        lastSequence = sequence;
+    }
+
+    /**
+     * Merges the state derived from later records into this state, for example one replayed journal segment
+     *
+     * @param later state whose records all come after the records of this state
+     */
+    public void merge(RentalState later) {
+        synchronized (later) {
+            synchronized (this) {
+                for (Long rentalSequence : later.unmatchedReturns) {
+                    if (openRentals.remove(rentalSequence) == null) {
+                        unmatchedReturns.add(rentalSequence);
+                    }
+                }
+                for (OpenRental openRental : later.openRentals.values()) {
+                    if (openRental.getSequence() > lastSequence) {
+                        openRentals.put(openRental.getSequence(), openRental);
+                    }
+                }
+                for (Map.Entry<Long, long[]> entry : later.dailyTotals.entrySet()) {
+                    long[] totals = entry.getValue();
+                    addDailyTotals(entry.getKey(), totals[COUNT], totals[REVENUE], totals[DISCOUNTS]);
+                }
+                lastSequence = Math.max(lastSequence, later.lastSequence);
+            }
+        }
+    }
+
+    /**
+     * Reserves the units of the open rentals in an inventory, for example after a restart. Rentals are only closed by
+     * journaled returns, so returns must be written with AgreementJournal.appendReturn() for the units of returned
+     * rentals to stay available.
+     *
+     * @param toolInventory the ToolInventory instance
+     * @return the number of units reserved
+     */
+    public synchronized int restoreInventory(ToolInventory toolInventory) {
+        int reservedCount = 0;
+        for (OpenRental openRental : openRentals.values()) {
+            if (openRental.getUnitNumber() != RentalAgreement.NO_UNIT
+                    && toolInventory.reserveUnit(openRental.getToolCode(), openRental.getUnitNumber())) {
+                reservedCount++;
+            }
+        }
+        return reservedCount;
+    }
+
+    /**
+     * Retrieves the sequence number of the last applied record
+     *
+     * @return the sequence number, or 0 if no record has been applied
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Retrieves the number of open rentals
+     *
+     * @return the open rental count
+     */
+    public synchronized int getOpenRentalCount() {
+        return openRentals.size();
+    }
+
+    /**
+     * Retrieves an open rental
+     *
+     * @param sequence the journal sequence number of the rental agreement
+     * @return OpenRental instance, or null if there is no open rental with that sequence number
+     */
+    public synchronized OpenRental getOpenRental(long sequence) {
+        return openRentals.get(sequence);
+    }
+
+    /**
+     * Passes every open rental to an action, in no particular order
+     *
+     * @param action the action
+     */
+    public synchronized void forEachOpenRental(Consumer<OpenRental> action) {
+        openRentals.values().forEach(action);
+    }
+
+    /**
+     * Retrieves the totals of one checkout day
+     *
+     * @param epochDay the day as a day count since 1970-01-01
+     * @return DailyTotal instance, with zero counts if nothing was checked out on that day
+     */
+    public synchronized DailyTotal getDailyTotal(long epochDay) {
+        long[] totals = dailyTotals.get(epochDay);
+        return totals == null ? new DailyTotal(epochDay, 0, 0, 0)
+                : new DailyTotal(epochDay, totals[COUNT], totals[REVENUE], totals[DISCOUNTS]);
+    }
+
+    /**
+     * Retrieves the totals of every day with at least one checkout
+     *
+     * @return the daily totals, oldest day first
+     */
+    public synchronized List<DailyTotal> getDailyTotals() {
+        List<DailyTotal> totalsList = new ArrayList<>(dailyTotals.size());
+        for (Map.Entry<Long, long[]> entry : dailyTotals.entrySet()) {
+            long[] totals = entry.getValue();
+            totalsList.add(new DailyTotal(entry.getKey(), totals[COUNT], totals[REVENUE], totals[DISCOUNTS]));
+        }
+        return totalsList;
+    }
+
+    /**
+     * Retrieves the open rentals for the snapshot writer, which holds this state's lock
+     */
+    Collection<OpenRental> openRentals() {
+        return openRentals.values();
+    }
+
+    /**
+     * Retrieves the daily totals for the snapshot writer, which holds this state's lock
+     */
+    Map<Long, long[]> dailyTotals() {
+        return dailyTotals;
+    }
+
+    /**
+     * Adds an open rental loaded from a snapshot
+     */
+    void addOpenRental(OpenRental openRental) {
+        openRentals.put(openRental.getSequence(), openRental);
+    }
+
+    /**
+     * Adds to the totals of one checkout day
+     */
+    void addDailyTotals(long epochDay, long agreementCount, long revenueCents, long discountCents) {
+        long[] totals = dailyTotals.computeIfAbsent(epochDay, day -> new long[3]);
+        totals[COUNT] += agreementCount;
+        totals[REVENUE] += revenueCents;
+        totals[DISCOUNTS] += discountCents;
+    }
+
+    /**
+     * Retrieves the cents of an amount that may not be set
+     */
+    private static long cents(long amountCents) {
+        return amountCents == RentalAgreement.NO_AMOUNT ? 0 : amountCents;
+    }
+}
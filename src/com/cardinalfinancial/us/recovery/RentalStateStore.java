@@ -0,0 +1,337 @@
+package com.cardinalfinancial.us.recovery;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.journal.JournalReader;
+import com.cardinalfinancial.us.utils.ExecutorUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the RentalState derived from an AgreementJournal directory and writes periodic snapshots of it. On startup,
+ * recover() loads the newest valid snapshot and replays only the journal records after it, in parallel across
+ * segments. Snapshots are built from the journal rather than from the checkout path, so taking one never slows down
+ * a checkout.
+ * <p>
+ * The journal's retention policy must keep every segment that holds records after the newest snapshot.
+ *
+ * @author Sylvia Barnai
+ */
+public final class RentalStateStore implements AutoCloseable {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(RentalStateStore.class.getName());
+
+    /**
+     * Default number of snapshot files kept, the newest and one to fall back on
+     */
+    public static final int DEFAULT_RETAINED_SNAPSHOTS = 2;
+
+    /**
+     * The journal directory
+     */
+    private final Path journalDirectory;
+
+    /**
+     * The snapshot directory
+     */
+    private final Path snapshotDirectory;
+
+    /**
+     * Number of snapshot files kept
+     */
+    private final int retainedSnapshots;
+
+    /**
+     * Interval between periodic snapshots in milliseconds, or 0 for none
+     */
+    private final long snapshotIntervalMillis;
+
+    /**
+     * Thread that takes the periodic snapshots, or null if there are none
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The current state, guarded by this store's lock
+     */
+    private RentalState state = new RentalState();
+
+    /**
+     * Sequence number of the last record in a snapshot file, guarded by this store's lock
+     */
+    private long snapshotSequence;
+
+    /**
+     * Whether the periodic snapshots have been scheduled, guarded by this store's lock
+     */
+    private boolean snapshotsScheduled;
+
+    /**
+     * Private constructor for RentalStateStore that is only called in Builder
+     *
+     * @param builder Builder instance
+     */
+    private RentalStateStore(Builder builder) {
+        this.journalDirectory = builder.journalDirectory;
+        this.snapshotDirectory = builder.snapshotDirectory == null
+                ? builder.journalDirectory.resolve("snapshots") : builder.snapshotDirectory;
+        this.retainedSnapshots = builder.retainedSnapshots;
+        this.snapshotIntervalMillis = builder.snapshotIntervalMillis;
+        this.scheduler = snapshotIntervalMillis == 0 ? null
+                : Executors.newSingleThreadScheduledExecutor(ExecutorUtils.newDaemonThreadFactory("state-snapshot"));
+    }
+
+    /**
+     * Static Builder class for constructing RentalStateStore instance
+     */
+    public static class Builder {
+
+        /**
+         * The journal directory
+         */
+        private Path journalDirectory;
+
+        /**
+         * The snapshot directory
+         */
+        private Path snapshotDirectory;
+
+        /**
+         * Number of snapshot files kept
+         */
+        private int retainedSnapshots = DEFAULT_RETAINED_SNAPSHOTS;
+
+        /**
+         * Interval between periodic snapshots in milliseconds, or 0 for none
+         */
+        private long snapshotIntervalMillis;
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new Builder instance
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Setter for the journal directory, which is required
+         *
+         * @param journalDirectory the directory of the AgreementJournal
+         * @return Builder instance
+         */
+        public Builder setJournalDirectory(Path journalDirectory) {
+            this.journalDirectory = journalDirectory;
+            return this;
+        }
+
+        /**
+         * Setter for the snapshot directory, a "snapshots" directory inside the journal directory by default
+         *
+         * @param snapshotDirectory the snapshot directory
+         * @return Builder instance
+         */
+        public Builder setSnapshotDirectory(Path snapshotDirectory) {
+            this.snapshotDirectory = snapshotDirectory;
+            return this;
+        }
+
+        /**
+         * Setter for the number of snapshot files kept
+         * If the number is less than 1, then throw exception
+         *
+         * @param retainedSnapshots the number of snapshot files kept
+         * @return Builder instance
+         */
+        public Builder setRetainedSnapshots(int retainedSnapshots) {
+            if (retainedSnapshots < 1)
+                throw new IllegalArgumentException("At least one snapshot must be retained.");
+            this.retainedSnapshots = retainedSnapshots;
+            return this;
+        }
+
+        /**
+         * Setter for the interval between periodic snapshots, none by default
+         * If the interval is negative, then throw exception
+         *
+         * @param interval the interval, or 0 for no periodic snapshots
+         * @param unit     the unit of the interval
+         * @return Builder instance
+         */
+        public Builder setSnapshotInterval(long interval, TimeUnit unit) {
+            if (interval < 0)
+                throw new IllegalArgumentException("Snapshot interval must not be negative.");
+            this.snapshotIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        /**
+         * Creates a new RentalStateStore instance and its snapshot directory
+         * If the journal directory is not set, then throw exception
+         *
+         * @return RentalStateStore instance
+         */
+        public RentalStateStore build() {
+            if (journalDirectory == null)
+                throw new IllegalArgumentException("Journal directory is required.");
+            RentalStateStore store = new RentalStateStore(this);
+            try {
+                Files.createDirectories(store.snapshotDirectory);
+            } catch (IOException e) {
+                store.close();
+                LOGGER.log(Level.WARNING, "Unable to create snapshot directory " + store.snapshotDirectory);
+                throw new CheckoutException("Unable to create snapshot directory " + store.snapshotDirectory, e);
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Rebuilds the state from the newest valid snapshot and the journal records after it, replaying the journal
+     * segments in parallel, then starts the periodic snapshots
+     *
+     * @return the recovered RentalState instance
+     */
+    public synchronized RentalState recover() {
+        RentalState recovered = loadNewestSnapshot();
+        snapshotSequence = recovered.getLastSequence();
+        List<RentalState> segmentStates = JournalReader.replayParallel(journalDirectory,
+                recovered.getLastSequence() + 1, RentalState::new);
+        for (RentalState segmentState : segmentStates) {
+            recovered.merge(segmentState);
+        }
+        state = recovered;
+        if (scheduler != null && !snapshotsScheduled && !scheduler.isShutdown()) {
+            snapshotsScheduled = true;
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        return recovered;
+    }
+
+    /**
+     * Applies the journal records appended since the state was last brought up to date
+     *
+     * @return the current RentalState instance
+     */
+    public synchronized RentalState catchUp() {
+        JournalReader.replay(journalDirectory, state.getLastSequence() + 1, state);
+        return state;
+    }
+
+    /**
+     * Brings the state up to date and writes a snapshot of it, unless the newest snapshot already holds every record,
+     * then deletes the snapshots that are no longer retained
+     *
+     * @return the snapshot file, or null if no snapshot was needed
+     */
+    public synchronized Path snapshot() {
+        catchUp();
+        if (state.getLastSequence() == snapshotSequence) {
+            return null;
+        }
+        Path path;
+        try {
+            path = StateSnapshot.write(state, snapshotDirectory);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write snapshot to " + snapshotDirectory);
+            throw new CheckoutException("Unable to write snapshot to " + snapshotDirectory, e);
+        }
+        snapshotSequence = state.getLastSequence();
+        deleteOldSnapshots();
+        return path;
+    }
+
+    /**
+     * Retrieves the current state, which may lag behind the journal until catchUp() is called
+     *
+     * @return RentalState instance
+     */
+    public synchronized RentalState getState() {
+        return state;
+    }
+
+    /**
+     * Retrieves the snapshot directory
+     *
+     * @return the snapshot directory
+     */
+    public Path getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    /**
+     * Stops the periodic snapshots
+     */
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the newest snapshot that can be read, falling back on older ones
+     *
+     * @return the loaded RentalState instance, or an empty one if there is no valid snapshot
+     */
+    private RentalState loadNewestSnapshot() {
+        List<Path> paths;
+        try {
+            paths = StateSnapshot.list(snapshotDirectory);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to list snapshots in " + snapshotDirectory);
+            throw new CheckoutException("Unable to list snapshots in " + snapshotDirectory, e);
+        }
+        for (int i = paths.size() - 1; i >= 0; i--) {
+            try {
+                return StateSnapshot.read(paths.get(i));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Skipping unreadable snapshot " + paths.get(i), e);
+            }
+        }
+        return new RentalState();
+    }
+
+    /**
+     * Deletes the oldest snapshot files beyond the retained number
+     */
+    private void deleteOldSnapshots() {
+        try {
+            List<Path> paths = StateSnapshot.list(snapshotDirectory);
+            for (Path path : paths.subList(0, Math.max(0, paths.size() - retainedSnapshots))) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to delete old snapshots in " + snapshotDirectory, e);
+        }
+    }
+
+    /**
+     * Takes a periodic snapshot, logging failures so that the next one is still attempted
+     */
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Unable to take periodic snapshot", e);
+        }
+    }
+}
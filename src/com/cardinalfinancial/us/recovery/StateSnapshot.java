@@ -0,0 +1,216 @@
+package com.cardinalfinancial.us.recovery;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot file of a RentalState. A snapshot is a 24 byte header (magic, version, last sequence number, daily
+ * total count, open rental count), 28 bytes per daily total, 29 bytes plus the tool code per open rental and a CRC32
+ * of everything before it. An open rental is its sequence number, checkout and due epoch days, final charge in cents,
+ * unit number as an int and tool code as a length byte and UTF-8 bytes; version 1 snapshots, which stored the unit
+ * number as a short, are still read. Snapshots are written to a temporary file that is renamed once it is on disk,
+ * and read through a read-only memory mapping.
+ *
+ * @author Sylvia Barnai
+ */
+final class StateSnapshot {
+
+    /**
+     * File name suffix of snapshot files
+     */
+    static final String SUFFIX = ".snapshot";
+
+    /**
+     * First four bytes of every snapshot file, "CFS1"
+     */
+    private static final int MAGIC = 0x43465331;
+
+    /**
+     * Version of the snapshot format
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Version of the snapshot format that stored unit numbers as shorts
+     */
+    private static final int SHORT_UNIT_VERSION = 1;
+
+    /**
+     * Size of the header in bytes
+     */
+    private static final int HEADER_SIZE = 24;
+
+    /**
+     * Size of one daily total in bytes
+     */
+    private static final int DAILY_TOTAL_SIZE = 28;
+
+    /**
+     * Size of one open rental in bytes, without the tool code bytes that follow its length byte
+     */
+    private static final int OPEN_RENTAL_SIZE = 29;
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private StateSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a state to a directory, named after its last sequence number
+     *
+     * @param state     the RentalState instance, whose lock is held while it is copied
+     * @param directory the snapshot directory
+     * @return the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     */
+    static Path write(RentalState state, Path directory) throws IOException {
+        long lastSequence;
+        Path temporaryPath;
+        synchronized (state) {
+            lastSequence = state.getLastSequence();
+            temporaryPath = directory.resolve(fileName(lastSequence) + ".tmp");
+            long size = HEADER_SIZE + (long) state.dailyTotals().size() * DAILY_TOTAL_SIZE + Integer.BYTES;
+            for (OpenRental openRental : state.openRentals()) {
+                size += OPEN_RENTAL_SIZE - 1 + toolCodeBytes(openRental.getToolCode()).length;
+            }
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(MAGIC).putInt(VERSION).putLong(lastSequence)
+                        .putInt(state.dailyTotals().size()).putInt(state.openRentals().size());
+                for (Map.Entry<Long, long[]> entry : state.dailyTotals().entrySet()) {
+                    long[] totals = entry.getValue();
+                    buffer.putInt(entry.getKey().intValue())
+                            .putLong(totals[RentalState.COUNT])
+                            .putLong(totals[RentalState.REVENUE])
+                            .putLong(totals[RentalState.DISCOUNTS]);
+                }
+                for (OpenRental openRental : state.openRentals()) {
+                    buffer.putLong(openRental.getSequence())
+                            .putInt((int) openRental.getCheckoutEpochDay())
+                            .putInt((int) openRental.getDueEpochDay())
+                            .putLong(openRental.getFinalChargeCents())
+                            .putInt(openRental.getUnitNumber())
+                            .put(toolCodeBytes(openRental.getToolCode()));
+                }
+                buffer.putInt(crc(buffer, buffer.position()));
+                buffer.force();
+            }
+        }
+        Path path = directory.resolve(fileName(lastSequence));
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return path;
+    }
+
+    /**
+     * Reads a snapshot file
+     *
+     * @param path the snapshot file
+     * @return RentalState instance
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    static RentalState read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = buffer.capacity();
+        int version = size < HEADER_SIZE ? 0 : buffer.getInt(4);
+        if (size < HEADER_SIZE + Integer.BYTES || buffer.getInt(0) != MAGIC
+                || (version != VERSION && version != SHORT_UNIT_VERSION)) {
+            throw new IOException("Not a snapshot: " + path);
+        }
+        if (crc(buffer, size - Integer.BYTES) != buffer.getInt(size - Integer.BYTES)) {
+            throw new IOException("Snapshot checksum mismatch: " + path);
+        }
+        buffer.position(8);
+        long lastSequence = buffer.getLong();
+        int dailyTotalCount = buffer.getInt();
+        int openRentalCount = buffer.getInt();
+        RentalState state = new RentalState(lastSequence, openRentalCount);
+        for (int i = 0; i < dailyTotalCount; i++) {
+            state.addDailyTotals(buffer.getInt(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+        }
+        // The few distinct tool codes are shared between the open rentals
+        Map<String, String> toolCodes = new HashMap<>();
+        byte[] toolCodeBytes = new byte[255];
+        for (int i = 0; i < openRentalCount; i++) {
+            long sequence = buffer.getLong();
+            int checkoutEpochDay = buffer.getInt();
+            int dueEpochDay = buffer.getInt();
+            long finalChargeCents = buffer.getLong();
+            int unitNumber = version == SHORT_UNIT_VERSION ? buffer.getShort() : buffer.getInt();
+            int length = buffer.get() & 0xFF;
+            buffer.get(toolCodeBytes, 0, length);
+            String toolCode = new String(toolCodeBytes, 0, length, StandardCharsets.UTF_8);
+            toolCode = toolCodes.computeIfAbsent(toolCode, code -> code);
+            state.addOpenRental(new OpenRental(sequence, toolCode, unitNumber, checkoutEpochDay, dueEpochDay, finalChargeCents));
+        }
+        return state;
+    }
+
+    /**
+     * Lists the snapshot files of a directory
+     *
+     * @param directory the snapshot directory
+     * @return the snapshot files, oldest first
+     * @throws IOException if the directory cannot be listed
+     */
+    static List<Path> list(Path directory) throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : stream) {
+                paths.add(path);
+            }
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    /**
+     * Builds the file name of a snapshot, which sorts by last sequence number
+     */
+    private static String fileName(long lastSequence) {
+        return String.format("%020d%s", lastSequence, SUFFIX);
+    }
+
+    /**
+     * Encodes a tool code as a length byte followed by its UTF-8 bytes
+     */
+    private static byte[] toolCodeBytes(String toolCode) {
+        byte[] bytes = toolCode.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Tool code is too long for a snapshot: " + toolCode);
+        }
+        byte[] encoded = new byte[bytes.length + 1];
+        encoded[0] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
+    /**
+     * Calculates the CRC32 of the first bytes of a buffer
+     */
+    private static int crc(ByteBuffer buffer, int length) {
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(length);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,122 @@
+package com.cardinalfinancial.us.returns;
+
+import com.cardinalfinancial.us.recovery.OpenRental;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of the open rentals by due date. Rentals are kept in one bucket per due epoch day, in a TreeMap ordered by
+ * day, and by rental id, so listing the rentals that are overdue on a day visits only the buckets before that day and
+ * costs O(log d + k) for k overdue rentals, and removing a returned rental costs O(1) plus O(log d) when its bucket
+ * empties, where d is the number of distinct due dates. Every method holds this index's lock.
+ *
+ * @author Sylvia Barnai
+ */
+public final class OverdueIndex {
+
+    /**
+     * Open rentals by due epoch day, then by rental id in the order they were added
+     */
+    private final TreeMap<Long, Map<Long, OpenRental>> rentalsByDueDay = new TreeMap<>();
+
+    /**
+     * Open rentals by rental id
+     */
+    private final Map<Long, OpenRental> rentalsById = new HashMap<>();
+
+    /**
+     * Adds an open rental, identified by its sequence number
+     *
+     * @param openRental the OpenRental instance
+     * @return true if the rental was added, false if a rental with the same id is already indexed
+     */
+    public synchronized boolean add(OpenRental openRental) {
+        Long rentalId = openRental.getSequence();
+        if (rentalsById.putIfAbsent(rentalId, openRental) != null) {
+            return false;
+        }
+        rentalsByDueDay.computeIfAbsent(openRental.getDueEpochDay(), day -> new LinkedHashMap<>()).put(rentalId, openRental);
+        return true;
+    }
+
+    /**
+     * Removes an open rental, for example when it is returned
+     *
+     * @param rentalId the rental id
+     * @return the removed OpenRental instance, or null if no rental has that id
+     */
+    public synchronized OpenRental remove(long rentalId) {
+        OpenRental openRental = rentalsById.remove(rentalId);
+        if (openRental != null) {
+            Map<Long, OpenRental> bucket = rentalsByDueDay.get(openRental.getDueEpochDay());
+            bucket.remove(rentalId);
+            if (bucket.isEmpty()) {
+                rentalsByDueDay.remove(openRental.getDueEpochDay());
+            }
+        }
+        return openRental;
+    }
+
+    /**
+     * Retrieves an open rental
+     *
+     * @param rentalId the rental id
+     * @return OpenRental instance, or null if no rental has that id
+     */
+    public synchronized OpenRental get(long rentalId) {
+        return rentalsById.get(rentalId);
+    }
+
+    /**
+     * Retrieves the number of open rentals
+     *
+     * @return the open rental count
+     */
+    public synchronized int size() {
+        return rentalsById.size();
+    }
+
+    /**
+     * Retrieves the rentals that are overdue on a day, meaning due before that day
+     *
+     * @param epochDay the day as a day count since 1970-01-01
+     * @return the overdue rentals, longest overdue first
+     */
+    public synchronized List<OpenRental> getOverdue(long epochDay) {
+        List<OpenRental> overdue = new ArrayList<>();
+        for (Map<Long, OpenRental> bucket : rentalsByDueDay.headMap(epochDay, false).values()) {
+            overdue.addAll(bucket.values());
+        }
+        return overdue;
+    }
+
+    /**
+     * Counts the rentals that are overdue on a day, visiting one bucket per distinct due date before that day
+     *
+     * @param epochDay the day as a day count since 1970-01-01
+     * @return the overdue rental count
+     */
+    public synchronized int countOverdue(long epochDay) {
+        int count = 0;
+        for (Map<Long, OpenRental> bucket : rentalsByDueDay.headMap(epochDay, false).values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the rentals that are due on a day
+     *
+     * @param epochDay the day as a day count since 1970-01-01
+     * @return the rentals due that day, in the order they were added
+     */
+    public synchronized List<OpenRental> getDueOn(long epochDay) {
+        Map<Long, OpenRental> bucket = rentalsByDueDay.get(epochDay);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
+    }
+}
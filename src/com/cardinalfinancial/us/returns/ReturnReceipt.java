@@ -0,0 +1,192 @@
+package com.cardinalfinancial.us.returns;
+
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+/**
+ * Immutable result of a returned rental: when it was due and returned and the late fee charged for the chargeable
+ * days after the due date
+ *
+ * @author Sylvia Barnai
+ */
+public final class ReturnReceipt {
+
+    /**
+     * The id of the returned rental
+     */
+    private final long rentalId;
+
+    /**
+     * The returned tool code
+     */
+    private final String toolCode;
+
+    /**
+     * The returned unit, or RentalAgreement.NO_UNIT
+     */
+    private final int unitNumber;
+
+    /**
+     * The due date as a day count since 1970-01-01
+     */
+    private final long dueEpochDay;
+
+    /**
+     * The return date as a day count since 1970-01-01
+     */
+    private final long returnEpochDay;
+
+    /**
+     * Number of days from the day after the due date through the return date
+     */
+    private final int lateDayCount;
+
+    /**
+     * Number of late days that are charged for the tool type
+     */
+    private final int chargeableLateDayCount;
+
+    /**
+     * Daily charge of the tool type in cents
+     */
+    private final long dailyChargeCents;
+
+    /**
+     * Late fee in cents
+     */
+    private final long lateFeeCents;
+
+    /**
+     * Constructor for ReturnReceipt
+     *
+     * @param rentalId               the id of the returned rental
+     * @param toolCode               the returned tool code
+     * @param unitNumber             the returned unit, or RentalAgreement.NO_UNIT
+     * @param dueEpochDay            the due date as a day count since 1970-01-01
+     * @param returnEpochDay         the return date as a day count since 1970-01-01
+     * @param lateDayCount           the number of days after the due date
+     * @param chargeableLateDayCount the number of late days that are charged
+     * @param dailyChargeCents       the daily charge in cents
+     * @param lateFeeCents           the late fee in cents
+     */
+    public ReturnReceipt(long rentalId, String toolCode, int unitNumber, long dueEpochDay, long returnEpochDay,
+                         int lateDayCount, int chargeableLateDayCount, long dailyChargeCents, long lateFeeCents) {
+        this.rentalId = rentalId;
+        this.toolCode = toolCode;
+        this.unitNumber = unitNumber;
+        this.dueEpochDay = dueEpochDay;
+        this.returnEpochDay = returnEpochDay;
+        this.lateDayCount = lateDayCount;
+        this.chargeableLateDayCount = chargeableLateDayCount;
+        this.dailyChargeCents = dailyChargeCents;
+        this.lateFeeCents = lateFeeCents;
+    }
+
+    /**
+     * Retrieves the id of the returned rental
+     *
+     * @return the rental id
+     */
+    public long getRentalId() {
+        return rentalId;
+    }
+
+    /**
+     * Retrieves the returned tool code
+     *
+     * @return the tool code
+     */
+    public String getToolCode() {
+        return toolCode;
+    }
+
+    /**
+     * Retrieves the returned unit
+     *
+     * @return the unit number, or RentalAgreement.NO_UNIT if units are not tracked
+     */
+    public int getUnitNumber() {
+        return unitNumber;
+    }
+
+    /**
+     * Retrieves the due date
+     *
+     * @return date String in MM/dd/yy format
+     */
+    public String getDueDate() {
+        return DateUtils.formatEpochDay(dueEpochDay);
+    }
+
+    /**
+     * Retrieves the due date as an epoch day
+     *
+     * @return the day count since 1970-01-01
+     */
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    /**
+     * Retrieves the return date
+     *
+     * @return date String in MM/dd/yy format
+     */
+    public String getReturnDate() {
+        return DateUtils.formatEpochDay(returnEpochDay);
+    }
+
+    /**
+     * Retrieves the return date as an epoch day
+     *
+     * @return the day count since 1970-01-01
+     */
+    public long getReturnEpochDay() {
+        return returnEpochDay;
+    }
+
+    /**
+     * Retrieves the number of days from the day after the due date through the return date
+     *
+     * @return the late day count, 0 if the rental was returned on time
+     */
+    public int getLateDayCount() {
+        return lateDayCount;
+    }
+
+    /**
+     * Retrieves the number of late days that are charged for the tool type
+     *
+     * @return the chargeable late day count
+     */
+    public int getChargeableLateDayCount() {
+        return chargeableLateDayCount;
+    }
+
+    /**
+     * Retrieves the daily charge the late days were priced at
+     *
+     * @return the daily charge
+     */
+    public Money getDailyCharge() {
+        return Money.ofCents(dailyChargeCents);
+    }
+
+    /**
+     * Retrieves the late fee
+     *
+     * @return the late fee, zero if the rental was returned on time
+     */
+    public Money getLateFee() {
+        return Money.ofCents(lateFeeCents);
+    }
+
+    /**
+     * Retrieves whether the rental was returned after its due date
+     *
+     * @return true if the rental was late
+     */
+    public boolean isLate() {
+        return lateDayCount > 0;
+    }
+}
@@ -0,0 +1,313 @@
+package com.cardinalfinancial.us.returns;
+
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.recovery.OpenRental;
+import com.cardinalfinancial.us.recovery.RentalState;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Return flow of the rentals. Open rentals are tracked in an OverdueIndex under a rental id, usually the journal
+ * sequence number of the agreement. A return is priced with the chargeable-day rules of the rental's tool type:
+ * the days from the day after the due date through the return date are counted like rental days, so a ladder
+ * returned over the July 4 weekend pays for the weekend but not for the holiday, and every chargeable late day costs
+ * the daily charge times the late fee percentage. The unit of a returned rental is released in the inventory.
+ * With a journal, every return is appended to it under the rental id, which must then be the journal sequence number
+ * of the agreement, so that a recovered RentalState only holds the rentals that are still open and restore() tracks
+ * them again after a restart.
+ *
+ * @author Sylvia Barnai
+ */
+public final class ReturnService {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ReturnService.class.getName());
+
+    /**
+     * Default late fee, as a percentage of the daily charge
+     */
+    public static final int DEFAULT_LATE_FEE_PERCENT = 100;
+
+    /**
+     * The open rentals by due date
+     */
+    private final OverdueIndex overdueIndex = new OverdueIndex();
+
+    /**
+     * Catalog the tool types of the returned tools come from
+     */
+    private final ReloadableToolCatalog toolCatalog;
+
+    /**
+     * Inventory the returned units are released in, or null if units are not tracked
+     */
+    private final ToolInventory inventory;
+
+    /**
+     * Journal the returns are appended to, or null if returns are not journaled
+     */
+    private final AgreementJournal journal;
+
+    /**
+     * Late fee per chargeable late day, as a percentage of the daily charge
+     */
+    private final int lateFeePercent;
+
+    /**
+     * Private constructor, creates a ReturnService instance using the Builder pattern
+     *
+     * @param builder Builder instance
+     */
+    private ReturnService(Builder builder) {
+        this.toolCatalog = builder.toolCatalog;
+        this.inventory = builder.inventory;
+        this.journal = builder.journal;
+        this.lateFeePercent = builder.lateFeePercent;
+    }
+
+    /**
+     * Builder class
+     */
+    public static class Builder {
+
+        /**
+         * Catalog the tool types come from, the default catalog by default
+         */
+        private ReloadableToolCatalog toolCatalog = ReloadableToolCatalog.getDefault();
+
+        /**
+         * Inventory the returned units are released in, none by default
+         */
+        private ToolInventory inventory;
+
+        /**
+         * Journal the returns are appended to, none by default
+         */
+        private AgreementJournal journal;
+
+        /**
+         * Late fee percentage of the daily charge, DEFAULT_LATE_FEE_PERCENT by default
+         */
+        private int lateFeePercent = DEFAULT_LATE_FEE_PERCENT;
+
+        /**
+         * Private constructor
+         */
+        private Builder() {
+        }
+
+        /**
+         * Creates a new instance of Builder
+         *
+         * @return Builder instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Sets the catalog the tool types of the returned tools come from, which should be the checkout catalog
+         *
+         * @param toolCatalog the ReloadableToolCatalog instance
+         * @return Builder instance
+         */
+        public Builder setToolCatalog(ReloadableToolCatalog toolCatalog) {
+            this.toolCatalog = toolCatalog;
+            return this;
+        }
+
+        /**
+         * Sets the inventory the units of returned rentals are released in
+         *
+         * @param inventory the ToolInventory instance
+         * @return Builder instance
+         */
+        public Builder setInventory(ToolInventory inventory) {
+            this.inventory = inventory;
+            return this;
+        }
+
+        /**
+         * Sets the journal the returns are appended to, which should be the journal of the checked out agreements
+         *
+         * @param journal the AgreementJournal instance
+         * @return Builder instance
+         */
+        public Builder setJournal(AgreementJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * Sets the late fee of every chargeable late day, as a percentage of the daily charge
+         * If the percentage is negative, then throw exception
+         *
+         * @param lateFeePercent the percentage
+         * @return Builder instance
+         */
+        public Builder setLateFeePercent(int lateFeePercent) {
+            if (lateFeePercent < 0)
+                throw new IllegalArgumentException("Late fee percent must not be negative.");
+            this.lateFeePercent = lateFeePercent;
+            return this;
+        }
+
+        /**
+         * Creates a ReturnService instance
+         * If no catalog is set, then throw exception
+         *
+         * @return ReturnService instance
+         */
+        public ReturnService build() {
+            if (toolCatalog == null)
+                throw new IllegalArgumentException("Tool catalog must be set.");
+            return new ReturnService(this);
+        }
+    }
+
+    /**
+     * Tracks a checked out rental until it is returned
+     * If the agreement has no checkout or due date or the id is already tracked, then throw exception
+     *
+     * @param rentalId        the rental id, such as the journal sequence number of the agreement
+     * @param rentalAgreement the RentalAgreement instance
+     */
+    public void track(long rentalId, RentalAgreement rentalAgreement) {
+        if (rentalAgreement.getCheckoutEpochDay() == RentalAgreement.NO_DATE
+                || rentalAgreement.getDueEpochDay() == RentalAgreement.NO_DATE)
+            throw new IllegalArgumentException("RentalAgreement has no checkout or due date.");
+        long finalChargeCents = rentalAgreement.getFinalChargeCents();
+        OpenRental openRental = new OpenRental(rentalId, rentalAgreement.getToolCode(), rentalAgreement.getUnitNumber(),
+                rentalAgreement.getCheckoutEpochDay(), rentalAgreement.getDueEpochDay(),
+                finalChargeCents == RentalAgreement.NO_AMOUNT ? 0 : finalChargeCents);
+        if (!overdueIndex.add(openRental))
+            throw new IllegalArgumentException("Rental " + rentalId + " is already tracked.");
+    }
+
+    /**
+     * Tracks every open rental of a state recovered from the journal, under its journal sequence number
+     *
+     * @param rentalState the RentalState instance
+     * @return the number of rentals that were not tracked yet
+     */
+    public int restore(RentalState rentalState) {
+        int[] addedCount = new int[1];
+        rentalState.forEachOpenRental(openRental -> {
+            if (overdueIndex.add(openRental)) {
+                addedCount[0]++;
+            }
+        });
+        return addedCount[0];
+    }
+
+    /**
+     * Returns a rental on a date
+     * If the date is invalid, the rental is not open or the date is before its checkout, then throw exception
+     *
+     * @param rentalId   the rental id
+     * @param returnDate the return date in M/d/yy or MM/dd/yy format
+     * @return ReturnReceipt instance
+     */
+    public ReturnReceipt processReturn(long rentalId, String returnDate) {
+        return processReturn(rentalId, DateUtils.parseInputEpochDay(returnDate));
+    }
+
+    /**
+     * Returns a rental on a day, pricing the chargeable days after its due date, and journals the return
+     * If the rental is not open, the day is before its checkout or the return cannot be journaled, then throw exception
+     *
+     * @param rentalId       the rental id
+     * @param returnEpochDay the return date as a day count since 1970-01-01
+     * @return ReturnReceipt instance
+     */
+    public ReturnReceipt processReturn(long rentalId, long returnEpochDay) {
+        OpenRental openRental = overdueIndex.get(rentalId);
+        if (openRental == null) {
+            LOGGER.log(Level.WARNING, "Unknown rental [" + rentalId + "]");
+            throw new CheckoutException("Unknown rental");
+        }
+        if (returnEpochDay < openRental.getCheckoutEpochDay()) {
+            LOGGER.log(Level.WARNING, "Return date is before the checkout date");
+            throw new CheckoutException("Return date is before the checkout date");
+        }
+        ToolDefinition tool = toolCatalog.get().find(openRental.getToolCode());
+        if (tool == null) {
+            LOGGER.log(Level.WARNING, "Unknown tool code");
+            throw new CheckoutException("Unknown tool code");
+        }
+        ToolTypeDefinition toolType = tool.getToolType();
+        long dueEpochDay = openRental.getDueEpochDay();
+        int lateDayCount = (int) Math.max(0, returnEpochDay - dueEpochDay);
+        long[] lateDayClassCounts = ChargeableDaysUtils.countDayClasses(toolType, dueEpochDay, lateDayCount);
+        int chargeableLateDayCount = toolType.getChargeTable().countChargeableDays(lateDayClassCounts);
+        long dailyChargeCents = toolType.getDailyCharge().getCents();
+        // Half days and peak rates of the tool type apply to late days too, rounded once for the whole fee
+        long lateFeeCents = Money.divide(Math.multiplyExact(Math.multiplyExact(dailyChargeCents,
+                toolType.getChargeTable().sumChargePercents(lateDayClassCounts)), (long) lateFeePercent),
+                100 * 100, RoundingMode.HALF_UP);
+
+        // Only one of two concurrent returns of the same rental removes it
+        if (overdueIndex.remove(rentalId) == null) {
+            LOGGER.log(Level.WARNING, "Rental [" + rentalId + "] is already returned");
+            throw new CheckoutException("Rental is already returned");
+        }
+        if (journal != null) {
+            try {
+                journal.appendReturn(rentalId, returnEpochDay);
+            } catch (RuntimeException e) {
+                // The rental stays open, as it will be after a restart
+                overdueIndex.add(openRental);
+                throw e;
+            }
+        }
+        if (inventory != null && openRental.getUnitNumber() != RentalAgreement.NO_UNIT) {
+            inventory.release(openRental.getToolCode(), openRental.getUnitNumber());
+        }
+        return new ReturnReceipt(rentalId, openRental.getToolCode(), openRental.getUnitNumber(), dueEpochDay,
+                returnEpochDay, lateDayCount, chargeableLateDayCount, dailyChargeCents, lateFeeCents);
+    }
+
+    /**
+     * Retrieves the rentals that are overdue on a day
+     *
+     * @param epochDay the day as a day count since 1970-01-01
+     * @return the rentals due before that day, longest overdue first
+     */
+    public List<OpenRental> getOverdue(long epochDay) {
+        return overdueIndex.getOverdue(epochDay);
+    }
+
+    /**
+     * Retrieves the rentals that are overdue on a date
+     * If the date is invalid, then throw exception
+     *
+     * @param date the date in M/d/yy or MM/dd/yy format
+     * @return the rentals due before that date, longest overdue first
+     */
+    public List<OpenRental> getOverdue(String date) {
+        return overdueIndex.getOverdue(DateUtils.parseInputEpochDay(date));
+    }
+
+    /**
+     * Retrieves the index of the open rentals
+     *
+     * @return the OverdueIndex instance
+     */
+    public OverdueIndex getOverdueIndex() {
+        return overdueIndex;
+    }
+}
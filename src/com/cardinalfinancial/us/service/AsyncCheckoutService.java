@@ -0,0 +1,45 @@
+package com.cardinalfinancial.us.service;
+
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Interface that defines the asynchronous variant of CheckoutService, which processes checkouts without blocking the caller thread
+ *
+ * @author Sylvia Barnai
+ */
+
+public interface AsyncCheckoutService extends AutoCloseable {
+
+    /**
+     * Processes a Checkout instance asynchronously
+     *
+     * @param checkout The Checkout instance to be processed
+     * @return future that completes with the RentalAgreement instance, or exceptionally if the checkout fails
+     */
+    CompletableFuture<RentalAgreement> processCheckoutAsync(Checkout checkout);
+
+    /**
+     * Stops accepting new checkouts. Checkouts that were already accepted are still processed.
+     */
+    void shutdown();
+
+    /**
+     * Waits for accepted checkouts to finish after shutdown
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return true if all accepted checkouts finished, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Shuts down and waits for accepted checkouts to finish
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,328 @@
+package com.cardinalfinancial.us.service;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.utils.ExecutorUtils;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * ServiceImpl that implements AsyncCheckoutService by running each checkout of a wrapped CheckoutService on an executor.
+ * At most maxConcurrency checkouts run at the same time; the rest wait in a queue without blocking the caller thread.
+ *
+ * @author Sylvia Barnai
+ */
+
+public class AsyncCheckoutServiceImpl implements AsyncCheckoutService {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(AsyncCheckoutServiceImpl.class.getName());
+
+    /**
+     * Default limit on the number of checkouts that run at the same time
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 1024;
+
+    /**
+     * The service that processes each checkout
+     */
+    private final CheckoutService checkoutService;
+
+    /**
+     * The executor that runs the checkouts
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Whether the executor was created by this service and must be shut down with it
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * Permits for checkouts that are allowed to run at the same time
+     */
+    private final Semaphore permits;
+
+    /**
+     * Checkouts waiting for a permit
+     */
+    private final Queue<PendingCheckout> pendingCheckouts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Number of accepted checkouts that have not finished yet
+     */
+    private final AtomicInteger outstandingCheckouts = new AtomicInteger();
+
+    /**
+     * Released once the service is shut down and every accepted checkout has finished
+     */
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    /**
+     * Set once shutdown() has been called
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Private constructor for AsyncCheckoutServiceImpl instance
+     *
+     * @param builder AsyncCheckoutServiceImpl.Builder class used to construct the AsyncCheckoutServiceImpl instance
+     */
+    private AsyncCheckoutServiceImpl(Builder builder) {
+        this.checkoutService = builder.checkoutService != null ? builder.checkoutService : new CheckoutServiceImpl();
+        this.ownsExecutor = builder.executor == null;
+        this.executor = ownsExecutor ? ExecutorUtils.newThreadPerTaskExecutor("checkout") : builder.executor;
+        this.permits = new Semaphore(builder.maxConcurrency);
+    }
+
+    /**
+     * Static Builder class for constructing AsyncCheckoutServiceImpl instance
+     */
+    public static class Builder {
+
+        /**
+         * The service that processes each checkout, CheckoutServiceImpl by default
+         */
+        private CheckoutService checkoutService;
+
+        /**
+         * The executor that runs the checkouts, a virtual-thread-per-task executor by default
+         */
+        private ExecutorService executor;
+
+        /**
+         * Limit on the number of checkouts that run at the same time
+         */
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+        /**
+         * Creates a new instance of AsyncCheckoutServiceImpl
+         *
+         * @return AsyncCheckoutServiceImpl.Builder class used to construct the AsyncCheckoutServiceImpl instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the service that processes each checkout
+         *
+         * @param checkoutService the synchronous CheckoutService
+         * @return AsyncCheckoutServiceImpl.Builder class used to construct the AsyncCheckoutServiceImpl instance
+         */
+        public Builder setCheckoutService(CheckoutService checkoutService) {
+            this.checkoutService = checkoutService;
+            return this;
+        }
+
+        /**
+         * Sets the executor that runs the checkouts. An executor set here is not shut down with the service.
+         *
+         * @param executor the executor
+         * @return AsyncCheckoutServiceImpl.Builder class used to construct the AsyncCheckoutServiceImpl instance
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Sets the limit on the number of checkouts that run at the same time
+         * If the limit is less than 1, then throw exception
+         *
+         * @param maxConcurrency the concurrency limit
+         * @return AsyncCheckoutServiceImpl.Builder class used to construct the AsyncCheckoutServiceImpl instance
+         */
+        public Builder setMaxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1)
+                throw new IllegalArgumentException("Concurrency limit must be at least 1.");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Build method to deal with outer class to return outer instance
+         *
+         * @return AsyncCheckoutServiceImpl instance
+         */
+        public AsyncCheckoutServiceImpl build() {
+            return new AsyncCheckoutServiceImpl(this);
+        }
+    }
+
+    @Override
+    public CompletableFuture<RentalAgreement> processCheckoutAsync(Checkout checkout) {
+        PendingCheckout pendingCheckout = new PendingCheckout(checkout);
+        outstandingCheckouts.incrementAndGet();
+        if (shutdown) {
+            pendingCheckout.future.completeExceptionally(new CheckoutException("Checkout service has been shut down"));
+            finishCheckout();
+            return pendingCheckout.future;
+        }
+        if (permits.tryAcquire()) {
+            dispatch(pendingCheckout);
+        } else {
+            pendingCheckouts.add(pendingCheckout);
+            drainPendingCheckouts();
+        }
+        return pendingCheckout.future;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        // Count the shutdown as finished work so the latch opens once nothing is outstanding
+        outstandingCheckouts.incrementAndGet();
+        finishCheckout();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!terminated.await(timeout, unit)) {
+            return false;
+        }
+        return !ownsExecutor || executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void close() {
+        shutdown();
+        try {
+            while (!awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.log(Level.WARNING, "Waiting for outstanding checkouts to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands a checkout that holds a permit to the executor. While the executor rejects checkouts, each rejected one is
+     * failed and the permit passes to the next queued one in this loop, so a shut down executor fails a long queue
+     * without growing the stack.
+     */
+    private void dispatch(PendingCheckout pendingCheckout) {
+        for (PendingCheckout next = pendingCheckout; next != null; next = passPermit()) {
+            try {
+                executor.execute(next);
+                return;
+            } catch (RejectedExecutionException e) {
+                LOGGER.log(Level.WARNING, "Executor rejected checkout");
+                next.future.completeExceptionally(new CheckoutException("Executor rejected checkout", e));
+                finishCheckout();
+            }
+        }
+    }
+
+    /**
+     * Starts queued checkouts while permits are available
+     */
+    private void drainPendingCheckouts() {
+        while (!pendingCheckouts.isEmpty() && permits.tryAcquire()) {
+            PendingCheckout next = pendingCheckouts.poll();
+            if (next == null) {
+                permits.release();
+            } else {
+                dispatch(next);
+            }
+        }
+    }
+
+    /**
+     * Passes the permit of a finished checkout to the next queued one, or returns it
+     */
+    private void releasePermit() {
+        PendingCheckout next = passPermit();
+        if (next != null) {
+            dispatch(next);
+        }
+        finishCheckout();
+    }
+
+    /**
+     * Takes the next queued checkout for a permit that is being given up, or returns the permit if none is queued
+     *
+     * @return the queued checkout that now holds the permit, or null if the permit was returned
+     */
+    private PendingCheckout passPermit() {
+        while (true) {
+            PendingCheckout next = pendingCheckouts.poll();
+            if (next != null) {
+                return next;
+            }
+            permits.release();
+            // A checkout may have been queued between the poll and the release
+            if (pendingCheckouts.isEmpty() || !permits.tryAcquire()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Counts down outstanding work, and shuts down an owned executor once the service is shut down and idle
+     */
+    private void finishCheckout() {
+        if (outstandingCheckouts.decrementAndGet() == 0 && shutdown && terminated.getCount() > 0) {
+            if (ownsExecutor) {
+                executor.shutdown();
+            }
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * A checkout waiting for or holding a permit, together with the future of its RentalAgreement
+     */
+    private final class PendingCheckout implements Runnable {
+
+        /**
+         * The Checkout instance to be processed
+         */
+        private final Checkout checkout;
+
+        /**
+         * Completed with the result of the checkout
+         */
+        private final CompletableFuture<RentalAgreement> future = new CompletableFuture<>();
+
+        /**
+         * Constructor for PendingCheckout
+         *
+         * @param checkout the Checkout instance to be processed
+         */
+        private PendingCheckout(Checkout checkout) {
+            this.checkout = checkout;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(checkoutService.processCheckout(checkout));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            } finally {
+                releasePermit();
+            }
+        }
+    }
+}
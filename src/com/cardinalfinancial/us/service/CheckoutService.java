@@ -1,8 +1,13 @@
 package com.cardinalfinancial.us.service;
 
 import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.CheckoutResult;
 import com.cardinalfinancial.us.model.RentalAgreement;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Interface that defines processCheckout() function to be used by CheckoutServiceImpl
  * This helps achieve loose coupling and makes the classes more modular
@@ -11,4 +16,23 @@ import com.cardinalfinancial.us.model.RentalAgreement;
 
 public interface CheckoutService {
     RentalAgreement processCheckout(Checkout checkout);
+
+    /**
+     * Processes a batch of Checkout instances. A failed Checkout is reported in its result and does not stop the batch.
+     * By default the checkouts are processed one after another on the calling thread.
+     *
+     * @param checkouts the Checkout instances to be processed
+     * @return one CheckoutResult per Checkout, in the iteration order of the collection
+     */
+    default List<CheckoutResult> processCheckouts(Collection<Checkout> checkouts) {
+        List<CheckoutResult> results = new ArrayList<>(checkouts.size());
+        for (Checkout checkout : checkouts) {
+            try {
+                results.add(CheckoutResult.success(checkout, processCheckout(checkout)));
+            } catch (RuntimeException e) {
+                results.add(CheckoutResult.failure(checkout, e));
+            }
+        }
+        return results;
+    }
 }
@@ -1,14 +1,30 @@
 package com.cardinalfinancial.us.service;
 
+import com.cardinalfinancial.us.cache.IdempotencyCache;
+import com.cardinalfinancial.us.cache.PriceCache;
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
 import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.metrics.CheckoutMetrics;
+import com.cardinalfinancial.us.metrics.CheckoutStage;
 import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.CheckoutResult;
+import com.cardinalfinancial.us.model.PricingResult;
 import com.cardinalfinancial.us.model.RentalAgreement;
-import com.cardinalfinancial.us.model.Tool;
+import com.cardinalfinancial.us.output.AgreementSink;
+import com.cardinalfinancial.us.output.ConsoleAgreementSink;
 import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
 import com.cardinalfinancial.us.utils.DateUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * ServiceImpl that implements CheckoutService in order to process the checkout and generate a RentalAgreement instance
@@ -24,43 +40,387 @@ public class CheckoutServiceImpl implements CheckoutService {
 
     private static final Logger LOGGER = Logger.getLogger(CheckoutServiceImpl.class.getName());
 
+    /**
+     * Catalog that tool codes are looked up in
+     */
+    private final ReloadableToolCatalog toolCatalog;
+
+    /**
+     * Cache of pricing results, or null if every checkout is priced from scratch
+     */
+    private final PriceCache priceCache;
+
+    /**
+     * Sink that receives every generated RentalAgreement
+     */
+    private final AgreementSink agreementSink;
+
+    /**
+     * Metrics that every checkout is recorded in, or null if checkouts are not timed
+     */
+    private final CheckoutMetrics metrics;
+
+    /**
+     * Inventory that a unit of the tool is reserved in for every checkout, or null if units are not tracked
+     */
+    private final ToolInventory inventory;
+
+    /**
+     * Cache of the RentalAgreement of every checkout with an idempotency key, or null if retries are not recognized
+     */
+    private final IdempotencyCache idempotencyCache;
+
+    /**
+     * Constructor for CheckoutServiceImpl with the default settings
+     */
+    public CheckoutServiceImpl() {
+        this(Builder.newInstance());
+    }
+
+    /**
+     * Private constructor for CheckoutServiceImpl instance
+     *
+     * @param builder CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+     */
+    private CheckoutServiceImpl(Builder builder) {
+        this.toolCatalog = builder.toolCatalog != null ? builder.toolCatalog : ReloadableToolCatalog.getDefault();
+        this.priceCache = builder.priceCache;
+        this.agreementSink = builder.agreementSink != null ? builder.agreementSink : ConsoleAgreementSink.INSTANCE;
+        this.metrics = builder.metrics;
+        this.inventory = builder.inventory;
+        this.idempotencyCache = builder.idempotencyCache;
+    }
+
+    /**
+     * Static Builder class for constructing CheckoutServiceImpl instance
+     */
+    public static class Builder {
+
+        /**
+         * Catalog that tool codes are looked up in, the catalog that ships with the application by default
+         */
+        private ReloadableToolCatalog toolCatalog;
+
+        /**
+         * Cache of pricing results, a PriceCache of the default size by default
+         */
+        private PriceCache priceCache = new PriceCache();
+
+        /**
+         * Sink that receives every generated RentalAgreement, the console by default
+         */
+        private AgreementSink agreementSink = ConsoleAgreementSink.INSTANCE;
+
+        /**
+         * Metrics that every checkout is recorded in, none by default
+         */
+        private CheckoutMetrics metrics;
+
+        /**
+         * Inventory that a unit of the tool is reserved in for every checkout, none by default
+         */
+        private ToolInventory inventory;
+
+        /**
+         * Cache of the RentalAgreement of every checkout with an idempotency key, an IdempotencyCache with the default
+         * settings by default
+         */
+        private IdempotencyCache idempotencyCache = IdempotencyCache.Builder.newInstance().build();
+
+        /**
+         * Creates a new instance of CheckoutServiceImpl
+         *
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public static Builder newInstance() {
+            return new Builder();
+        }
+
+        /**
+         * Private constructor for Builder
+         */
+        private Builder() {
+        }
+
+        /**
+         * Sets the catalog that tool codes are looked up in
+         *
+         * @param toolCatalog the ReloadableToolCatalog, whose current snapshot is read once per checkout
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setToolCatalog(ReloadableToolCatalog toolCatalog) {
+            this.toolCatalog = toolCatalog;
+            return this;
+        }
+
+        /**
+         * Sets the cache of pricing results
+         *
+         * @param priceCache the cache of pricing results, or null to price every checkout from scratch
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setPriceCache(PriceCache priceCache) {
+            this.priceCache = priceCache;
+            return this;
+        }
+
+        /**
+         * Sets the sink that receives every generated RentalAgreement
+         *
+         * @param agreementSink the AgreementSink, for example QuietAgreementSink.INSTANCE to skip printing
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setAgreementSink(AgreementSink agreementSink) {
+            this.agreementSink = agreementSink;
+            return this;
+        }
+
+        /**
+         * Sets the metrics that every checkout is recorded in
+         *
+         * @param metrics the CheckoutMetrics instance, or null to skip timing checkouts
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setMetrics(CheckoutMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Sets the inventory that a unit of the tool is reserved in for every checkout. A checkout fails when every
+         * unit of its tool is reserved.
+         *
+         * @param inventory the ToolInventory instance, or null to skip tracking units
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setInventory(ToolInventory inventory) {
+            this.inventory = inventory;
+            return this;
+        }
+
+        /**
+         * Sets the cache that a checkout retried with the same idempotency key gets its original RentalAgreement from.
+         * A replayed checkout is not reserved, recorded or sent to the AgreementSink again.
+         *
+         * @param idempotencyCache the IdempotencyCache instance, or null to process every checkout as a new one
+         * @return CheckoutServiceImpl.Builder class used to construct the CheckoutServiceImpl instance
+         */
+        public Builder setIdempotencyCache(IdempotencyCache idempotencyCache) {
+            this.idempotencyCache = idempotencyCache;
+            return this;
+        }
+
+        /**
+         * Build method to deal with outer class to return outer instance
+         *
+         * @return CheckoutServiceImpl instance
+         */
+        public CheckoutServiceImpl build() {
+            return new CheckoutServiceImpl(this);
+        }
+    }
+
+    /**
+     * Retrieves the catalog that tool codes are looked up in
+     *
+     * @return the ReloadableToolCatalog instance
+     */
+    public ReloadableToolCatalog getToolCatalog() {
+        return toolCatalog;
+    }
+
+    /**
+     * Retrieves the cache of pricing results
+     *
+     * @return the PriceCache instance, or null if pricing results are not cached
+     */
+    public PriceCache getPriceCache() {
+        return priceCache;
+    }
+
+    /**
+     * Retrieves the sink that receives every generated RentalAgreement
+     *
+     * @return the AgreementSink instance
+     */
+    public AgreementSink getAgreementSink() {
+        return agreementSink;
+    }
+
+    /**
+     * Retrieves the metrics that every checkout is recorded in
+     *
+     * @return the CheckoutMetrics instance, or null if checkouts are not timed
+     */
+    public CheckoutMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Retrieves the inventory that a unit of the tool is reserved in for every checkout
+     *
+     * @return the ToolInventory instance, or null if units are not tracked
+     */
+    public ToolInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Retrieves the cache of the RentalAgreement of every checkout with an idempotency key
+     *
+     * @return the IdempotencyCache instance, or null if retries are not recognized
+     */
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
     @Override
 
     /**
      * Processes Checkout instance generates new RentalAgreement instance based on tool and checkout criteria
+     * A Checkout with the idempotency key of an earlier one returns the RentalAgreement of the earlier one
      * @param checkout The Checkout instance to be processed
      * @return RentalAgreement instance
      */
 
     public RentalAgreement processCheckout(Checkout checkout) {
+        if (idempotencyCache != null && checkout.getIdempotencyKey() != null) {
+            return idempotencyCache.getOrProcess(checkout, this::createRentalAgreement);
+        }
+        return createRentalAgreement(checkout);
+    }
+
+    /**
+     * Creates a new RentalAgreement instance for a Checkout instance
+     *
+     * @param checkout The Checkout instance to be processed
+     * @return RentalAgreement instance
+     */
+    private RentalAgreement createRentalAgreement(Checkout checkout) {
 
         RentalAgreement rentalAgreement = null;
+        long startNanos = metrics != null ? System.nanoTime() : 0L;
+        boolean timeStages = metrics != null && metrics.sampleStages();
+        long stageNanos = startNanos;
+        String metricsToolCode = null;
+        boolean success = false;
+        int unitNumber = RentalAgreement.NO_UNIT;
 
         // Constructs Tool and RentalAgreement instances and throws exception if error occurs
 
         try {
-            Tool tool = Tool.getTool(checkout.getToolCode());
+            ToolDefinition tool = toolCatalog.get().find(checkout.getToolCode());
+            if (tool == null) {
+                throw new CheckoutException("Unknown tool code");
+            }
+            ToolTypeDefinition toolType = tool.getToolType();
+            metricsToolCode = checkout.getToolCode();
+            stageNanos = recordStage(CheckoutStage.TOOL_LOOKUP, stageNanos, timeStages);
+            // Parse the checkout date and price the rental once, then build the agreement from the results
+            long checkoutEpochDay = DateUtils.parseInputEpochDay(checkout.getCheckoutDate());
+            stageNanos = recordStage(CheckoutStage.DATE_PARSING, stageNanos, timeStages);
+            PricingResult pricingResult = null;
+            if (priceCache != null) {
+                pricingResult = priceCache.get(toolType, checkoutEpochDay, checkout.getRentalDayCount(), checkout.getDiscountPercent());
+                stageNanos = recordStage(CheckoutStage.PRICE_CACHE_LOOKUP, stageNanos, timeStages);
+            }
+            if (pricingResult == null) {
+                long[] dayClassCounts = ChargeableDaysUtils.countDayClasses(toolType, checkoutEpochDay, checkout.getRentalDayCount());
+                stageNanos = recordStage(CheckoutStage.CHARGEABLE_DAYS, stageNanos, timeStages);
+                pricingResult = CalculateChargesUtils.calculatePricing(toolType, checkoutEpochDay, checkout.getRentalDayCount(),
+                        dayClassCounts, checkout.getDiscountPercent());
+                if (priceCache != null) {
+                    priceCache.put(toolType, checkoutEpochDay, checkout.getRentalDayCount(), checkout.getDiscountPercent(), pricingResult);
+                }
+                stageNanos = recordStage(CheckoutStage.MONEY_MATH, stageNanos, timeStages);
+            }
+            if (inventory != null) {
+                unitNumber = inventory.reserve(checkout.getToolCode());
+                if (unitNumber == ToolInventory.NO_UNIT_AVAILABLE) {
+                    throw new CheckoutException("No unit of the tool is available");
+                }
+                stageNanos = recordStage(CheckoutStage.INVENTORY, stageNanos, timeStages);
+            }
             rentalAgreement = RentalAgreement.Builder.newInstance()
-                    .setToolCode(checkout.getToolCode())
-                    .setToolType(tool.getToolType().getValue())
-                    .setToolBrand(tool.getToolBrand().getValue())
+                    .setToolCode(tool.getToolCode())
+                    .setToolType(toolType.getName())
+                    .setToolBrand(tool.getToolBrand())
+                    .setUnitNumber(unitNumber)
                     .setNumberOfDaysRented(checkout.getRentalDayCount())
-                    .setCheckoutDate(checkout.getCheckoutDate())
-                    .setDueDate(DateUtils.calculateDueDate(checkout.getCheckoutDate(), checkout.getRentalDayCount()))
-                    .setDailyRentalCharge(tool.getToolType().getDailyCharge())
-                    .setChargeableDaysCount(CalculateChargesUtils.calculateChargeableDaysCount(tool, checkout))
-                    .setPreDiscountCharge(CalculateChargesUtils.calculatePreDiscountCharge(CalculateChargesUtils.calculateChargeableDaysCount(tool, checkout), tool.getToolType().getDailyCharge()))
+                    .setCheckoutEpochDay(checkoutEpochDay)
+                    .setDueEpochDay(checkoutEpochDay + checkout.getRentalDayCount())
+                    .setDailyRentalCharge(pricingResult.getDailyRentalCharge())
+                    .setChargeableDaysCount(pricingResult.getChargeableDaysCount())
+                    .setPreDiscountCharge(pricingResult.getPreDiscountCharge())
                     .setDiscountPercent(checkout.getDiscountPercent())
-                    .setDiscountAmount(CalculateChargesUtils.calculateDiscountAmount(checkout.getDiscountPercent(), CalculateChargesUtils.calculatePreDiscountCharge(CalculateChargesUtils.calculateChargeableDaysCount(tool, checkout), tool.getToolType().getDailyCharge())))
-                    .setFinalCharge(CalculateChargesUtils.calculateFinalCharge(CalculateChargesUtils.calculatePreDiscountCharge(CalculateChargesUtils.calculateChargeableDaysCount(tool, checkout), tool.getToolType().getDailyCharge()), CalculateChargesUtils.calculateDiscountAmount(checkout.getDiscountPercent(), CalculateChargesUtils.calculatePreDiscountCharge(CalculateChargesUtils.calculateChargeableDaysCount(tool, checkout), tool.getToolType().getDailyCharge()))))
+                    .setDiscountAmount(pricingResult.getDiscountAmount())
+                    .setFinalCharge(pricingResult.getFinalCharge())
                     .build();
-            rentalAgreement.printRentalAgreementDetails();
+            stageNanos = recordStage(CheckoutStage.AGREEMENT_BUILD, stageNanos, timeStages);
+            agreementSink.accept(rentalAgreement);
+            recordStage(CheckoutStage.OUTPUT, stageNanos, timeStages);
+            success = true;
         } catch (Exception e) {
+            // A unit reserved for a checkout that failed afterwards is free again
+            if (unitNumber >= 0) {
+                inventory.release(checkout.getToolCode(), unitNumber);
+            }
             LOGGER.log(Level.WARNING, "Unable to create RentalAgreement instance");
-            throw new CheckoutException("Unable to create RentalAgreement instance");
+            throw new CheckoutException("Unable to create RentalAgreement instance", e);
 
+        } finally {
+            if (metrics != null) {
+                metrics.recordCheckout(metricsToolCode, System.nanoTime() - startNanos, success);
+            }
         }
         return rentalAgreement;
 
     }
+
+    /**
+     * Records the time since the previous stage ended, if the stages of this checkout are timed
+     *
+     * @param stage           the stage that just ended
+     * @param stageStartNanos System.nanoTime() when the stage started
+     * @param timeStages      whether the stages of this checkout are timed
+     * @return System.nanoTime() when the stage ended, or 0 if the stages are not timed
+     */
+    private long recordStage(CheckoutStage stage, long stageStartNanos, boolean timeStages) {
+        if (!timeStages) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        metrics.recordStage(stage, now - stageStartNanos);
+        return now;
+    }
+
+    /**
+     * Processes a batch of Checkout instances in parallel on the common fork-join pool.
+     * Results keep the iteration order of the collection, and a failed Checkout does not stop the batch.
+     *
+     * @param checkouts the Checkout instances to be processed
+     * @return one CheckoutResult per Checkout
+     */
+    @Override
+    public List<CheckoutResult> processCheckouts(Collection<Checkout> checkouts) {
+        // Copy into an ArrayList so the parallel stream splits evenly and keeps the encounter order
+        List<Checkout> batch = new ArrayList<>(checkouts);
+        return batch.parallelStream()
+                .map(this::processCheckoutResult)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Processes one Checkout of a batch and captures any exception in the result
+     *
+     * @param checkout The Checkout instance to be processed
+     * @return CheckoutResult instance
+     */
+    private CheckoutResult processCheckoutResult(Checkout checkout) {
+        try {
+            return CheckoutResult.success(checkout, processCheckout(checkout));
+        } catch (RuntimeException e) {
+            return CheckoutResult.failure(checkout, e);
+        }
+    }
 }
@@ -0,0 +1,204 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.journal.AgreementRecordCodec;
+import com.cardinalfinancial.us.journal.JournalReader;
+import com.cardinalfinancial.us.journal.RetentionPolicy;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.JournalAgreementSink;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the binary record format, group commit, roll over and recovery of AgreementJournal
+ * @author Sylvia Barnai
+ */
+
+public class AgreementJournalTest extends TestCase {
+
+    @Test
+    public void testRecordRoundTrip() {
+        RentalAgreement rentalAgreement = agreement();
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        AgreementRecordCodec.encode(rentalAgreement, buffer);
+        buffer.flip();
+        RentalAgreement decoded = AgreementRecordCodec.decode(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(rentalAgreement.appendRentalAgreementDetails(new StringBuilder()).toString(),
+                decoded.appendRentalAgreementDetails(new StringBuilder()).toString());
+    }
+
+    @Test
+    public void testConcurrentAppendsShareSyncsAndSurviveReopen() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            RentalAgreement rentalAgreement = agreement();
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory).build();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                threads.add(new Thread(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        journal.append(rentalAgreement);
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(1600, journal.getLastSequence());
+            assertEquals(1600, journal.getDurableSequence());
+            assertTrue(journal.getSyncCount() <= 1600);
+            journal.close();
+
+            AgreementJournal reopened = AgreementJournal.Builder.newInstance().setDirectory(directory).build();
+            assertEquals(1600, reopened.getLastSequence());
+            assertEquals(1601, reopened.append(rentalAgreement));
+            reopened.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testSegmentsRollOverAndAreRetained() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance()
+                    .setDirectory(directory)
+                    .setSegmentSize(4096)
+                    .setSyncOnAppend(false)
+                    .setRetentionPolicy(RetentionPolicy.Builder.newInstance().setMaxSegments(3).build())
+                    .build();
+            CheckoutServiceImpl checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                    .setAgreementSink(new JournalAgreementSink(journal))
+                    .build();
+            Checkout checkout = Checkout.Builder.newInstance().setToolCode("CHNS").setRentalDayCount(5)
+                    .setDiscountPercent(25).setCheckoutDate("7/2/15").build();
+            for (int i = 0; i < 500; i++) {
+                checkoutService.processCheckout(checkout);
+            }
+
+            assertEquals(500, journal.getLastSequence());
+            assertEquals(3, journal.getSegmentCount());
+            assertEquals(3, segmentFiles(directory).size());
+            journal.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testSegmentWithoutHeaderIsRecoveredEmpty() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSegmentSize(4096).setSyncOnAppend(false).build();
+            for (int i = 0; i < 10; i++) {
+                journal.append(agreement());
+            }
+            journal.close();
+
+            // A crash right after a roll over leaves the new segment zeroed, or empty if its size was not written
+            for (byte[] lostSegment : new byte[][]{new byte[4096], new byte[0]}) {
+                Path next = directory.resolve(String.format("%020d.journal", 11));
+                Files.write(next, lostSegment);
+                AtomicInteger replayedCount = new AtomicInteger();
+                assertEquals(10, JournalReader.replay(directory, 1, (sequence, agreement) -> replayedCount.incrementAndGet()));
+                assertEquals(10, replayedCount.get());
+
+                AgreementJournal reopened = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                        .setSegmentSize(4096).setSyncOnAppend(false).build();
+                assertEquals(10, reopened.getLastSequence());
+                assertEquals(2, reopened.getSegmentCount());
+                assertEquals(11, reopened.append(agreement()));
+                reopened.close();
+                assertEquals(11, JournalReader.replay(directory, 1, (sequence, agreement) -> { }));
+                Files.delete(next);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDroppedOnReopen() throws Exception {
+        Path directory = Files.createTempDirectory("journal");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory).setSegmentSize(4096).build();
+            for (int i = 0; i < 10; i++) {
+                journal.append(agreement());
+            }
+            journal.close();
+
+            // Flip a byte in the payload of the last record, as a write torn by a crash would leave it
+            Path segment = segmentFiles(directory).get(0);
+            int recordLength = 16 + recordPayloadLength();
+            int lastPayloadOffset = 16 + 9 * recordLength + 16;
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer oneByte = ByteBuffer.allocate(1);
+                channel.read(oneByte, lastPayloadOffset);
+                oneByte.put(0, (byte) (oneByte.get(0) ^ 0x55)).rewind();
+                channel.write(oneByte, lastPayloadOffset);
+            }
+
+            AgreementJournal reopened = AgreementJournal.Builder.newInstance().setDirectory(directory).setSegmentSize(4096).build();
+            assertEquals(9, reopened.getLastSequence());
+            assertEquals(10, reopened.append(agreement()));
+            reopened.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static RentalAgreement agreement() {
+        return CheckoutServiceImpl.Builder.newInstance().setAgreementSink(QuietAgreementSink.INSTANCE).build()
+                .processCheckout(Checkout.Builder.newInstance().setToolCode("LADW").setRentalDayCount(3)
+                        .setDiscountPercent(10).setCheckoutDate("7/2/20").build());
+    }
+
+    private static int recordPayloadLength() {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        AgreementRecordCodec.encode(agreement(), buffer);
+        return buffer.position();
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.AgreementSink;
+import com.cardinalfinancial.us.output.AsyncBatchingAgreementSink;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.output.WriterAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the output of the AgreementSink implementations used by CheckoutServiceImpl
+ * @author Sylvia Barnai
+ */
+
+public class AgreementSinkTest extends TestCase {
+
+    /**
+     * Creates a checkout for a ladder rented on the given day of July 2020
+     */
+    private static Checkout ladderCheckout(int day) {
+        return Checkout.Builder.newInstance()
+                .setToolCode("LADW")
+                .setRentalDayCount(3)
+                .setDiscountPercent(10)
+                .setCheckoutDate("7/" + day + "/20")
+                .build();
+    }
+
+    @Test
+    public void testWriterSinkWritesAgreementDetails() {
+        StringWriter output = new StringWriter();
+        AgreementSink agreementSink = new WriterAgreementSink(output, false);
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance().setAgreementSink(agreementSink).build();
+
+        RentalAgreement rentalAgreement = checkoutService.processCheckout(ladderCheckout(2));
+        agreementSink.flush();
+
+        String expected = rentalAgreement.appendRentalAgreementDetails(new StringBuilder()).append(System.lineSeparator()).toString();
+        assertEquals(expected, output.toString());
+        assertTrue(output.toString().contains("Final charge: $3.58"));
+    }
+
+    @Test
+    public void testAsyncBatchingSinkWritesEveryAgreementInOrder() {
+        StringWriter output = new StringWriter();
+        AgreementSink agreementSink = new AsyncBatchingAgreementSink(new WriterAgreementSink(output, false), 4, 3);
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance().setAgreementSink(agreementSink).build();
+
+        StringBuilder expected = new StringBuilder();
+        for (int day = 1; day <= 20; day++) {
+            checkoutService.processCheckout(ladderCheckout(day)).appendRentalAgreementDetails(expected).append(System.lineSeparator());
+        }
+        agreementSink.close();
+
+        assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void testAsyncBatchingSinkKeepsAgreementsAcceptedDuringClose() throws Exception {
+        RentalAgreement rentalAgreement = RentalAgreement.Builder.newInstance().setToolCode("LADW").build();
+        // Every round closes the sink while four threads are queueing into it
+        for (int round = 0; round < 10; round++) {
+            CountingAgreementSink counting = new CountingAgreementSink();
+            AgreementSink agreementSink = new AsyncBatchingAgreementSink(counting, 2, 1);
+            AtomicInteger acceptedCount = new AtomicInteger();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        while (true) {
+                            agreementSink.accept(rentalAgreement);
+                            acceptedCount.incrementAndGet();
+                        }
+                    } catch (CheckoutException e) {
+                        // closed
+                    }
+                });
+                threads[t].start();
+            }
+            while (acceptedCount.get() < 20) {
+                Thread.yield();
+            }
+            agreementSink.close();
+            for (Thread thread : threads) {
+                thread.join(10000);
+                assertFalse("accept() still waits on the queue of a closed sink", thread.isAlive());
+            }
+            assertEquals(acceptedCount.get(), counting.count.get());
+            assertTrue(counting.closed);
+        }
+    }
+
+    @Test
+    public void testQuietSinkStillReturnsAgreement() {
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+
+        assertEquals(2, checkoutService.processCheckout(ladderCheckout(2)).getChargeableDaysCount());
+    }
+
+    /**
+     * AgreementSink that counts the agreements it receives
+     */
+    private static final class CountingAgreementSink implements AgreementSink {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private volatile boolean closed;
+
+        @Override
+        public void accept(RentalAgreement rentalAgreement) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
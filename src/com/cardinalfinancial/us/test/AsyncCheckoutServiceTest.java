@@ -0,0 +1,125 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.service.AsyncCheckoutService;
+import com.cardinalfinancial.us.service.AsyncCheckoutServiceImpl;
+import com.cardinalfinancial.us.service.CheckoutService;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that processes checkouts through AsyncCheckoutServiceImpl and checks its concurrency limit and shutdown path
+ * @author Sylvia Barnai
+ */
+
+public class AsyncCheckoutServiceTest extends TestCase {
+
+    @Test
+    public void testCheckoutsCompleteWithConcurrencyLimit() throws Exception {
+        AsyncCheckoutService asyncCheckoutService = AsyncCheckoutServiceImpl.Builder.newInstance()
+                .setMaxConcurrency(2)
+                .build();
+
+        List<CompletableFuture<RentalAgreement>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(asyncCheckoutService.processCheckoutAsync(Checkout.Builder.newInstance()
+                    .setToolCode("JAKR")
+                    .setRentalDayCount(4)
+                    .setDiscountPercent(50)
+                    .setCheckoutDate("7/2/20")
+                    .build()));
+        }
+
+        for (CompletableFuture<RentalAgreement> future : futures) {
+            assertEquals(1, future.get(10, TimeUnit.SECONDS).getChargeableDaysCount());
+        }
+
+        asyncCheckoutService.shutdown();
+        assertTrue(asyncCheckoutService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFailuresAndShutdownCompleteExceptionally() throws Exception {
+        AsyncCheckoutService asyncCheckoutService = AsyncCheckoutServiceImpl.Builder.newInstance().build();
+
+        Checkout unknownTool = Checkout.Builder.newInstance()
+                .setToolCode("XXXX")
+                .setRentalDayCount(1)
+                .setCheckoutDate("7/2/20")
+                .build();
+
+        try {
+            asyncCheckoutService.processCheckoutAsync(unknownTool).get(10, TimeUnit.SECONDS);
+            fail("Expected the checkout to fail");
+        } catch (ExecutionException e) {
+            assertNotNull(e.getCause());
+        }
+
+        asyncCheckoutService.close();
+        assertTrue(asyncCheckoutService.processCheckoutAsync(unknownTool).isCompletedExceptionally());
+    }
+
+    @Test
+    public void testShutDownExecutorFailsQueuedCheckouts() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RentalAgreement rentalAgreement = RentalAgreement.Builder.newInstance().setToolCode("JAKR").build();
+        CheckoutService blockingCheckoutService = checkout -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rentalAgreement;
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AsyncCheckoutServiceImpl asyncCheckoutService = AsyncCheckoutServiceImpl.Builder.newInstance()
+                .setCheckoutService(blockingCheckoutService)
+                .setExecutor(executor)
+                .setMaxConcurrency(1)
+                .build();
+        Checkout checkout = Checkout.Builder.newInstance().setToolCode("JAKR").setRentalDayCount(4)
+                .setDiscountPercent(0).setCheckoutDate("7/2/20").build();
+
+        CompletableFuture<RentalAgreement> running = asyncCheckoutService.processCheckoutAsync(checkout);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Enough queued checkouts to overflow the stack if each rejection dispatched the next one recursively
+        List<CompletableFuture<RentalAgreement>> queued = new ArrayList<>();
+        for (int i = 0; i < 200000; i++) {
+            queued.add(asyncCheckoutService.processCheckoutAsync(checkout));
+        }
+        executor.shutdown();
+        release.countDown();
+
+        assertSame(rentalAgreement, running.get(10, TimeUnit.SECONDS));
+        for (CompletableFuture<RentalAgreement> future : queued) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("Ran a checkout on a shut down executor");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CheckoutException);
+            }
+        }
+        asyncCheckoutService.shutdown();
+        assertTrue(asyncCheckoutService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
@@ -1,6 +1,7 @@
 package com.cardinalfinancial.us.test;
 
 import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.CheckoutResult;
 import com.cardinalfinancial.us.model.RentalAgreement;
 import com.cardinalfinancial.us.model.Tool;
 import com.cardinalfinancial.us.service.CheckoutService;
@@ -10,6 +11,10 @@ import com.cardinalfinancial.us.utils.NumberFormatUtils;
 
 import junit.framework.TestCase;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -85,12 +90,12 @@ public class CardinalFinancialTest extends TestCase {
 
         // Validate RentalAgreement expected values
         assertEquals("07/05/20", DateUtils.calculateDueDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getNumberOfDaysRented()));
-        assertEquals("$1.99", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDailyRentalCharge()));
+        assertEquals("$1.99", NumberFormatUtils.formatCurrency(rentalAgreement.getDailyRentalCharge()));
         assertEquals(2, rentalAgreement.getChargeableDaysCount());
-        assertEquals("$3.98", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getPreDiscountCharge()));
+        assertEquals("$3.98", NumberFormatUtils.formatCurrency(rentalAgreement.getPreDiscountCharge()));
         assertEquals("10%", NumberFormatUtils.formatPercentage(rentalAgreement.getDiscountPercent()));
-        assertEquals("$0.40", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDiscountAmount()));
-        assertEquals("$3.58", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getFinalCharge()));
+        assertEquals("$0.40", NumberFormatUtils.formatCurrency(rentalAgreement.getDiscountAmount()));
+        assertEquals("$3.58", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
     }
 
 
@@ -116,12 +121,12 @@ public class CardinalFinancialTest extends TestCase {
 
         // Validate RentalAgreement expected values
         assertEquals("07/07/15", DateUtils.calculateDueDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getNumberOfDaysRented()));
-        assertEquals("$1.49", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDailyRentalCharge()));
+        assertEquals("$1.49", NumberFormatUtils.formatCurrency(rentalAgreement.getDailyRentalCharge()));
         assertEquals(3, rentalAgreement.getChargeableDaysCount());
-        assertEquals("$4.47", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getPreDiscountCharge()));
+        assertEquals("$4.47", NumberFormatUtils.formatCurrency(rentalAgreement.getPreDiscountCharge()));
         assertEquals("25%", NumberFormatUtils.formatPercentage(rentalAgreement.getDiscountPercent()));
-        assertEquals("$1.12", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDiscountAmount()));
-        assertEquals("$3.35", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getFinalCharge()));
+        assertEquals("$1.12", NumberFormatUtils.formatCurrency(rentalAgreement.getDiscountAmount()));
+        assertEquals("$3.35", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
     }
 
 
@@ -147,12 +152,12 @@ public class CardinalFinancialTest extends TestCase {
 
         // Validate RentalAgreement expected values
         assertEquals("09/09/15", DateUtils.calculateDueDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getNumberOfDaysRented()));
-        assertEquals("$2.99", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDailyRentalCharge()));
+        assertEquals("$2.99", NumberFormatUtils.formatCurrency(rentalAgreement.getDailyRentalCharge()));
         assertEquals(3, rentalAgreement.getChargeableDaysCount());
-        assertEquals("$8.97", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getPreDiscountCharge()));
+        assertEquals("$8.97", NumberFormatUtils.formatCurrency(rentalAgreement.getPreDiscountCharge()));
         assertEquals("0%", NumberFormatUtils.formatPercentage(rentalAgreement.getDiscountPercent()));
-        assertEquals("$0.00", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDiscountAmount()));
-        assertEquals("$8.97", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getFinalCharge()));
+        assertEquals("$0.00", NumberFormatUtils.formatCurrency(rentalAgreement.getDiscountAmount()));
+        assertEquals("$8.97", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
 
     }
 
@@ -178,12 +183,12 @@ public class CardinalFinancialTest extends TestCase {
 
         // Validate RentalAgreement expected values
         assertEquals("07/11/15", DateUtils.calculateDueDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getNumberOfDaysRented()));
-        assertEquals("$2.99", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDailyRentalCharge()));
+        assertEquals("$2.99", NumberFormatUtils.formatCurrency(rentalAgreement.getDailyRentalCharge()));
         assertEquals(5, rentalAgreement.getChargeableDaysCount());
-        assertEquals("$14.95", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getPreDiscountCharge()));
+        assertEquals("$14.95", NumberFormatUtils.formatCurrency(rentalAgreement.getPreDiscountCharge()));
         assertEquals("0%", NumberFormatUtils.formatPercentage(rentalAgreement.getDiscountPercent()));
-        assertEquals("$0.00", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDiscountAmount()));
-        assertEquals("$14.95", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getFinalCharge()));
+        assertEquals("$0.00", NumberFormatUtils.formatCurrency(rentalAgreement.getDiscountAmount()));
+        assertEquals("$14.95", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
     }
 
     @Test
@@ -209,12 +214,75 @@ public class CardinalFinancialTest extends TestCase {
 
         // Validate RentalAgreement expected values
         assertEquals("07/06/20", DateUtils.calculateDueDate(rentalAgreement.getCheckoutDate(), rentalAgreement.getNumberOfDaysRented()));
-        assertEquals("$2.99", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDailyRentalCharge()));
+        assertEquals("$2.99", NumberFormatUtils.formatCurrency(rentalAgreement.getDailyRentalCharge()));
         assertEquals(1, rentalAgreement.getChargeableDaysCount());
-        assertEquals("$2.99", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getPreDiscountCharge()));
+        assertEquals("$2.99", NumberFormatUtils.formatCurrency(rentalAgreement.getPreDiscountCharge()));
         assertEquals("50%", NumberFormatUtils.formatPercentage(rentalAgreement.getDiscountPercent()));
-        assertEquals("$1.50", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getDiscountAmount()));
-        assertEquals("$1.49", NumberFormatUtils.formatDoubleCurrency(rentalAgreement.getFinalCharge()));
+        assertEquals("$1.50", NumberFormatUtils.formatCurrency(rentalAgreement.getDiscountAmount()));
+        assertEquals("$1.49", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
+    }
+
+    @Test
+    public void test7() {
+        System.out.println("***** Test 7 *****");
+
+        List<Checkout> checkouts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            checkouts.add(Checkout.Builder.newInstance()
+                    .setToolCode(i == 100 ? "XXXX" : Tool.values()[i % Tool.values().length].getToolCode().getValue())
+                    .setRentalDayCount(1 + i % 10)
+                    .setDiscountPercent(i % 50)
+                    .setCheckoutDate("7/2/20")
+                    .build());
+        }
+
+        // A CheckoutService that only implements processCheckout() runs the batch one checkout at a time
+        CheckoutService sequentialCheckoutService = checkoutService::processCheckout;
+
+        // Validate that results keep the input order and that the unknown tool code fails without stopping the batch
+        for (List<CheckoutResult> results : Arrays.asList(checkoutService.processCheckouts(checkouts),
+                sequentialCheckoutService.processCheckouts(checkouts))) {
+            assertEquals(checkouts.size(), results.size());
+            for (int i = 0; i < checkouts.size(); i++) {
+                CheckoutResult result = results.get(i);
+                assertSame(checkouts.get(i), result.getCheckout());
+                if (i == 100) {
+                    assertFalse(result.isSuccess());
+                    assertNotNull(result.getFailure());
+                } else {
+                    assertTrue(result.isSuccess());
+                    assertEquals(checkouts.get(i).getToolCode(), result.getRentalAgreement().getToolCode());
+                    assertEquals(checkouts.get(i).getRentalDayCount(), result.getRentalAgreement().getNumberOfDaysRented());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test8() {
+        System.out.println("***** Test 8 *****");
+
+        RentalAgreement rentalAgreement = checkoutService.processCheckout(Checkout.Builder.newInstance()
+                .setToolCode(Tool.LADW.getToolCode().getValue())
+                .setRentalDayCount(3)
+                .setDiscountPercent(10)
+                .setCheckoutDate("7/2/20")
+                .build());
+
+        // Validate that dates and amounts are kept as primitives and formatted when retrieved
+        assertEquals(DateUtils.toEpochDay(2020, 7, 2), rentalAgreement.getCheckoutEpochDay());
+        assertEquals(DateUtils.toEpochDay(2020, 7, 5), rentalAgreement.getDueEpochDay());
+        assertEquals("07/02/20", rentalAgreement.getCheckoutDate());
+        assertEquals("07/05/20", rentalAgreement.getDueDate());
+        assertEquals(199, rentalAgreement.getDailyRentalChargeCents());
+        assertEquals(358, rentalAgreement.getFinalChargeCents());
+        assertEquals("$3.58", NumberFormatUtils.formatCurrency(rentalAgreement.getFinalCharge()));
+
+        // Validate that unset amounts and dates are retrieved as null
+        RentalAgreement empty = RentalAgreement.Builder.newInstance().build();
+        assertNull(empty.getCheckoutDate());
+        assertNull(empty.getFinalCharge());
+        assertEquals(RentalAgreement.NO_AMOUNT, empty.getFinalChargeCents());
     }
 
-}
\ No newline at end of file
+}
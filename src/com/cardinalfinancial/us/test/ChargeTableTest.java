@@ -0,0 +1,101 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.PricingResult;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.DayClass;
+import com.cardinalfinancial.us.pricing.PeakSeason;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.MonthDay;
+import java.util.Arrays;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the compiled decisions of ChargeTable and the half-day and peak-season charges priced from it
+ * @author Sylvia Barnai
+ */
+
+public class ChargeTableTest extends TestCase {
+
+    @Test
+    public void testFlagTables() {
+        ChargeTable ladder = ChargeTable.of(true, true, false);
+        assertEquals(ChargeTable.FULL_DAY, ladder.getChargePercent(0));
+        assertEquals(ChargeTable.FULL_DAY, ladder.getChargePercent(DayClass.WEEKEND | DayClass.PEAK));
+        assertFalse(ladder.isCharged(DayClass.WEEKEND | DayClass.HOLIDAY));
+        assertTrue(ladder.isFullDaysOnly());
+        assertSame(ladder, ChargeTable.of(true, true, false));
+
+        // A holiday is charged by the holiday flag only, even on a weekend
+        ChargeTable chainsaw = ChargeTable.of(true, false, true);
+        assertTrue(chainsaw.isCharged(DayClass.WEEKEND | DayClass.HOLIDAY));
+        assertFalse(chainsaw.isCharged(DayClass.WEEKEND));
+    }
+
+    @Test
+    public void testClosedFormCountsMatchDailyClassification() {
+        // A season over the end of the year, so ranges cross both of its edges
+        ChargeTable table = ChargeTable.Builder.newInstance()
+                .setPeakSeason(new PeakSeason(MonthDay.of(12, 15), MonthDay.of(1, 15)))
+                .addRule(DayClass.PEAK, DayClass.PEAK, 150).addRule(0, 0, ChargeTable.FULL_DAY).build();
+        HolidayCalendar calendar = HolidayCalendar.US_DEFAULT;
+        for (long from = DateUtils.toEpochDay(2019, 12, 1); from < DateUtils.toEpochDay(2020, 2, 1); from += 3) {
+            for (int dayCount = 0; dayCount < 60; dayCount += 7) {
+                long[] expected = new long[DayClass.COUNT];
+                for (long day = from; day < from + dayCount; day++) {
+                    expected[table.classify(day, calendar)]++;
+                }
+                long[] counts = new long[DayClass.COUNT];
+                table.countDays(from, from + dayCount - 1, calendar, counts);
+                assertTrue(Arrays.toString(counts), Arrays.equals(expected, counts));
+            }
+        }
+    }
+
+    @Test
+    public void testHalfDayWeekendsAndPeakSeason() {
+        ChargeTable chargeTable = ChargeTable.Builder.newInstance()
+                .setPeakSeason(new PeakSeason(MonthDay.of(6, 1), MonthDay.of(8, 31)))
+                .addRule(DayClass.HOLIDAY, DayClass.HOLIDAY, 0)
+                .addRule(DayClass.WEEKEND, DayClass.WEEKEND, ChargeTable.HALF_DAY)
+                .addRule(DayClass.PEAK, DayClass.PEAK, 150)
+                .addRule(0, 0, ChargeTable.FULL_DAY)
+                .build();
+        assertFalse(chargeTable.isFullDaysOnly());
+        ToolTypeDefinition generator = ToolCatalog.Builder.newInstance()
+                .addToolType("Generator", Money.of("1.99"), chargeTable).addTool("GENH", "Generator", "Honda")
+                .build().find("GENH").getToolType();
+        assertTrue(generator.isWeekendCharge());
+        assertFalse(generator.isHolidayCharge());
+
+        // Thursday 7/2 and Monday 7/6 at 150%, Friday 7/3 is the observed holiday, then two half days
+        PricingResult july = CalculateChargesUtils.calculatePricing(generator, DateUtils.toEpochDay(2020, 7, 1), 5, 0);
+        assertEquals(4, july.getChargeableDaysCount());
+        assertEquals("$7.96", july.getPreDiscountCharge().toString());
+
+        // Sunday 10/4 is half of $1.99, rounded half up
+        PricingResult october = CalculateChargesUtils.calculatePricing(generator, DateUtils.toEpochDay(2020, 10, 3), 1, 0);
+        assertEquals(1, october.getChargeableDaysCount());
+        assertEquals("$1.00", october.getPreDiscountCharge().toString());
+
+        try {
+            ChargeTable.Builder.newInstance().addRule(DayClass.PEAK, DayClass.PEAK, 150).build();
+            fail("Built a peak rule without a peak season");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
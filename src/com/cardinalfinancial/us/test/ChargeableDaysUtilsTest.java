@@ -0,0 +1,114 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.common.ToolConstants;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the closed-form day counts of ChargeableDaysUtils against a walk over every rental day
+ * @author Sylvia Barnai
+ */
+
+public class ChargeableDaysUtilsTest extends TestCase {
+
+    /**
+     * Rental lengths checked from every checkout date, from single days to rentals that cross a year end
+     */
+    private static final int[] RENTAL_DAY_COUNTS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 13, 14, 31, 62, 400};
+
+    @Test
+    public void testWeekdayCountsMatchDayWalk() {
+        // Ranges on both sides of epoch day 0, which is a Thursday
+        for (long from = -30; from <= 30; from++) {
+            long weekdays = 0;
+            for (long to = from; to <= from + 30; to++) {
+                if (!isWeekend(to)) {
+                    weekdays++;
+                }
+                assertEquals(weekdays, ChargeableDaysUtils.countWeekdays(from, to));
+                assertEquals(to - from + 1 - weekdays, ChargeableDaysUtils.countWeekendDays(from, to));
+            }
+            assertEquals(0, ChargeableDaysUtils.countWeekdays(from, from - 1));
+            assertEquals(0, ChargeableDaysUtils.countWeekendDays(from, from - 1));
+        }
+    }
+
+    @Test
+    public void testChargeableDaysMatchDayWalk() {
+        // July 4 falls on a Saturday in 2015 and 2020 and on a Sunday in 2021 and 2027
+        assertEquals(DayOfWeek.SATURDAY, LocalDate.of(2020, 7, 4).getDayOfWeek());
+        assertEquals(DayOfWeek.SUNDAY, LocalDate.of(2021, 7, 4).getDayOfWeek());
+        long firstCheckout = DateUtils.toEpochDay(2014, 1, 1);
+        long lastCheckout = DateUtils.toEpochDay(2027, 12, 31);
+        for (ToolType toolType : ToolType.values()) {
+            for (long checkout = firstCheckout; checkout <= lastCheckout; checkout++) {
+                for (int rentalDayCount : RENTAL_DAY_COUNTS) {
+                    assertEquals(toolType + " from " + LocalDate.ofEpochDay(checkout) + " for " + rentalDayCount + " days",
+                            walkChargeableDays(toolType, checkout, rentalDayCount),
+                            ChargeableDaysUtils.countChargeableDays(toolType, checkout, rentalDayCount));
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the chargeable days of a rental one day at a time
+     */
+    private static int walkChargeableDays(ToolType toolType, long checkoutEpochDay, int rentalDayCount) {
+        int chargeableDays = 0;
+        for (long day = checkoutEpochDay + 1; day <= checkoutEpochDay + rentalDayCount; day++) {
+            String charge;
+            if (isHoliday(day)) {
+                charge = toolType.isHolidayCharge();
+            } else if (isWeekend(day)) {
+                charge = toolType.isWeekendCharge();
+            } else {
+                charge = toolType.isWeekdayCharge();
+            }
+            if (ToolConstants.YES_CHARGE.equals(charge)) {
+                chargeableDays++;
+            }
+        }
+        return chargeableDays;
+    }
+
+    /**
+     * Checks whether a day is a Saturday or Sunday
+     */
+    private static boolean isWeekend(long epochDay) {
+        DayOfWeek dayOfWeek = LocalDate.ofEpochDay(epochDay).getDayOfWeek();
+        return dayOfWeek == DayOfWeek.SATURDAY || dayOfWeek == DayOfWeek.SUNDAY;
+    }
+
+    /**
+     * Checks whether a day is the observed Independence Day, moved to Friday or Monday when July 4 is on a weekend,
+     * or Labor Day, the first Monday in September
+     */
+    private static boolean isHoliday(long epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        LocalDate independenceDay = LocalDate.of(date.getYear(), Month.JULY, 4);
+        if (independenceDay.getDayOfWeek() == DayOfWeek.SATURDAY) {
+            independenceDay = independenceDay.minusDays(1);
+        } else if (independenceDay.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            independenceDay = independenceDay.plusDays(1);
+        }
+        LocalDate laborDay = LocalDate.of(date.getYear(), Month.SEPTEMBER, 1)
+                .with(TemporalAdjusters.firstInMonth(DayOfWeek.MONDAY));
+        return date.equals(independenceDay) || date.equals(laborDay);
+    }
+}
@@ -0,0 +1,113 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.bulk.CheckoutCsvImporter;
+import com.cardinalfinancial.us.bulk.CsvWriter;
+import com.cardinalfinancial.us.bulk.ImportSummary;
+import com.cardinalfinancial.us.output.CsvAgreementSink;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks that CheckoutCsvImporter prices every valid row, writes the agreements in row order and
+ * rejects bad rows without stopping the run
+ * @author Sylvia Barnai
+ */
+
+public class CheckoutCsvImporterTest extends TestCase {
+
+    @Test
+    public void testImportWithHeaderAndRejects() {
+        String input = "discount_percent, Tool Code ,checkout_date,rental_days\r\n"
+                + "10,LADW,7/2/20,3\r\n"
+                + "\r\n"
+                + "25,\"CHNS\",7/2/15,5\r\n"
+                + "0,XXXX,7/2/15,5\n"
+                + "101,JAKR,9/3/15,5\n"
+                + "0,JAKD,13/45/15,5\n"
+                + "0,JAKD,7/2/15,five\n"
+                + "0,JAKD\n"
+                + "0,\"JAKD,7/2/15,5\n";
+
+        ByteArrayOutputStream agreements = new ByteArrayOutputStream();
+        ByteArrayOutputStream rejects = new ByteArrayOutputStream();
+        ImportSummary summary = importCsv(input, 1024, 64, agreements, rejects);
+
+        assertEquals(8, summary.getRowCount());
+        assertEquals(2, summary.getImportedCount());
+        assertEquals(6, summary.getRejectedCount());
+        String[] rows = agreements.toString().split("\n");
+        assertEquals(3, rows.length);
+        assertEquals(String.join(",", CsvAgreementSink.COLUMNS), rows[0]);
+        assertEquals("LADW,Ladder,Werner,,3,07/02/20,07/05/20,1.99,2,3.98,10,0.40,3.58", rows[1]);
+        assertEquals("CHNS,Chainsaw,Stihl,,5,07/02/15,07/07/15,1.49,3,4.47,25,1.12,3.35", rows[2]);
+
+        String[] rejectRows = rejects.toString().split("\n");
+        assertEquals(rejects.toString(), 7, rejectRows.length);
+        assertEquals("line,reason,row", rejectRows[0]);
+        assertTrue(rejectRows[1], rejectRows[1].startsWith("5,Unknown tool code."));
+        assertTrue(rejectRows[2], rejectRows[2].startsWith("6,"));
+        assertTrue(rejectRows[3], rejectRows[3].startsWith("7,Date is in invalid format."));
+        assertTrue(rejectRows[4], rejectRows[4].startsWith("8,Field 4 is not a number."));
+        assertTrue(rejectRows[5], rejectRows[5].startsWith("9,Row has 2 fields."));
+        assertTrue(rejectRows[6], rejectRows[6].startsWith("10,Row has a malformed quoted field."));
+    }
+
+    @Test
+    public void testImportWithoutHeaderAcrossBufferRefills() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            input.append(i % 2 == 0 ? "LADW" : "CHNS").append(",7/").append(1 + i % 28).append("/20,")
+                    .append(1 + i % 9).append(',').append(i % 100).append('\n');
+            if (i == 250) {
+                input.append("LADW,7/2/20,3,10,").append(new String(new char[100]).replace('\0', 'x')).append('\n');
+            }
+        }
+        // No line break after the last row
+        input.append("JAKR,9/3/15,5,50");
+
+        ByteArrayOutputStream agreements = new ByteArrayOutputStream();
+        ByteArrayOutputStream rejects = new ByteArrayOutputStream();
+        ImportSummary summary = importCsv(input.toString(), 7, 48, agreements, rejects);
+
+        assertEquals(502, summary.getRowCount());
+        assertEquals(501, summary.getImportedCount());
+        assertEquals(1, summary.getRejectedCount());
+        String[] rows = agreements.toString().split("\n");
+        assertEquals(502, rows.length);
+        assertTrue(rows[1], rows[1].startsWith("LADW,Ladder,Werner,,1,07/01/20,"));
+        assertTrue(rows[2], rows[2].startsWith("CHNS,Chainsaw,Stihl,,2,07/02/20,"));
+        assertTrue(rows[501], rows[501].startsWith("JAKR,Jackhammer,Ridgid,,5,09/03/15,"));
+        assertTrue(rejects.toString(), rejects.toString().contains("\n252,Row is longer than 48 bytes.,\n"));
+    }
+
+    /**
+     * Imports CSV text with a service that discards its own agreements
+     */
+    private static ImportSummary importCsv(String input, int batchSize, int bufferSize,
+                                           ByteArrayOutputStream agreements, ByteArrayOutputStream rejects) {
+        CheckoutCsvImporter importer = CheckoutCsvImporter.Builder.newInstance()
+                .setCheckoutService(CheckoutServiceImpl.Builder.newInstance()
+                        .setAgreementSink(QuietAgreementSink.INSTANCE).build())
+                .setBatchSize(batchSize).setBufferSize(bufferSize).build();
+        try (CsvAgreementSink output = new CsvAgreementSink(Channels.newChannel(agreements), true);
+             CsvWriter rejectWriter = new CsvWriter(Channels.newChannel(rejects))) {
+            return importer.importCheckouts(
+                    Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                    output, rejectWriter);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.http.CheckoutHttpServer;
+import com.cardinalfinancial.us.http.JsonCodec;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the JSON codec and the status codes and bodies of CheckoutHttpServer
+ * @author Sylvia Barnai
+ */
+
+public class CheckoutHttpServerTest extends TestCase {
+
+    @Test
+    public void testJsonCodecRoundTrip() {
+        Checkout checkout = JsonCodec.decodeCheckout(" {\"discountPercent\": 10, \"extra\": [1, {\"a\": null}],"
+                + " \"toolCode\": \"LA\\u0044W\", \"checkoutDate\": \"7/2/20\", \"rentalDayCount\": 3} ");
+        assertEquals("LADW", checkout.getToolCode());
+        assertEquals(3, checkout.getRentalDayCount());
+        assertEquals("{\"toolCode\":\"LADW\",\"checkoutDate\":\"7/2/20\",\"rentalDayCount\":3,\"discountPercent\":10}",
+                JsonCodec.appendCheckout(new StringBuilder(), checkout).toString());
+
+        RentalAgreement rentalAgreement = RentalAgreement.Builder.newInstance().setToolCode("LADW")
+                .setToolType("Ladder \"Pro\"").setToolBrand("Werner").setNumberOfDaysRented(3)
+                .setCheckoutEpochDay(18445).setDueEpochDay(18448).setDailyRentalChargeCents(199)
+                .setChargeableDaysCount(2).setPreDiscountChargeCents(398).setDiscountPercent(10)
+                .setDiscountAmountCents(40).setFinalChargeCents(358).build();
+        String json = JsonCodec.appendRentalAgreement(new StringBuilder(), rentalAgreement).toString();
+        assertTrue(json, json.contains("\"toolType\":\"Ladder \\\"Pro\\\"\""));
+        assertTrue(json, json.contains("\"discountAmount\":0.40,\"finalCharge\":3.58}"));
+        RentalAgreement decoded = JsonCodec.decodeRentalAgreement(json);
+        assertEquals(rentalAgreement.getToolType(), decoded.getToolType());
+        assertEquals(rentalAgreement.getCheckoutDate(), decoded.getCheckoutDate());
+        assertEquals(40, decoded.getDiscountAmountCents());
+        assertEquals(358, decoded.getFinalChargeCents());
+
+        for (String invalid : new String[]{"", "{", "{\"toolCode\" \"LADW\"}", "{\"rentalDayCount\": 3.5}",
+                "{\"toolCode\": \"LADW\"} x", "{\"rentalDayCount\": 99999999999}"}) {
+            try {
+                JsonCodec.decodeCheckout(invalid);
+                fail("Decoded " + invalid);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testCheckoutEndpoint() throws IOException {
+        CheckoutHttpServer server = CheckoutHttpServer.Builder.newInstance()
+                .setCheckoutService(CheckoutServiceImpl.Builder.newInstance()
+                        .setAgreementSink(QuietAgreementSink.INSTANCE).build())
+                .setHost("localhost").setPort(0).build();
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getPort();
+            String[] response = request(url + "/checkout", "POST",
+                    "{\"toolCode\":\"LADW\",\"checkoutDate\":\"7/2/20\",\"rentalDayCount\":3,\"discountPercent\":10}");
+            assertEquals("200", response[0]);
+            RentalAgreement rentalAgreement = JsonCodec.decodeRentalAgreement(response[1]);
+            assertEquals("07/05/20", rentalAgreement.getDueDate());
+            assertEquals(358, rentalAgreement.getFinalChargeCents());
+
+            response = request(url + "/checkout", "POST",
+                    "{\"toolCode\":\"XXXX\",\"checkoutDate\":\"7/2/20\",\"rentalDayCount\":3,\"discountPercent\":10}");
+            assertEquals("422", response[0]);
+            assertEquals("{\"error\":\"Unknown tool code\"}", response[1]);
+            // Internal causes of a refused checkout are not sent to terminals
+            assertEquals("Unable to create RentalAgreement instance", CheckoutException.getReason(new CheckoutException(
+                    "Unable to create RentalAgreement instance", new ArithmeticException("long overflow"))));
+            assertEquals("400", request(url + "/checkout", "POST", "{\"toolCode\":")[0]);
+            assertEquals("400", request(url + "/checkout", "POST",
+                    "{\"toolCode\":\"LADW\",\"checkoutDate\":\"7/2/20\",\"rentalDayCount\":0}")[0]);
+            assertEquals("405", request(url + "/checkout", "GET", null)[0]);
+            assertEquals("200", request(url + "/health", "GET", null)[0]);
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Sends a request and reads the status code and body of the response
+     */
+    private static String[] request(String url, String method, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) >= 0; ) {
+                bytes.write(buffer, 0, read);
+            }
+        }
+        return new String[]{String.valueOf(status), new String(bytes.toByteArray(), StandardCharsets.UTF_8)};
+    }
+}
@@ -0,0 +1,103 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.metrics.CheckoutMetrics;
+import com.cardinalfinancial.us.metrics.CheckoutStage;
+import com.cardinalfinancial.us.metrics.LatencyHistogram;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks LatencyHistogram percentiles and the metrics recorded by CheckoutServiceImpl
+ * @author Sylvia Barnai
+ */
+
+public class CheckoutMetricsTest extends TestCase {
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(4);
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000000, histogram.getMaxNanos());
+        assertEquals(50000000, histogram.getValueAtPercentile(50), 50000000 * 0.03);
+        assertEquals(99000000, histogram.getValueAtPercentile(99), 99000000 * 0.03);
+        assertEquals(99900000, histogram.getValueAtPercentile(99.9), 99900000 * 0.03);
+        assertEquals(100000000, histogram.getValueAtPercentile(100));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testCheckoutsAreRecordedPerStageAndToolCode() throws Exception {
+        CheckoutMetrics metrics = new CheckoutMetrics(1);
+        CheckoutServiceImpl checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .setMetrics(metrics)
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            checkoutService.processCheckout(checkout("JAKR", "9/3/15"));
+        }
+        try {
+            checkoutService.processCheckout(checkout("LADW", "not a date"));
+            fail("Expected CheckoutException");
+        } catch (CheckoutException e) {
+            // expected
+        }
+        try {
+            checkoutService.processCheckout(checkout("XXXX", "9/3/15"));
+            fail("Expected CheckoutException");
+        } catch (CheckoutException e) {
+            // expected
+        }
+
+        assertEquals(5, metrics.getCheckoutCount());
+        assertEquals(2, metrics.getErrorCount());
+        assertEquals(3, metrics.getToolCodeCheckoutCount("JAKR"));
+        assertEquals(0, metrics.getToolCodeErrorCount("JAKR"));
+        assertEquals(1, metrics.getToolCodeErrorCount("LADW"));
+        assertEquals(1, metrics.getToolCodeErrorCount(CheckoutMetrics.UNKNOWN_TOOL_CODE));
+        // A stage is only recorded once it completes, so the bad date is not
+        assertEquals(3, metrics.getStageLatency(CheckoutStage.DATE_PARSING).getCount());
+        assertEquals(4, metrics.getStageLatency(CheckoutStage.TOOL_LOOKUP).getCount());
+        assertEquals(3, metrics.getStageLatency(CheckoutStage.OUTPUT).getCount());
+        // The first JAKR checkout misses the price cache, the other two hit it
+        assertEquals(1, metrics.getStageLatency(CheckoutStage.CHARGEABLE_DAYS).getCount());
+        assertTrue(metrics.dump().contains("JAKR"));
+
+        ObjectName name = metrics.registerMBean("com.cardinalfinancial.us:type=CheckoutMetrics,name=test");
+        try {
+            assertEquals(5L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CheckoutCount"));
+        } finally {
+            CheckoutMetrics.unregisterMBean(name);
+        }
+    }
+
+    private static Checkout checkout(String toolCode, String checkoutDate) {
+        return Checkout.Builder.newInstance()
+                .setToolCode(toolCode)
+                .setRentalDayCount(5)
+                .setDiscountPercent(10)
+                .setCheckoutDate(checkoutDate)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.analytics.Aggregate;
+import com.cardinalfinancial.us.analytics.ColumnarAgreementStore;
+import com.cardinalfinancial.us.analytics.GroupBy;
+import com.cardinalfinancial.us.analytics.Measure;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.ColumnarAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the aggregation queries of ColumnarAgreementStore against sums over the agreements
+ * @author Sylvia Barnai
+ */
+
+public class ColumnarAgreementStoreTest extends TestCase {
+
+    @Test
+    public void testAggregatesMatchAgreements() {
+        ColumnarAgreementStore store = new ColumnarAgreementStore(64);
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(new ColumnarAgreementSink(store))
+                .build();
+        String[] toolCodes = {"LADW", "CHNS", "JAKR", "JAKD"};
+        List<RentalAgreement> rentalAgreements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rentalAgreements.add(checkoutService.processCheckout(Checkout.Builder.newInstance()
+                    .setToolCode(toolCodes[i % toolCodes.length]).setRentalDayCount(1 + i % 7)
+                    .setDiscountPercent(i % 101).setCheckoutDate("7/" + (1 + i % 30) + "/20").build()));
+        }
+        assertEquals(1000, store.size());
+
+        Map<String, long[]> byType = new TreeMap<>();
+        Map<String, long[]> byBucket = new TreeMap<>();
+        long from = DateUtils.toEpochDay(2020, 7, 4);
+        long to = DateUtils.toEpochDay(2020, 7, 10);
+        long rangeCount = 0;
+        long rangeDiscounts = 0;
+        for (RentalAgreement rentalAgreement : rentalAgreements) {
+            add(byType, rentalAgreement.getToolType(), rentalAgreement.getFinalChargeCents());
+            int bucket = rentalAgreement.getDiscountPercent() / 10;
+            add(byBucket, bucket == 10 ? "100%" : bucket * 10 + "-" + (bucket * 10 + 9) + "%", rentalAgreement.getPreDiscountChargeCents());
+            if (rentalAgreement.getCheckoutEpochDay() >= from && rentalAgreement.getCheckoutEpochDay() <= to) {
+                rangeCount++;
+                rangeDiscounts += rentalAgreement.getDiscountAmountCents();
+            }
+        }
+
+        assertEquals(toLists(byType), toMap(store.aggregate(Measure.FINAL_CHARGE, GroupBy.TOOL_TYPE)));
+        assertEquals(toLists(byBucket), toMap(store.aggregate(Measure.PRE_DISCOUNT_CHARGE, GroupBy.DISCOUNT_BUCKET)));
+
+        List<Aggregate> total = store.aggregate(Measure.DISCOUNT_AMOUNT, GroupBy.NONE, from, to);
+        assertEquals(1, total.size());
+        assertEquals(rangeCount, total.get(0).getCount());
+        assertEquals(rangeDiscounts, total.get(0).getSumCents());
+
+        List<Aggregate> byDay = store.aggregate(Measure.FINAL_CHARGE, GroupBy.CHECKOUT_DAY, from, to);
+        assertEquals(7, byDay.size());
+        assertEquals("07/04/20", byDay.get(0).getKey());
+        assertEquals(rangeCount, byDay.stream().mapToLong(Aggregate::getCount).sum());
+        assertEquals(4, store.aggregate(Measure.FINAL_CHARGE, GroupBy.TOOL_CODE).size());
+    }
+
+    private static void add(Map<String, long[]> totals, String key, long cents) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0]++;
+        total[1] += cents;
+    }
+
+    private static Map<String, List<Long>> toLists(Map<String, long[]> totals) {
+        Map<String, List<Long>> map = new TreeMap<>();
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            List<Long> values = new ArrayList<>();
+            values.add(entry.getValue()[0]);
+            values.add(entry.getValue()[1]);
+            map.put(entry.getKey(), values);
+        }
+        return map;
+    }
+
+    private static Map<String, List<Long>> toMap(List<Aggregate> aggregates) {
+        Map<String, List<Long>> map = new TreeMap<>();
+        for (Aggregate aggregate : aggregates) {
+            List<Long> values = new ArrayList<>();
+            values.add(aggregate.getCount());
+            values.add(aggregate.getSumCents());
+            map.put(aggregate.getKey(), values);
+        }
+        return map;
+    }
+}
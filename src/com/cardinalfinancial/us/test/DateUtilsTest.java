@@ -0,0 +1,57 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the hand-written date parser and formatter in DateUtils against java.time
+ * @author Sylvia Barnai
+ */
+
+public class DateUtilsTest extends TestCase {
+
+    @Test
+    public void testParseAndFormatMatchJavaTime() {
+        DateTimeFormatter shortFormat = DateTimeFormatter.ofPattern("M/d/yy");
+        DateTimeFormatter longFormat = DateTimeFormatter.ofPattern("MM/dd/yy");
+
+        for (LocalDate date = LocalDate.of(2000, 1, 1); date.getYear() < 2100; date = date.plusDays(1)) {
+            assertEquals(date.toEpochDay(), DateUtils.parseEpochDay(date.format(shortFormat)));
+            assertEquals(date.toEpochDay(), DateUtils.parseEpochDay(date.format(longFormat)));
+            assertEquals(date.format(longFormat), DateUtils.formatEpochDay(date.toEpochDay()));
+        }
+    }
+
+    @Test
+    public void testParseErrorCodes() {
+        assertEquals(DateUtils.PARSE_ERROR_NULL, DateUtils.parseEpochDay(null));
+        assertEquals(DateUtils.PARSE_ERROR_FORMAT, DateUtils.parseEpochDay(""));
+        assertEquals(DateUtils.PARSE_ERROR_FORMAT, DateUtils.parseEpochDay("2020-07-02"));
+        assertEquals(DateUtils.PARSE_ERROR_FORMAT, DateUtils.parseEpochDay("7/2/2020"));
+        assertEquals(DateUtils.PARSE_ERROR_FORMAT, DateUtils.parseEpochDay("123/2/20"));
+        assertEquals(DateUtils.PARSE_ERROR_FORMAT, DateUtils.parseEpochDay("7/x/20"));
+        assertEquals(DateUtils.PARSE_ERROR_RANGE, DateUtils.parseEpochDay("13/2/20"));
+        assertEquals(DateUtils.PARSE_ERROR_RANGE, DateUtils.parseEpochDay("7/0/20"));
+    }
+
+    @Test
+    public void testDueDateAndStandardFormat() {
+        assertEquals("07/05/20", DateUtils.calculateDueDate("7/2/20", 3));
+        assertEquals("01/04/21", DateUtils.calculateDueDate("12/30/20", 5));
+        assertEquals("09/03/15", DateUtils.convertDateToUSStandardFormat("9/3/15"));
+
+        // A day past the end of the month moves back to the last day, like DateTimeFormatter's smart resolver
+        assertEquals("02/29/20", DateUtils.convertDateToUSStandardFormat("2/30/20"));
+    }
+}
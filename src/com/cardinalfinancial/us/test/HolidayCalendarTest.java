@@ -0,0 +1,86 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.calendar.FixedDateHolidayRule;
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.calendar.HolidayRule;
+import com.cardinalfinancial.us.calendar.ObservedHolidayRule;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Collections;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the holidays observed by HolidayCalendar and the chargeable days counted from it
+ * @author Sylvia Barnai
+ */
+
+public class HolidayCalendarTest extends TestCase {
+
+    @Test
+    public void testIndependenceDayObservedOnClosestWeekday() {
+        HolidayCalendar calendar = HolidayCalendar.US_DEFAULT;
+
+        // July 4th 2015 is a Saturday, observed on Friday July 3rd
+        assertTrue(calendar.isHoliday(LocalDate.of(2015, 7, 3).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2015, 7, 4).toEpochDay()));
+
+        // July 4th 2021 is a Sunday, observed on Monday July 5th
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 7, 5).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2021, 7, 4).toEpochDay()));
+
+        // July 4th 2019 is a Thursday
+        assertTrue(calendar.isHoliday(LocalDate.of(2019, 7, 4).toEpochDay()));
+    }
+
+    @Test
+    public void testLaborDay() {
+        HolidayCalendar calendar = HolidayCalendar.US_DEFAULT;
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2015, 9, 7).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2015, 9, 14).toEpochDay()));
+        assertTrue(calendar.isHoliday(LocalDate.of(2020, 9, 7).toEpochDay()));
+    }
+
+    @Test
+    public void testObservedHolidayCrossesYearBoundary() {
+        // January 1st 2022 is a Saturday, observed on Friday December 31st 2021
+        HolidayRule newYearsDay = new ObservedHolidayRule(new FixedDateHolidayRule("New Year's Day", Month.JANUARY, 1));
+        HolidayCalendar calendar = new HolidayCalendar(Collections.singletonList(newYearsDay));
+
+        assertTrue(calendar.isHoliday(LocalDate.of(2021, 12, 31).toEpochDay()));
+        assertFalse(calendar.isHoliday(LocalDate.of(2022, 1, 1).toEpochDay()));
+        assertEquals(2, calendar.countHolidays(LocalDate.of(2021, 1, 1).toEpochDay(), LocalDate.of(2021, 12, 31).toEpochDay()));
+    }
+
+    @Test
+    public void testChargeableDaysMatchDayByDayCount() {
+        HolidayCalendar calendar = HolidayCalendar.US_DEFAULT;
+        long start = LocalDate.of(2019, 12, 1).toEpochDay();
+
+        for (ToolType toolType : ToolType.values()) {
+            for (int rentalDayCount = 1; rentalDayCount <= 800; rentalDayCount += 7) {
+                int expected = 0;
+                for (long day = start + 1; day <= start + rentalDayCount; day++) {
+                    boolean weekend = LocalDate.ofEpochDay(day).getDayOfWeek().getValue() >= 6;
+                    String charge = calendar.isHoliday(day) ? toolType.isHolidayCharge()
+                            : weekend ? toolType.isWeekendCharge() : toolType.isWeekdayCharge();
+                    if ("Yes".equals(charge)) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, ChargeableDaysUtils.countChargeableDays(toolType, start, rentalDayCount));
+            }
+        }
+    }
+}
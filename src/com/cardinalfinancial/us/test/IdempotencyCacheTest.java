@@ -0,0 +1,196 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.cache.CacheStats;
+import com.cardinalfinancial.us.cache.IdempotencyCache;
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.http.JsonCodec;
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.AgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks retried checkouts are answered with their original RentalAgreement by IdempotencyCache
+ * @author Sylvia Barnai
+ */
+
+public class IdempotencyCacheTest extends TestCase {
+
+    @Test
+    public void testRetriesReturnTheOriginalAgreement() throws Exception {
+        CountingAgreementSink sink = new CountingAgreementSink();
+        ToolInventory toolInventory = ToolInventory.fromCatalog(ReloadableToolCatalog.getDefault().get());
+        CheckoutServiceImpl checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setInventory(toolInventory)
+                .setAgreementSink(sink)
+                .build();
+        Checkout checkout = JsonCodec.decodeCheckout("{\"toolCode\":\"LADW\",\"checkoutDate\":\"07/02/20\","
+                + "\"rentalDayCount\":3,\"discountPercent\":10,\"idempotencyKey\":\"terminal-7:0001\"}");
+        assertEquals("terminal-7:0001", checkout.getIdempotencyKey());
+
+        // Eight terminals retry at once, and only one agreement and one unit come out of it
+        int unitCount = toolInventory.getUnitCount("LADW");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<RentalAgreement>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> checkoutService.processCheckout(checkout));
+            }
+            RentalAgreement original = checkoutService.processCheckout(checkout);
+            for (Future<RentalAgreement> future : executor.invokeAll(tasks)) {
+                assertSame(original, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, sink.count.get());
+        assertEquals(unitCount - 1, toolInventory.getAvailableCount("LADW"));
+        assertEquals(8, checkoutService.getIdempotencyCache().getStats().getHitCount());
+
+        // A retry may write the same date in the other accepted format
+        RentalAgreement retried = checkoutService.processCheckout(Checkout.Builder.newInstance().setToolCode("LADW")
+                .setRentalDayCount(3).setDiscountPercent(10).setCheckoutDate("7/2/20")
+                .setIdempotencyKey("terminal-7:0001").build());
+        assertSame(checkoutService.processCheckout(checkout), retried);
+        assertEquals(1, sink.count.get());
+
+        // Checkouts without a key are never deduplicated
+        Checkout unkeyed = Checkout.Builder.newInstance().setToolCode("LADW").setRentalDayCount(3)
+                .setDiscountPercent(10).setCheckoutDate("07/02/20").build();
+        assertNotSame(checkoutService.processCheckout(unkeyed), checkoutService.processCheckout(unkeyed));
+        assertEquals(3, sink.count.get());
+
+        try {
+            checkoutService.processCheckout(Checkout.Builder.newInstance().setToolCode("LADW").setRentalDayCount(4)
+                    .setDiscountPercent(10).setCheckoutDate("07/02/20").setIdempotencyKey("terminal-7:0001").build());
+            fail("Reused an idempotency key for a different checkout");
+        } catch (CheckoutException e) {
+            assertEquals("Idempotency key was used for a different checkout", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFailedCheckoutsAreProcessedAgain() {
+        IdempotencyCache cache = IdempotencyCache.Builder.newInstance().build();
+        Checkout checkout = Checkout.Builder.newInstance().setToolCode("JAKR").setRentalDayCount(4)
+                .setDiscountPercent(0).setCheckoutDate("7/2/20").setIdempotencyKey("retry").build();
+        try {
+            cache.getOrProcess(checkout, c -> {
+                throw new CheckoutException("No unit of the tool is available");
+            });
+            fail("Swallowed the failure of the original checkout");
+        } catch (CheckoutException e) {
+            assertEquals("No unit of the tool is available", e.getMessage());
+        }
+        assertEquals(0, cache.getStats().getSize());
+
+        // Entries of failed checkouts stay in the expiry queue until they reach its head, within the maximum size
+        IdempotencyCache smallCache = IdempotencyCache.Builder.newInstance().setMaximumSize(100).build();
+        for (int i = 0; i < 20000; i++) {
+            try {
+                smallCache.getOrProcess(Checkout.Builder.newInstance().setToolCode("JAKR").setRentalDayCount(4)
+                        .setDiscountPercent(0).setCheckoutDate("7/2/20").setIdempotencyKey("failed-" + i).build(), c -> {
+                    throw new CheckoutException("No unit of the tool is available");
+                });
+                fail("Swallowed the failure of the original checkout");
+            } catch (CheckoutException e) {
+                assertTrue(smallCache.getQueueLength() <= 100);
+            }
+        }
+        assertEquals(0, smallCache.getStats().getSize());
+
+        RentalAgreement rentalAgreement = cache.getOrProcess(checkout,
+                c -> RentalAgreement.Builder.newInstance().setToolCode("JAKR").build());
+        assertSame(rentalAgreement, cache.getOrProcess(checkout, c -> null));
+    }
+
+    @Test
+    public void testEntriesExpireByTimeAndSize() {
+        AtomicLong nanos = new AtomicLong();
+        IdempotencyCache cache = IdempotencyCache.Builder.newInstance()
+                .setMaximumSize(100)
+                .setTimeToLive(5, TimeUnit.MINUTES)
+                .setTicker(nanos::get)
+                .build();
+        AtomicInteger processed = new AtomicInteger();
+        Checkout checkout = Checkout.Builder.newInstance().setToolCode("CHNS").setRentalDayCount(5)
+                .setDiscountPercent(25).setCheckoutDate("7/2/15").setIdempotencyKey("first").build();
+        RentalAgreement original = cache.getOrProcess(checkout, c -> newAgreement(processed));
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5) - 1);
+        assertSame(original, cache.getOrProcess(checkout, c -> newAgreement(processed)));
+        nanos.incrementAndGet();
+        assertNotSame(original, cache.getOrProcess(checkout, c -> newAgreement(processed)));
+        assertEquals(2, processed.get());
+
+        // A burst of new keys is trimmed back to the maximum size as it is added
+        for (int i = 0; i < 1000; i++) {
+            cache.getOrProcess(Checkout.Builder.newInstance().setToolCode("CHNS").setRentalDayCount(5)
+                    .setDiscountPercent(25).setCheckoutDate("7/2/15").setIdempotencyKey("burst-" + i).build(),
+                    c -> newAgreement(processed));
+            assertTrue(cache.getStats().getSize() <= 100);
+        }
+        CacheStats stats = cache.getStats();
+        assertEquals(1002, stats.getMissCount());
+        assertEquals(902, stats.getEvictionCount());
+
+        // Once the burst has expired, every new entry removes several expired ones
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        for (int i = 0; i < 25; i++) {
+            cache.getOrProcess(Checkout.Builder.newInstance().setToolCode("CHNS").setRentalDayCount(5)
+                    .setDiscountPercent(25).setCheckoutDate("7/2/15").setIdempotencyKey("late-" + i).build(),
+                    c -> newAgreement(processed));
+        }
+        assertEquals(25, cache.getStats().getSize());
+    }
+
+    /**
+     * Creates a distinct RentalAgreement and counts it
+     */
+    private static RentalAgreement newAgreement(AtomicInteger processed) {
+        processed.incrementAndGet();
+        return RentalAgreement.Builder.newInstance().setToolCode("CHNS").build();
+    }
+
+    /**
+     * AgreementSink that counts the agreements it receives
+     */
+    private static final class CountingAgreementSink implements AgreementSink {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void accept(RentalAgreement rentalAgreement) {
+            count.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.load.CheckoutMix;
+import com.cardinalfinancial.us.load.InProcessLoadTarget;
+import com.cardinalfinancial.us.load.LoadGenerator;
+import com.cardinalfinancial.us.load.LoadReport;
+import com.cardinalfinancial.us.load.LoadTarget;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the checkouts of CheckoutMix and the counts and saturation point of LoadGenerator
+ * @author Sylvia Barnai
+ */
+
+public class LoadGeneratorTest extends TestCase {
+
+    @Test
+    public void testMixDrawsConfiguredCheckouts() {
+        CheckoutMix mix = CheckoutMix.Builder.newInstance().addToolCode("LADW", 1).addToolCode("JAKD", 3)
+                .addDiscountPercent(20, 1).setRentalDays(2, 4).setYears(2020, 2020).setHolidayWindowDays(0)
+                .setHolidayShare(1).build();
+        SplittableRandom random = new SplittableRandom(7);
+        int jackhammerCount = 0;
+        for (int i = 0; i < 1000; i++) {
+            Checkout checkout = mix.next(random);
+            // July 4 and Labor Day of 2020
+            assertTrue(checkout.getCheckoutDate(), Arrays.asList("07/04/20", "09/07/20").contains(checkout.getCheckoutDate()));
+            assertTrue(checkout.getRentalDayCount() >= 2 && checkout.getRentalDayCount() <= 4);
+            assertEquals(20, checkout.getDiscountPercent());
+            jackhammerCount += "JAKD".equals(checkout.getToolCode()) ? 1 : 0;
+        }
+        assertTrue(String.valueOf(jackhammerCount), jackhammerCount > 650 && jackhammerCount < 850);
+    }
+
+    @Test
+    public void testRunCountsRequestsAndErrors() throws InterruptedException {
+        LoadReport report = LoadGenerator.Builder.newInstance()
+                .setTarget(new InProcessLoadTarget(CheckoutServiceImpl.Builder.newInstance()
+                        .setAgreementSink(QuietAgreementSink.INSTANCE).build()))
+                .setTerminalCount(2).setWarmup(50, TimeUnit.MILLISECONDS).setDuration(200, TimeUnit.MILLISECONDS)
+                .build().run();
+        assertTrue(report.getRequestCount() > 0);
+        assertEquals(0, report.getErrorCount());
+        assertTrue(report.getP99Nanos() >= report.getP50Nanos());
+
+        LoadTarget failingTarget = new LoadTarget() {
+            @Override
+            public void send(Checkout checkout) {
+                if (checkout.getToolCode().startsWith("JAK")) {
+                    throw new IllegalStateException("Refused");
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        report = LoadGenerator.Builder.newInstance().setTarget(failingTarget).setTerminalCount(1)
+                .setWarmup(0, TimeUnit.MILLISECONDS).setDuration(100, TimeUnit.MILLISECONDS).build().run();
+        // Half of the default mix is jackhammers
+        assertTrue(String.valueOf(report.getErrorRate()), report.getErrorRate() > 0.4 && report.getErrorRate() < 0.6);
+    }
+
+    @Test
+    public void testSaturationPoint() {
+        LoadReport saturation = LoadGenerator.findSaturationPoint(Arrays.asList(report(1, 1000), report(2, 1900),
+                report(4, 3500), report(8, 3600), report(16, 3400)));
+        assertEquals(4, saturation.getTerminalCount());
+        assertNull(LoadGenerator.findSaturationPoint(Arrays.asList()));
+    }
+
+    /**
+     * Creates a one second report with a throughput
+     */
+    private static LoadReport report(int terminalCount, long requestCount) {
+        return new LoadReport(terminalCount, requestCount, 0, TimeUnit.SECONDS.toNanos(1), 1, 2, 3, 4, 5);
+    }
+}
@@ -0,0 +1,46 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.utils.NumberFormatUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the currency and percentage output of NumberFormatUtils against NumberFormat and String.format
+ * @author Sylvia Barnai
+ */
+
+public class NumberFormatUtilsTest extends TestCase {
+
+    @Test
+    public void testCurrencyMatchesNumberFormat() {
+        NumberFormat numberFormat = NumberFormat.getCurrencyInstance(Locale.US);
+        numberFormat.setMaximumFractionDigits(2);
+
+        double[] amounts = {0, 0.4, 1.12, 3.58, 14.95, 1234.56, 1000000, 0.005, 0.015, 1.005, 999.995, -1.5, -0.004};
+        for (double amount : amounts) {
+            assertEquals(numberFormat.format(amount), NumberFormatUtils.formatDoubleCurrency(amount));
+        }
+    }
+
+    @Test
+    public void testAppendCurrencyAndPercentage() {
+        StringBuilder builder = new StringBuilder();
+        NumberFormatUtils.appendCurrency(builder, 123456L);
+        builder.append(' ');
+        NumberFormatUtils.appendPercentage(builder, 10);
+
+        assertEquals("$1,234.56 10%", builder.toString());
+        assertEquals("$0.07", NumberFormatUtils.formatCurrency(7));
+        assertEquals("100%", NumberFormatUtils.formatPercentage(100));
+    }
+}
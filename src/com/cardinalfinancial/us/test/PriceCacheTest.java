@@ -0,0 +1,60 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.cache.CacheStats;
+import com.cardinalfinancial.us.cache.PriceCache;
+import com.cardinalfinancial.us.model.PricingResult;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.LocalDate;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the results and statistics of PriceCache
+ * @author Sylvia Barnai
+ */
+
+public class PriceCacheTest extends TestCase {
+
+    @Test
+    public void testHitsReturnTheCachedResult() {
+        PriceCache priceCache = new PriceCache(100);
+        long checkoutEpochDay = LocalDate.of(2015, 7, 2).toEpochDay();
+
+        PricingResult first = priceCache.getOrCompute(ToolType.CHAINSAW, checkoutEpochDay, 5, 25);
+        PricingResult second = priceCache.getOrCompute(ToolType.CHAINSAW, checkoutEpochDay, 5, 25);
+        PricingResult expected = CalculateChargesUtils.calculatePricing(ToolType.CHAINSAW, checkoutEpochDay, 5, 25);
+
+        assertSame(first, second);
+        assertEquals(expected.getChargeableDaysCount(), first.getChargeableDaysCount());
+        assertEquals(expected.getFinalCharge(), first.getFinalCharge());
+
+        CacheStats stats = priceCache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testCacheIsBoundedAndCountsEvictions() {
+        PriceCache priceCache = new PriceCache(64);
+        long checkoutEpochDay = LocalDate.of(2020, 1, 1).toEpochDay();
+
+        for (int i = 0; i < 1000; i++) {
+            priceCache.getOrCompute(ToolType.LADDER, checkoutEpochDay + i, 3, 10);
+        }
+
+        CacheStats stats = priceCache.getStats();
+        assertTrue(stats.getSize() <= 64);
+        assertEquals(1000 - stats.getSize(), stats.getEvictionCount());
+        assertEquals(1000, stats.getMissCount());
+    }
+}
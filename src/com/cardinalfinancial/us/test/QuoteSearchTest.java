@@ -0,0 +1,93 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.PricingResult;
+import com.cardinalfinancial.us.model.Tool;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.DayClass;
+import com.cardinalfinancial.us.pricing.PeakSeason;
+import com.cardinalfinancial.us.pricing.QuoteSearch;
+import com.cardinalfinancial.us.pricing.RentalQuotes;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.ChargeableDaysUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.time.MonthDay;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the quotes of QuoteSearch against the charges priced for single checkouts
+ * @author Sylvia Barnai
+ */
+
+public class QuoteSearchTest extends TestCase {
+
+    @Test
+    public void testQuotesMatchCheckoutPricing() {
+        QuoteSearch quoteSearch = QuoteSearch.Builder.newInstance().build();
+        for (ToolDefinition tool : ReloadableToolCatalog.getDefault().get().getTools()) {
+            RentalQuotes quotes = quoteSearch.quote(tool.getToolCode(), "6/20/20", "9/10/20", 10, 15);
+            assertEquals(83, quotes.size());
+            assertPricedLikeCheckouts(tool.getToolType(), quotes);
+        }
+
+        // Chainsaws skip weekends, so ten days from Thursday 7/2 span two weekends and pay six days
+        RentalQuotes chainsaw = QuoteSearch.quote(Tool.CHNS, DateUtils.toEpochDay(2020, 7, 1),
+                DateUtils.toEpochDay(2020, 7, 31), 10, 0);
+        assertEquals(DateUtils.toEpochDay(2020, 7, 2), chainsaw.getCheckoutEpochDay(chainsaw.getCheapestIndex()));
+        assertEquals("$8.94", chainsaw.getFinalCharge(chainsaw.getCheapestIndex()).toString());
+
+        try {
+            quoteSearch.quote("ZZZZ", "7/1/20", "7/31/20", 10, 0);
+            fail("Quoted an unknown tool");
+        } catch (CheckoutException e) {
+            assertEquals("Unknown tool code", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testHalfDayAndPeakQuotesOverTheEndOfTheYear() {
+        ChargeTable chargeTable = ChargeTable.Builder.newInstance()
+                .setPeakSeason(new PeakSeason(MonthDay.of(12, 20), MonthDay.of(1, 5)))
+                .addRule(DayClass.WEEKEND, DayClass.WEEKEND, ChargeTable.HALF_DAY)
+                .addRule(DayClass.PEAK, DayClass.PEAK, 125)
+                .addRule(0, 0, ChargeTable.FULL_DAY)
+                .build();
+        ToolTypeDefinition snowBlower = ToolCatalog.Builder.newInstance()
+                .addToolType("Snow Blower", Money.of("3.33"), chargeTable).build().getToolTypes().get(0);
+        RentalQuotes quotes = QuoteSearch.quote("SNOW", snowBlower, DateUtils.toEpochDay(2020, 12, 1),
+                DateUtils.toEpochDay(2021, 1, 31), 17, 5);
+        assertPricedLikeCheckouts(snowBlower, quotes);
+
+        long from = DateUtils.toEpochDay(2019, 11, 1);
+        long to = DateUtils.toEpochDay(2021, 3, 1);
+        assertEquals(ChargeableDaysUtils.countChargeableDays(chargeTable, HolidayCalendar.US_DEFAULT, from - 1,
+                (int) (to - from + 1)), snowBlower.getChargeCalendar().countChargeableDays(from, to));
+    }
+
+    /**
+     * Checks every quote against the pricing of a single checkout on its date
+     */
+    private static void assertPricedLikeCheckouts(ToolTypeDefinition toolType, RentalQuotes quotes) {
+        for (int i = 0; i < quotes.size(); i++) {
+            PricingResult expected = CalculateChargesUtils.calculatePricing(toolType, quotes.getCheckoutEpochDay(i),
+                    quotes.getRentalDayCount(), quotes.getDiscountPercent());
+            assertEquals(expected.getChargeableDaysCount(), quotes.getChargeableDaysCount(i));
+            assertEquals(expected.getFinalCharge(), quotes.getFinalCharge(i));
+        }
+    }
+}
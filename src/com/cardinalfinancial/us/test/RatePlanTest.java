@@ -0,0 +1,108 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolCatalogLoader;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.PricingResult;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.DayClass;
+import com.cardinalfinancial.us.pricing.QuoteSearch;
+import com.cardinalfinancial.us.pricing.RatePlan;
+import com.cardinalfinancial.us.pricing.RentalQuotes;
+import com.cardinalfinancial.us.utils.CalculateChargesUtils;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the lowest combinations of daily, weekly and monthly charges found by RatePlan
+ * @author Sylvia Barnai
+ */
+
+public class RatePlanTest extends TestCase {
+
+    @Test
+    public void testLowestCombination() throws IOException {
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader(
+                "type,Ladder,1.99,Yes,Yes,No,9.99,29.99\ntype,Pump,1.00,Yes,Yes,Yes,5.00,18.00\n"
+                        + "type,Saw,2.00,Yes,No,No,-,25.00\ntool,LADW,Ladder,Werner\n"));
+        ToolTypeDefinition ladder = catalog.getToolTypes().get(0);
+        assertEquals("$9.99", ladder.getRatePlan().getWeeklyCharge().toString());
+
+        // Nine chargeable days around Labor Day: three days and a week beat nine days at $1.99
+        PricingResult laborDay = CalculateChargesUtils.calculatePricing(ladder, DateUtils.toEpochDay(2020, 9, 1), 10, 0);
+        assertEquals(9, laborDay.getChargeableDaysCount());
+        assertEquals("$15.96", laborDay.getPreDiscountCharge().toString());
+        assertEquals("$9.95", CalculateChargesUtils.calculatePricing(ladder, DateUtils.toEpochDay(2020, 9, 1), 5, 0)
+                .getPreDiscountCharge().toString());
+        assertEquals("$9.99", CalculateChargesUtils.calculatePricing(ladder, DateUtils.toEpochDay(2020, 9, 1), 7, 0)
+                .getPreDiscountCharge().toString());
+
+        // 45 days are a month, two weeks and a day
+        ToolTypeDefinition pump = catalog.getToolTypes().get(1);
+        assertEquals("$29.00", CalculateChargesUtils.calculatePricing(pump, DateUtils.toEpochDay(2021, 3, 1), 45, 0)
+                .getPreDiscountCharge().toString());
+
+        // A year is twelve months and five days
+        PricingResult year = CalculateChargesUtils.calculatePricing(pump, DateUtils.toEpochDay(2021, 1, 1), 365, 10);
+        assertEquals("$221.00", year.getPreDiscountCharge().toString());
+        assertEquals("$198.90", year.getFinalCharge().toString());
+
+        // Without a weekly charge, weekends are free and a month only pays off for more than 12 weekdays
+        ToolTypeDefinition saw = catalog.getToolTypes().get(2);
+        assertNull(saw.getRatePlan().getWeeklyCharge());
+        assertEquals("$20.00", CalculateChargesUtils.calculatePricing(saw, DateUtils.toEpochDay(2021, 3, 5), 16, 0)
+                .getPreDiscountCharge().toString());
+        assertEquals("$25.00", CalculateChargesUtils.calculatePricing(saw, DateUtils.toEpochDay(2021, 3, 5), 20, 0)
+                .getPreDiscountCharge().toString());
+    }
+
+    @Test
+    public void testLongRentalsUseConstantMemory() throws IOException {
+        ToolTypeDefinition pump = ToolCatalogLoader.load(new StringReader("type,Pump,1.00,Yes,Yes,No,5.00,18.00\n"))
+                .getToolTypes().get(0);
+        // The ring of best prices gives the same charges as the table over every day, across year ends
+        int dayCount = 3660;
+        long from = DateUtils.toEpochDay(2019, 11, 20);
+        int[] chargeableDayPrefix = new int[dayCount + 1];
+        long[] chargePercentPrefix = new long[dayCount + 1];
+        pump.getChargeCalendar().fillPrefixSums(from, dayCount, chargeableDayPrefix, chargePercentPrefix);
+        for (int days = 1; days <= dayCount; days += days < 100 ? 1 : 97) {
+            assertEquals(pump.getRatePlan().calculateChargeCents(100, chargePercentPrefix, 0, days),
+                    pump.getRatePlan().calculateChargeCents(100, pump.getChargeCalendar(), from, days));
+        }
+
+        // 400000 days fit in 13334 months, so they never cost more
+        PricingResult longRental = CalculateChargesUtils.calculatePricing(pump, DateUtils.toEpochDay(2021, 1, 1),
+                400000, 0);
+        assertTrue(longRental.getPreDiscountCharge().getCents() > 0);
+        assertTrue(longRental.getPreDiscountCharge().getCents() <= 13334L * 1800);
+    }
+
+    @Test
+    public void testQuotesUseTheRatePlan() {
+        ToolTypeDefinition halfDayWeekends = ToolCatalog.Builder.newInstance()
+                .addToolType("Mixer", Money.of("3.01"), ChargeTable.Builder.newInstance()
+                                .addRule(DayClass.WEEKEND, DayClass.WEEKEND, ChargeTable.HALF_DAY).addRule(0, 0, ChargeTable.FULL_DAY).build(),
+                        RatePlan.Builder.newInstance().setWeeklyCharge(Money.of("14.99")).build())
+                .build().getToolTypes().get(0);
+        RentalQuotes quotes = QuoteSearch.quote("MIXR", halfDayWeekends, DateUtils.toEpochDay(2020, 6, 1),
+                DateUtils.toEpochDay(2020, 9, 30), 11, 20);
+        for (int i = 0; i < quotes.size(); i++) {
+            PricingResult expected = CalculateChargesUtils.calculatePricing(halfDayWeekends,
+                    quotes.getCheckoutEpochDay(i), 11, 20);
+            assertEquals(expected.getFinalCharge(), quotes.getFinalCharge(i));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.journal.AgreementJournal;
+import com.cardinalfinancial.us.journal.JournalReader;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.JournalAgreementSink;
+import com.cardinalfinancial.us.recovery.DailyTotal;
+import com.cardinalfinancial.us.recovery.RentalState;
+import com.cardinalfinancial.us.recovery.RentalStateStore;
+import com.cardinalfinancial.us.returns.ReturnService;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks that RentalStateStore recovers the same state from a snapshot and the journal tail as
+ * from replaying the whole journal
+ * @author Sylvia Barnai
+ */
+
+public class RentalStateStoreTest extends TestCase {
+
+    @Test
+    public void testRecoverFromSnapshotAndJournalTail() throws Exception {
+        Path directory = Files.createTempDirectory("state");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSegmentSize(4096).setSyncOnAppend(false).build();
+            CheckoutService checkoutService = checkoutService(journal);
+            checkout(checkoutService, 0, 60);
+
+            RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            store.recover();
+            assertNotNull(store.snapshot());
+            assertNull(store.snapshot());
+            checkout(checkoutService, 60, 140);
+            journal.close();
+            store.close();
+
+            RentalStateStore restarted = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            RentalState recovered = restarted.recover();
+            RentalState replayed = new RentalState();
+            JournalReader.replay(directory, 1, replayed);
+
+            assertEquals(140, recovered.getLastSequence());
+            assertEquals(140, recovered.getOpenRentalCount());
+            assertEquals(totals(replayed), totals(recovered));
+            assertEquals(replayed.getOpenRental(100).getFinalCharge(), recovered.getOpenRental(100).getFinalCharge());
+            assertEquals(replayed.getOpenRental(7).getDueEpochDay(), recovered.getOpenRental(7).getDueEpochDay());
+
+            ToolInventory inventory = inventory();
+            assertEquals(140, recovered.restoreInventory(inventory));
+            assertEquals(0, inventory.getAvailableCount("LADW"));
+            assertEquals(863, inventory.getAvailableCount("JAKD"));
+            restarted.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testJournaledReturnsCloseRentals() throws Exception {
+        Path directory = Files.createTempDirectory("state");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSegmentSize(4096).setSyncOnAppend(false).build();
+            checkout(checkoutService(journal), 0, 60);
+            RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            ReturnService returnService = ReturnService.Builder.newInstance().setJournal(journal)
+                    .setInventory(inventory()).build();
+            assertEquals(60, returnService.restore(store.recover()));
+
+            // The rentals are in the first segment and their returns in a later one
+            assertTrue(journal.getSegmentCount() > 1);
+            returnService.processReturn(1, "7/6/20");
+            returnService.processReturn(50, "7/30/20");
+            assertEquals(62, journal.getLastSequence());
+            RentalState caughtUp = store.catchUp();
+            assertEquals(58, caughtUp.getOpenRentalCount());
+            assertNull(caughtUp.getOpenRental(1));
+            assertNotNull(store.snapshot());
+            returnService.processReturn(2, "7/6/20");
+            journal.close();
+            store.close();
+
+            // Recovered from the snapshot and the journal tail, and from the journal segments alone
+            RentalStateStore restarted = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            Path emptySnapshots = Files.createDirectory(directory.resolve("no-snapshots"));
+            RentalStateStore journalOnly = RentalStateStore.Builder.newInstance().setJournalDirectory(directory)
+                    .setSnapshotDirectory(emptySnapshots).build();
+            for (RentalState recovered : new RentalState[]{restarted.recover(), journalOnly.recover()}) {
+                assertEquals(63, recovered.getLastSequence());
+                assertEquals(57, recovered.getOpenRentalCount());
+                assertNull(recovered.getOpenRental(50));
+                assertNotNull(recovered.getOpenRental(3));
+                ToolInventory inventory = inventory();
+                assertEquals(57, recovered.restoreInventory(inventory));
+                assertEquals(1, inventory.getAvailableCount("LADW"));
+                assertEquals(1, inventory.getAvailableCount("CHNS"));
+                assertEquals(0, inventory.getAvailableCount("JAKR"));
+                ReturnService restored = ReturnService.Builder.newInstance().setInventory(inventory).build();
+                assertEquals(57, restored.restore(recovered));
+            }
+            RentalState replayed = new RentalState();
+            JournalReader.replay(directory, 1, replayed);
+            assertEquals(57, replayed.getOpenRentalCount());
+            assertEquals(totals(replayed), totals(restarted.getState()));
+            restarted.close();
+            journalOnly.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testCorruptSnapshotFallsBackToJournal() throws Exception {
+        Path directory = Files.createTempDirectory("state");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSyncOnAppend(false).build();
+            checkout(checkoutService(journal), 0, 20);
+            journal.close();
+            RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            store.recover();
+            Path snapshot = store.snapshot();
+            store.close();
+
+            // Without a journal, the state comes from the snapshot alone
+            Path emptyJournal = Files.createDirectory(directory.resolve("empty"));
+            RentalStateStore snapshotOnly = RentalStateStore.Builder.newInstance().setJournalDirectory(emptyJournal)
+                    .setSnapshotDirectory(store.getSnapshotDirectory()).build();
+            assertEquals(20, snapshotOnly.recover().getOpenRentalCount());
+            snapshotOnly.close();
+
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{0x7F}), 40);
+            }
+
+            RentalStateStore restarted = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            RentalState recovered = restarted.recover();
+            assertEquals(20, recovered.getLastSequence());
+            assertEquals(20, recovered.getOpenRentalCount());
+            restarted.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void testSnapshotKeepsLargeUnitNumbers() throws Exception {
+        Path directory = Files.createTempDirectory("state");
+        try {
+            AgreementJournal journal = AgreementJournal.Builder.newInstance().setDirectory(directory)
+                    .setSyncOnAppend(false).build();
+            int[] unitNumbers = {1, 32767, 32768, 40000, 65536, Integer.MAX_VALUE, RentalAgreement.NO_UNIT};
+            for (int unitNumber : unitNumbers) {
+                journal.append(RentalAgreement.Builder.newInstance().setToolCode("JAKD").setUnitNumber(unitNumber)
+                        .setCheckoutEpochDay(18444).setDueEpochDay(18449).setFinalChargeCents(1495).build());
+            }
+            journal.close();
+            RentalStateStore store = RentalStateStore.Builder.newInstance().setJournalDirectory(directory).build();
+            store.recover();
+            assertNotNull(store.snapshot());
+            store.close();
+
+            Path emptyJournal = Files.createDirectory(directory.resolve("empty"));
+            RentalStateStore snapshotOnly = RentalStateStore.Builder.newInstance().setJournalDirectory(emptyJournal)
+                    .setSnapshotDirectory(store.getSnapshotDirectory()).build();
+            RentalState recovered = snapshotOnly.recover();
+            assertEquals(unitNumbers.length, recovered.getOpenRentalCount());
+            for (int i = 0; i < unitNumbers.length; i++) {
+                assertEquals(unitNumbers[i], recovered.getOpenRental(i + 1).getUnitNumber());
+            }
+            snapshotOnly.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Creates a CheckoutService that journals its agreements
+     */
+    private static CheckoutService checkoutService(AgreementJournal journal) {
+        return CheckoutServiceImpl.Builder.newInstance().setAgreementSink(new JournalAgreementSink(journal))
+                .setInventory(inventory()).build();
+    }
+
+    /**
+     * Creates an inventory with a single unit of three tools and enough JAKD units for every other checkout
+     */
+    private static ToolInventory inventory() {
+        ToolInventory inventory = new ToolInventory();
+        inventory.addTool("LADW", 1);
+        inventory.addTool("CHNS", 1);
+        inventory.addTool("JAKR", 1);
+        inventory.addTool("JAKD", 1000);
+        return inventory;
+    }
+
+    /**
+     * Checks out one tool per index, on a different day for every index
+     */
+    private static void checkout(CheckoutService checkoutService, int from, int to) {
+        String[] toolCodes = {"LADW", "CHNS", "JAKR"};
+        for (int i = from; i < to; i++) {
+            RentalAgreement rentalAgreement = checkoutService.processCheckout(Checkout.Builder.newInstance()
+                    .setToolCode(i < toolCodes.length ? toolCodes[i] : "JAKD").setRentalDayCount(1 + i % 9)
+                    .setDiscountPercent(i % 50).setCheckoutDate("7/" + (1 + i % 28) + "/20").build());
+            assertNotNull(rentalAgreement);
+        }
+    }
+
+    /**
+     * Formats the daily totals of a state for comparison
+     */
+    private static List<String> totals(RentalState state) {
+        return state.getDailyTotals().stream()
+                .map((DailyTotal total) -> total.getEpochDay() + ":" + total.getAgreementCount() + ":"
+                        + total.getRevenue() + ":" + total.getDiscounts())
+                .collect(Collectors.toList());
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
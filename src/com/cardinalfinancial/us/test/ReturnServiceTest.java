@@ -0,0 +1,114 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.recovery.OpenRental;
+import com.cardinalfinancial.us.returns.ReturnReceipt;
+import com.cardinalfinancial.us.returns.ReturnService;
+import com.cardinalfinancial.us.service.CheckoutService;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+import com.cardinalfinancial.us.utils.DateUtils;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.List;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks the late fees, overdue lists and unit releases of ReturnService
+ * @author Sylvia Barnai
+ */
+
+public class ReturnServiceTest extends TestCase {
+
+    @Test
+    public void testLateFeesOverTheJulyFourthWeekend() {
+        ToolInventory inventory = new ToolInventory();
+        inventory.addTool("LADW", 1);
+        inventory.addTool("CHNS", 1);
+        inventory.addTool("JAKR", 1);
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE).setInventory(inventory).build();
+        ReturnService returnService = ReturnService.Builder.newInstance().setInventory(inventory).build();
+        returnService.track(1, checkout(checkoutService, "LADW", "6/29/20", 3));
+        returnService.track(2, checkout(checkoutService, "CHNS", "6/29/20", 3));
+        returnService.track(3, checkout(checkoutService, "JAKR", "7/1/20", 9));
+        assertEquals(0, inventory.getAvailableCount("LADW"));
+
+        List<OpenRental> overdue = returnService.getOverdue("7/3/20");
+        assertEquals(2, overdue.size());
+        assertEquals(1, overdue.get(0).getSequence());
+        assertEquals(2, overdue.get(1).getSequence());
+        assertTrue(returnService.getOverdue("7/2/20").isEmpty());
+        assertEquals(3, returnService.getOverdue("7/11/20").size());
+
+        // Due Thursday 7/2, returned Monday 7/6: Friday 7/3 is the observed July 4 holiday, then a weekend
+        ReturnReceipt ladder = returnService.processReturn(1, "7/6/20");
+        assertEquals(4, ladder.getLateDayCount());
+        assertEquals(3, ladder.getChargeableLateDayCount());
+        assertEquals("$5.97", ladder.getLateFee().toString());
+        assertEquals(1, inventory.getAvailableCount("LADW"));
+
+        ReturnReceipt chainsaw = returnService.processReturn(2, "7/6/20");
+        assertEquals(2, chainsaw.getChargeableLateDayCount());
+        assertEquals("$2.98", chainsaw.getLateFee().toString());
+
+        ReturnReceipt jackhammer = returnService.processReturn(3, "7/10/20");
+        assertFalse(jackhammer.isLate());
+        assertEquals("$0.00", jackhammer.getLateFee().toString());
+        assertEquals(0, returnService.getOverdueIndex().size());
+        assertTrue(returnService.getOverdue(DateUtils.toEpochDay(2021, 1, 1)).isEmpty());
+    }
+
+    @Test
+    public void testInvalidReturns() {
+        CheckoutService checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setAgreementSink(QuietAgreementSink.INSTANCE).build();
+        ReturnService returnService = ReturnService.Builder.newInstance().setLateFeePercent(150).build();
+        RentalAgreement rentalAgreement = checkout(checkoutService, "LADW", "7/6/20", 2);
+        returnService.track(7, rentalAgreement);
+        try {
+            returnService.track(7, rentalAgreement);
+            fail("Tracked a rental twice");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertReturnFails(returnService, 8, "7/8/20", "Unknown rental");
+        assertReturnFails(returnService, 7, "7/5/20", "Return date is before the checkout date");
+        assertReturnFails(returnService, 7, "7/40/20", "Date is in invalid format");
+
+        // Two weekdays late at 150% of $1.99
+        assertEquals("$5.97", returnService.processReturn(7, "7/10/20").getLateFee().toString());
+        assertReturnFails(returnService, 7, "7/10/20", "Unknown rental");
+    }
+
+    /**
+     * Checks out a tool without discount
+     */
+    private static RentalAgreement checkout(CheckoutService checkoutService, String toolCode, String checkoutDate,
+                                            int rentalDayCount) {
+        return checkoutService.processCheckout(Checkout.Builder.newInstance().setToolCode(toolCode)
+                .setCheckoutDate(checkoutDate).setRentalDayCount(rentalDayCount).setDiscountPercent(0).build());
+    }
+
+    /**
+     * Checks that a return fails with a message
+     */
+    private static void assertReturnFails(ReturnService returnService, long rentalId, String returnDate, String message) {
+        try {
+            returnService.processReturn(rentalId, returnDate);
+            fail("Returned rental " + rentalId + " on " + returnDate);
+        } catch (CheckoutException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolCatalog;
+import com.cardinalfinancial.us.catalog.ToolCatalogLoader;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.model.Tool;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks loading, lookup and reloading of the ToolCatalog
+ * @author Sylvia Barnai
+ */
+
+public class ToolCatalogTest extends TestCase {
+
+    @Test
+    public void testDefaultCatalogMatchesToolEnum() {
+        ToolCatalog catalog = ReloadableToolCatalog.getDefault().get();
+
+        assertEquals(Tool.values().length, catalog.size());
+        for (Tool tool : Tool.values()) {
+            ToolDefinition definition = catalog.find(tool.getToolCode().getValue());
+            assertNotNull(definition);
+            assertEquals(tool.getToolType().getValue(), definition.getToolType().getName());
+            assertEquals(tool.getToolBrand().getValue(), definition.getToolBrand());
+            assertEquals(tool.getToolType().getDailyCharge(), definition.getToolType().getDailyCharge());
+        }
+        assertNull(catalog.find("XXXX"));
+        assertNull(catalog.find("LAD"));
+        assertNull(catalog.find(null));
+    }
+
+    @Test
+    public void testLookupInLargeCatalog() throws Exception {
+        StringBuilder text = new StringBuilder("type,Saw,12.50,Yes,No,No\n");
+        for (int i = 0; i < 5000; i++) {
+            text.append(String.format("tool,%c%03d,Saw,Brand%d%n", (char) ('P' + i / 1000), i % 1000, i % 7));
+        }
+        ToolCatalog catalog = ToolCatalogLoader.load(new StringReader(text.toString()));
+
+        assertEquals(5000, catalog.size());
+        for (ToolDefinition tool : catalog.getTools()) {
+            assertSame(tool, catalog.find(tool.getToolCode()));
+        }
+        assertEquals(Money.of("12.50"), catalog.find("T999").getToolType().getDailyCharge());
+    }
+
+    @Test
+    public void testInvalidCatalogIsRejected() {
+        for (String text : Arrays.asList("type,Saw,1.00,Yes,No\n", "type,Saw,1.00,Yes,No,Maybe\n",
+                "tool,SAWW,Saw,Brand\n", "type,Saw,1.00,Yes,No,No\ntool,SAW,Saw,Brand\n",
+                "type,Saw,1.00,Yes,No,No\ntool,SAWW,Saw,A\ntool,SAWW,Saw,B\n")) {
+            try {
+                ToolCatalogLoader.load(new StringReader(text));
+                fail("Expected CheckoutException for " + text);
+            } catch (CheckoutException e) {
+                // expected
+            } catch (Exception e) {
+                fail("Expected CheckoutException for " + text + " but got " + e);
+            }
+        }
+    }
+
+    @Test
+    public void testReloadSwapsCatalogForCheckouts() throws Exception {
+        Path file = Files.createTempFile("tools", ".catalog");
+        try {
+            Files.write(file, "type,Ladder,1.99,Yes,Yes,No\ntool,LADW,Ladder,Werner\n".getBytes(StandardCharsets.UTF_8));
+            ReloadableToolCatalog toolCatalog = new ReloadableToolCatalog(file);
+            CheckoutServiceImpl checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                    .setToolCatalog(toolCatalog)
+                    .setAgreementSink(QuietAgreementSink.INSTANCE)
+                    .build();
+            Checkout checkout = Checkout.Builder.newInstance().setToolCode("LADW").setRentalDayCount(3)
+                    .setDiscountPercent(0).setCheckoutDate("9/9/15").build();
+
+            assertEquals(Money.of("5.97"), checkoutService.processCheckout(checkout).getFinalCharge());
+
+            Files.write(file, "type,Ladder,2.49,Yes,Yes,No\ntool,LADW,Ladder,Little Giant\n".getBytes(StandardCharsets.UTF_8));
+            toolCatalog.reload();
+            RentalAgreement rentalAgreement = checkoutService.processCheckout(checkout);
+
+            // The cached price of the old catalog must not be reused
+            assertEquals(Money.of("7.47"), rentalAgreement.getFinalCharge());
+            assertEquals("Little Giant", rentalAgreement.getToolBrand());
+
+            Files.write(file, "not a catalog\n".getBytes(StandardCharsets.UTF_8));
+            try {
+                toolCatalog.reload();
+                fail("Expected CheckoutException");
+            } catch (CheckoutException e) {
+                // expected
+            }
+            assertEquals("Little Giant", toolCatalog.get().find("LADW").getToolBrand());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.cardinalfinancial.us.test;
+
+import com.cardinalfinancial.us.catalog.ReloadableToolCatalog;
+import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.inventory.ToolInventory;
+import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.RentalAgreement;
+import com.cardinalfinancial.us.output.QuietAgreementSink;
+import com.cardinalfinancial.us.service.CheckoutServiceImpl;
+
+import junit.framework.TestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.BlockJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+@RunWith(value = BlockJUnit4ClassRunner.class)
+
+/**
+ * JUnit test class that checks unit reservation in ToolInventory and CheckoutServiceImpl
+ * @author Sylvia Barnai
+ */
+
+public class ToolInventoryTest extends TestCase {
+
+    @Test
+    public void testConcurrentReservationsNeverShareAUnit() throws Exception {
+        ToolInventory toolInventory = new ToolInventory();
+        toolInventory.addTool("SAWW", 150);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<List<Integer>>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                tasks.add(() -> {
+                    List<Integer> units = new ArrayList<>();
+                    for (int unit = toolInventory.reserve("SAWW"); unit != ToolInventory.NO_UNIT_AVAILABLE; unit = toolInventory.reserve("SAWW")) {
+                        units.add(unit);
+                    }
+                    return units;
+                });
+            }
+            boolean[] reserved = new boolean[150];
+            for (Future<List<Integer>> future : executor.invokeAll(tasks)) {
+                for (int unit : future.get()) {
+                    assertFalse("Unit " + unit + " reserved twice", reserved[unit]);
+                    reserved[unit] = true;
+                }
+            }
+            for (boolean unitReserved : reserved) {
+                assertTrue(unitReserved);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(0, toolInventory.getAvailableCount("SAWW"));
+        assertTrue(toolInventory.release("SAWW", 149));
+        assertFalse(toolInventory.release("SAWW", 149));
+        assertEquals(149, toolInventory.reserve("SAWW"));
+    }
+
+    @Test
+    public void testCheckoutFailsWhenEveryUnitIsRented() {
+        ToolInventory toolInventory = ToolInventory.fromCatalog(ReloadableToolCatalog.getDefault().get());
+        CheckoutServiceImpl checkoutService = CheckoutServiceImpl.Builder.newInstance()
+                .setInventory(toolInventory)
+                .setAgreementSink(QuietAgreementSink.INSTANCE)
+                .build();
+        Checkout checkout = Checkout.Builder.newInstance().setToolCode("JAKR").setRentalDayCount(4)
+                .setDiscountPercent(0).setCheckoutDate("7/2/20").build();
+
+        int unitCount = toolInventory.getUnitCount("JAKR");
+        List<RentalAgreement> rentalAgreements = new ArrayList<>();
+        for (int i = 0; i < unitCount; i++) {
+            rentalAgreements.add(checkoutService.processCheckout(checkout));
+        }
+        try {
+            checkoutService.processCheckout(checkout);
+            fail("Expected CheckoutException");
+        } catch (CheckoutException e) {
+            // expected
+        }
+
+        RentalAgreement returned = rentalAgreements.get(0);
+        assertTrue(toolInventory.isReserved("JAKR", returned.getUnitNumber()));
+        assertTrue(returned.appendRentalAgreementDetails(new StringBuilder()).indexOf("Tool unit: " + returned.getUnitNumber()) >= 0);
+        toolInventory.release("JAKR", returned.getUnitNumber());
+        assertEquals(returned.getUnitNumber(), checkoutService.processCheckout(checkout).getUnitNumber());
+    }
+}
@@ -1,14 +1,17 @@
 package com.cardinalfinancial.us.utils;
 
-import com.cardinalfinancial.us.common.ToolConstants;
+import com.cardinalfinancial.us.catalog.ToolDefinition;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
 import com.cardinalfinancial.us.exception.CheckoutException;
 import com.cardinalfinancial.us.model.Checkout;
+import com.cardinalfinancial.us.model.Money;
+import com.cardinalfinancial.us.model.PricingResult;
 import com.cardinalfinancial.us.model.Tool;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.RatePlan;
 
-import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.DayOfWeek;
-import java.time.LocalDate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,83 +36,29 @@ public class CalculateChargesUtils {
      */
 
     public static int calculateChargeableDaysCount(Tool tool, Checkout checkout) {
+        return calculateChargeableDaysCount(ToolTypeDefinition.of(tool.getToolType()), checkout);
+    }
 
-        // number of chargeable days
-        int chargeableDaysCount = 0;
+    /**
+     * Determine how many days should be charged for a tool of the ToolCatalog
+     *
+     * @param tool     ToolDefinition instance
+     * @param checkout Checkout instance
+     * @return the number of chargeable days
+     */
+    public static int calculateChargeableDaysCount(ToolDefinition tool, Checkout checkout) {
+        return calculateChargeableDaysCount(tool.getToolType(), checkout);
+    }
+
+    /**
+     * Counts the chargeable days of a checkout and throws exception if error occurs
+     */
+    private static int calculateChargeableDaysCount(ToolTypeDefinition toolType, Checkout checkout) {
 
         try {
-            // Convert checkout date string to local date and add 1 more day to it
-            LocalDate date = DateUtils.parseInputDate(checkout.getCheckoutDate()).plusDays(1);
-            // Create due date instance from checkout date and rental day count
-            LocalDate dueDate = DateUtils.parseInputDate(checkout.getCheckoutDate()).plusDays(checkout.getRentalDayCount());
-
-            while (!date.isEqual(dueDate.plusDays(1))) {
-                // Tool has no holiday charge and weekend charge
-                if (tool.getToolType().isHolidayCharge().equals(ToolConstants.NO_CHARGE) && tool.getToolType().isWeekendCharge().equals(ToolConstants.NO_CHARGE)) {
-                    // check if the date is 4th of July
-                    if (date.getMonthValue() == 7 && date.getDayOfMonth() == 4) {
-                        if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                            // if 4th of July is on Saturday or Sunday, weekday needs to be subtracted from chargeableDaysCount
-                            chargeableDaysCount--;
-                        }
-                    }
-
-                    // If it is Labor Day, then do not increment chargeableDaysCount
-                    else if (date.getMonthValue() == 9 && date.getDayOfWeek() == DayOfWeek.MONDAY && date.getDayOfMonth() < 8) {
-
-                    }
-
-                    // If it is the weekend, then do not increment chargeableDaysCount. If it is a weekday, then increment chargeableDaysCount
-                    else if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-
-                    } else {
-                        chargeableDaysCount++;
-                    }
-                }
-
-                // Tool has no weekend charge but it has holiday charge
-                else if (tool.getToolType().isWeekendCharge().equals(ToolConstants.NO_CHARGE) && tool.getToolType().isHolidayCharge().equals(ToolConstants.YES_CHARGE)) {
-                    // If it is the weekend, then do not increment the chargeableDaysCount. If it is a weekday, then increment chargeableDaysCount
-                    if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                    } else {
-                        chargeableDaysCount++;
-                    }
-
-                }
-
-                // Tool has no holiday charge, but has weekend charge
-                else if (tool.getToolType().isHolidayCharge().equals(ToolConstants.NO_CHARGE) && tool.getToolType().isWeekendCharge().equals(ToolConstants.YES_CHARGE)) {
-                    // check that the date is July 4th
-                    if (date.getMonthValue() == 7 && date.getDayOfMonth() == 4) {
-                        // Check if the date is Saturday
-                        if (date.getDayOfWeek() == DayOfWeek.SATURDAY) {
-                            // if the checkout date is Friday, then they do not get a free day for Saturday
-                            if (DateUtils.parseInputDate(checkout.getCheckoutDate()).isEqual(date.minusDays(1))) {
-                                chargeableDaysCount++;
-                            }
-                        }
-                        // Check if the checkout date is Sunday
-                        else if (date.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                            // if the due date is on Sunday, they do not get a free day for Sunday
-                            if (LocalDate.parse(DateUtils.calculateDueDate(checkout.getCheckoutDate(), checkout.getRentalDayCount())).isEqual(date)) {
-                                chargeableDaysCount++;
-                            }
-                        }
-                    }
-
-                    // check if the date is Labor Day
-                    else if (date.getMonthValue() == 9 && date.getDayOfWeek() == DayOfWeek.MONDAY && date.getDayOfMonth() < 8) {
-                    }
-
-                    // Increment chargeableDaysCount charged by default
-                    else {
-                        chargeableDaysCount++;
-                    }
-                }
-                // Increment the date by 1 day
-                date = date.plusDays(1);
-            }
-            return chargeableDaysCount;
+            // Parse the checkout date once and count the chargeable days in closed form
+            long checkoutEpochDay = DateUtils.parseInputEpochDay(checkout.getCheckoutDate());
+            return ChargeableDaysUtils.countChargeableDays(toolType, checkoutEpochDay, checkout.getRentalDayCount());
         } catch (Exception e) {
             LOGGER.log(Level.WARNING, e.getMessage());
             throw new CheckoutException("Failed to count number of days charged");
@@ -117,31 +66,156 @@ public class CalculateChargesUtils {
     }
 
     /**
-     * Calculates the pre-discount charge as charge days X daily charge. Resulting total rounded to cents.
+     * Calculates every charge for a rental in one pass, computing the chargeable days and each amount only once
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent, specified at checkout
+     * @return PricingResult instance
+     */
+    public static PricingResult calculatePricing(ToolType toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        return calculatePricing(ToolTypeDefinition.of(toolType), checkoutEpochDay, rentalDayCount, discountPercent);
+    }
+
+    /**
+     * Calculates every charge for a rental of a catalog tool type in one pass
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param discountPercent  the discount percent, specified at checkout
+     * @return PricingResult instance
+     */
+    public static PricingResult calculatePricing(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount, int discountPercent) {
+        long[] dayClassCounts = ChargeableDaysUtils.countDayClasses(toolType, checkoutEpochDay, rentalDayCount);
+        return calculatePricing(toolType, checkoutEpochDay, rentalDayCount, dayClassCounts, discountPercent);
+    }
+
+    /**
+     * Calculates every charge for a rental whose days have already been counted by class. If the tool type has
+     * weekly or monthly charges, then the pre-discount charge is the lowest combination of its RatePlan over the
+     * rental days, otherwise it is the sum of the daily charges.
+     *
+     * @param toolType         the tool type of the rented tool
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @param dayClassCounts   the day counts indexed by DayClass
+     * @param discountPercent  the discount percent, specified at checkout
+     * @return PricingResult instance
+     */
+    public static PricingResult calculatePricing(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount,
+                                                 long[] dayClassCounts, int discountPercent) {
+        RatePlan ratePlan = toolType.getRatePlan();
+        if (ratePlan.isDailyOnly()) {
+            return calculatePricing(toolType, dayClassCounts, discountPercent);
+        }
+        Money dailyRentalCharge = toolType.getDailyCharge();
+        long preDiscountCents = ratePlan.calculateChargeCents(dailyRentalCharge.getCents(), toolType.getChargeCalendar(),
+                checkoutEpochDay + 1, rentalDayCount);
+        long discountCents = calculateDiscountAmountCents(discountPercent, preDiscountCents);
+        long finalCents = calculateFinalChargeCents(preDiscountCents, discountCents);
+        return new PricingResult(toolType.getChargeTable().countChargeableDays(dayClassCounts), dailyRentalCharge,
+                Money.ofCents(preDiscountCents), Money.ofCents(discountCents), Money.ofCents(finalCents));
+    }
+
+    /**
+     * Calculates every charge for a rental whose days have already been counted by class, at the daily charge
+     * without the weekly or monthly charges of the tool type. Each day is charged the percentage of the daily charge
+     * its class has in the ChargeTable of the tool type, and the pre-discount charge is rounded half up to cents once
+     * for the whole rental.
+     *
+     * @param toolType        the tool type of the rented tool
+     * @param dayClassCounts  the day counts indexed by DayClass
+     * @param discountPercent the discount percent, specified at checkout
+     * @return PricingResult instance
+     */
+    public static PricingResult calculatePricing(ToolTypeDefinition toolType, long[] dayClassCounts, int discountPercent) {
+        ChargeTable chargeTable = toolType.getChargeTable();
+        int chargeableDaysCount = chargeTable.countChargeableDays(dayClassCounts);
+        if (chargeTable.isFullDaysOnly()) {
+            return calculatePricing(toolType, chargeableDaysCount, discountPercent);
+        }
+        Money dailyRentalCharge = toolType.getDailyCharge();
+        long preDiscountCents = calculateWeightedChargeCents(dailyRentalCharge.getCents(), chargeTable.sumChargePercents(dayClassCounts));
+        long discountCents = calculateDiscountAmountCents(discountPercent, preDiscountCents);
+        long finalCents = calculateFinalChargeCents(preDiscountCents, discountCents);
+        return new PricingResult(chargeableDaysCount, dailyRentalCharge, Money.ofCents(preDiscountCents),
+                Money.ofCents(discountCents), Money.ofCents(finalCents));
+    }
+
+    /**
+     * Calculates every charge for a rental whose chargeable days have already been counted, where every chargeable
+     * day is charged in full
+     *
+     * @param toolType            the tool type of the rented tool
+     * @param chargeableDaysCount the number of chargeable days
+     * @param discountPercent     the discount percent, specified at checkout
+     * @return PricingResult instance
+     */
+    public static PricingResult calculatePricing(ToolTypeDefinition toolType, int chargeableDaysCount, int discountPercent) {
+        Money dailyRentalCharge = toolType.getDailyCharge();
+        long preDiscountCents = calculatePreDiscountChargeCents(chargeableDaysCount, dailyRentalCharge.getCents());
+        long discountCents = calculateDiscountAmountCents(discountPercent, preDiscountCents);
+        long finalCents = calculateFinalChargeCents(preDiscountCents, discountCents);
+        return new PricingResult(chargeableDaysCount, dailyRentalCharge, Money.ofCents(preDiscountCents),
+                Money.ofCents(discountCents), Money.ofCents(finalCents));
+    }
+
+    /**
+     * Calculates the pre-discount charge as charge days X daily charge. The product of whole cents needs no rounding.
      *
      * @param chargeableDaysCount The number of chargeable days, from the day after checkout through and including due date, excluding "no charge" days as specified by the tool type
      * @param dailyRentalCharge   The amount per day, specified by the tool type
      * @return the calculated pre-discount charge
      */
-    public static double calculatePreDiscountCharge(int chargeableDaysCount, double dailyRentalCharge) {
-        // Uses BigDecimal and setScale to format final charge to two decimal places
-        double preDiscountCharge = new BigDecimal(chargeableDaysCount * dailyRentalCharge).setScale(2, RoundingMode.HALF_DOWN).doubleValue();
-        return preDiscountCharge;
+    public static Money calculatePreDiscountCharge(int chargeableDaysCount, Money dailyRentalCharge) {
+        return Money.ofCents(calculatePreDiscountChargeCents(chargeableDaysCount, dailyRentalCharge.getCents()));
     }
 
     /**
-     * Calculates the discount amount from discount percent and pre-discount charge. Resulting amount rounded to cents.
+     * Calculates the pre-discount charge in cents as charge days X daily charge
+     *
+     * @param chargeableDaysCount The number of chargeable days
+     * @param dailyRentalCents    The amount per day in cents
+     * @return the calculated pre-discount charge in cents
+     */
+    public static long calculatePreDiscountChargeCents(int chargeableDaysCount, long dailyRentalCents) {
+        return Math.multiplyExact(dailyRentalCents, (long) chargeableDaysCount);
+    }
+
+    /**
+     * Calculates a charge in cents from the sum of the charge percentages of the days, rounded half up to cents
+     *
+     * @param dailyRentalCents The amount per day in cents
+     * @param chargePercentSum The sum of the charge percentages of the days, 100 for each full day
+     * @return the calculated charge in cents
+     */
+    public static long calculateWeightedChargeCents(long dailyRentalCents, long chargePercentSum) {
+        return Money.divide(Math.multiplyExact(dailyRentalCents, chargePercentSum), 100, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calculates the discount amount from discount percent and pre-discount charge. Resulting amount rounded half up to cents.
      *
      * @param discountPercent   The discount percent, specified at checkout
      * @param preDiscountCharge The pre-discount charge, which was calculated by calculatePreDiscountCharge() function
      * @return the calculated discount amount
      */
-    public static double calculateDiscountAmount(int discountPercent, double preDiscountCharge) {
-        // Uses BigDecimal and setScale to format final charge to two decimal places
-        double discountAmount = new BigDecimal(discountPercent * 0.01f * preDiscountCharge).setScale(2, RoundingMode.HALF_UP).doubleValue();
-        return discountAmount;
+    public static Money calculateDiscountAmount(int discountPercent, Money preDiscountCharge) {
+        return Money.ofCents(calculateDiscountAmountCents(discountPercent, preDiscountCharge.getCents()));
     }
 
+    /**
+     * Calculates the discount amount in cents from discount percent and pre-discount charge. Resulting amount rounded half up to cents.
+     *
+     * @param discountPercent        The discount percent, specified at checkout
+     * @param preDiscountChargeCents The pre-discount charge in cents
+     * @return the calculated discount amount in cents
+     */
+    public static long calculateDiscountAmountCents(int discountPercent, long preDiscountChargeCents) {
+        return Money.percentageCents(preDiscountChargeCents, discountPercent, RoundingMode.HALF_UP);
+    }
 
     /**
      * Calculates the final charge, which is pre-discount charge minus discount amount.
@@ -150,15 +224,23 @@ public class CalculateChargesUtils {
      * @param discountAmount    The discount amount, specified at checkout
      * @return the calculated final charge
      */
-    public static double calculateFinalCharge(double preDiscountCharge, double discountAmount) {
-        double finalCharge = 0;
+    public static Money calculateFinalCharge(Money preDiscountCharge, Money discountAmount) {
+        return Money.ofCents(calculateFinalChargeCents(preDiscountCharge.getCents(), discountAmount.getCents()));
+    }
+
+    /**
+     * Calculates the final charge in cents, which is pre-discount charge minus discount amount.
+     *
+     * @param preDiscountChargeCents The pre-discount charge in cents
+     * @param discountAmountCents    The discount amount in cents
+     * @return the calculated final charge in cents
+     */
+    public static long calculateFinalChargeCents(long preDiscountChargeCents, long discountAmountCents) {
         try {
-            finalCharge = preDiscountCharge - discountAmount;
-        } catch (Exception e) {
+            return Math.subtractExact(preDiscountChargeCents, discountAmountCents);
+        } catch (ArithmeticException e) {
             LOGGER.log(Level.WARNING, "Failed to calculate final charge");
             throw new CheckoutException("Failed to calculate final charge");
         }
-        return finalCharge;
-
     }
 }
@@ -0,0 +1,159 @@
+package com.cardinalfinancial.us.utils;
+
+import com.cardinalfinancial.us.calendar.HolidayCalendar;
+import com.cardinalfinancial.us.catalog.ToolTypeDefinition;
+import com.cardinalfinancial.us.model.ToolType;
+import com.cardinalfinancial.us.pricing.ChargeTable;
+import com.cardinalfinancial.us.pricing.DayClass;
+
+/**
+ * Utility class that counts chargeable days in closed form over epoch days instead of walking every day of the rental.
+ * The days of each DayClass are counted with week arithmetic and a HolidayCalendar, and the ChargeTable of the tool
+ * type, compiled when the catalog is loaded, decides which classes are charged.
+ *
+ * @author Sylvia Barnai
+ */
+public class ChargeableDaysUtils {
+
+    /**
+     * Offset that shifts epoch day 0 (Thursday, 1970-01-01) so that a shifted value divisible by 7 is a Monday
+     */
+    private static final int MONDAY_OFFSET = 3;
+
+    /**
+     * Number of weekdays in a full week
+     */
+    private static final int WEEKDAYS_PER_WEEK = 5;
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private ChargeableDaysUtils() {
+    }
+
+    /**
+     * Counts the chargeable days from the day after checkout through and including the due date for a tool type,
+     * using the default holiday calendar
+     *
+     * @param toolType         the tool type that specifies which days are charged
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the number of chargeable days
+     */
+    public static int countChargeableDays(ToolType toolType, long checkoutEpochDay, int rentalDayCount) {
+        return countChargeableDays(toolType, HolidayCalendar.US_DEFAULT, checkoutEpochDay, rentalDayCount);
+    }
+
+    /**
+     * Counts the chargeable days from the day after checkout through and including the due date for a tool type.
+     * Every day is either a holiday, a weekend day or a weekday, and a holiday is charged by the holiday charge only.
+     *
+     * @param toolType         the tool type that specifies which days are charged
+     * @param holidayCalendar  the calendar of observed holidays
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the number of chargeable days
+     */
+    public static int countChargeableDays(ToolType toolType, HolidayCalendar holidayCalendar, long checkoutEpochDay, int rentalDayCount) {
+        return countChargeableDays(ToolTypeDefinition.of(toolType).getChargeTable(), holidayCalendar, checkoutEpochDay, rentalDayCount);
+    }
+
+    /**
+     * Counts the chargeable days from the day after checkout through and including the due date for a catalog tool
+     * type, using the default holiday calendar
+     *
+     * @param toolType         the tool type that specifies which days are charged
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the number of chargeable days
+     */
+    public static int countChargeableDays(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount) {
+        return countChargeableDays(toolType.getChargeTable(), HolidayCalendar.US_DEFAULT, checkoutEpochDay, rentalDayCount);
+    }
+
+    /**
+     * Counts the chargeable days from the day after checkout through and including the due date.
+     * Every day is either a holiday, a weekend day or a weekday, and a holiday is charged by the holiday charge only.
+     *
+     * @param weekdayCharge    whether weekdays are charged
+     * @param weekendCharge    whether weekend days are charged
+     * @param holidayCharge    whether holidays are charged
+     * @param holidayCalendar  the calendar of observed holidays
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the number of chargeable days
+     */
+    public static int countChargeableDays(boolean weekdayCharge, boolean weekendCharge, boolean holidayCharge,
+                                          HolidayCalendar holidayCalendar, long checkoutEpochDay, int rentalDayCount) {
+        return countChargeableDays(ChargeTable.of(weekdayCharge, weekendCharge, holidayCharge), holidayCalendar,
+                checkoutEpochDay, rentalDayCount);
+    }
+
+    /**
+     * Counts the chargeable days from the day after checkout through and including the due date by a ChargeTable
+     *
+     * @param chargeTable      the table that specifies which classes of day are charged
+     * @param holidayCalendar  the calendar of observed holidays
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the number of chargeable days
+     */
+    public static int countChargeableDays(ChargeTable chargeTable, HolidayCalendar holidayCalendar, long checkoutEpochDay, int rentalDayCount) {
+        return chargeTable.countChargeableDays(checkoutEpochDay + 1, checkoutEpochDay + rentalDayCount, holidayCalendar);
+    }
+
+    /**
+     * Counts the days of each class from the day after checkout through and including the due date, using the
+     * default holiday calendar and the peak season of the tool type
+     *
+     * @param toolType         the tool type whose ChargeTable classifies the days
+     * @param checkoutEpochDay the checkout date as an epoch day
+     * @param rentalDayCount   the number of days the tool is rented for
+     * @return the day counts indexed by DayClass
+     */
+    public static long[] countDayClasses(ToolTypeDefinition toolType, long checkoutEpochDay, int rentalDayCount) {
+        long[] counts = new long[DayClass.COUNT];
+        toolType.getChargeTable().countDays(checkoutEpochDay + 1, checkoutEpochDay + rentalDayCount,
+                HolidayCalendar.US_DEFAULT, counts);
+        return counts;
+    }
+
+    /**
+     * Counts the weekdays (Monday through Friday) between two epoch days, inclusive
+     *
+     * @param fromEpochDay the first epoch day of the range
+     * @param toEpochDay   the last epoch day of the range
+     * @return the number of weekdays in the range, or 0 if the range is empty
+     */
+    public static long countWeekdays(long fromEpochDay, long toEpochDay) {
+        if (toEpochDay < fromEpochDay) {
+            return 0;
+        }
+        return weekdaysBefore(toEpochDay + 1) - weekdaysBefore(fromEpochDay);
+    }
+
+    /**
+     * Counts the weekend days (Saturday and Sunday) between two epoch days, inclusive
+     *
+     * @param fromEpochDay the first epoch day of the range
+     * @param toEpochDay   the last epoch day of the range
+     * @return the number of weekend days in the range, or 0 if the range is empty
+     */
+    public static long countWeekendDays(long fromEpochDay, long toEpochDay) {
+        if (toEpochDay < fromEpochDay) {
+            return 0;
+        }
+        return (toEpochDay - fromEpochDay + 1) - countWeekdays(fromEpochDay, toEpochDay);
+    }
+
+    /**
+     * Counts the weekdays before an epoch day, relative to the Monday on or before epoch day 0
+     *
+     * @param epochDay the exclusive upper bound
+     * @return the number of weekdays before the epoch day
+     */
+    private static long weekdaysBefore(long epochDay) {
+        long shifted = epochDay + MONDAY_OFFSET;
+        return WEEKDAYS_PER_WEEK * Math.floorDiv(shifted, 7) + Math.min(Math.floorMod(shifted, 7), WEEKDAYS_PER_WEEK);
+    }
+}
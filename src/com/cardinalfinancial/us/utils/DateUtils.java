@@ -2,18 +2,14 @@ package com.cardinalfinancial.us.utils;
 
 import com.cardinalfinancial.us.exception.CheckoutException;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Date;
-import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Utility class used to handle calculations for different types of dates and the number of specific types of days
+ * Utility class used to handle calculations for different types of dates and the number of specific types of days.
+ * Dates are parsed and formatted by hand over epoch days, so no formatter objects are created and nothing is shared
+ * between threads.
  *
  * @author Sylvia Barnai
  */
@@ -25,6 +21,99 @@ public class DateUtils {
      */
     private static final Logger LOGGER = Logger.getLogger(DateUtils.class.getName());
 
+    /**
+     * Result code of parseEpochDay() when the date string is null
+     */
+    public static final long PARSE_ERROR_NULL = -1;
+
+    /**
+     * Result code of parseEpochDay() when the date string is not in M/d/yy or MM/dd/yy format
+     */
+    public static final long PARSE_ERROR_FORMAT = -2;
+
+    /**
+     * Result code of parseEpochDay() when the month or day is out of range
+     */
+    public static final long PARSE_ERROR_RANGE = -3;
+
+    /**
+     * Two-digit years are read as years in the century starting at this year, like the "yy" pattern of DateTimeFormatter
+     */
+    private static final int BASE_YEAR = 2000;
+
+    /**
+     * Days from 0000-03-01 to 1970-01-01, used by the civil calendar conversions
+     */
+    private static final long DAYS_0000_03_01_TO_1970 = 719468L;
+
+    /**
+     * Days in a 400 year cycle of the Gregorian calendar
+     */
+    private static final long DAYS_PER_CYCLE = 146097L;
+
+    /**
+     * Parses a date string in M/d/yy or MM/dd/yy format into an epoch day without throwing exceptions.
+     * A day past the end of its month (such as 2/30/15) is moved back to the last day of the month.
+     * Since two-digit years are in 2000-2099, every valid date is a positive epoch day and every error code is negative.
+     *
+     * @param date the date string to be parsed
+     * @return the date as an epoch day, or PARSE_ERROR_NULL, PARSE_ERROR_FORMAT or PARSE_ERROR_RANGE
+     */
+    public static long parseEpochDay(CharSequence date) {
+        if (date == null) {
+            return PARSE_ERROR_NULL;
+        }
+        int length = date.length();
+        int position = 0;
+
+        // Month: one or two digits followed by '/'
+        int month = 0;
+        int start = position;
+        while (position < length && position - start < 2 && isDigit(date.charAt(position))) {
+            month = month * 10 + (date.charAt(position++) - '0');
+        }
+        if (position == start || position >= length || date.charAt(position++) != '/') {
+            return PARSE_ERROR_FORMAT;
+        }
+
+        // Day: one or two digits followed by '/'
+        int day = 0;
+        start = position;
+        while (position < length && position - start < 2 && isDigit(date.charAt(position))) {
+            day = day * 10 + (date.charAt(position++) - '0');
+        }
+        if (position == start || position >= length || date.charAt(position++) != '/') {
+            return PARSE_ERROR_FORMAT;
+        }
+
+        // Year: exactly two digits
+        if (length - position != 2 || !isDigit(date.charAt(position)) || !isDigit(date.charAt(position + 1))) {
+            return PARSE_ERROR_FORMAT;
+        }
+        int year = BASE_YEAR + (date.charAt(position) - '0') * 10 + (date.charAt(position + 1) - '0');
+
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return PARSE_ERROR_RANGE;
+        }
+        return toEpochDay(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    /**
+     * Parses a date string in M/d/yy or MM/dd/yy format into an epoch day
+     *
+     * @param date the date string to be parsed
+     * @return the date as an epoch day
+     * @throws CheckoutException if the date string cannot be parsed
+     */
+    public static long parseInputEpochDay(String date) {
+        long epochDay = parseEpochDay(date);
+        if (epochDay < 0) {
+            LOGGER.log(Level.WARNING, "Failed to parse date [" + date + "]");
+            throw new CheckoutException("Date is in invalid format");
+        }
+        return epochDay;
+    }
+
     /**
      * Converts the input date string to LocalDate
      *
@@ -32,46 +121,9 @@ public class DateUtils {
      * @return Date represented as LocalDate object
      */
     public static LocalDate parseInputDate(String date) {
-        LocalDate formattedDate = null;
-        try {
-            // Create two dateTimeFormatter objects to handle dates in M/d/yy and MM/dd/yy
-            DateTimeFormatter formatterSingleDigits = DateTimeFormatter.ofPattern("M/d/yy")
-                    .withLocale(Locale.US);
-            DateTimeFormatter formatterDoubleDigits = DateTimeFormatter.ofPattern("MM/dd/yy")
-                    .withLocale(Locale.US);
-
-            // Store DateTimeFormatter instances in an array
-            DateTimeFormatter[] formats = {formatterSingleDigits,
-                    formatterDoubleDigits};
-            boolean invalidFormat = false;
-
-            // Try parsing the date in each of the formats that are available and if it is unable to, set invalidFormat flag to true
-            for (DateTimeFormatter format : formats) {
-                try {
-                    formattedDate = LocalDate.parse(date, format);
-                    invalidFormat = false;
-                    break;
-                } catch (DateTimeParseException e) {
-                    invalidFormat = true;
-                    LOGGER.log(Level.WARNING, "Failed to parse date [" + date + "] with format [" + format + "]");
-                    throw new DateTimeParseException("Failed to parse date [" + date + "] with format [" + format + "]", date, 0);
-                }
-            }
-
-            if (invalidFormat) {
-                LOGGER.log(Level.WARNING, "Failed to parse date [" + date + "]");
-                throw new CheckoutException("Failed to parse date [" + date + "]");
-            }
-            return formattedDate;
-
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Date is in invalid format");
-            throw new CheckoutException("Date is in invalid format");
-
-        }
+        return LocalDate.ofEpochDay(parseInputEpochDay(date));
     }
 
-
     /**
      * Converts date string from M/d/yy to MM/dd/yy format for RentalAgreement output for date strings
      *
@@ -79,19 +131,12 @@ public class DateUtils {
      * @return date String in MM/dd/yy format
      */
     public static String convertDateToUSStandardFormat(String dateStr) {
-        SimpleDateFormat formatter = new SimpleDateFormat("MM/dd/yy");
-        Date date = null;
-        // Attempts to convert String to Date object and throws an exception if it fails to
-        try {
-            date = (Date) formatter.parse(dateStr);
-        } catch (ParseException e) {
+        long epochDay = parseEpochDay(dateStr);
+        if (epochDay < 0) {
             LOGGER.log(Level.WARNING, "Failed to parse date");
             throw new CheckoutException("Failed to parse date");
-        } catch (Exception e) {
-            LOGGER.log(Level.WARNING, "Failed to parse date due to invalid input");
-            throw new CheckoutException("Failed to parse date due to invalid input");
         }
-        return formatter.format(date);
+        return formatEpochDay(epochDay);
     }
 
     /**
@@ -101,36 +146,80 @@ public class DateUtils {
      * @return due date as a formatted string in MM/dd/yy format so that it is in the correct format for console output
      */
     public static String calculateDueDate(String checkoutDate, int numberOfDaysRented) {
-        LocalDate dueDate = null;
-        String formattedDate = "";
-        String convertedDate = "";
-
-        // Regex pattern for M/d/yy format
-        String dateRegex = "\\d{1}/\\d{2}/\\d{2}";
-
-        // If the date is in M/d/yy format, then convert it to MM/dd/yy, otherwise just set convertedDate to checkoutDate String
-        if (checkoutDate.matches(dateRegex)) {
-            convertedDate = DateUtils.convertDateToUSStandardFormat(checkoutDate);
-
-        } else {
-            convertedDate = checkoutDate;
-        }
-
-        try {
-            // Calculates the due date
-            dueDate = parseInputDate(convertedDate).plusDays(numberOfDaysRented);
-            // Converts dueDate to "MM/dd/yy" format for output
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd/yy");
-            formattedDate = dueDate.format(formatter);
-        } catch (Exception e) {
+        long checkoutEpochDay = parseEpochDay(checkoutDate);
+        if (checkoutEpochDay < 0) {
             LOGGER.log(Level.WARNING, "Invalid due date");
             throw new CheckoutException("Invalid due date");
-
         }
-        return formattedDate;
+        return formatEpochDay(checkoutEpochDay + numberOfDaysRented);
+    }
+
+    /**
+     * Formats an epoch day as a date string in MM/dd/yy format
+     *
+     * @param epochDay the date as an epoch day
+     * @return date String in MM/dd/yy format
+     */
+    public static String formatEpochDay(long epochDay) {
+        return appendEpochDay(new StringBuilder(8), epochDay).toString();
     }
 
+    /**
+     * Appends an epoch day to a StringBuilder in MM/dd/yy format
+     *
+     * @param builder  the StringBuilder to append to
+     * @param epochDay the date as an epoch day
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendEpochDay(StringBuilder builder, long epochDay) {
+        // Civil calendar conversion over 400 year cycles that start on March 1st
+        long days = epochDay + DAYS_0000_03_01_TO_1970;
+        long cycle = Math.floorDiv(days, DAYS_PER_CYCLE);
+        long dayOfCycle = days - cycle * DAYS_PER_CYCLE;
+        long yearOfCycle = (dayOfCycle - dayOfCycle / 1460 + dayOfCycle / 36524 - dayOfCycle / 146096) / 365;
+        long dayOfYear = dayOfCycle - (365 * yearOfCycle + yearOfCycle / 4 - yearOfCycle / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfCycle + cycle * 400 + (month <= 2 ? 1 : 0);
+        int twoDigitYear = (int) Math.floorMod(year, 100);
+
+        return builder.append((char) ('0' + month / 10)).append((char) ('0' + month % 10)).append('/')
+                .append((char) ('0' + day / 10)).append((char) ('0' + day % 10)).append('/')
+                .append((char) ('0' + twoDigitYear / 10)).append((char) ('0' + twoDigitYear % 10));
+    }
+
+    /**
+     * Converts a year, month and day to an epoch day without creating a LocalDate
+     *
+     * @param year  the year
+     * @param month the month, 1 to 12
+     * @param day   the day of the month
+     * @return the date as an epoch day
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        long shiftedYear = month <= 2 ? year - 1 : year;
+        long cycle = Math.floorDiv(shiftedYear, 400);
+        long yearOfCycle = shiftedYear - cycle * 400;
+        long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long dayOfCycle = yearOfCycle * 365 + yearOfCycle / 4 - yearOfCycle / 100 + dayOfYear;
+        return cycle * DAYS_PER_CYCLE + dayOfCycle - DAYS_0000_03_01_TO_1970;
+    }
 
+    /**
+     * Retrieves the number of days in a month
+     */
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
 
+    /**
+     * Determine whether a character is an ASCII digit
+     */
+    private static boolean isDigit(char character) {
+        return character >= '0' && character <= '9';
+    }
 }
-
@@ -0,0 +1,63 @@
+package com.cardinalfinancial.us.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utility class used to create the executors that run checkouts off the caller thread
+ *
+ * @author Sylvia Barnai
+ */
+public class ExecutorUtils {
+
+    /**
+     * Logger used to log errors for exceptions that occur within this class
+     */
+    private static final Logger LOGGER = Logger.getLogger(ExecutorUtils.class.getName());
+
+    /**
+     * Private constructor, this class only has static methods
+     */
+    private ExecutorUtils() {
+    }
+
+    /**
+     * Creates an executor that starts a new thread for each task. On a JDK with virtual threads (21 or later) the
+     * threads are virtual; on older JDKs the executor falls back to a cached pool of daemon platform threads.
+     *
+     * @param threadNamePrefix the name prefix of the platform threads used by the fallback pool
+     * @return a new ExecutorService
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        try {
+            // Looked up by reflection because the project is compiled for Java 8
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return Executors.newCachedThreadPool(newDaemonThreadFactory(threadNamePrefix));
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Unable to create virtual thread executor, falling back to platform threads");
+            return Executors.newCachedThreadPool(newDaemonThreadFactory(threadNamePrefix));
+        }
+    }
+
+    /**
+     * Creates a thread factory for numbered daemon threads
+     *
+     * @param threadNamePrefix the name prefix of the threads
+     * @return a new ThreadFactory
+     */
+    public static ThreadFactory newDaemonThreadFactory(String threadNamePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,14 +1,22 @@
 package com.cardinalfinancial.us.utils;
 
 import com.cardinalfinancial.us.exception.CheckoutException;
+import com.cardinalfinancial.us.model.Money;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.NumberFormat;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Utility class used for formatting currency and percentages
+ * Utility class used for formatting currency and percentages.
+ * The US currency symbols are read once from the JDK's currency format, and amounts are written digit by digit,
+ * so appending to a caller-supplied StringBuilder or Appendable does not allocate.
  *
  * @author Sylvia Barnai
  */
@@ -20,6 +28,58 @@ public class NumberFormatUtils {
      */
     private static final Logger LOGGER = Logger.getLogger(NumberFormatUtils.class.getName());
 
+    /**
+     * Text written before a positive or zero amount, "$" for US dollars
+     */
+    private static final String POSITIVE_PREFIX;
+
+    /**
+     * Text written after a positive or zero amount
+     */
+    private static final String POSITIVE_SUFFIX;
+
+    /**
+     * Text written before a negative amount
+     */
+    private static final String NEGATIVE_PREFIX;
+
+    /**
+     * Text written after a negative amount
+     */
+    private static final String NEGATIVE_SUFFIX;
+
+    /**
+     * Separator written between groups of thousands
+     */
+    private static final char GROUPING_SEPARATOR;
+
+    /**
+     * Separator written between dollars and cents
+     */
+    private static final char DECIMAL_SEPARATOR;
+
+    static {
+        // Cache the symbols of the US currency format so the output is the same as NumberFormat.getCurrencyInstance()
+        NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
+        if (currencyFormat instanceof DecimalFormat) {
+            DecimalFormat decimalFormat = (DecimalFormat) currencyFormat;
+            DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+            POSITIVE_PREFIX = decimalFormat.getPositivePrefix();
+            POSITIVE_SUFFIX = decimalFormat.getPositiveSuffix();
+            NEGATIVE_PREFIX = decimalFormat.getNegativePrefix();
+            NEGATIVE_SUFFIX = decimalFormat.getNegativeSuffix();
+            GROUPING_SEPARATOR = symbols.getGroupingSeparator();
+            DECIMAL_SEPARATOR = symbols.getMonetaryDecimalSeparator();
+        } else {
+            POSITIVE_PREFIX = "$";
+            POSITIVE_SUFFIX = "";
+            NEGATIVE_PREFIX = "-$";
+            NEGATIVE_SUFFIX = "";
+            GROUPING_SEPARATOR = ',';
+            DECIMAL_SEPARATOR = '.';
+        }
+    }
+
     /**
      * Format currency in US dollars, USD ($)
      *
@@ -28,21 +88,74 @@ public class NumberFormatUtils {
      */
 
     public static String formatDoubleCurrency(double dollarAmount) {
-        NumberFormat numberFormat = null;
+        long cents = toCents(dollarAmount);
+        if (cents == 0 && (dollarAmount < 0 || Double.doubleToRawLongBits(dollarAmount) == Long.MIN_VALUE)) {
+            // NumberFormat keeps the sign of a negative amount that rounds to zero
+            return NEGATIVE_PREFIX + '0' + DECIMAL_SEPARATOR + "00" + NEGATIVE_SUFFIX;
+        }
+        return formatCurrency(cents);
+    }
+
+    /**
+     * Format an amount of cents in US dollars, USD ($)
+     *
+     * @param cents The amount in cents
+     * @return dollar amount as a formatted String
+     */
+    public static String formatCurrency(long cents) {
+        return appendCurrency(new StringBuilder(16), cents).toString();
+    }
+
+    /**
+     * Format a Money amount in US dollars, USD ($)
+     *
+     * @param money The amount
+     * @return dollar amount as a formatted String
+     */
+    public static String formatCurrency(Money money) {
+        return formatCurrency(money.getCents());
+    }
+
+    /**
+     * Appends an amount of cents to a StringBuilder in US dollars, for example $1,234.56
+     *
+     * @param builder the StringBuilder to append to
+     * @param cents   the amount in cents
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendCurrency(StringBuilder builder, long cents) {
         try {
-            // set locale to US and format for dollar sign and digits:
-            Locale currentLocale = new Locale("en", "US");
-            // Returns a currency format for the current locale of US
-            numberFormat = NumberFormat.getCurrencyInstance(currentLocale);
-            // Sets maximum number of digits allowed in the fractional part of a number (displayed after the decimal)
-            numberFormat.setMaximumFractionDigits(2);
-            return numberFormat.format(dollarAmount);
-
-        } catch (Exception e) {
+            appendCurrency((Appendable) builder, cents);
+        } catch (IOException e) {
+            // StringBuilder never throws IOException
+            throw new CheckoutException("Invalid dollar amount", e);
+        }
+        return builder;
+    }
+
+    /**
+     * Appends an amount of cents to an Appendable in US dollars, for example $1,234.56
+     *
+     * @param appendable the Appendable to append to
+     * @param cents      the amount in cents
+     * @throws IOException if the Appendable fails
+     */
+    public static void appendCurrency(Appendable appendable, long cents) throws IOException {
+        if (cents == Long.MIN_VALUE) {
             LOGGER.log(Level.WARNING, "Invalid dollar amount");
             throw new CheckoutException("Invalid dollar amount");
-
         }
+        boolean negative = cents < 0;
+        long absoluteCents = negative ? -cents : cents;
+        long dollars = absoluteCents / 100;
+        int remainder = (int) (absoluteCents % 100);
+
+        appendable.append(negative ? NEGATIVE_PREFIX : POSITIVE_PREFIX);
+        appendGroupedDigits(appendable, dollars);
+        appendable.append(DECIMAL_SEPARATOR)
+                .append((char) ('0' + remainder / 10))
+                .append((char) ('0' + remainder % 10))
+                .append(negative ? NEGATIVE_SUFFIX : POSITIVE_SUFFIX);
     }
 
     /**
@@ -53,17 +166,85 @@ public class NumberFormatUtils {
      */
 
     public static String formatPercentage(int percentageAmount) {
-        String formattedPercentage = "";
-        // Try to format String by adding % symbol to the end of the String and throw 
-        // exception if percentageAmount that needs to be formatted is invalid
-        try {
-            formattedPercentage = String.format("%d%%", percentageAmount);
-        } catch (Exception e) {
+        return appendPercentage(new StringBuilder(5), percentageAmount).toString();
+    }
+
+    /**
+     * Appends a percentage to a StringBuilder, for example 10%
+     *
+     * @param builder          the StringBuilder to append to
+     * @param percentageAmount the percentage as an integer
+     * @return the StringBuilder
+     */
+    public static StringBuilder appendPercentage(StringBuilder builder, int percentageAmount) {
+        return builder.append(percentageAmount).append('%');
+    }
+
+    /**
+     * Appends a percentage to an Appendable, for example 10%
+     *
+     * @param appendable       the Appendable to append to
+     * @param percentageAmount the percentage as an integer
+     * @throws IOException if the Appendable fails
+     */
+    public static void appendPercentage(Appendable appendable, int percentageAmount) throws IOException {
+        long value = percentageAmount;
+        if (value < 0) {
+            appendable.append('-');
+            value = -value;
+        }
+        appendDigits(appendable, value, 1);
+        appendable.append('%');
+    }
+
+    /**
+     * Converts a dollar amount to cents, rounding half even like NumberFormat does.
+     * Only an amount that lands exactly on half a cent after scaling is rounded through BigDecimal, because the
+     * scaled double may hide which way the exact binary value rounds.
+     *
+     * @param dollarAmount The dollar amount as a double
+     * @return the amount in cents
+     */
+    public static long toCents(double dollarAmount) {
+        double scaled = dollarAmount * 100;
+        if (Double.isNaN(scaled) || Double.isInfinite(scaled) || Math.abs(scaled) >= Long.MAX_VALUE) {
             LOGGER.log(Level.WARNING, "Invalid dollar amount");
             throw new CheckoutException("Invalid dollar amount");
         }
-        return formattedPercentage;
+        if (scaled - Math.floor(scaled) == 0.5) {
+            return new BigDecimal(dollarAmount).setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+        }
+        return (long) Math.rint(scaled);
+    }
 
+    /**
+     * Appends a non-negative number with a grouping separator between every three digits
+     */
+    private static void appendGroupedDigits(Appendable appendable, long value) throws IOException {
+        if (value < 1000) {
+            appendDigits(appendable, value, 1);
+            return;
+        }
+        appendGroupedDigits(appendable, value / 1000);
+        appendable.append(GROUPING_SEPARATOR);
+        appendDigits(appendable, value % 1000, 3);
     }
 
+    /**
+     * Appends the digits of a non-negative number, padded with leading zeros to a minimum width
+     */
+    private static void appendDigits(Appendable appendable, long value, int minimumWidth) throws IOException {
+        long divisor = 1;
+        int width = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+            width++;
+        }
+        for (; width < minimumWidth; width++) {
+            appendable.append('0');
+        }
+        for (; divisor > 0; divisor /= 10) {
+            appendable.append((char) ('0' + (value / divisor) % 10));
+        }
+    }
 }